@@ -0,0 +1,645 @@
+package com.hapiware.util.cmdlineparser.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.Command;
+import com.hapiware.util.cmdlineparser.CommandExecutor;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CompiledParser;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.annotation.ArgumentDefinition;
+import com.hapiware.util.cmdlineparser.annotation.CommandDefinition;
+import com.hapiware.util.cmdlineparser.annotation.CommandLineDefinition;
+import com.hapiware.util.cmdlineparser.annotation.ConstraintDefinition;
+import com.hapiware.util.cmdlineparser.annotation.EnumerationRange;
+import com.hapiware.util.cmdlineparser.annotation.EnumerationValue;
+import com.hapiware.util.cmdlineparser.annotation.OptionDefinition;
+import com.hapiware.util.cmdlineparser.constraint.Enumeration;
+
+
+/**
+ * {@code DefinitionProcessor} generates a definition class for every class annotated with
+ * {@link CommandLineDefinition}. The generated class creates the {@link CommandLineParser} with
+ * straight-line builder calls, so that no anonymous classes are created for the command line
+ * elements and no annotations are read at runtime.
+ * <p>
+ * All the definition errors which can be found at compile time (e.g. default values which
+ * cannot be converted to the argument type) are reported as compile errors. The rest are
+ * reported as {@link com.hapiware.util.cmdlineparser.ConfigurationException}s when the parser
+ * is created.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+@SupportedAnnotationTypes({
+	"com.hapiware.util.cmdlineparser.annotation.CommandLineDefinition",
+	"com.hapiware.util.cmdlineparser.annotation.CommandDefinition",
+	"com.hapiware.util.cmdlineparser.annotation.OptionDefinition",
+	"com.hapiware.util.cmdlineparser.annotation.ArgumentDefinition",
+	"com.hapiware.util.cmdlineparser.annotation.ConstraintDefinition"
+})
+public class DefinitionProcessor
+	extends
+		AbstractProcessor
+{
+	/**
+	 * A suffix added to the binary name of the main class to get the name of the generated
+	 * definition class.
+	 */
+	public static final String SUFFIX = "$$Definition";
+
+	private static final String PARSER = CommandLineParser.class.getName();
+	private static final String COMPILED_PARSER = CompiledParser.class.getName();
+	private static final String DESCRIPTION = Description.class.getName();
+	private static final String OPTION = Option.class.getName();
+	private static final String OPTION_ARGUMENT = OptionArgument.class.getName();
+	private static final String ARGUMENT = Argument.class.getName();
+	private static final String COMMAND = Command.class.getName();
+	private static final String ENUMERATION = Enumeration.class.getName();
+
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+	{
+		checkPlacement(roundEnv);
+		for(TypeElement type : ElementFilter.typesIn(
+			roundEnv.getElementsAnnotatedWith(CommandLineDefinition.class)
+		)) {
+			String definitionName = processingEnv.getElementUtils().getBinaryName(type) + SUFFIX;
+			StringBuilder body = new StringBuilder();
+			if(!writeParser(body, type))
+				continue;
+			try {
+				generate(type, definitionName, body);
+			}
+			catch(IOException e) {
+				error(type, "Definition '" + definitionName + "' cannot be written. " + e.getMessage());
+			}
+		}
+		return true;
+	}
+
+	private void checkPlacement(RoundEnvironment roundEnv)
+	{
+		for(TypeElement command : ElementFilter.typesIn(
+			roundEnv.getElementsAnnotatedWith(CommandDefinition.class)
+		)) {
+			Element enclosing = command.getEnclosingElement();
+			if(
+				enclosing.getAnnotation(CommandLineDefinition.class) == null
+					|| !command.getModifiers().contains(Modifier.STATIC)
+			)
+				error(
+					command,
+					"@CommandDefinition must be on a static nested class of a class annotated "
+						+ "with @CommandLineDefinition."
+				);
+		}
+
+		List<Element> fields = new ArrayList<Element>();
+		fields.addAll(roundEnv.getElementsAnnotatedWith(OptionDefinition.class));
+		fields.addAll(roundEnv.getElementsAnnotatedWith(ArgumentDefinition.class));
+		fields.addAll(roundEnv.getElementsAnnotatedWith(ConstraintDefinition.class));
+		for(VariableElement field : ElementFilter.fieldsIn(fields)) {
+			Element enclosing = field.getEnclosingElement();
+			if(
+				enclosing.getAnnotation(CommandLineDefinition.class) == null
+					&& enclosing.getAnnotation(CommandDefinition.class) == null
+			)
+				error(
+					field,
+					"Command line definitions must be in a class annotated with "
+						+ "@CommandLineDefinition or @CommandDefinition."
+				);
+		}
+	}
+
+	private boolean writeParser(StringBuilder out, TypeElement type)
+	{
+		boolean valid = true;
+		String typeName = typeName(type.asType());
+		out.append("\t\t" + PARSER + " parser =\n");
+		out.append("\t\t\tnew " + PARSER + "(\n");
+		out.append("\t\t\t\t" + typeName + ".class,\n");
+		out.append("\t\t\t\tnew " + DESCRIPTION + "()");
+		writeDescription(out, type.getAnnotation(CommandLineDefinition.class).description(), 5);
+		out.append("\n\t\t\t);\n");
+
+		for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			if(!checkField(field))
+				valid = false;
+			else if(field.getAnnotation(OptionDefinition.class) != null) {
+				out.append("\t\tparser.add(\n");
+				valid &= writeOption(out, field, 3);
+				out.append("\n\t\t);\n");
+			}
+		}
+		boolean arguments = false;
+		for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			if(
+				field.getAnnotation(ArgumentDefinition.class) != null
+					&& field.getAnnotation(OptionDefinition.class) == null
+			) {
+				arguments = true;
+				out.append("\t\tparser.add(\n");
+				valid &= writeArgument(out, field, 3);
+				out.append("\n\t\t);\n");
+			}
+		}
+		for(TypeElement command : ElementFilter.typesIn(type.getEnclosedElements())) {
+			if(command.getAnnotation(CommandDefinition.class) != null) {
+				if(arguments) {
+					error(
+						command,
+						"Both bare command line arguments and commands cannot be used at the same "
+							+ "time. Use either one of them."
+					);
+					return false;
+				}
+				out.append("\t\tparser.add(\n");
+				valid &= writeCommand(out, command, 3);
+				out.append("\n\t\t);\n");
+			}
+		}
+		out.append("\t\treturn parser;\n");
+		return valid;
+	}
+
+	private boolean writeCommand(StringBuilder out, TypeElement command, int indent)
+	{
+		if(!command.getModifiers().contains(Modifier.STATIC))
+			return false;
+
+		CommandDefinition definition = command.getAnnotation(CommandDefinition.class);
+		String tabs = tabs(indent);
+		out.append(tabs + "new " + COMMAND + "(\n");
+		out.append(tabs + "\t" + Literals.quote(definition.name()) + ",\n");
+		out.append(tabs + "\t" + Literals.quote(definition.shortDescription()));
+		TypeMirror executor = processingEnv.getElementUtils().getTypeElement(
+			CommandExecutor.class.getName()
+		).asType();
+		boolean valid = true;
+		if(processingEnv.getTypeUtils().isAssignable(command.asType(), executor)) {
+			if(!hasDefaultConstructor(command)) {
+				error(
+					command,
+					"A command executor must have a non-private constructor without arguments."
+				);
+				valid = false;
+			}
+			out.append(",\n" + tabs + "\tnew " + typeName(command.asType()) + "()");
+		}
+		out.append("\n" + tabs + ")");
+		writeNames(out, definition.alternatives(), definition.id(), indent + 1);
+		writeDescription(out, definition.description(), indent + 1);
+
+		for(VariableElement field : ElementFilter.fieldsIn(command.getEnclosedElements())) {
+			if(!checkField(field))
+				valid = false;
+			else if(field.getAnnotation(OptionDefinition.class) != null) {
+				out.append("\n" + tabs + "\t.add(\n");
+				valid &= writeOption(out, field, indent + 2);
+				out.append("\n" + tabs + "\t)");
+			}
+		}
+		for(VariableElement field : ElementFilter.fieldsIn(command.getEnclosedElements())) {
+			if(
+				field.getAnnotation(ArgumentDefinition.class) != null
+					&& field.getAnnotation(OptionDefinition.class) == null
+			) {
+				out.append("\n" + tabs + "\t.add(\n");
+				valid &= writeArgument(out, field, indent + 2);
+				out.append("\n" + tabs + "\t)");
+			}
+		}
+		return valid;
+	}
+
+	private boolean writeOption(StringBuilder out, VariableElement field, int indent)
+	{
+		OptionDefinition definition = field.getAnnotation(OptionDefinition.class);
+		ConstraintDefinition constraints = field.getAnnotation(ConstraintDefinition.class);
+		String tabs = tabs(indent);
+		out.append(tabs + "new " + OPTION + "(" + Literals.quote(definition.name()) + ")");
+		writeNames(out, definition.alternatives(), definition.id(), indent + 1);
+		writeDescription(out, definition.description(), indent + 1);
+
+		TypeMirror fieldType = field.asType();
+		if(fieldType.getKind() == TypeKind.BOOLEAN) {
+			if(constraints != null || definition.optional().length() > 0) {
+				error(field, "An option without an argument cannot have constraints or a default value.");
+				return false;
+			}
+			return true;
+		}
+
+		boolean multiple = fieldType.getKind() == TypeKind.ARRAY;
+		TypeMirror valueType = boxed(multiple ? ((ArrayType)fieldType).getComponentType() : fieldType);
+		String valueTypeName = typeName(valueType);
+		out.append("\n" + tabs + "\t.set(\n");
+		out.append(tabs + "\t\t" + valueTypeName + ".class,\n");
+		out.append(tabs + "\t\tnew " + OPTION_ARGUMENT + "<" + valueTypeName + ">()");
+		boolean valid = writeArgumentSettings(out, field, valueType, definition.optional(), indent + 3);
+		out.append("\n" + tabs + "\t)");
+		if(multiple)
+			out.append("\n" + tabs + "\t.multiple()");
+		return valid;
+	}
+
+	private boolean writeArgument(StringBuilder out, VariableElement field, int indent)
+	{
+		ArgumentDefinition definition = field.getAnnotation(ArgumentDefinition.class);
+		Types types = processingEnv.getTypeUtils();
+		TypeMirror valueType;
+		boolean multiple;
+		try {
+			definition.multiple();
+			throw new IllegalStateException("Class values are not available at compile time.");
+		}
+		catch(MirroredTypeException e) {
+			valueType = e.getTypeMirror();
+		}
+		if(valueType.toString().equals(Void.class.getName())) {
+			multiple = false;
+			valueType = boxed(field.asType());
+			if(valueType.getKind() == TypeKind.ARRAY) {
+				error(field, "An argument cannot be an array. Use 'multiple' with an Iterable field.");
+				return false;
+			}
+		}
+		else {
+			multiple = true;
+			TypeMirror iterable =
+				types.erasure(
+					processingEnv.getElementUtils().getTypeElement(Iterable.class.getName()).asType()
+				);
+			if(!types.isAssignable(types.erasure(field.asType()), iterable)) {
+				error(field, "The field of a multiple argument must be an Iterable.");
+				return false;
+			}
+		}
+
+		String valueTypeName = typeName(valueType);
+		String tabs = tabs(indent);
+		out.append(tabs + valueTypeName + ".class,\n");
+		out.append(tabs + "new " + ARGUMENT + "<" + valueTypeName + ">(" + Literals.quote(definition.name()) + ")");
+		if(definition.id().length() > 0)
+			out.append("\n" + tabs + "\t.id(" + Literals.quote(definition.id()) + ")");
+		writeDescription(out, definition.description(), indent + 1);
+		if(multiple)
+			out.append("\n" + tabs + "\t.multiple()");
+		return writeArgumentSettings(out, field, valueType, definition.optional(), indent + 1);
+	}
+
+	private boolean writeArgumentSettings(
+		StringBuilder out,
+		VariableElement field,
+		TypeMirror valueType,
+		String defaultValue,
+		int indent
+	)
+	{
+		boolean valid = true;
+		String tabs = tabs(indent);
+		if(defaultValue.length() > 0) {
+			String value = valueLiteral(field, valueType, defaultValue);
+			valid &= value != null;
+			out.append("\n" + tabs + ".optional(" + value + ")");
+		}
+
+		ConstraintDefinition constraints = field.getAnnotation(ConstraintDefinition.class);
+		if(constraints == null)
+			return valid;
+		if(constraints.length() >= 0)
+			out.append("\n" + tabs + ".length(" + constraints.length() + ")");
+		if(constraints.minLength() >= 0)
+			out.append("\n" + tabs + ".minLength(" + constraints.minLength() + ")");
+		if(constraints.maxLength() >= 0)
+			out.append("\n" + tabs + ".maxLength(" + constraints.maxLength() + ")");
+		if(constraints.minValue().length() > 0) {
+			String value = valueLiteral(field, valueType, constraints.minValue());
+			valid &= value != null;
+			out.append("\n" + tabs + ".minValue(" + value + ")");
+		}
+		if(constraints.maxValue().length() > 0) {
+			String value = valueLiteral(field, valueType, constraints.maxValue());
+			valid &= value != null;
+			out.append("\n" + tabs + ".maxValue(" + value + ")");
+		}
+		if(
+			constraints.values().length > 0
+				|| constraints.includeRanges().length > 0
+				|| constraints.excludeRanges().length > 0
+		)
+			valid &= writeEnumeration(out, field, valueType, constraints, indent);
+		return valid;
+	}
+
+	private boolean writeEnumeration(
+		StringBuilder out,
+		VariableElement field,
+		TypeMirror valueType,
+		ConstraintDefinition constraints,
+		int indent
+	)
+	{
+		boolean valid = true;
+		String tabs = tabs(indent);
+		out.append("\n" + tabs + ".constraint(");
+		out.append("\n" + tabs + "\tnew " + ENUMERATION + "<" + typeName(valueType) + ">()");
+		for(EnumerationValue enumerationValue : constraints.values()) {
+			if(
+				enumerationValue.ignoreCase()
+					&& !typeName(valueType).equals(String.class.getName())
+			) {
+				error(field, "Only String values can ignore case.");
+				valid = false;
+			}
+			String value = valueLiteral(field, valueType, enumerationValue.value());
+			valid &= value != null;
+			String method = enumerationValue.ignoreCase() ? "valueIgnoreCase" : "value";
+			out.append(
+				"\n" + tabs + "\t\t." + method + "(" + value + ", "
+					+ Literals.quote(enumerationValue.description()) + ")"
+			);
+		}
+		valid &=
+			writeRanges(out, field, valueType, "includeRange", constraints.includeRanges(), indent);
+		valid &=
+			writeRanges(out, field, valueType, "excludeRange", constraints.excludeRanges(), indent);
+		out.append("\n" + tabs + ")");
+		return valid;
+	}
+
+	private boolean writeRanges(
+		StringBuilder out,
+		VariableElement field,
+		TypeMirror valueType,
+		String method,
+		EnumerationRange[] ranges,
+		int indent
+	)
+	{
+		boolean valid = true;
+		String tabs = tabs(indent);
+		for(EnumerationRange range : ranges) {
+			String lower = valueLiteral(field, valueType, range.lower());
+			String upper = valueLiteral(field, valueType, range.upper());
+			valid &= lower != null && upper != null;
+			out.append(
+				"\n" + tabs + "\t\t." + method + "(" + lower + ", " + upper + ", "
+					+ Literals.quote(range.description()) + ")"
+			);
+		}
+		return valid;
+	}
+
+	/**
+	 * Creates an expression which converts {@code value} to {@code valueType}. Values of JDK
+	 * types are converted already here to report illegal values at compile time.
+	 *
+	 * @return
+	 * 		The expression or {@code null} if the value cannot be converted (an error has been
+	 * 		reported).
+	 */
+	private String valueLiteral(VariableElement field, TypeMirror valueType, String value)
+	{
+		String typeName = typeName(valueType);
+		if(typeName.equals(String.class.getName()))
+			return Literals.quote(value);
+		if(valueType.getKind() != TypeKind.DECLARED) {
+			error(field, "'" + value + "' cannot be converted to " + typeName + " at compile time.");
+			return null;
+		}
+
+		TypeElement typeElement = (TypeElement)((DeclaredType)valueType).asElement();
+		if(typeElement.getKind() == ElementKind.ENUM) {
+			for(VariableElement constant : ElementFilter.fieldsIn(typeElement.getEnclosedElements()))
+				if(
+					constant.getKind() == ElementKind.ENUM_CONSTANT
+						&& constant.getSimpleName().contentEquals(value)
+				)
+					return typeName + "." + value;
+			error(field, "'" + value + "' is not a constant of " + typeName + ".");
+			return null;
+		}
+
+		String expression;
+		if(hasStaticValueOf(typeElement))
+			expression = typeName + ".valueOf(" + Literals.quote(value) + ")";
+		else if(hasStringConstructor(typeElement))
+			expression = "new " + typeName + "(" + Literals.quote(value) + ")";
+		else {
+			error(field, "'" + value + "' cannot be converted to " + typeName + " at compile time.");
+			return null;
+		}
+
+		if(typeName.startsWith("java.")) {
+			try {
+				Class<?> type = Class.forName(typeName);
+				if(hasStaticValueOf(typeElement))
+					type.getMethod("valueOf", String.class).invoke(null, value);
+				else
+					type.getConstructor(String.class).newInstance(value);
+			}
+			catch(InvocationTargetException e) {
+				error(field, "'" + value + "' cannot be interpreted as " + typeName + ".");
+				return null;
+			}
+			catch(Exception e) {
+				// The type is not available for the processor. The value is checked at runtime.
+			}
+		}
+		return expression;
+	}
+
+	private boolean checkField(VariableElement field)
+	{
+		if(
+			field.getAnnotation(OptionDefinition.class) != null
+				&& field.getAnnotation(ArgumentDefinition.class) != null
+		) {
+			error(field, "A field cannot define both an option and an argument.");
+			return false;
+		}
+		if(
+			field.getAnnotation(ConstraintDefinition.class) != null
+				&& field.getAnnotation(OptionDefinition.class) == null
+				&& field.getAnnotation(ArgumentDefinition.class) == null
+		) {
+			error(field, "@ConstraintDefinition requires @OptionDefinition or @ArgumentDefinition.");
+			return false;
+		}
+		return true;
+	}
+
+	private static boolean hasStaticValueOf(TypeElement type)
+	{
+		for(ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements()))
+			if(
+				method.getSimpleName().contentEquals("valueOf")
+					&& method.getModifiers().contains(Modifier.PUBLIC)
+					&& method.getModifiers().contains(Modifier.STATIC)
+					&& method.getParameters().size() == 1
+					&& method.getParameters().get(0).asType().toString().equals(String.class.getName())
+			)
+				return true;
+		return false;
+	}
+
+	private static boolean hasStringConstructor(TypeElement type)
+	{
+		for(ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements()))
+			if(
+				constructor.getModifiers().contains(Modifier.PUBLIC)
+					&& constructor.getParameters().size() == 1
+					&& constructor.getParameters().get(0).asType().toString().equals(
+						String.class.getName()
+					)
+			)
+				return true;
+		return false;
+	}
+
+	private static boolean hasDefaultConstructor(TypeElement type)
+	{
+		for(ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements()))
+			if(
+				!constructor.getModifiers().contains(Modifier.PRIVATE)
+					&& constructor.getParameters().isEmpty()
+			)
+				return true;
+		return false;
+	}
+
+	private TypeMirror boxed(TypeMirror type)
+	{
+		if(type.getKind().isPrimitive())
+			return
+				processingEnv.getTypeUtils().boxedClass(
+					processingEnv.getTypeUtils().getPrimitiveType(type.getKind())
+				).asType();
+		return type;
+	}
+
+	private String typeName(TypeMirror type)
+	{
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+
+	private static void writeNames(StringBuilder out, String[] alternatives, String id, int indent)
+	{
+		String tabs = tabs(indent);
+		if(alternatives.length > 0) {
+			out.append("\n" + tabs + ".alternatives(");
+			for(int i = 0; i < alternatives.length; i++)
+				out.append((i > 0 ? ", " : "") + Literals.quote(alternatives[i]));
+			out.append(")");
+		}
+		if(id.length() > 0)
+			out.append("\n" + tabs + ".id(" + Literals.quote(id) + ")");
+	}
+
+	private static void writeDescription(StringBuilder out, String[] paragraphs, int indent)
+	{
+		String tabs = tabs(indent);
+		for(int i = 0; i < paragraphs.length; i++) {
+			if(i > 0)
+				out.append("\n" + tabs + ".paragraph()");
+			out.append("\n" + tabs + ".description(" + Literals.quote(paragraphs[i]) + ")");
+		}
+	}
+
+	private void generate(TypeElement type, String definitionName, StringBuilder body)
+		throws
+			IOException
+	{
+		PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName =
+			packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+		String simpleName =
+			packageName.length() == 0 ?
+				definitionName :
+				definitionName.substring(packageName.length() + 1);
+
+		JavaFileObject file = processingEnv.getFiler().createSourceFile(definitionName, type);
+		PrintWriter out = new PrintWriter(file.openWriter());
+		try {
+			if(packageName.length() > 0) {
+				out.println("package " + packageName + ";");
+				out.println();
+			}
+			out.println("/**");
+			out.println(" * Creates the command line parser defined by {@link " + typeName(type.asType()) + "}.");
+			out.println(" * Generated by " + DefinitionProcessor.class.getName() + ". Do not edit.");
+			out.println(" */");
+			out.println("public final class " + simpleName);
+			out.println("{");
+			out.println("\tprivate " + simpleName + "()");
+			out.println("\t{");
+			out.println("\t}");
+			out.println();
+			out.println("\tpublic static " + PARSER + " createParser()");
+			out.println("\t{");
+			out.print(body);
+			out.println("\t}");
+			out.println();
+			out.println("\tpublic static " + COMPILED_PARSER + " compile()");
+			out.println("\t{");
+			out.println("\t\treturn createParser().compile();");
+			out.println("\t}");
+			out.println("}");
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private static String tabs(int count)
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < count; i++)
+			builder.append('\t');
+		return builder.toString();
+	}
+
+	private void error(Element element, String message)
+	{
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
@@ -0,0 +1,259 @@
+package com.hapiware.util.cmdlineparser.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import com.hapiware.util.cmdlineparser.GeneratedBinder;
+import com.hapiware.util.cmdlineparser.annotation.Id;
+
+
+/**
+ * {@code IdBinderProcessor} generates a companion binder class (see {@link GeneratedBinder}) for
+ * every class having {@link Id} annotated fields. The generated binder sets the fields with plain
+ * field writes and thus no reflection is needed when the command line parser sets the
+ * annotated fields.
+ * <p>
+ * The processor is found automatically when this module is in the compile time class path.
+ * Plain field writes are not possible for every field. The following ids are left to the
+ * reflection based binding of the command line parser (and a note is printed):
+ * 	<ul>
+ * 		<li>ids having a {@code private} or a {@code final} field</li>
+ * 		<li>ids which are used also by inherited public fields</li>
+ * 	</ul>
+ * No binder is generated for {@code private}, local or anonymous classes.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+@SupportedAnnotationTypes("com.hapiware.util.cmdlineparser.annotation.Id")
+public class IdBinderProcessor
+	extends
+		AbstractProcessor
+{
+	private final Set<String> _generated = new HashSet<String>();
+
+
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+	{
+		Map<TypeElement, List<VariableElement>> fieldsByType =
+			new LinkedHashMap<TypeElement, List<VariableElement>>();
+		Set<? extends Element> annotated = roundEnv.getElementsAnnotatedWith(Id.class);
+		for(VariableElement field : ElementFilter.fieldsIn(annotated)) {
+			TypeElement type = (TypeElement)field.getEnclosingElement();
+			List<VariableElement> fields = fieldsByType.get(type);
+			if(fields == null) {
+				fields = new ArrayList<VariableElement>();
+				fieldsByType.put(type, fields);
+			}
+			fields.add(field);
+		}
+
+		for(Map.Entry<TypeElement, List<VariableElement>> entry : fieldsByType.entrySet()) {
+			TypeElement type = entry.getKey();
+			String binderName =
+				processingEnv.getElementUtils().getBinaryName(type) + GeneratedBinder.SUFFIX;
+			if(!_generated.add(binderName))
+				continue;
+			if(!isAccessible(type)) {
+				note(type, "No binder is generated for a private, local or anonymous class.");
+				continue;
+			}
+			try {
+				generate(type, binderName, entry.getValue());
+			}
+			catch(IOException e) {
+				processingEnv.getMessager().printMessage(
+					Diagnostic.Kind.ERROR,
+					"Binder '" + binderName + "' cannot be written. " + e.getMessage(),
+					type
+				);
+			}
+		}
+
+		// Other processors may also use @Id.
+		return false;
+	}
+
+	private static boolean isAccessible(TypeElement type)
+	{
+		Element element = type;
+		while(element.getKind() != ElementKind.PACKAGE) {
+			if(element instanceof TypeElement) {
+				TypeElement typeElement = (TypeElement)element;
+				if(
+					typeElement.getModifiers().contains(Modifier.PRIVATE)
+						|| typeElement.getNestingKind() == NestingKind.LOCAL
+						|| typeElement.getNestingKind() == NestingKind.ANONYMOUS
+				)
+					return false;
+			}
+			element = element.getEnclosingElement();
+		}
+		return true;
+	}
+
+	private void generate(TypeElement type, String binderName, List<VariableElement> fields)
+		throws
+			IOException
+	{
+		Map<String, List<VariableElement>> fieldsById =
+			new LinkedHashMap<String, List<VariableElement>>();
+		for(VariableElement field : fields) {
+			String id = field.getAnnotation(Id.class).value();
+			List<VariableElement> idFields = fieldsById.get(id);
+			if(idFields == null) {
+				idFields = new ArrayList<VariableElement>();
+				fieldsById.put(id, idFields);
+			}
+			idFields.add(field);
+		}
+		Set<String> inheritedIds = inheritedPublicIds(type);
+
+		PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName =
+			packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+		String simpleName =
+			packageName.length() == 0 ? binderName : binderName.substring(packageName.length() + 1);
+		String typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+
+		JavaFileObject file = processingEnv.getFiler().createSourceFile(binderName, type);
+		PrintWriter out = new PrintWriter(file.openWriter());
+		try {
+			if(packageName.length() > 0) {
+				out.println("package " + packageName + ";");
+				out.println();
+			}
+			out.println("/**");
+			out.println(" * Sets the @Id annotated fields of {@link " + typeName + "}.");
+			out.println(" * Generated by " + IdBinderProcessor.class.getName() + ". Do not edit.");
+			out.println(" */");
+			out.println("public final class " + simpleName);
+			out.println("\textends");
+			out.println("\t\t" + GeneratedBinder.class.getName());
+			out.println("{");
+			out.println("\t@Override");
+			out.println("\t@SuppressWarnings(\"unchecked\")");
+			out.println("\tpublic boolean bind(Object target, Object value, String id)");
+			out.println("\t{");
+			for(Map.Entry<String, List<VariableElement>> entry : fieldsById.entrySet()) {
+				String id = entry.getKey();
+				if(inheritedIds.contains(id)) {
+					note(type, "'" + id + "' is set by reflection because of an inherited field.");
+					continue;
+				}
+				if(!writable(entry.getValue())) {
+					note(type, "'" + id + "' is set by reflection because of a private or final field.");
+					continue;
+				}
+				out.println("\t\tif(" + Literals.quote(id) + ".equals(id)) {");
+				for(VariableElement field : entry.getValue())
+					writeAssignment(out, typeName, field);
+				out.println("\t\t\treturn true;");
+				out.println("\t\t}");
+			}
+			out.println("\t\treturn false;");
+			out.println("\t}");
+			out.println("}");
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private Set<String> inheritedPublicIds(TypeElement type)
+	{
+		Set<String> ids = new HashSet<String>();
+		TypeMirror superclass = type.getSuperclass();
+		while(superclass.getKind() == TypeKind.DECLARED) {
+			TypeElement superType = (TypeElement)((DeclaredType)superclass).asElement();
+			for(VariableElement field : ElementFilter.fieldsIn(superType.getEnclosedElements())) {
+				Id id = field.getAnnotation(Id.class);
+				if(id != null && field.getModifiers().contains(Modifier.PUBLIC))
+					ids.add(id.value());
+			}
+			superclass = superType.getSuperclass();
+		}
+		return ids;
+	}
+
+	private static boolean writable(List<VariableElement> fields)
+	{
+		for(VariableElement field : fields)
+			if(
+				field.getModifiers().contains(Modifier.PRIVATE)
+					|| field.getModifiers().contains(Modifier.FINAL)
+			)
+				return false;
+		return true;
+	}
+
+	private void writeAssignment(PrintWriter out, String typeName, VariableElement field)
+	{
+		String target =
+			field.getModifiers().contains(Modifier.STATIC) ?
+				typeName + "." + field.getSimpleName() :
+				"((" + typeName + ")target)." + field.getSimpleName();
+		TypeMirror fieldType = processingEnv.getTypeUtils().erasure(field.asType());
+		if(fieldType.getKind() == TypeKind.ARRAY) {
+			TypeMirror componentType = ((ArrayType)fieldType).getComponentType();
+			out.println("\t\t\t{");
+			out.println("\t\t\t\tObject array = arrayValue(value, " + componentType + ".class);");
+			out.println("\t\t\t\tif(array != null)");
+			out.println("\t\t\t\t\t" + target + " = (" + fieldType + ")array;");
+			out.println("\t\t\t}");
+		}
+		else if(fieldType.getKind() == TypeKind.BOOLEAN || fieldType.getKind() == TypeKind.CHAR) {
+			String boxedType =
+				processingEnv.getTypeUtils().boxedClass(
+					processingEnv.getTypeUtils().getPrimitiveType(fieldType.getKind())
+				).getQualifiedName().toString();
+			out.println("\t\t\t" + target + " = (" + boxedType + ")value;");
+		}
+		else if(fieldType.getKind().isPrimitive()) {
+			// The value type depends on the argument definition (e.g. an Integer argument for
+			// a long field) and thus numbers are converted like reflection widens them.
+			out.println(
+				"\t\t\t" + target + " = ((java.lang.Number)value)." + fieldType + "Value();"
+			);
+		}
+		else
+			out.println("\t\t\t" + target + " = (" + fieldType + ")value;");
+	}
+
+	private void note(Element element, String message)
+	{
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+	}
+}
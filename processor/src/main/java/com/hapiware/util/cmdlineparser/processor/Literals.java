@@ -0,0 +1,69 @@
+package com.hapiware.util.cmdlineparser.processor;
+
+/**
+ * {@code Literals} writes Java string literals for the generated sources.
+ * <p>
+ * Control characters cannot be written as unicode escapes because the compiler translates
+ * unicode escapes before anything else and thus, for example, an escaped line feed would end
+ * the line in the middle of the literal. Control characters are written as escape sequences
+ * ({@code \n}, {@code \r}, {@code \t}, etc.) or as three digit octal escapes instead. Other
+ * non-ASCII characters are written as unicode escapes so that the generated sources do not
+ * depend on the source encoding.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+final class Literals
+{
+	private Literals()
+	{
+		// Only static methods.
+	}
+
+
+	/**
+	 * Returns {@code value} as a quoted Java string literal.
+	 *
+	 * @param value
+	 * 		A string.
+	 *
+	 * @return
+	 * 		A string literal which can be written to a Java source file.
+	 */
+	static String quote(String value)
+	{
+		StringBuilder builder = new StringBuilder("\"");
+		for(int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch(c) {
+				case '"':
+				case '\\':
+					builder.append('\\').append(c);
+					break;
+				case '\b':
+					builder.append("\\b");
+					break;
+				case '\t':
+					builder.append("\\t");
+					break;
+				case '\n':
+					builder.append("\\n");
+					break;
+				case '\f':
+					builder.append("\\f");
+					break;
+				case '\r':
+					builder.append("\\r");
+					break;
+				default:
+					if(c < ' ')
+						builder.append(String.format("\\%03o", (int)c));
+					else if(c > '~')
+						builder.append(String.format("\\u%04x", (int)c));
+					else
+						builder.append(c);
+			}
+		}
+		return builder.append('"').toString();
+	}
+}
@@ -0,0 +1,169 @@
+package com.hapiware.util.cmdlineparser.processor;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CompiledParser;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseResult;
+import com.hapiware.util.cmdlineparser.constraint.Enumeration;
+
+
+public class DefinitionProcessorTest
+{
+	private static final String SPECIAL =
+		"Line\nbreak\r\ttab \"quoted\" \\ \u0001 \u00e4.";
+
+	private Class<?> _mainClass;
+	private Class<?> _definitionClass;
+
+
+	@BeforeClass
+	public void compile() throws Exception
+	{
+		ClassLoader loader =
+			new TestCompiler()
+				.source(
+					"definition.Main",
+					"package definition;\n"
+						+ "\n"
+						+ "import com.hapiware.util.cmdlineparser.annotation.*;\n"
+						+ "\n"
+						+ "@CommandLineDefinition(description = { \"Main description.\", "
+						+ Literals.quote(SPECIAL) + " })\n"
+						+ "public class Main\n"
+						+ "{\n"
+						+ "\t@OptionDefinition(name = \"v\", alternatives = \"verbose\", "
+						+ "description = \"Verbose.\")\n"
+						+ "\tstatic boolean _verbose;\n"
+						+ "\n"
+						+ "\t@OptionDefinition(name = \"n\", id = \"number\", "
+						+ "description = " + Literals.quote(SPECIAL) + ", optional = \"5\")\n"
+						+ "\t@ConstraintDefinition(minValue = \"1\")\n"
+						+ "\tstatic Integer _number;\n"
+						+ "\n"
+						+ "\t@OptionDefinition(name = \"l\", description = \"Level.\")\n"
+						+ "\t@ConstraintDefinition(values = {\n"
+						+ "\t\t@EnumerationValue(value = \"high\", description = \"High.\", "
+						+ "ignoreCase = true),\n"
+						+ "\t\t@EnumerationValue(value = \"low\", description = \"Low.\")\n"
+						+ "\t})\n"
+						+ "\tstatic String _level;\n"
+						+ "\n"
+						+ "\t@OptionDefinition(name = \"p\", description = \"Port.\")\n"
+						+ "\t@ConstraintDefinition(\n"
+						+ "\t\tincludeRanges = @EnumerationRange(lower = \"1\", upper = \"100\", "
+						+ "description = \"Low ports.\"),\n"
+						+ "\t\texcludeRanges = @EnumerationRange(lower = \"50\", upper = \"60\", "
+						+ "description = \"Reserved.\")\n"
+						+ "\t)\n"
+						+ "\tstatic Integer _port;\n"
+						+ "\n"
+						+ "\t@ArgumentDefinition(name = \"NAME\", description = \"Name.\", "
+						+ "optional = " + Literals.quote(SPECIAL) + ")\n"
+						+ "\tstatic String _name;\n"
+						+ "}\n"
+				)
+				.compile(new DefinitionProcessor());
+		_mainClass = loader.loadClass("definition.Main");
+		_definitionClass = loader.loadClass("definition.Main" + DefinitionProcessor.SUFFIX);
+	}
+
+	private CommandLineParser createGenerated() throws Exception
+	{
+		return (CommandLineParser)_definitionClass.getMethod("createParser").invoke(null);
+	}
+
+	private CommandLineParser createCode()
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				_mainClass,
+				new Description().description("Main description.").paragraph().description(SPECIAL)
+			);
+		p.add(new Option("v").alternatives("verbose").description("Verbose."));
+		p.add(
+			new Option("n")
+				.id("number")
+				.description(SPECIAL)
+				.set(Integer.class, new OptionArgument<Integer>().optional(5).minValue(1))
+		);
+		p.add(
+			new Option("l")
+				.description("Level.")
+				.set(
+					String.class,
+					new OptionArgument<String>().constraint(
+						new Enumeration<String>()
+							.valueIgnoreCase("high", "High.")
+							.value("low", "Low.")
+					)
+				)
+		);
+		p.add(
+			new Option("p")
+				.description("Port.")
+				.set(
+					Integer.class,
+					new OptionArgument<Integer>().constraint(
+						new Enumeration<Integer>()
+							.includeRange(1, 100, "Low ports.")
+							.excludeRange(50, 60, "Reserved.")
+					)
+				)
+		);
+		p.add(String.class, new Argument<String>("NAME").description("Name.").optional(SPECIAL));
+		return p;
+	}
+
+
+	@Test
+	public void sameHelp() throws Exception
+	{
+		PrintStream stdout = System.out;
+		ByteArrayOutputStream generated = new ByteArrayOutputStream();
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		try {
+			System.setOut(new PrintStream(generated, true));
+			createGenerated().printCompleteHelp();
+			System.setOut(new PrintStream(code, true));
+			createCode().printCompleteHelp();
+		}
+		finally {
+			System.setOut(stdout);
+		}
+		assertTrue(code.size() > 0);
+		assertEquals(generated.toString(), code.toString());
+	}
+
+	@Test
+	public void specialCharacters() throws Exception
+	{
+		ParseResult result = createGenerated().compile().parse(new String[] { "-n" });
+		assertEquals(result.getOptionValue("-n"), Integer.valueOf(5));
+		assertEquals(result.getArgumentValue("NAME"), SPECIAL);
+	}
+
+	@Test
+	public void enumeration() throws Exception
+	{
+		CompiledParser parser = createGenerated().compile();
+		ParseResult result = parser.parse(new String[] { "-l", "HIGH", "-p", "70" });
+		assertEquals(result.getOptionValue("-l"), "HIGH");
+		assertEquals(result.getOptionValue("-p"), Integer.valueOf(70));
+		assertFalse(parser.validate(new String[] { "-l", "LOW" }).isEmpty());
+		assertFalse(parser.validate(new String[] { "-p", "55" }).isEmpty());
+		assertFalse(parser.validate(new String[] { "-p", "101" }).isEmpty());
+	}
+}
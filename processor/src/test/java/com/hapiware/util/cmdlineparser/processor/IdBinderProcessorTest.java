@@ -0,0 +1,104 @@
+package com.hapiware.util.cmdlineparser.processor;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.GeneratedBinder;
+
+
+public class IdBinderProcessorTest
+{
+	private static final String SPECIAL_ID = "line\nbreak\r\t\"quoted\" \\ \u0001\u00e4";
+
+	private Class<?> _targetClass;
+	private GeneratedBinder _binder;
+
+
+	@BeforeClass
+	public void compile() throws Exception
+	{
+		ClassLoader loader =
+			new TestCompiler()
+				.source(
+					"binder.Target",
+					"package binder;\n"
+						+ "\n"
+						+ "import com.hapiware.util.cmdlineparser.annotation.Id;\n"
+						+ "\n"
+						+ "public class Target\n"
+						+ "{\n"
+						+ "\t@Id(\"count\") public int _count;\n"
+						+ "\t@Id(\"name\") String _name;\n"
+						+ "\t@Id(\"name\") public static String _staticName;\n"
+						+ "\t@Id(\"values\") public int[] _values;\n"
+						+ "\t@Id(\"wide\") public static long _wide;\n"
+						+ "\t@Id(\"ratio\") public double _ratio;\n"
+						+ "\t@Id(\"flag\") public boolean _flag;\n"
+						+ "\t@Id(" + Literals.quote(SPECIAL_ID) + ") public String _special;\n"
+						+ "\t@Id(\"hidden\") private String _hidden;\n"
+						+ "}\n"
+				)
+				.compile(new IdBinderProcessor());
+		_targetClass = loader.loadClass("binder.Target");
+		_binder =
+			(GeneratedBinder)loader.loadClass("binder.Target" + GeneratedBinder.SUFFIX).newInstance();
+	}
+
+
+	@Test
+	public void setsFields() throws Exception
+	{
+		Object target = _targetClass.newInstance();
+		assertTrue(_binder.bind(target, 5, "count"));
+		assertTrue(_binder.bind(target, "n", "name"));
+		assertTrue(_binder.bind(target, new Object[] { 1, 2 }, "values"));
+		assertEquals(_targetClass.getField("_count").get(target), 5);
+		Field name = _targetClass.getDeclaredField("_name");
+		name.setAccessible(true);
+		assertEquals(name.get(target), "n");
+		assertEquals(_targetClass.getField("_staticName").get(null), "n");
+		assertTrue(
+			Arrays.equals((int[])_targetClass.getField("_values").get(target), new int[] { 1, 2 })
+		);
+	}
+
+	@Test
+	public void widensNumbers() throws Exception
+	{
+		// E.g. an Argument<Integer> for a long field.
+		Object target = _targetClass.newInstance();
+		assertTrue(_binder.bind(target, Integer.valueOf(5), "wide"));
+		assertTrue(_binder.bind(target, Integer.valueOf(3), "ratio"));
+		assertTrue(_binder.bind(target, Boolean.TRUE, "flag"));
+		assertEquals(_targetClass.getField("_wide").get(null), Long.valueOf(5));
+		assertEquals(_targetClass.getField("_ratio").get(target), Double.valueOf(3));
+		assertEquals(_targetClass.getField("_flag").get(target), Boolean.TRUE);
+	}
+
+	@Test
+	public void specialCharactersInId() throws Exception
+	{
+		Object target = _targetClass.newInstance();
+		assertTrue(_binder.bind(target, "s", SPECIAL_ID));
+		assertEquals(_targetClass.getField("_special").get(target), "s");
+	}
+
+	@Test
+	public void privateFieldIsLeftToReflection() throws Exception
+	{
+		Object target = _targetClass.newInstance();
+		assertFalse(_binder.bind(target, "h", "hidden"));
+		assertFalse(_binder.bind(target, "u", "unknown"));
+		Field hidden = _targetClass.getDeclaredField("_hidden");
+		hidden.setAccessible(true);
+		assertNull(hidden.get(target));
+	}
+}
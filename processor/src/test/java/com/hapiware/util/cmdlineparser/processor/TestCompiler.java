@@ -0,0 +1,148 @@
+package com.hapiware.util.cmdlineparser.processor;
+
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+
+/**
+ * Compiles sources with a processor and loads the compiled (and the generated) classes. The
+ * classes are loaded from a jar having {@code Implementation-Title} and
+ * {@code Implementation-Version} in its manifest because {@code CommandLineParser} requires
+ * them.
+ */
+class TestCompiler
+{
+	private final File _directory;
+	private final List<File> _sources = new ArrayList<File>();
+
+
+	TestCompiler() throws IOException
+	{
+		_directory = File.createTempFile("processor", "");
+		_directory.delete();
+		_directory.mkdirs();
+	}
+
+
+	TestCompiler source(String className, String source) throws IOException
+	{
+		File file = new File(_directory, "src/" + className.replace('.', '/') + ".java");
+		file.getParentFile().mkdirs();
+		Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			out.write(source);
+		}
+		finally {
+			out.close();
+		}
+		_sources.add(file);
+		return this;
+	}
+
+	ClassLoader compile(Processor processor) throws IOException
+	{
+		File classes = new File(_directory, "classes");
+		classes.mkdirs();
+		File generated = new File(_directory, "generated");
+		generated.mkdirs();
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+		try {
+			JavaCompiler.CompilationTask task =
+				compiler.getTask(
+					null,
+					fileManager,
+					diagnostics,
+					Arrays.asList(
+						"-encoding", "UTF-8",
+						"-classpath", System.getProperty("java.class.path"),
+						"-d", classes.getPath(),
+						"-s", generated.getPath()
+					),
+					null,
+					fileManager.getJavaFileObjectsFromFiles(_sources)
+				);
+			task.setProcessors(Arrays.asList(processor));
+			if(!task.call()) {
+				StringBuilder errors = new StringBuilder();
+				for(Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+					errors.append(diagnostic).append('\n');
+				fail(errors.toString());
+			}
+		}
+		finally {
+			fileManager.close();
+		}
+		assertTrue(generated.list().length > 0, "Nothing was generated.");
+
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.put(Attributes.Name.IMPLEMENTATION_TITLE, "processor-test");
+		attributes.put(Attributes.Name.IMPLEMENTATION_VERSION, "1.0.0-for-testing");
+		File jar = new File(_directory, "classes.jar");
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), manifest);
+		try {
+			addEntries(out, classes, "");
+		}
+		finally {
+			out.close();
+		}
+		return
+			new URLClassLoader(
+				new URL[] { jar.toURI().toURL() },
+				TestCompiler.class.getClassLoader()
+			);
+	}
+
+	private static void addEntries(JarOutputStream out, File directory, String prefix)
+		throws
+			IOException
+	{
+		for(File file : directory.listFiles()) {
+			if(file.isDirectory()) {
+				out.putNextEntry(new JarEntry(prefix + file.getName() + "/"));
+				addEntries(out, file, prefix + file.getName() + "/");
+				continue;
+			}
+			out.putNextEntry(new JarEntry(prefix + file.getName()));
+			InputStream in = new FileInputStream(file);
+			try {
+				byte[] buffer = new byte[8192];
+				int length;
+				while((length = in.read(buffer)) > 0)
+					out.write(buffer, 0, length);
+			}
+			finally {
+				in.close();
+			}
+		}
+	}
+}
@@ -1,9 +1,13 @@
 package com.hapiware.util.cmdlineparser;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import com.hapiware.util.cmdlineparser.constraint.Constraint;
 import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
@@ -36,11 +40,17 @@ public class Argument<T>
 	private boolean _hasEnumConstraint = false;
 	private boolean _showDefaultValueDescription = true;
 	private T _defaultForOptional = null;
+	private boolean _multiple = false;
+	private boolean _standardInput = false;
+	private boolean _nulSeparated = false;
 	
 	private Argument(Argument<T> argument)
 	{
 		_argument = new ElementBase(argument._argument);
 		_defaultForOptional = argument._defaultForOptional;
+		_multiple = argument._multiple;
+		_standardInput = argument._standardInput;
+		_nulSeparated = argument._nulSeparated;
 		_showDefaultValueDescription = argument._showDefaultValueDescription;
 		_constraints.addAll(argument._constraints);
 	}
@@ -201,6 +211,58 @@ public class Argument<T>
 		return this;
 	}
 	
+	/**
+	 * Sets the argument to take all the remaining values from the command line (e.g. a list of
+	 * files). A multiple argument must be the last argument and it needs at least one value
+	 * unless it is also optional. If an optional multiple argument does not have any values its
+	 * only value is the default value.
+	 * <p>
+	 * The values are not converted during parsing. Instead, they are converted and the
+	 * constraints are checked one by one when the values are iterated (see
+	 * {@link Argument.Data#getValues()}). Thus the processing of the first value can start before
+	 * the rest of the values are converted. Conversion errors are reported by throwing
+	 * {@link LazyConversionException} from the iterator.
+	 * <p>
+	 * A field annotated for a multiple argument must be an {@link Iterable}.
+	 * 
+	 * @return
+	 * 		The argument object for chaining.
+	 */
+	public Argument<T> multiple()
+	{
+		_multiple = true;
+		return this;
+	}
+	
+	/**
+	 * Sets the argument to be a multiple argument (see {@link #multiple()}) which reads its
+	 * values from the standard input if there are no values on the command line. Options are
+	 * still read from the command line. This makes it possible to feed huge amounts of values
+	 * from a pipe, for example:
+	 * <p>
+	 * <code>find . -name "*.txt" -print0 | java -jar util.jar --verbose</code>
+	 * <p>
+	 * The standard input is read only when the values are iterated (see
+	 * {@link Argument.Data#getValues()}). Only the first value is read while parsing to check
+	 * that a mandatory argument has a value. Thus the reading is paced by the consumer and only
+	 * a small buffer is held in memory. Notice that values from the standard input can be
+	 * iterated only once.
+	 * 
+	 * @param nulSeparated
+	 * 		{@code true} if the values are separated by NUL characters (e.g. {@code find -print0}).
+	 * 		{@code false} if the values are separated by newlines.
+	 * 
+	 * @return
+	 * 		The argument object for chaining.
+	 */
+	public Argument<T> standardInput(boolean nulSeparated)
+	{
+		multiple();
+		_standardInput = true;
+		_nulSeparated = nulSeparated;
+		return this;
+	}
+	
 	/**
 	 * Sets the constraint for the argument.
 	 * 
@@ -222,7 +284,7 @@ public class Argument<T>
 				);
 		if(constraint instanceof Enumeration<?>)
 			_hasEnumConstraint = true;
-		if(constraint.description() == null || constraint.description().toParagraphs().size() == 0)
+		if(constraint.description() == null || !constraint.description().hasText())
 			throw new ConfigurationException("A missing constraint description" + forName + ".");
 		
 		_constraints.add(constraint);
@@ -331,35 +393,422 @@ public class Argument<T>
 		extends
 			DataBase
 	{
-		private final T _value;
+		private T _value;
 		private final boolean _optional;
+		private final boolean _multiple;
+		
+		// Values of primitive types (see Internal#primitive()) are stored without boxing.
+		// Booleans are stored as 0 or 1.
+		private final int _primitive;
+		private long _long;
+		private double _double;
+		
+		// For lazy conversion. null when the value has been converted.
+		private volatile Internal<T> _unconverted;
+		private final String _rawValue;
+		
+		// For multiple arguments. null for single values.
+		private final Internal<T> _multipleInternal;
+		private final String[] _rawValues;
+		
+		// For multiple arguments read from the standard input. null otherwise.
+		private DelimitedInput _input;
 		
 		/**
-		 * "Copy" constructs a data object from the internal argument object.
+		 * Constructs a data object for a value parsed by the internal argument object.
 		 * 
 		 * @param internal
 		 * 		The internal argument object.
+		 * 
+		 * @param name
+		 * 		A name for the data object. For option arguments this is the option name
+		 * 		found from the command line.
+		 * 
+		 * @param value
+		 * 		The parsed value.
 		 */
-		Data(Internal<T> internal)
+		Data(Internal<T> internal, String name, T value)
 		{
 			// Arguments do not have alternatives and thus an empty set is a proper value. 
-			super(internal.name(), internal.id(), new HashSet<String>());
-			_value = internal.value();
+			super(name, internal.id(), new HashSet<String>());
+			_value = value;
+			_optional = internal.optional();
+			_multiple = internal.multiple();
+			_primitive = internal.primitive();
+			if(_primitive == Internal.DOUBLE)
+				_double = ((Number)value).doubleValue();
+			else if(_primitive == Internal.BOOLEAN)
+				_long = ((Boolean)value).booleanValue() ? 1 : 0;
+			else if(_primitive != Internal.OBJECT)
+				_long = ((Number)value).longValue();
+			_unconverted = null;
+			_rawValue = null;
+			_multipleInternal = null;
+			_rawValues = null;
+		}
+
+		/**
+		 * Constructs a data object for a parsed {@link Integer}, {@link Long} or
+		 * {@link Boolean} value without boxing it.
+		 * 
+		 * @param internal
+		 * 		The internal argument object.
+		 * 
+		 * @param name
+		 * 		A name for the data object.
+		 * 
+		 * @param value
+		 * 		The parsed value. Booleans are either 0 or 1.
+		 */
+		Data(Internal<T> internal, String name, long value)
+		{
+			super(name, internal.id(), new HashSet<String>());
+			assert internal.primitive() != Internal.OBJECT && internal.primitive() != Internal.DOUBLE;
 			_optional = internal.optional();
+			_multiple = internal.multiple();
+			_primitive = internal.primitive();
+			_long = value;
+			_unconverted = null;
+			_rawValue = null;
+			_multipleInternal = null;
+			_rawValues = null;
 		}
 
 		/**
-		 * Returns the argument value.
+		 * Constructs a data object for a parsed {@link Double} value without boxing it.
+		 * 
+		 * @param internal
+		 * 		The internal argument object.
+		 * 
+		 * @param name
+		 * 		A name for the data object.
+		 * 
+		 * @param value
+		 * 		The parsed value.
+		 */
+		Data(Internal<T> internal, String name, double value)
+		{
+			super(name, internal.id(), new HashSet<String>());
+			assert internal.primitive() == Internal.DOUBLE;
+			_optional = internal.optional();
+			_multiple = internal.multiple();
+			_primitive = internal.primitive();
+			_double = value;
+			_unconverted = null;
+			_rawValue = null;
+			_multipleInternal = null;
+			_rawValues = null;
+		}
+
+		/**
+		 * Constructs a data object for an unconverted value. The value is converted and the
+		 * constraints are checked when the value is read for the first time.
+		 * 
+		 * @param internal
+		 * 		The internal argument object used for the conversion.
+		 * 
+		 * @param name
+		 * 		A name for the data object. For option arguments this is the option name
+		 * 		found from the command line.
+		 * 
+		 * @param rawValue
+		 * 		The value as it was on the command line.
+		 */
+		Data(Internal<T> internal, String name, String rawValue)
+		{
+			super(name, internal.id(), new HashSet<String>());
+			_optional = internal.optional();
+			_multiple = internal.multiple();
+			_primitive = internal.primitive();
+			_unconverted = internal;
+			_rawValue = rawValue;
+			_multipleInternal = null;
+			_rawValues = null;
+		}
+
+		/**
+		 * Constructs a data object for the unconverted values of a multiple argument. The values
+		 * are converted and the constraints are checked while iterating them.
+		 * 
+		 * @param internal
+		 * 		The internal argument object used for the conversion.
+		 * 
+		 * @param name
+		 * 		A name for the data object.
+		 * 
+		 * @param rawValues
+		 * 		The values as they were on the command line. Must have at least one value.
+		 */
+		Data(Internal<T> internal, String name, String[] rawValues)
+		{
+			super(name, internal.id(), new HashSet<String>());
+			assert rawValues.length > 0;
+			_optional = internal.optional();
+			_multiple = internal.multiple();
+			_primitive = internal.primitive();
+			_unconverted = internal;
+			_rawValue = rawValues[0];
+			_multipleInternal = internal;
+			_rawValues = rawValues;
+		}
+
+		/**
+		 * Constructs a data object for the unconverted values of a multiple argument read from
+		 * a stream. The values are read, converted and checked while iterating them.
+		 * 
+		 * @param internal
+		 * 		The internal argument object used for the conversion.
+		 * 
+		 * @param name
+		 * 		A name for the data object.
+		 * 
+		 * @param firstRawValue
+		 * 		The first value already read from {@code input}.
+		 * 
+		 * @param input
+		 * 		The input for the rest of the values.
+		 */
+		Data(Internal<T> internal, String name, String firstRawValue, DelimitedInput input)
+		{
+			super(name, internal.id(), new HashSet<String>());
+			_optional = internal.optional();
+			_multiple = internal.multiple();
+			_primitive = internal.primitive();
+			_unconverted = internal;
+			_rawValue = firstRawValue;
+			_multipleInternal = internal;
+			_rawValues = null;
+			_input = input;
+		}
+
+		/**
+		 * Returns the argument value. If the value was parsed with lazy conversion then it is
+		 * converted (and the constraints are checked) on the first call. For a multiple argument
+		 * this is the first value (see {@link #getValues()}).
 		 * 
 		 * @return
 		 * 		The value from the command line.
+		 * 
+		 * @throws LazyConversionException
+		 * 		If the lazily converted value cannot be converted or it violates a constraint.
 		 */
 		public T getValue()
 		{
+			if(_unconverted != null)
+				convert();
+			if(_value == null)
+				// A primitive value is boxed only when asked. Boxing twice by concurrent threads
+				// is harmless.
+				_value = box();
 			return _value;
 		}
 		
+		/**
+		 * Returns the value of an {@link Integer} argument without boxing it. For other
+		 * {@link Number} types except {@link Long} and {@link Double} the value is converted
+		 * with {@link Number#intValue()}.
+		 * 
+		 * @return
+		 * 		The value from the command line.
+		 * 
+		 * @throws ClassCastException
+		 * 		If the argument is not a proper number.
+		 * 
+		 * @throws LazyConversionException
+		 * 		If the lazily converted value cannot be converted or it violates a constraint.
+		 */
+		public int getInt()
+		{
+			if(_unconverted != null)
+				convert();
+			if(_primitive == Internal.INT)
+				return (int)_long;
+			if(_primitive != Internal.OBJECT)
+				throw new ClassCastException("'" + getName() + "' is not an int value.");
+			return ((Number)getValue()).intValue();
+		}
+		
+		/**
+		 * Returns the value of a {@link Long} or an {@link Integer} argument without boxing it.
+		 * For other {@link Number} types except {@link Double} the value is converted with
+		 * {@link Number#longValue()}.
+		 * 
+		 * @return
+		 * 		The value from the command line.
+		 * 
+		 * @throws ClassCastException
+		 * 		If the argument is not a proper number.
+		 * 
+		 * @throws LazyConversionException
+		 * 		If the lazily converted value cannot be converted or it violates a constraint.
+		 */
+		public long getLong()
+		{
+			if(_unconverted != null)
+				convert();
+			if(_primitive == Internal.INT || _primitive == Internal.LONG)
+				return _long;
+			if(_primitive != Internal.OBJECT)
+				throw new ClassCastException("'" + getName() + "' is not a long value.");
+			return ((Number)getValue()).longValue();
+		}
+		
+		/**
+		 * Returns the value of a {@link Double}, {@link Long} or an {@link Integer} argument
+		 * without boxing it. For other {@link Number} types the value is converted with
+		 * {@link Number#doubleValue()}.
+		 * 
+		 * @return
+		 * 		The value from the command line.
+		 * 
+		 * @throws ClassCastException
+		 * 		If the argument is not a number.
+		 * 
+		 * @throws LazyConversionException
+		 * 		If the lazily converted value cannot be converted or it violates a constraint.
+		 */
+		public double getDouble()
+		{
+			if(_unconverted != null)
+				convert();
+			if(_primitive == Internal.DOUBLE)
+				return _double;
+			if(_primitive == Internal.INT || _primitive == Internal.LONG)
+				return _long;
+			if(_primitive != Internal.OBJECT)
+				throw new ClassCastException("'" + getName() + "' is not a double value.");
+			return ((Number)getValue()).doubleValue();
+		}
+		
+		/**
+		 * Returns the value of a {@link Boolean} argument without boxing it.
+		 * 
+		 * @return
+		 * 		The value from the command line.
+		 * 
+		 * @throws ClassCastException
+		 * 		If the argument is not a {@link Boolean}.
+		 * 
+		 * @throws LazyConversionException
+		 * 		If the lazily converted value cannot be converted or it violates a constraint.
+		 */
+		public boolean getBoolean()
+		{
+			if(_unconverted != null)
+				convert();
+			if(_primitive != Internal.BOOLEAN)
+				throw new ClassCastException("'" + getName() + "' is not a boolean value.");
+			return _long != 0;
+		}
+		
+		@SuppressWarnings("unchecked")
+		private T box()
+		{
+			switch(_primitive) {
+				case Internal.INT:
+					return (T)Integer.valueOf((int)_long);
+				case Internal.LONG:
+					return (T)Long.valueOf(_long);
+				case Internal.DOUBLE:
+					return (T)Double.valueOf(_double);
+				case Internal.BOOLEAN:
+					return (T)Boolean.valueOf(_long != 0);
+				default:
+					return null;
+			}
+		}
+		
+		private synchronized void convert()
+		{
+			if(_unconverted == null)
+				return;
+			
+			try {
+				switch(_primitive) {
+					case Internal.OBJECT:
+						_value = _unconverted.convert(_rawValue, getName());
+						break;
+					case Internal.DOUBLE:
+						_double = _unconverted.convertDouble(_rawValue, getName());
+						break;
+					case Internal.BOOLEAN:
+						_long = _unconverted.convertBoolean(_rawValue, getName()) ? 1 : 0;
+						break;
+					default:
+						_long = _unconverted.convertLong(_rawValue, getName());
+				}
+				_unconverted = null;
+			}
+			catch(ConstraintException e) {
+				throw new LazyConversionException(e);
+			}
+			catch(IllegalCommandLineArgumentException e) {
+				throw new LazyConversionException(e);
+			}
+		}
+		
 
+		/**
+		 * Returns the argument values. For a multiple argument (see {@link Argument#multiple()})
+		 * the returned {@link Iterable} converts and checks the values one by one while iterated.
+		 * Converted values are not stored and thus every iteration converts the values again.
+		 * Values read from the standard input (see {@link Argument#standardInput(boolean)}) can
+		 * be iterated only once. For other arguments the only value is {@link #getValue()}.
+		 * 
+		 * @return
+		 * 		The values from the command line.
+		 * 
+		 * @throws LazyConversionException
+		 * 		From the iterator if a value cannot be read, converted or it violates
+		 * 		a constraint.
+		 * 
+		 * @throws IllegalStateException
+		 * 		If values read from the standard input are iterated more than once.
+		 */
+		public Iterable<T> getValues()
+		{
+			if(_multipleInternal == null)
+				return Collections.singletonList(getValue());
+			
+			return
+				new Iterable<T>()
+				{
+					public Iterator<T> iterator()
+					{
+						if(_rawValues != null)
+							return new ValueIterator();
+						else
+							return new InputIterator(takeInput());
+					}
+				};
+		}
+		
+		private synchronized DelimitedInput takeInput()
+		{
+			if(_input == null)
+				throw
+					new IllegalStateException(
+						"Values for '" + getName() + "' have already been read."
+					);
+			DelimitedInput input = _input;
+			_input = null;
+			return input;
+		}
+		
+		/**
+		 * Tells if the argument is a multiple argument or not.
+		 * 
+		 * @return
+		 * 		{@code true} if multiple, {@code false} otherwise.
+		 * 
+		 * @see Argument#multiple()
+		 */
+		public boolean isMultiple()
+		{
+			return _multiple;
+		}
+		
+		
 		/**
 		 * Tells if the argument is optional or not.
 		 * @return
@@ -390,31 +839,147 @@ public class Argument<T>
 			return
 				"{" + getName() + "(" + getId() + ") = " + getValue() + " (" + isOptional() + ")}";
 		}
+		
+		
+		private class ValueIterator
+			implements
+				Iterator<T>
+		{
+			private int _index = 0;
+			
+			public boolean hasNext()
+			{
+				return _index < _rawValues.length;
+			}
+			
+			public T next()
+			{
+				if(!hasNext())
+					throw new NoSuchElementException();
+				
+				try {
+					return _multipleInternal.convert(_rawValues[_index++], getName());
+				}
+				catch(ConstraintException e) {
+					throw new LazyConversionException(e);
+				}
+				catch(IllegalCommandLineArgumentException e) {
+					throw new LazyConversionException(e);
+				}
+			}
+			
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		}
+		
+		
+		private class InputIterator
+			implements
+				Iterator<T>
+		{
+			private final DelimitedInput _source;
+			private String _next;
+			
+			public InputIterator(DelimitedInput source)
+			{
+				_source = source;
+				_next = _rawValue;
+			}
+			
+			public boolean hasNext()
+			{
+				return _next != null;
+			}
+			
+			public T next()
+			{
+				if(!hasNext())
+					throw new NoSuchElementException();
+				
+				String rawValue = _next;
+				try {
+					_next = _source.next();
+					return _multipleInternal.convert(rawValue, getName());
+				}
+				catch(IOException e) {
+					_next = null;
+					String msg =
+						"Reading values for '" + getName() + "' failed. " + e.getMessage();
+					throw new LazyConversionException(new IllegalCommandLineArgumentException(msg, e));
+				}
+				catch(ConstraintException e) {
+					throw new LazyConversionException(e);
+				}
+				catch(IllegalCommandLineArgumentException e) {
+					throw new LazyConversionException(e);
+				}
+			}
+			
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		}
 	}
 	
 	
 	static final class Internal<T>
 		implements
-			Parser,
+			Parser<Data<T>>,
 			Cloneable
 	{
+		// Kinds of types which are parsed and stored without boxing (see primitive()).
+		static final int OBJECT = 0;
+		static final int INT = 1;
+		static final int LONG = 2;
+		static final int DOUBLE = 3;
+		static final int BOOLEAN = 4;
+		
 		private Argument<T> _outer;
 		private final Class<T> _argumentTypeClass;
-		private T _value;
+		private final int _primitive;
+		
+		private final ConstraintChain<T> _constraintChain;
+		private final Converter<T> _converter;
 		
 		public Internal(Argument<T> outer, Class<T> argumentTypeClass)
 		{
 			_outer = outer;
 			_argumentTypeClass = argumentTypeClass;
+			if(argumentTypeClass == Integer.class)
+				_primitive = INT;
+			else if(argumentTypeClass == Long.class)
+				_primitive = LONG;
+			else if(argumentTypeClass == Double.class)
+				_primitive = DOUBLE;
+			else if(argumentTypeClass == Boolean.class)
+				_primitive = BOOLEAN;
+			else
+				_primitive = OBJECT;
+			
+			_converter = Converters.get(argumentTypeClass);
+			if(_converter == null)
+				throw
+					new ConfigurationException(
+						"'" + argumentTypeClass.getName() + "' for '" + outer._argument.id()
+							+ "' cannot be converted from a command line value. "
+							+ "Use Converters.register() to register a converter."
+					);
+			
+			_constraintChain =
+				new ConstraintChain<T>(
+					outer._argument.id(),
+					argumentTypeClass,
+					_primitive,
+					outer._constraints
+				);
 		}
 		public String name()
 		{
 			return _outer._argument.name();
 		}
-		public void name(String name)
-		{
-			_outer._argument.name(name);
-		}
 		public String id()
 		{
 			return _outer._argument.id();
@@ -423,9 +988,9 @@ public class Argument<T>
 		{
 			return _outer._argument.description();
 		}
-		public T value()
+		public boolean hasDescription()
 		{
-			return _value;
+			return _outer._argument.hasDescription();
 		}
 		public List<Constraint<T>> constraints()
 		{
@@ -435,6 +1000,31 @@ public class Argument<T>
 		{
 			return _outer._defaultForOptional != null;
 		}
+		public Class<T> argumentType()
+		{
+			return _argumentTypeClass;
+		}
+		
+		/**
+		 * Returns the kind of the argument type. {@link Integer}, {@link Long}, {@link Double}
+		 * and {@link Boolean} values are parsed and stored without boxing.
+		 * 
+		 * @return
+		 * 		{@link #INT}, {@link #LONG}, {@link #DOUBLE}, {@link #BOOLEAN} or {@link #OBJECT}
+		 * 		for other types.
+		 */
+		int primitive()
+		{
+			return _primitive;
+		}
+		public boolean multiple()
+		{
+			return _outer._multiple;
+		}
+		public boolean standardInput()
+		{
+			return _outer._standardInput;
+		}
 		public String defaultValueAsString()
 		{
 			return _outer._defaultForOptional.toString();
@@ -453,42 +1043,466 @@ public class Argument<T>
 			else
 				return "";
 		}
-		public boolean parse(List<String> arguments)
+		public Data<T> parse(Tokens tokens)
 			throws
 				ConstraintException,
 				IllegalCommandLineArgumentException
 		{
-			if(arguments.size() == 0 || Util.checkOptionNaming(arguments.get(0)))
-				if(optional()) {
-					if(defaultValue() != null)
-						((LinkedList<String>)arguments).addFirst(defaultValue().toString());
-					else
-						return true;
-				}
+			return parse(tokens, name());
+		}
+		
+		/**
+		 * Parses the argument value and checks the constraints.
+		 * 
+		 * @param tokens
+		 * 		Tokens to be parsed. The value token is consumed.
+		 * 
+		 * @param dataName
+		 * 		A name for the created data object and constraint violation messages. For
+		 * 		option arguments this is the option name found from the command line.
+		 * 
+		 * @return
+		 * 		A new data object or {@code null} if a mandatory argument is missing.
+		 */
+		public Data<T> parse(Tokens tokens, String dataName)
+			throws
+				ConstraintException,
+				IllegalCommandLineArgumentException
+		{
+			if(!tokens.hasNext() || TokenClassifier.isOption(tokens.peekKind()))
+				if(optional())
+					return parseDefault(dataName);
 				else
-					return false;
+					return null;
 
-			value(_argumentTypeClass.cast(valueOf(arguments.get(0), _argumentTypeClass)));
-			arguments.remove(0);
-			return true;
+			if(tokens.lazyConversion())
+				return new Data<T>(this, dataName, tokens.next());
+			
+			switch(_primitive) {
+				case OBJECT:
+					T value = convert(tokens.peek(), dataName);
+					tokens.next();
+					return new Data<T>(this, dataName, value);
+				case DOUBLE:
+					double doubleValue = convertDouble(tokens.peek(), dataName);
+					tokens.next();
+					return new Data<T>(this, dataName, doubleValue);
+				case BOOLEAN:
+					long booleanValue = convertBoolean(tokens.peek(), dataName) ? 1 : 0;
+					tokens.next();
+					return new Data<T>(this, dataName, booleanValue);
+				default:
+					long longValue = convertLong(tokens.peek(), dataName);
+					tokens.next();
+					return new Data<T>(this, dataName, longValue);
+			}
+		}
+		
+		/**
+		 * Collects all the remaining values for a multiple argument. The values are converted
+		 * when they are iterated. If there are no values and the argument reads the standard
+		 * input then the first value is read from the standard input.
+		 * 
+		 * @param tokens
+		 * 		Tokens to be parsed. All the value tokens before the next option are consumed.
+		 * 
+		 * @return
+		 * 		A new data object, a data object having the default value if there were no values
+		 * 		for an optional argument or {@code null} if there were no values at all.
+		 */
+		public Data<T> parseMultiple(Tokens tokens)
+			throws
+				ConstraintException,
+				IllegalCommandLineArgumentException
+		{
+			int count = tokens.countValues();
+			if(count == 0 && standardInput() && tokens.standardInput()) {
+				DelimitedInput input =
+					new DelimitedInput(Channels.newChannel(System.in), _outer._nulSeparated);
+				String first;
+				try {
+					first = input.next();
+				}
+				catch(IOException e) {
+					String msg =
+						"Reading values for '" + name() + "' from the standard input failed. "
+							+ e.getMessage();
+					throw new IllegalCommandLineArgumentException(msg, e);
+				}
+				if(first != null)
+					return new Data<T>(this, name(), first, input);
+				if(!optional())
+					throw
+						new IllegalCommandLineArgumentException(
+							"Argument '" + name() + "' was not found from the command line "
+								+ "nor from the standard input."
+						);
+			}
+			if(count == 0)
+				if(optional())
+					return parseDefault(name());
+				else
+					return null;
+			
+			String[] rawValues = new String[count];
+			for(int i = 0; i < count; i++)
+				rawValues[i] = tokens.next();
+			return new Data<T>(this, name(), rawValues);
+		}
+		
+		/**
+		 * Converts a command line value to the argument type and checks the constraints.
+		 * 
+		 * @param valueAsString
+		 * 		The value as it was on the command line.
+		 * 
+		 * @param dataName
+		 * 		A name for constraint violation and conversion error messages.
+		 * 
+		 * @return
+		 * 		The converted value.
+		 */
+		T convert(String valueAsString, String dataName)
+			throws
+				ConstraintException,
+				IllegalCommandLineArgumentException
+		{
+			switch(_primitive) {
+				case INT:
+					return _argumentTypeClass.cast((int)convertLong(valueAsString, dataName));
+				case LONG:
+					return _argumentTypeClass.cast(convertLong(valueAsString, dataName));
+				case DOUBLE:
+					return _argumentTypeClass.cast(convertDouble(valueAsString, dataName));
+				case BOOLEAN:
+					return _argumentTypeClass.cast(convertBoolean(valueAsString, dataName));
+				default:
+					T value = valueOf(valueAsString, dataName);
+					checkConstraints(dataName, value);
+					return value;
+			}
+		}
+		
+		/**
+		 * Converts a command line value of an {@link Integer} or {@link Long} argument
+		 * directly from the characters and checks the constraints. Only ASCII digits are
+		 * accepted.
+		 * 
+		 * @param valueAsString
+		 * 		The value as it was on the command line.
+		 * 
+		 * @param dataName
+		 * 		A name for constraint violation and conversion error messages.
+		 * 
+		 * @return
+		 * 		The converted value.
+		 */
+		long convertLong(String valueAsString, String dataName)
+			throws
+				ConstraintException,
+				IllegalCommandLineArgumentException
+		{
+			assert _primitive == INT || _primitive == LONG;
+			
+			// The overflow is detected while the digits are checked.
+			if(Util.isMalformed(valueAsString, _argumentTypeClass))
+				throw
+					new IllegalCommandLineArgumentException(
+						conversionErrorMessage(valueAsString, dataName)
+					);
+			long value = Util.parseLong(valueAsString);
+			
+			String violation = _constraintChain.rangeViolation(dataName, value);
+			if(violation != null)
+				throw new ConstraintException(violation);
+			if(_constraintChain.hasOthers())
+				_constraintChain.checkOthers(
+					dataName,
+					_primitive == INT ?
+						_argumentTypeClass.cast((int)value) :
+						_argumentTypeClass.cast(value)
+				);
+			return value;
+		}
+		
+		/**
+		 * Converts a command line value of a {@link Double} argument and checks the constraints.
+		 * 
+		 * @param valueAsString
+		 * 		The value as it was on the command line.
+		 * 
+		 * @param dataName
+		 * 		A name for constraint violation and conversion error messages.
+		 * 
+		 * @return
+		 * 		The converted value.
+		 */
+		double convertDouble(String valueAsString, String dataName)
+			throws
+				ConstraintException,
+				IllegalCommandLineArgumentException
+		{
+			assert _primitive == DOUBLE;
+			
+			if(Util.isMalformed(valueAsString, Double.class))
+				throw
+					new IllegalCommandLineArgumentException(
+						conversionErrorMessage(valueAsString, dataName)
+					);
+			double value;
+			try {
+				value = Double.parseDouble(valueAsString);
+			}
+			catch(NumberFormatException ex) {
+				String msg = conversionErrorMessage(valueAsString, dataName);
+				throw new IllegalCommandLineArgumentException(msg, ex);
+			}
+			
+			String violation = _constraintChain.rangeViolation(dataName, value);
+			if(violation != null)
+				throw new ConstraintException(violation);
+			if(_constraintChain.hasOthers())
+				_constraintChain.checkOthers(dataName, _argumentTypeClass.cast(value));
+			return value;
+		}
+		
+		/**
+		 * Converts a command line value of a {@link Boolean} argument and checks the
+		 * constraints. {@code true} and {@code false} are accepted (case is ignored).
+		 * 
+		 * @param valueAsString
+		 * 		The value as it was on the command line.
+		 * 
+		 * @param dataName
+		 * 		A name for constraint violation and conversion error messages.
+		 * 
+		 * @return
+		 * 		The converted value.
+		 */
+		boolean convertBoolean(String valueAsString, String dataName)
+			throws
+				ConstraintException,
+				IllegalCommandLineArgumentException
+		{
+			assert _primitive == BOOLEAN;
+			
+			if(Util.isMalformed(valueAsString, Boolean.class))
+				throw
+					new IllegalCommandLineArgumentException(
+						conversionErrorMessage(valueAsString, dataName)
+					);
+			boolean value = valueAsString.equalsIgnoreCase("true");
+			if(_constraintChain.hasOthers())
+				_constraintChain.checkOthers(dataName, _argumentTypeClass.cast(value));
+			return value;
+		}
+		
+		/**
+		 * Checks a command line value like {@link #convert(String, String)} but returns the
+		 * problem instead of throwing an exception. Malformed and overflowing numbers as well as
+		 * violations of the fused built-in constraints (see {@link ConstraintChain}) are
+		 * detected without exceptions. Only the other constraints report violations by throwing
+		 * {@link ConstraintException}.
+		 * 
+		 * @param index
+		 * 		The index of the value for the diagnostic.
+		 * 
+		 * @param element
+		 * 		The name of the defined element for the diagnostic and the column.
+		 * 
+		 * @param valueAsString
+		 * 		The value as it was on the command line.
+		 * 
+		 * @param dataName
+		 * 		A name for the problem description.
+		 * 
+		 * @param result
+		 * 		A result where a valid value is stored to the column {@code element}. Values of
+		 * 		primitive types (see {@link #primitive()}) are stored without boxing.
+		 * 		{@code null} if the value is only checked.
+		 * 
+		 * @param row
+		 * 		The row of {@code result}.
+		 * 
+		 * @return
+		 * 		A diagnostic or {@code null} if the value is valid.
+		 */
+		Diagnostic check(
+			int index,
+			String element,
+			String valueAsString,
+			String dataName,
+			ColumnarResult result,
+			int row
+		)
+		{
+			if(Util.isMalformed(valueAsString, _argumentTypeClass))
+				return
+					new Diagnostic(
+						index,
+						element,
+						ParseError.Type.ILLEGAL_ARGUMENT,
+						conversionErrorMessage(valueAsString, dataName)
+					);
+			try {
+				String violation = null;
+				switch(_primitive) {
+					case DOUBLE:
+						// Only a hexadecimal value can still be malformed.
+						double doubleValue = Double.parseDouble(valueAsString);
+						violation = _constraintChain.rangeViolation(dataName, doubleValue);
+						if(violation != null)
+							break;
+						if(_constraintChain.hasOthers())
+							_constraintChain.checkOthers(
+								dataName,
+								_argumentTypeClass.cast(doubleValue)
+							);
+						if(result != null)
+							result.setDouble(element, row, doubleValue);
+						break;
+					case BOOLEAN:
+						boolean booleanValue = valueAsString.equalsIgnoreCase("true");
+						if(_constraintChain.hasOthers())
+							_constraintChain.checkOthers(
+								dataName,
+								_argumentTypeClass.cast(booleanValue)
+							);
+						if(result != null)
+							result.setLong(element, row, booleanValue ? 1 : 0);
+						break;
+					case OBJECT:
+						T value = valueOf(valueAsString, dataName);
+						violation = _constraintChain.violation(dataName, value);
+						if(violation != null)
+							break;
+						_constraintChain.checkOthers(dataName, value);
+						if(result != null)
+							result.set(element, row, value);
+						break;
+					default:
+						long longValue = Util.parseLong(valueAsString);
+						violation = _constraintChain.rangeViolation(dataName, longValue);
+						if(violation != null)
+							break;
+						if(_constraintChain.hasOthers())
+							_constraintChain.checkOthers(
+								dataName,
+								_primitive == INT ?
+									_argumentTypeClass.cast((int)longValue) :
+									_argumentTypeClass.cast(longValue)
+							);
+						if(result != null)
+							result.setLong(element, row, longValue);
+				}
+				if(violation != null)
+					return
+						new Diagnostic(
+							index,
+							element,
+							ParseError.Type.CONSTRAINT_VIOLATION,
+							violation
+						);
+				return null;
+			}
+			catch(NumberFormatException e) {
+				return
+					new Diagnostic(
+						index,
+						element,
+						ParseError.Type.ILLEGAL_ARGUMENT,
+						conversionErrorMessage(valueAsString, dataName)
+					);
+			}
+			catch(ConstraintException e) {
+				return
+					new Diagnostic(
+						index,
+						element,
+						ParseError.Type.CONSTRAINT_VIOLATION,
+						e.getMessage()
+					);
+			}
+			catch(IllegalCommandLineArgumentException e) {
+				return new Diagnostic(index, element, ParseError.Type.ILLEGAL_ARGUMENT, e.getMessage());
+			}
 		}
-		public void checkConstraints() throws ConstraintException
+		
+		/**
+		 * Checks the constraints for the default value like {@link #parseDefault(String)} but
+		 * returns the problem instead of throwing an exception.
+		 * 
+		 * @param element
+		 * 		The name of the defined element for the diagnostic and the column.
+		 * 
+		 * @param dataName
+		 * 		A name for the problem description.
+		 * 
+		 * @param result
+		 * 		A result where a valid default value is stored to the column {@code element}.
+		 * 		{@code null} if the default value is only checked.
+		 * 
+		 * @param row
+		 * 		The row of {@code result}.
+		 * 
+		 * @return
+		 * 		A diagnostic or {@code null} if the default value is valid.
+		 */
+		Diagnostic checkDefault(String element, String dataName, ColumnarResult result, int row)
 		{
-			for(Constraint<T> constraint : constraints())
-				constraint.evaluate(name(), value());
+			T value = defaultValue();
+			String violation = _constraintChain.violation(dataName, value);
+			if(violation != null)
+				return new Diagnostic(-1, element, ParseError.Type.CONSTRAINT_VIOLATION, violation);
+			try {
+				_constraintChain.checkOthers(dataName, value);
+				if(result != null)
+					result.set(element, row, value);
+				return null;
+			}
+			catch(ConstraintException e) {
+				return new Diagnostic(-1, element, ParseError.Type.CONSTRAINT_VIOLATION, e.getMessage());
+			}
 		}
 		
-		public Data<T> createDataObject()
+		/**
+		 * Uses the (typed) default value of an optional argument and checks the constraints. No
+		 * tokens are consumed.
+		 * 
+		 * @param dataName
+		 * 		A name for the created data object and constraint violation messages.
+		 * 
+		 * @return
+		 * 		A new data object having the default value.
+		 */
+		public Data<T> parseDefault(String dataName)
+			throws
+				ConstraintException
 		{
-			return new Data<T>(this);
+			T value = defaultValue();
+			checkConstraints(dataName, value);
+			return new Data<T>(this, dataName, value);
+		}
+		public void checkConstraints(String dataName, T value) throws ConstraintException
+		{
+			_constraintChain.check(dataName, value);
+		}
+		
+		/**
+		 * Creates a data object having the default value. Constraints are not checked.
+		 * 
+		 * @return
+		 * 		A new data object with the default value.
+		 */
+		public Data<T> createDefaultDataObject()
+		{
+			return new Data<T>(this, name(), defaultValue());
 		}
 		
 		@Override
 		public Internal<T> clone()
 		{
-			Internal<T> internal = new Internal<T>(new Argument<T>(_outer), _argumentTypeClass);
-			internal._value = _value;
-			return internal;
+			return new Internal<T>(new Argument<T>(_outer), _argumentTypeClass);
 		}
 		
 		@Override
@@ -514,38 +1528,33 @@ public class Argument<T>
 		@Override
 		public String toString()
 		{
-			return "{" + name() + "(" + id() + ") = " + value() + " (" + optional() + ")}";
+			return "{" + name() + "(" + id() + ") (" + optional() + ")}";
 		}
 		
-		void setDefaultValue()
-		{
-			value(defaultValue());
-		}
-		
-		private void value(T value)
-		{
-			_value = value;
-		}
-
 		private T defaultValue()
 		{
 			return _outer._defaultForOptional;
 		}
 		
-		private Object valueOf(String valueAsString, Class<?> argumentTypeClass)
+		private T valueOf(String valueAsString, String dataName)
 			throws
 				IllegalCommandLineArgumentException
 		{
 			try {
-				return Util.valueOf(valueAsString, argumentTypeClass);
+				return _converter.convert(valueAsString);
 			}
-			catch(NumberFormatException ex) {
-				String msg =
-					"'" + valueAsString + "' cannot be interpreted as "
-						+ argumentTypeClass.getCanonicalName()
-						+ " for '" + name() + "'.";
+			catch(Exception ex) {
+				String msg = conversionErrorMessage(valueAsString, dataName);
 				throw new IllegalCommandLineArgumentException(msg, ex);
 			}
 		}
+		
+		private String conversionErrorMessage(String valueAsString, String dataName)
+		{
+			return
+				"'" + valueAsString + "' cannot be interpreted as "
+					+ _argumentTypeClass.getCanonicalName()
+					+ " for '" + dataName + "'.";
+		}
 	}
 }
@@ -0,0 +1,332 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+
+
+/**
+ * {@code ArgumentFileExpander} replaces argument files (i.e. {@code @path}) with their contents
+ * while the command line arguments are read. Argument files are read through a memory-mapped
+ * {@link FileChannel} and their tokens are returned one by one as they are found. Thus the
+ * contents of an argument file are never collected into a list.
+ * <p>
+ * The rules for command line arguments are:
+ * 	<ul>
+ * 		<li>
+ * 			an argument starting with {@code @} is replaced with the tokens of the named file
+ * 			(e.g. {@code @args.txt}). A relative path is relative to the working directory
+ * 			(see {@link CommandLineDaemon#workingDirectory()}).
+ * 		</li>
+ * 		<li>
+ * 			an argument starting with {@code @@} is not expanded but the first {@code @} is
+ * 			removed (e.g. {@code @@home} is {@code @home}).
+ * 		</li>
+ * 		<li>
+ * 			arguments are not expanded after {@link #stopExpansion()} has been called (i.e.
+ * 			after the {@code --} terminator).
+ * 		</li>
+ * 	</ul>
+ *
+ * The rules for argument files are:
+ * 	<ul>
+ * 		<li>
+ * 			the file is UTF-8 encoded and the tokens are separated by newlines (LF, CR LF or
+ * 			CR) or NUL characters. Other white space is part of the token. Empty tokens are
+ * 			skipped.
+ * 		</li>
+ * 		<li>
+ * 			a part of a token can be quoted with double quotes (") or single quotes (').
+ * 			Quotes are removed and separators inside quotes are part of the token. Thus
+ * 			{@code ""} is an empty token.
+ * 		</li>
+ * 		<li>
+ * 			inside double quotes a backslash (\) escapes the next character (e.g. {@code \"}).
+ * 			Elsewhere a backslash is an ordinary character.
+ * 		</li>
+ * 		<li>
+ * 			tokens starting with {@code @} are expanded like command line arguments. An argument
+ * 			file including itself (directly or indirectly) is an error.
+ * 		</li>
+ * 	</ul>
+ *
+ * Errors are reported by throwing {@link ExpansionException} which wraps an
+ * {@link IllegalCommandLineArgumentException}.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+final class ArgumentFileExpander
+{
+	private static final String ENCODING = "UTF-8";
+
+	private final String[] _args;
+	private int _index;
+	private boolean _expand = true;
+	private String _next;
+
+	// Argument files being read, the innermost first.
+	private final LinkedList<ArgumentFile> _files = new LinkedList<ArgumentFile>();
+	private final Set<String> _openFiles = new HashSet<String>();
+
+
+	/**
+	 * Creates an expander for the command line arguments. Nothing is read before the tokens are
+	 * asked.
+	 *
+	 * @param args
+	 * 		Command line arguments.
+	 */
+	ArgumentFileExpander(String[] args)
+	{
+		_args = args;
+	}
+
+
+	/**
+	 * Checks if there are more tokens. This may open and read argument files.
+	 *
+	 * @return
+	 * 		{@code true} if there are tokens left.
+	 *
+	 * @throws ExpansionException
+	 * 		If an argument file cannot be read or it is malformed.
+	 */
+	boolean hasNext()
+	{
+		if(_next == null)
+			_next = read();
+		return _next != null;
+	}
+
+
+	/**
+	 * Returns the next token.
+	 *
+	 * @return
+	 * 		The next token or {@code null} if there are no tokens left.
+	 *
+	 * @throws ExpansionException
+	 * 		If an argument file cannot be read or it is malformed.
+	 */
+	String next()
+	{
+		hasNext();
+		String next = _next;
+		_next = null;
+		return next;
+	}
+
+
+	/**
+	 * Stops expanding argument files. The argument files already open are still read to the end
+	 * but the tokens starting with {@code @} are returned as they are.
+	 */
+	void stopExpansion()
+	{
+		_expand = false;
+	}
+
+
+	private String read()
+	{
+		while(true) {
+			String arg;
+			if(!_files.isEmpty()) {
+				ArgumentFile file = _files.getFirst();
+				arg = file.nextToken();
+				if(arg == null) {
+					_files.removeFirst();
+					_openFiles.remove(file.path());
+					continue;
+				}
+			}
+			else
+				if(_index < _args.length)
+					arg = _args[_index++];
+				else
+					return null;
+
+			if(!_expand || arg.length() < 2 || arg.charAt(0) != '@')
+				return arg;
+			if(arg.charAt(1) == '@')
+				return arg.substring(1);
+			open(arg.substring(1));
+		}
+	}
+
+	private void open(String name)
+	{
+		File file = new File(name);
+		if(!file.isAbsolute())
+			file = new File(CommandLineDaemon.workingDirectory(), name);
+		String path;
+		try {
+			path = file.getCanonicalPath();
+		}
+		catch(IOException e) {
+			throw
+				new ExpansionException(
+					"Argument file '" + name + "' cannot be read. " + e.getMessage(),
+					e
+				);
+		}
+		if(_openFiles.contains(path))
+			throw new ExpansionException("Argument file '" + name + "' includes itself.", null);
+
+		_files.addFirst(new ArgumentFile(name, path));
+		_openFiles.add(path);
+	}
+
+
+	/**
+	 * {@code ExpansionException} is an unchecked carrier for argument file errors because the
+	 * tokens are read lazily by {@link Tokens}. The real exception is available from
+	 * {@link #exception()}.
+	 */
+	static final class ExpansionException
+		extends
+			RuntimeException
+	{
+		private static final long serialVersionUID = -1838306962284066021L;
+
+		private final IllegalCommandLineArgumentException _exception;
+
+		private ExpansionException(String message, Throwable cause)
+		{
+			super(message);
+			_exception =
+				cause == null ?
+					new IllegalCommandLineArgumentException(message) :
+					new IllegalCommandLineArgumentException(message, cause);
+		}
+
+		IllegalCommandLineArgumentException exception()
+		{
+			return _exception;
+		}
+	}
+
+
+	/**
+	 * Splits a single memory-mapped argument file into tokens.
+	 */
+	private static final class ArgumentFile
+	{
+		private final String _name;
+		private final String _path;
+		private final MappedByteBuffer _buffer;
+		private byte[] _token = new byte[128];
+
+		ArgumentFile(String name, String path)
+		{
+			_name = name;
+			_path = path;
+			try {
+				RandomAccessFile file = new RandomAccessFile(path, "r");
+				try {
+					FileChannel channel = file.getChannel();
+
+					// A single mapping cannot be larger than Integer.MAX_VALUE bytes.
+					long size = channel.size();
+					if(size > Integer.MAX_VALUE)
+						throw
+							new ExpansionException(
+								"Argument file '" + name + "' is too large (" + size + " bytes).",
+								null
+							);
+
+					// The mapping stays valid after the channel has been closed.
+					_buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+				}
+				finally {
+					file.close();
+				}
+			}
+			catch(IOException e) {
+				throw
+					new ExpansionException(
+						"Argument file '" + name + "' cannot be read. " + e.getMessage(),
+						e
+					);
+			}
+		}
+
+		String path()
+		{
+			return _path;
+		}
+
+		/**
+		 * Returns the next token from the file or {@code null} at the end of the file.
+		 */
+		String nextToken()
+		{
+			while(_buffer.hasRemaining()) {
+				int length = 0;
+				boolean quoted = false;
+				byte quote = 0;
+				while(_buffer.hasRemaining()) {
+					byte b = _buffer.get();
+					if(quote != 0) {
+						if(b == quote) {
+							quote = 0;
+							continue;
+						}
+						if(b == '\\' && quote == '"') {
+							if(!_buffer.hasRemaining())
+								break;
+							b = _buffer.get();
+						}
+					}
+					else {
+						if(b == '\n' || b == '\r' || b == 0)
+							break;
+						if(b == '"' || b == '\'') {
+							quote = b;
+							quoted = true;
+							continue;
+						}
+					}
+					length = append(length, b);
+				}
+				if(quote != 0)
+					throw
+						new ExpansionException(
+							"Argument file '" + _name + "' has an unterminated quote.",
+							null
+						);
+				if(length > 0 || quoted)
+					return decode(length);
+			}
+			return null;
+		}
+
+		private int append(int length, byte b)
+		{
+			if(length == _token.length) {
+				byte[] token = new byte[_token.length * 2];
+				System.arraycopy(_token, 0, token, 0, length);
+				_token = token;
+			}
+			_token[length] = b;
+			return length + 1;
+		}
+
+		private String decode(int length)
+		{
+			try {
+				return new String(_token, 0, length, ENCODING);
+			}
+			catch(UnsupportedEncodingException e) {
+				throw new RuntimeException("Should not be here but here we are...", e);
+			}
+		}
+	}
+}
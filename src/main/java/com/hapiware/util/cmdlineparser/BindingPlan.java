@@ -0,0 +1,377 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.hapiware.util.cmdlineparser.annotation.Id;
+
+
+/**
+ * {@code BindingPlan} maps the {@link Id} annotated fields of a class to their ids. The plan is
+ * created once per class by scanning the declared and the public fields. The fields are made
+ * accessible at the same time. Thus binding a value is a map lookup followed by a direct
+ * {@link Field#set(Object, Object)}. Values for array fields are copied to an array of the
+ * exact field type (including primitive arrays).
+ * <p>
+ * If the class has a generated companion class (see {@link GeneratedBinder}) the values are set
+ * by the companion class and the fields are scanned only if the companion class does not
+ * handle some id.
+ * <p>
+ * The plans are cached without preventing the classes from being unloaded.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+final class BindingPlan
+{
+	private static final Map<Class<?>, SoftReference<BindingPlan>> PLANS =
+		Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<BindingPlan>>());
+
+	private final Class<?> _type;
+	private final GeneratedBinder _generatedBinder;
+	private volatile Map<String, Binding[]> _bindings;
+
+
+	private BindingPlan(Class<?> type)
+	{
+		_type = type;
+		_generatedBinder = generatedBinder(type);
+	}
+
+
+	private static GeneratedBinder generatedBinder(Class<?> type)
+	{
+		try {
+			Class<?> binderClass =
+				Class.forName(type.getName() + GeneratedBinder.SUFFIX, true, type.getClassLoader());
+			return (GeneratedBinder)binderClass.newInstance();
+		}
+		catch(Exception e) {
+			// A missing, incompatible or inaccessible companion class is ignored.
+			return null;
+		}
+		catch(LinkageError e) {
+			return null;
+		}
+	}
+
+	private Map<String, Binding[]> bindings()
+	{
+		Map<String, Binding[]> bindings = _bindings;
+		if(bindings == null) {
+			// Scanning the fields twice in a race is harmless.
+			bindings = scan(_type);
+			_bindings = bindings;
+		}
+		return bindings;
+	}
+
+	private static Map<String, Binding[]> scan(Class<?> type)
+	{
+		Set<Field> fields = new LinkedHashSet<Field>();
+		fields.addAll(Arrays.asList(type.getDeclaredFields()));
+		fields.addAll(Arrays.asList(type.getFields()));
+
+		Map<String, List<Binding>> bindings = new HashMap<String, List<Binding>>();
+		for(Field field : fields) {
+			Id id = field.getAnnotation(Id.class);
+			if(id == null)
+				continue;
+			List<Binding> idBindings = bindings.get(id.value());
+			if(idBindings == null) {
+				idBindings = new ArrayList<Binding>(1);
+				bindings.put(id.value(), idBindings);
+			}
+			idBindings.add(new Binding(field));
+		}
+
+		Map<String, Binding[]> result = new HashMap<String, Binding[]>();
+		for(Map.Entry<String, List<Binding>> entry : bindings.entrySet())
+			result.put(entry.getKey(), entry.getValue().toArray(new Binding[0]));
+		return result;
+	}
+
+
+	/**
+	 * Returns the (cached) plan for a class.
+	 *
+	 * @param type
+	 * 		The class having {@link Id} annotated fields.
+	 *
+	 * @return
+	 * 		The binding plan.
+	 */
+	static BindingPlan forClass(Class<?> type)
+	{
+		SoftReference<BindingPlan> reference = PLANS.get(type);
+		BindingPlan plan = reference == null ? null : reference.get();
+		if(plan == null) {
+			// Creating a plan twice in a race is harmless.
+			plan = new BindingPlan(type);
+			PLANS.put(type, new SoftReference<BindingPlan>(plan));
+		}
+		return plan;
+	}
+
+	/**
+	 * Sets the value to all the fields annotated with {@code valueId}.
+	 *
+	 * @param obj
+	 * 		An object having the fields. Can be {@code null} for static fields.
+	 *
+	 * @param value
+	 * 		A value to set. An {@code Object[]} is copied to an array of the field type.
+	 *
+	 * @param valueId
+	 * 		An id of the value.
+	 *
+	 * @throws AnnotatedFieldSetException
+	 * 		If the value cannot be set.
+	 */
+	void bind(Object obj, Object value, String valueId)
+		throws
+			AnnotatedFieldSetException
+	{
+		try {
+			if(_generatedBinder != null && _generatedBinder.bind(obj, value, valueId))
+				return;
+
+			Binding[] bindings = bindings().get(valueId);
+			if(bindings == null)
+				return;
+			for(Binding binding : bindings)
+				binding.set(obj, value);
+		}
+		catch(NullPointerException e) {
+			if(obj == null) {
+				String msg =
+					"Object reference for the field annotated '" + valueId + "' "
+						+ "is missing while required. Most probably the default parse(String[]), "
+						+ "parsec(String[]) or parsech(String[]) method failed finding the correct "
+						+ "object reference. Use either parse[ch](Object,String[]) or "
+						+ "parse[ch](Class<?>,String[]).";
+				throw new AnnotatedFieldSetException(msg, e);
+			}
+			else
+				throw e;
+		}
+		catch(SecurityException e) {
+			String msg =
+				"Security is turned on and the field annotated '" + valueId + "' cannot be accessed. "
+					+ "Grant access to 'java.lang.reflect.ReflectPermission \"suppressAccessChecks\"'.";
+			throw new AnnotatedFieldSetException(msg, e);
+		}
+		catch(IllegalArgumentException e) {
+			String msg =
+				"[" + value + "] is an illegal argument for the field annotated '"
+					+ valueId + "'. " + e.getMessage();
+			throw new AnnotatedFieldSetException(msg, e);
+		}
+		catch(ArrayStoreException e) {
+			String msg =
+				"[" + value + "] is an illegal argument for the field annotated '"
+					+ valueId + "'. " + e.getMessage();
+			throw new AnnotatedFieldSetException(msg, e);
+		}
+		catch(ClassCastException e) {
+			// Thrown by generated binders.
+			String msg =
+				"[" + value + "] is an illegal argument for the field annotated '"
+					+ valueId + "'. " + e.getMessage();
+			throw new AnnotatedFieldSetException(msg, e);
+		}
+		catch(IllegalAccessException e) {
+			String msg = "Should not be here but here we are...";
+			throw new AnnotatedFieldSetException(msg, e);
+		}
+	}
+
+
+	/**
+	 * Returns the current values of the annotated fields. Used by {@link CommandLineShell} to
+	 * reset the fields before every command. Fields which cannot be set (i.e. {@code static final}
+	 * fields and fields which could not be made accessible) are left out.
+	 *
+	 * @param obj
+	 * 		An object having the fields. If {@code null} only the static fields are returned.
+	 *
+	 * @return
+	 * 		The fields and their current values.
+	 */
+	Map<Field, Object> fieldValues(Object obj)
+	{
+		Map<Field, Object> values = new LinkedHashMap<Field, Object>();
+		for(Binding[] bindings : bindings().values())
+			for(Binding binding : bindings) {
+				Field field = binding._field;
+				boolean isStatic = Modifier.isStatic(field.getModifiers());
+				if(
+					binding._accessFailure != null
+						|| (isStatic && Modifier.isFinal(field.getModifiers()))
+						|| (obj == null && !isStatic)
+				)
+					continue;
+				try {
+					values.put(field, field.get(obj));
+				}
+				catch(IllegalAccessException e) {
+					// The field is accessible and thus this should not happen.
+				}
+			}
+		return values;
+	}
+
+	/**
+	 * Sets the values returned by {@link #fieldValues(Object)} back to the fields.
+	 *
+	 * @param obj
+	 * 		The object given to {@link #fieldValues(Object)}.
+	 *
+	 * @param values
+	 * 		The fields and their values.
+	 */
+	static void setFieldValues(Object obj, Map<Field, Object> values)
+	{
+		for(Map.Entry<Field, Object> value : values.entrySet())
+			try {
+				value.getKey().set(obj, value.getValue());
+			}
+			catch(IllegalAccessException e) {
+				// The field is accessible and thus this should not happen.
+			}
+	}
+
+
+	/**
+	 * Copies values to an array of the given component type. The primitive arrays used by
+	 * the parser are filled directly.
+	 *
+	 * @param values
+	 * 		Non-empty values to copy.
+	 *
+	 * @param componentType
+	 * 		A component type of the created array.
+	 *
+	 * @return
+	 * 		The created array.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		If a value cannot be stored to a primitive array.
+	 *
+	 * @throws ArrayStoreException
+	 * 		If a value cannot be stored to an object array.
+	 */
+	static Object toArray(Object[] values, Class<?> componentType)
+	{
+		int length = values.length;
+		if(componentType == int.class && allInstances(values, Integer.class)) {
+			int[] array = new int[length];
+			for(int i = 0; i < length; i++)
+				array[i] = (Integer)values[i];
+			return array;
+		}
+		if(componentType == long.class && allInstances(values, Long.class)) {
+			long[] array = new long[length];
+			for(int i = 0; i < length; i++)
+				array[i] = (Long)values[i];
+			return array;
+		}
+		if(componentType == double.class && allInstances(values, Double.class)) {
+			double[] array = new double[length];
+			for(int i = 0; i < length; i++)
+				array[i] = (Double)values[i];
+			return array;
+		}
+		if(componentType == boolean.class && allInstances(values, Boolean.class)) {
+			boolean[] array = new boolean[length];
+			for(int i = 0; i < length; i++)
+				array[i] = (Boolean)values[i];
+			return array;
+		}
+		if(componentType.isPrimitive()) {
+			// Array.set() handles the widening conversions and reports illegal values.
+			Object array = Array.newInstance(componentType, length);
+			for(int i = 0; i < length; i++)
+				Array.set(array, i, values[i]);
+			return array;
+		}
+		Object[] array = (Object[])Array.newInstance(componentType, length);
+		System.arraycopy(values, 0, array, 0, length);
+		return array;
+	}
+
+	private static boolean allInstances(Object[] values, Class<?> type)
+	{
+		for(Object value : values)
+			if(!type.isInstance(value))
+				return false;
+		return true;
+	}
+
+
+	/**
+	 * A single annotated field.
+	 */
+	private static final class Binding
+	{
+		private final Field _field;
+		private final Class<?> _componentType;
+
+		// A failed setAccessible() is reported when the field is set (if ever).
+		private final SecurityException _accessFailure;
+
+		public Binding(final Field field)
+		{
+			_field = field;
+			_componentType = field.getType().isArray() ? field.getType().getComponentType() : null;
+			SecurityException accessFailure = null;
+			try {
+				AccessController.doPrivileged(
+					new PrivilegedAction<Object>()
+					{
+						public Object run()
+						{
+							field.setAccessible(true);
+							return null;
+						}
+					}
+				);
+			}
+			catch(SecurityException e) {
+				accessFailure = e;
+			}
+			_accessFailure = accessFailure;
+		}
+
+		public void set(Object obj, Object value)
+			throws
+				IllegalAccessException
+		{
+			if(_accessFailure != null)
+				throw _accessFailure;
+
+			if(_componentType == null) {
+				_field.set(obj, value);
+				return;
+			}
+
+			int length = Array.getLength(value);
+			if(length > 0)
+				_field.set(obj, toArray((Object[])value, _componentType));
+		}
+	}
+}
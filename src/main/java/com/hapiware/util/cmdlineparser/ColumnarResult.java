@@ -0,0 +1,417 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * {@code ColumnarResult} holds the results of parsing many command lines with
+ * {@link CompiledParser#parseAll(java.util.List)}. Instead of an object per found option or
+ * argument the results are stored in columns, one column per defined global option and
+ * argument. Each row of the columns is a single parsed command line. Thus the memory needed
+ * depends on the number of definitions and the number of command lines but not on the number of
+ * found values.
+ * <p>
+ * Column types:
+ * 	<ul>
+ * 		<li>
+ * 			{@link Integer}, {@link Long}, {@link Short}, {@link Byte}, {@link Double} and
+ * 			{@link Float} values are stored in primitive arrays (e.g. {@code int[]}). See
+ * 			{@link #getIntColumn(String)} etc.
+ * 		</li>
+ * 		<li>
+ * 			{@link String} values are stored in a {@code String[]} where equal values are the
+ * 			same {@code String} object. See {@link #getStringColumn(String)}.
+ * 		</li>
+ * 		<li>
+ * 			other values (e.g. {@link BigDecimal}, {@link BigInteger}, {@link Boolean}, enums and
+ * 			types having a registered converter) are stored in an {@code Object[]}. See
+ * 			{@link #getObjectColumn(String)}.
+ * 		</li>
+ * 		<li>
+ * 			options without an argument have only the presence information. See
+ * 			{@link #getPresence(String)}.
+ * 		</li>
+ * 	</ul>
+ *
+ * Every column has a {@link BitSet} telling on which rows the option or argument exists. The
+ * value of a row without the presence bit is undefined (i.e. {@code 0} or {@code null}). Optional
+ * arguments having a default value are present. If an option exists several times on a command
+ * line the last value is stored.
+ * <p>
+ * Command lines which cannot be parsed do not stop the parsing. Instead, their rows are marked
+ * failed (see {@link #getFailedRows()}) and the error message is available from
+ * {@link #getError(int)}. Failed rows do not have any presence bits set.
+ * <p>
+ * Notice that only global options, bare arguments and the command name are stored in columns.
+ * Command options and command arguments as well as multiple arguments (see
+ * {@link Argument#multiple()}) are not stored.
+ * <p>
+ * The arrays returned by the getter methods are not copied and thus they must not be modified.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+public final class ColumnarResult
+{
+	private final int _size;
+	private final Map<String, Column> _columns;
+	private final Map<String, String> _definedGlobalOptionAlternatives;
+	private final String[] _commands;
+	private final String[] _errors;
+	private final BitSet _failedRows = new BitSet();
+
+	// Makes equal strings to share the same object. String.intern() is not used because
+	// the interned strings would outlive the result.
+	private final Map<String, String> _strings = new HashMap<String, String>();
+
+
+	ColumnarResult(
+		int size,
+		Map<String, Option.Internal> definedGlobalOptions,
+		Map<String, String> definedGlobalOptionAlternatives,
+		Map<String, Argument.Internal<?>> definedArguments,
+		boolean commandsDefined
+	)
+	{
+		_size = size;
+		_definedGlobalOptionAlternatives = definedGlobalOptionAlternatives;
+		Map<String, Column> columns = new LinkedHashMap<String, Column>();
+		for(Option.Internal option : definedGlobalOptions.values()) {
+			Class<?> type = option.argument() != null ? option.argument().argumentType() : null;
+			columns.put(option.name(), new Column(type, size));
+		}
+		for(Argument.Internal<?> argument : definedArguments.values())
+			if(!argument.multiple())
+				columns.put(argument.name(), new Column(argument.argumentType(), size));
+		_columns = Collections.unmodifiableMap(columns);
+		_commands = commandsDefined ? new String[size] : null;
+		_errors = new String[size];
+	}
+
+
+	/**
+	 * Returns the number of rows (i.e. the number of parsed command lines).
+	 *
+	 * @return
+	 * 		The number of rows.
+	 */
+	public int size()
+	{
+		return _size;
+	}
+
+
+	/**
+	 * Returns the rows which could not be parsed.
+	 *
+	 * @return
+	 * 		A copy of the bit set having a bit set for every failed row.
+	 */
+	public BitSet getFailedRows()
+	{
+		return (BitSet)_failedRows.clone();
+	}
+
+
+	/**
+	 * Returns the error message of a failed row.
+	 *
+	 * @param row
+	 * 		A row index.
+	 *
+	 * @return
+	 * 		The error message or {@code null} if the row was parsed successfully.
+	 */
+	public String getError(int row)
+	{
+		return _errors[row];
+	}
+
+
+	/**
+	 * Returns the rows where the option or the argument exists.
+	 *
+	 * @param name
+	 * 		A name of the argument or a name (or an alternative name) of the global option with
+	 * 		preceding minus characters (- or --). For example: "-a", "--verbose".
+	 *
+	 * @return
+	 * 		A copy of the presence bit set. {@code null} if there is no such column.
+	 */
+	public BitSet getPresence(String name)
+	{
+		Column column = _columns.get(definedName(name));
+		return column != null ? (BitSet)column._presence.clone() : null;
+	}
+
+
+	/**
+	 * Returns an {@link Integer} column.
+	 *
+	 * @param name
+	 * 		A name of the argument or a name (or an alternative name) of the global option.
+	 *
+	 * @return
+	 * 		The column or {@code null} if there is no such column.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		If the column has a different type.
+	 */
+	public int[] getIntColumn(String name)
+	{
+		return (int[])values(name, Integer.class);
+	}
+
+
+	/**
+	 * Returns a {@link Long} column.
+	 *
+	 * @see #getIntColumn(String)
+	 */
+	public long[] getLongColumn(String name)
+	{
+		return (long[])values(name, Long.class);
+	}
+
+
+	/**
+	 * Returns a {@link Short} column.
+	 *
+	 * @see #getIntColumn(String)
+	 */
+	public short[] getShortColumn(String name)
+	{
+		return (short[])values(name, Short.class);
+	}
+
+
+	/**
+	 * Returns a {@link Byte} column.
+	 *
+	 * @see #getIntColumn(String)
+	 */
+	public byte[] getByteColumn(String name)
+	{
+		return (byte[])values(name, Byte.class);
+	}
+
+
+	/**
+	 * Returns a {@link Double} column.
+	 *
+	 * @see #getIntColumn(String)
+	 */
+	public double[] getDoubleColumn(String name)
+	{
+		return (double[])values(name, Double.class);
+	}
+
+
+	/**
+	 * Returns a {@link Float} column.
+	 *
+	 * @see #getIntColumn(String)
+	 */
+	public float[] getFloatColumn(String name)
+	{
+		return (float[])values(name, Float.class);
+	}
+
+
+	/**
+	 * Returns a {@link String} column. Equal values are the same {@code String} object.
+	 *
+	 * @see #getIntColumn(String)
+	 */
+	public String[] getStringColumn(String name)
+	{
+		return (String[])values(name, String.class);
+	}
+
+
+	/**
+	 * Returns a column of other types (e.g. {@link BigDecimal}, {@link BigInteger},
+	 * {@link Boolean}, an enum or a type having a registered converter).
+	 *
+	 * @see #getIntColumn(String)
+	 */
+	public Object[] getObjectColumn(String name)
+	{
+		Column column = _columns.get(definedName(name));
+		if(column == null)
+			return null;
+		if(!(column._values instanceof Object[]) || column._values instanceof String[])
+			throw new IllegalArgumentException("'" + name + "' is not an object column.");
+		return (Object[])column._values;
+	}
+
+
+	/**
+	 * Returns the names of the commands found from the command lines.
+	 *
+	 * @return
+	 * 		The command names or {@code null} if commands are not used. Failed rows are
+	 * 		{@code null}.
+	 */
+	public String[] getCommandColumn()
+	{
+		return _commands;
+	}
+
+
+	/**
+	 * Stores a value to a row. {@code null} only marks the option present.
+	 */
+	void set(String name, int row, Object value)
+	{
+		_columns.get(name).set(row, value);
+	}
+
+	/**
+	 * Stores an {@link Integer}, a {@link Long} or a {@link Boolean} value converted without
+	 * boxing to a row. Booleans are either 0 or 1.
+	 */
+	void setLong(String name, int row, long value)
+	{
+		_columns.get(name).setLong(row, value);
+	}
+
+	/**
+	 * Stores a {@link Double} value converted without boxing to a row.
+	 */
+	void setDouble(String name, int row, double value)
+	{
+		_columns.get(name).setDouble(row, value);
+	}
+
+	/**
+	 * Stores the name of the found command to a row.
+	 */
+	void setCommand(int row, String name)
+	{
+		_commands[row] = name;
+	}
+
+	/**
+	 * Marks a row failed and clears the values already stored to the row.
+	 */
+	void fail(int row, String error)
+	{
+		for(Column column : _columns.values())
+			column._presence.clear(row);
+		if(_commands != null)
+			_commands[row] = null;
+		_errors[row] = error;
+		_failedRows.set(row);
+	}
+
+	private String definedName(String name)
+	{
+		if(name != null && name.startsWith("-")) {
+			String definedName = _definedGlobalOptionAlternatives.get(name);
+			return definedName != null ? definedName : name;
+		}
+		else
+			return name;
+	}
+
+	private Object values(String name, Class<?> type)
+	{
+		Column column = _columns.get(definedName(name));
+		if(column == null)
+			return null;
+		if(column._type != type)
+			throw
+				new IllegalArgumentException(
+					"'" + name + "' is not a " + type.getSimpleName() + " column."
+				);
+		return column._values;
+	}
+
+
+	private final class Column
+	{
+		private final Class<?> _type;
+		private final Object _values;
+		private final BitSet _presence = new BitSet();
+
+		Column(Class<?> type, int size)
+		{
+			_type = type;
+			if(type == null)
+				_values = null;
+			else if(type == Integer.class)
+				_values = new int[size];
+			else if(type == Long.class)
+				_values = new long[size];
+			else if(type == Short.class)
+				_values = new short[size];
+			else if(type == Byte.class)
+				_values = new byte[size];
+			else if(type == Double.class)
+				_values = new double[size];
+			else if(type == Float.class)
+				_values = new float[size];
+			else if(type == String.class)
+				_values = new String[size];
+			else
+				_values = new Object[size];
+		}
+
+		void set(int row, Object value)
+		{
+			if(_type == Integer.class)
+				((int[])_values)[row] = ((Integer)value).intValue();
+			else if(_type == Long.class)
+				((long[])_values)[row] = ((Long)value).longValue();
+			else if(_type == Short.class)
+				((short[])_values)[row] = ((Short)value).shortValue();
+			else if(_type == Byte.class)
+				((byte[])_values)[row] = ((Byte)value).byteValue();
+			else if(_type == Double.class)
+				((double[])_values)[row] = ((Double)value).doubleValue();
+			else if(_type == Float.class)
+				((float[])_values)[row] = ((Float)value).floatValue();
+			else if(_type == String.class)
+				((String[])_values)[row] = share((String)value);
+			else if(_type != null)
+				((Object[])_values)[row] = value;
+			_presence.set(row);
+		}
+
+		void setLong(int row, long value)
+		{
+			if(_type == Integer.class)
+				((int[])_values)[row] = (int)value;
+			else if(_type == Long.class)
+				((long[])_values)[row] = value;
+			else {
+				assert _type == Boolean.class;
+				((Object[])_values)[row] = Boolean.valueOf(value != 0);
+			}
+			_presence.set(row);
+		}
+
+		void setDouble(int row, double value)
+		{
+			assert _type == Double.class;
+			((double[])_values)[row] = value;
+			_presence.set(row);
+		}
+
+		private String share(String value)
+		{
+			String shared = _strings.get(value);
+			if(shared != null)
+				return shared;
+			_strings.put(value, value);
+			return value;
+		}
+	}
+}
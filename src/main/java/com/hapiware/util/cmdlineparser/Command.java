@@ -36,8 +36,7 @@ public class Command
 	private boolean _mandatoryArguments;
 	private int _numOfOptionalArguments;
 	private boolean _previousWasOptional;
-	private List<Option.Internal> _cmdLineOptions = new ArrayList<Option.Internal>(); 
-	private List<Argument.Internal<?>> _cmdLineArguments = new ArrayList<Argument.Internal<?>>();
+	private String _multipleArgumentName;
 	
 	
 	private Command(Command command)
@@ -45,15 +44,16 @@ public class Command
 		_command = new ElementBase(command._command);
 		_commandExecutor = command._commandExecutor;
 		_mandatoryArguments = command._mandatoryArguments;
-		_cmdLineOptions.addAll(command._cmdLineOptions);
-		_cmdLineArguments.addAll(command._cmdLineArguments);
 		_numOfOptionalArguments = command._numOfOptionalArguments;
 		_shortDescription = command._shortDescription;
 		
-		// References are ok here.
-		_definedOptions = command._definedOptions;
-		_definedOptionAlternatives = command._definedOptionAlternatives;
-		_definedArguments = command._definedArguments;
+		// Definitions are copied so that later changes to the original command do not
+		// affect the copy.
+		for(Map.Entry<String, Option.Internal> entry : command._definedOptions.entrySet())
+			_definedOptions.put(entry.getKey(), new Option.Internal(entry.getValue()));
+		_definedOptionAlternatives.putAll(command._definedOptionAlternatives);
+		for(Map.Entry<String, Argument.Internal<?>> entry : command._definedArguments.entrySet())
+			_definedArguments.put(entry.getKey(), entry.getValue().clone());
 	}
 	
 	/**
@@ -308,7 +308,7 @@ public class Command
 					"'argument' for command '" + _command.name() + "' must have a name."
 				);
 		
-		if(internal.description().size() == 0)
+		if(!internal.hasDescription())
 			throw
 				new ConfigurationException(
 					"Argument '" + internal.name() + "' for command '" 
@@ -330,6 +330,16 @@ public class Command
 				throw new ConfigurationException(msg);
 			}
 		
+		if(_multipleArgumentName != null) {
+			String msg =
+				"A multiple argument must be the last argument. Argument '" + internal.name()
+					+ "' for command '" + _command.name() + "' cannot be added after '"
+					+ _multipleArgumentName + "'.";
+			throw new ConfigurationException(msg);
+		}
+		if(internal.multiple())
+			_multipleArgumentName = internal.name();
+		
 		_definedArguments.put(internal.name(), internal);
 
 		if(!internal.optional())
@@ -379,7 +389,7 @@ public class Command
 					"'option' for command '" + _command.name() + "' must have a name."
 				);
 		
-		if(internal.description().size() == 0)
+		if(!internal.hasDescription())
 			throw
 				new ConfigurationException(
 					"Option '" + internal.name() + "' for command '" 
@@ -422,24 +432,32 @@ public class Command
 		private final List<Option.Data> _options;
 		
 		/**
-		 * "Copy" constructs a data object from the internal command object.
+		 * Constructs a data object for a command found by the internal command object.
 		 * 
 		 * @param internal
 		 * 		The internal command object.
+		 * 
+		 * @param options
+		 * 		The command options found from the command line.
+		 * 
+		 * @param arguments
+		 * 		The command arguments found from the command line.
 		 */
-		Data(Internal internal)
+		Data(Internal internal, List<Option.Data> options, List<Argument.Data<?>> arguments)
 		{
 			super(internal.name(), internal.id(), internal.alternatives());
-			
-			List<Argument.Data<?>> argumentData = new ArrayList<Argument.Data<?>>();
-			for(Argument.Internal<?> argument : internal._outer._cmdLineArguments)
-				argumentData.add(argument.createDataObject());
-			_arguments = Collections.unmodifiableList(argumentData);
-
-			List<Option.Data> optionData = new ArrayList<Option.Data>();
-			for(Option.Internal option : internal._outer._cmdLineOptions)
-				optionData.add(new Option.Data(option));
-			_options  = Collections.unmodifiableList(optionData);
+			_arguments = Collections.unmodifiableList(new ArrayList<Argument.Data<?>>(arguments));
+			_options  = Collections.unmodifiableList(new ArrayList<Option.Data>(options));
+		}
+		
+		List<Option.Data> options()
+		{
+			return _options;
+		}
+		
+		List<Argument.Data<?>> arguments()
+		{
+			return _arguments;
 		}
 		
 		
@@ -615,6 +633,32 @@ public class Command
 			else
 				return null;
 		}
+
+
+		/**
+		 * Returns the values of the command argument if exists on the command line. For a
+		 * multiple command argument the values are converted while iterated (see
+		 * {@link Argument#multiple()}).
+		 *
+		 * @param <T>
+		 * 		A type of the command argument.
+		 *
+		 * @param name
+		 * 		A name of the command argument.
+		 *
+		 * @return
+		 * 		The command argument values if the command argument exists on the command line.
+		 * 		{@code null} otherwise.
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> Iterable<T> getArgumentValues(String name)
+		{
+			Argument.Data<?> argument = getArgument(name);
+			if(argument != null)
+				return (Iterable<T>)argument.getValues();
+			else
+				return null;
+		}
 		
 		
 		/**
@@ -658,17 +702,31 @@ public class Command
 	
 	static final class Internal
 		implements
-			Parser
+			Parser<Data>
 	{
 		private Command _outer;
+		private final NameTrie<Option.Internal> _optionLookup;
 		
 		public Internal(Internal internal)
+		{
+			this(internal, false);
+		}
+		public Internal(Internal internal, boolean allowAbbreviations)
 		{
 			_outer = new Command(internal._outer);
+			_optionLookup =
+				NameTrie.create(
+					_outer._definedOptions,
+					_outer._definedOptionAlternatives,
+					allowAbbreviations
+				);
 		}
 		public Internal(Command outer)
 		{
+			// Options can still be added to the outer command and thus the lookup is
+			// created for each parse (see optionLookup()).
 			_outer = outer;
+			_optionLookup = null;
 		}
 		public String name()
 		{
@@ -686,17 +744,17 @@ public class Command
 		{
 			return _outer._command.description();
 		}
-		public String shortDescription()
+		public boolean hasDescription()
 		{
-			return _outer._shortDescription;
+			return _outer._command.hasDescription();
 		}
-		public List<Option.Internal> cmdLineOptions()
+		public String shortDescription()
 		{
-			return Collections.unmodifiableList(_outer._cmdLineOptions);
+			return _outer._shortDescription;
 		}
-		public List<Argument.Internal<?>> cmdLineArguments()
+		public CommandExecutor commandExecutor()
 		{
-			return Collections.unmodifiableList(_outer._cmdLineArguments);
+			return _outer._commandExecutor;
 		}
 		public Map<String, Option.Internal>definedOptions()
 		{
@@ -706,28 +764,44 @@ public class Command
 		{
 			return Collections.unmodifiableMap(_outer._definedArguments);
 		}
+		public boolean mandatoryArguments()
+		{
+			return _outer._mandatoryArguments;
+		}
+		public NameTrie<Option.Internal> optionLookup()
+		{
+			if(_optionLookup != null)
+				return _optionLookup;
+			else
+				return
+					NameTrie.create(
+						_outer._definedOptions,
+						_outer._definedOptionAlternatives,
+						false
+					);
+		}
 		
-		public boolean parse(List<String> arguments)
+		public Data parse(Tokens tokens)
 			throws
 				ConstraintException,
 				IllegalCommandLineArgumentException
 		{
-			if(arguments.size() == 0)
-				return false;
+			if(!tokens.hasNext())
+				return null;
 			
-			String commandName = arguments.remove(0);
+			String commandName = tokens.next();
+			NameTrie<Option.Internal> optionLookup = optionLookup();
+			List<Option.Data> cmdLineOptions = new ArrayList<Option.Data>();
+			List<Argument.Data<?>> cmdLineArguments = new ArrayList<Argument.Data<?>>();
 			Set<Option.Internal> nonMultipleOptionCheckSet = new HashSet<Option.Internal>();
 			boolean commandArgumentsChecked = false;
-			while(arguments.size() > 0) {
-				String arg = arguments.get(0);
+			while(tokens.hasNext()) {
 				if(
 					Util.checkOption(
-						arg,
-						arguments,
-						_outer._definedOptions,
-						_outer._definedOptionAlternatives,
+						tokens,
+						optionLookup,
 						nonMultipleOptionCheckSet,
-						_outer._cmdLineOptions
+						cmdLineOptions
 					)
 				)
 					continue;
@@ -738,18 +812,32 @@ public class Command
 				if(
 					Util.checkArguments(
 						commandName,
-						arguments,
+						tokens,
 						_outer._definedArguments,
-						_outer._cmdLineArguments
+						cmdLineArguments
 					)
 				) {
 					commandArgumentsChecked = true;
 					continue;
 				}
 				
-				return false;
+				return null;
 			}
 
+			// An argument reading the standard input can be missing from the command line.
+			if(
+				!commandArgumentsChecked
+					&& tokens.standardInput()
+					&& Util.hasStandardInputArgument(_outer._definedArguments)
+			)
+				commandArgumentsChecked =
+					Util.checkArguments(
+						commandName,
+						tokens,
+						_outer._definedArguments,
+						cmdLineArguments
+					);
+
 			if(_outer._mandatoryArguments && !commandArgumentsChecked) {
 				String msg =
 					"Command '" + commandName + "' does not have a mandatory argument.";
@@ -759,7 +847,7 @@ public class Command
 			
 			// There are no command line arguments and all the arguments are optional.
 			if(
-				_outer._cmdLineArguments.size() == 0
+				cmdLineArguments.size() == 0
 				&& _outer._definedArguments.size() > 0
 				&& !_outer._mandatoryArguments
 			) {
@@ -769,26 +857,26 @@ public class Command
 					@SuppressWarnings("unchecked")
 					Argument.Internal<?> argument =
 						((Entry<String, Argument.Internal<?>>)it.next()).getValue();
-					argument.setDefaultValue();
-					_outer._cmdLineArguments.add(argument);
+					cmdLineArguments.add(argument.createDefaultDataObject());
 				}
 			}
 			
 			
-			return true;
+			return new Data(this, cmdLineOptions, cmdLineArguments);
 		}
-		public void execute(List<Option.Internal> cmdLineGlobalOptions) throws AnnotatedFieldSetException
+		public void execute(Data command, List<Option.Data> cmdLineGlobalOptions)
+			throws
+				AnnotatedFieldSetException
 		{
 			if(_outer._commandExecutor != null) {
 				Class<?> commandExecutorClass = _outer._commandExecutor.getClass();
 				Util.setAnnotatedOptions(_outer._commandExecutor, commandExecutorClass, cmdLineGlobalOptions);
-				Util.setAnnotatedOptions(_outer._commandExecutor, commandExecutorClass, _outer._cmdLineOptions);
-				Util.setAnnotatedArguments(_outer._commandExecutor, commandExecutorClass, _outer._cmdLineArguments);
-				
-				List<Option.Data> optionData = new ArrayList<Option.Data>();
-				for(Option.Internal internal : cmdLineGlobalOptions)
-					optionData.add(new Option.Data(internal));
-				_outer._commandExecutor.execute(new Data(this), Collections.unmodifiableList(optionData));
+				Util.setAnnotatedOptions(_outer._commandExecutor, commandExecutorClass, command.options());
+				Util.setAnnotatedArguments(_outer._commandExecutor, commandExecutorClass, command.arguments());
+				_outer._commandExecutor.execute(
+					command,
+					Collections.unmodifiableList(new ArrayList<Option.Data>(cmdLineGlobalOptions))
+				);
 			}
 		}
 		
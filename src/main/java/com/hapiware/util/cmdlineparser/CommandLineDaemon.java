@@ -0,0 +1,676 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * {@code CommandLineDaemon} keeps a command line utility resident in a JVM so that a single
+ * invocation does not pay for the JVM start-up nor for creating the {@link CommandLineParser}
+ * definitions. A thin client sends the command line arguments, the working directory, the
+ * environment and the standard input to the daemon which runs the utility and streams the
+ * standard output, the standard error and the exit status back to the client.
+ * <p>
+ * A typical daemon looks like this:
+ * <pre>
+ * public static void main(String[] args) throws IOException
+ * {
+ *     // The daemon must be created before the parser because the writers of
+ *     // the parser capture System.out.
+ *     CommandLineDaemon daemon = new CommandLineDaemon();
+ *     final CommandLineParser p = createParser();
+ *     daemon.serve(
+ *         new File(System.getProperty("user.home"), ".util.port"),
+ *         new CommandLineDaemon.Program() {
+ *             public void run(String[] args) throws Exception
+ *             {
+ *                 p.parsech(args);
+ *                 ...
+ *             }
+ *         }
+ *     );
+ * }
+ * </pre>
+ * and it is used with a client, for example:
+ * <pre>
+ * java -cp cmd-line-parser.jar com.hapiware.util.cmdlineparser.CommandLineDaemon ~/.util.port --verbose file.txt
+ * </pre>
+ *
+ * How requests are handled:
+ * 	<ul>
+ * 		<li>
+ * 			{@code System.out}, {@code System.err} and {@code System.in} are replaced with
+ * 			streams which are routed to the client of the request being served by the current
+ * 			thread (or its child threads). Elsewhere the original streams are used.
+ * 		</li>
+ * 		<li>
+ * 			{@link CommandLineParser} ends the request instead of the JVM when it would
+ * 			normally call {@code System.exit()} (e.g. after showing the help). The given
+ * 			status is returned to the client. Notice that calling {@code System.exit()} directly
+ * 			still stops the daemon.
+ * 		</li>
+ * 		<li>
+ * 			the JVM cannot change its working directory nor its environment. Use
+ * 			{@link #workingDirectory()} and {@link #environment()} instead. Relative argument
+ * 			files (see {@link CommandLineParser#useArgumentFiles()}) are resolved against
+ * 			{@link #workingDirectory()}.
+ * 		</li>
+ * 		<li>
+ * 			requests are served one at a time.
+ * 		</li>
+ * 	</ul>
+ *
+ * Java does not support Unix domain sockets and thus the daemon listens to a TCP port bound to
+ * the loopback address. The port and a random token are written to a port file and the
+ * clients must send the token. The port file is written with the default permissions of the
+ * JVM and thus it must be in a directory which only the owner of the daemon can read (e.g.
+ * a private subdirectory of the home directory). Otherwise other users can read the token and
+ * run the utility as the owner of the daemon.
+ * <p>
+ * The protocol (all integers are big-endian 32-bit and all strings are an integer length
+ * followed by UTF-8 bytes) allows writing clients in other languages:
+ * 	<ol>
+ * 		<li>
+ * 			the client sends the token, the working directory, the number of environment
+ * 			variables followed by names and values and the number of arguments followed by
+ * 			the arguments. The connection is closed if the token does not match, if the
+ * 			request is not sent within 10 seconds, if a string or a standard input block is
+ * 			longer than 128 KiB or if there are more than 65536 environment variables or
+ * 			arguments.
+ * 		</li>
+ * 		<li>
+ * 			the client sends the standard input as blocks (a length and bytes). A zero length
+ * 			ends the standard input.
+ * 		</li>
+ * 		<li>
+ * 			the daemon sends blocks consisting of a type byte ({@code 1} standard output,
+ * 			{@code 2} standard error) and a length and bytes. The last block has the type
+ * 			{@code 3} and an integer exit status and then the connection is closed.
+ * 		</li>
+ * 	</ol>
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+public final class CommandLineDaemon
+{
+	private static final String ENCODING = "UTF-8";
+	private static final int STDOUT = 1;
+	private static final int STDERR = 2;
+	private static final int EXIT = 3;
+	private static final int BUFFER_SIZE = 8192;
+	private static final int UNEXPECTED_ERROR_STATUS = -2;
+	private static final int TOKEN_LENGTH = 32;
+	private static final int MAX_LENGTH = 128 * 1024;
+	private static final int MAX_COUNT = 65536;
+	private static final int REQUEST_TIMEOUT = 10000;
+
+	private static final InheritableThreadLocal<Request> CURRENT_REQUEST =
+		new InheritableThreadLocal<Request>();
+	private static boolean _streamsInstalled;
+
+	private volatile ServerSocket _serverSocket;
+
+
+	/**
+	 * {@code Program} is the utility run by the daemon for each request.
+	 */
+	public interface Program
+	{
+		/**
+		 * Runs the utility for a single request.
+		 *
+		 * @param args
+		 * 		Command line arguments from the client.
+		 *
+		 * @throws Exception
+		 * 		Any exception ends the request. The stack trace is sent to the client and the
+		 * 		exit status is {@code -2}.
+		 */
+		void run(String[] args) throws Exception;
+	}
+
+
+	/**
+	 * Creates a daemon and replaces {@code System.out}, {@code System.err} and {@code System.in}
+	 * with the routing streams. Create the daemon before creating {@link CommandLineParser}
+	 * objects.
+	 */
+	public CommandLineDaemon()
+	{
+		installStreams();
+	}
+
+
+	/**
+	 * Listens to the requests until {@link #stop()} is called. The port and the token are
+	 * written to {@code portFile} when the daemon is ready to accept requests.
+	 *
+	 * @param portFile
+	 * 		A file for the port and the token. The file must be in a directory which only
+	 * 		the owner of the daemon can read.
+	 *
+	 * @param program
+	 * 		The utility to be run for each request.
+	 *
+	 * @throws IOException
+	 * 		If the server socket cannot be created or the port file cannot be written.
+	 */
+	public void serve(File portFile, Program program) throws IOException
+	{
+		if(portFile == null)
+			throw new NullPointerException("'portFile' must have a value.");
+		if(program == null)
+			throw new NullPointerException("'program' must have a value.");
+
+		ServerSocket serverSocket = new ServerSocket(0, 0, InetAddress.getByName(null));
+		_serverSocket = serverSocket;
+		try {
+			String token = createToken();
+			OutputStream out = new FileOutputStream(portFile);
+			try {
+				out.write((serverSocket.getLocalPort() + "\n" + token + "\n").getBytes(ENCODING));
+			}
+			finally {
+				out.close();
+			}
+
+			while(!serverSocket.isClosed()) {
+				Socket socket;
+				try {
+					socket = serverSocket.accept();
+				}
+				catch(IOException e) {
+					if(serverSocket.isClosed())
+						break;
+					throw e;
+				}
+				try {
+					handle(socket, token, program);
+				}
+				catch(IOException e) {
+					// A broken client connection does not stop the daemon.
+				}
+				catch(RuntimeException e) {
+					// Neither does a malformed request.
+				}
+				finally {
+					socket.close();
+				}
+			}
+		}
+		finally {
+			serverSocket.close();
+		}
+	}
+
+
+	/**
+	 * Stops the daemon. The request being served is finished first.
+	 */
+	public void stop()
+	{
+		ServerSocket serverSocket = _serverSocket;
+		if(serverSocket != null)
+			try {
+				serverSocket.close();
+			}
+			catch(IOException e) {
+				// Closing is best effort.
+			}
+	}
+
+
+	/**
+	 * Returns the working directory of the client if called while serving a request. Otherwise
+	 * returns the working directory of the JVM.
+	 *
+	 * @return
+	 * 		The working directory.
+	 */
+	public static File workingDirectory()
+	{
+		Request request = CURRENT_REQUEST.get();
+		return new File(request != null ? request._workingDirectory : System.getProperty("user.dir"));
+	}
+
+
+	/**
+	 * Returns the environment of the client if called while serving a request. Otherwise
+	 * returns the environment of the JVM.
+	 *
+	 * @return
+	 * 		An unmodifiable map of environment variables.
+	 */
+	public static Map<String, String> environment()
+	{
+		Request request = CURRENT_REQUEST.get();
+		return request != null ? request._environment : System.getenv();
+	}
+
+
+	/**
+	 * A client for the daemon. Usage:
+	 * <p>
+	 * {@code java com.hapiware.util.cmdlineparser.CommandLineDaemon PORT-FILE [ARGS]}
+	 * <p>
+	 * Exits with the status returned by the daemon.
+	 *
+	 * @param args
+	 * 		The port file followed by the command line arguments for the daemon.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length == 0) {
+			System.err.println("Usage: CommandLineDaemon PORT-FILE [ARGS]");
+			System.exit(UNEXPECTED_ERROR_STATUS);
+		}
+		String[] daemonArgs = new String[args.length - 1];
+		System.arraycopy(args, 1, daemonArgs, 0, daemonArgs.length);
+		System.exit(request(new File(args[0]), daemonArgs, System.in, System.out, System.err));
+	}
+
+
+	/**
+	 * Sends a request to the daemon and copies the output of the request to the given streams.
+	 * The working directory and the environment of this JVM are sent with the request.
+	 *
+	 * @param portFile
+	 * 		The port file written by {@link #serve(File, Program)}.
+	 *
+	 * @param args
+	 * 		Command line arguments for the daemon.
+	 *
+	 * @param in
+	 * 		The standard input for the request. Read in a separate daemon thread.
+	 *
+	 * @param out
+	 * 		A stream for the standard output of the request.
+	 *
+	 * @param err
+	 * 		A stream for the standard error of the request.
+	 *
+	 * @return
+	 * 		The exit status of the request.
+	 *
+	 * @throws IOException
+	 * 		If the daemon cannot be reached.
+	 */
+	public static int request(
+		File portFile,
+		String[] args,
+		final InputStream in,
+		OutputStream out,
+		OutputStream err
+	)
+		throws
+			IOException
+	{
+		BufferedReader reader =
+			new BufferedReader(new InputStreamReader(new FileInputStream(portFile), ENCODING));
+		int port;
+		String token;
+		try {
+			port = Integer.parseInt(reader.readLine());
+			token = reader.readLine();
+		}
+		finally {
+			reader.close();
+		}
+
+		Socket socket = new Socket(InetAddress.getByName(null), port);
+		try {
+			final DataOutputStream requestOut =
+				new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			writeString(requestOut, token);
+			writeString(requestOut, System.getProperty("user.dir"));
+			Map<String, String> environment = System.getenv();
+			requestOut.writeInt(environment.size());
+			for(Map.Entry<String, String> variable : environment.entrySet()) {
+				writeString(requestOut, variable.getKey());
+				writeString(requestOut, variable.getValue());
+			}
+			requestOut.writeInt(args.length);
+			for(String arg : args)
+				writeString(requestOut, arg);
+			requestOut.flush();
+
+			Thread stdinPump =
+				new Thread("CommandLineDaemon stdin") {
+					public void run()
+					{
+						byte[] buffer = new byte[BUFFER_SIZE];
+						try {
+							int length;
+							while((length = in.read(buffer)) > 0) {
+								requestOut.writeInt(length);
+								requestOut.write(buffer, 0, length);
+								requestOut.flush();
+							}
+							requestOut.writeInt(0);
+							requestOut.flush();
+						}
+						catch(IOException e) {
+							// The request has ended.
+						}
+					}
+				};
+			stdinPump.setDaemon(true);
+			stdinPump.start();
+
+			DataInputStream responseIn =
+				new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			byte[] buffer = new byte[BUFFER_SIZE];
+			while(true) {
+				int type = responseIn.readByte();
+				if(type == EXIT)
+					return responseIn.readInt();
+
+				int length = responseIn.readInt();
+				if(length > buffer.length)
+					buffer = new byte[length];
+				responseIn.readFully(buffer, 0, length);
+				OutputStream target = type == STDERR ? err : out;
+				target.write(buffer, 0, length);
+				target.flush();
+			}
+		}
+		finally {
+			socket.close();
+		}
+	}
+
+
+	/**
+	 * Ends the current request with {@code status} if called while serving a request.
+	 * Otherwise does nothing. Used by {@link ExitHandler}.
+	 *
+	 * @param status
+	 * 		The exit status.
+	 *
+	 * @throws Exit
+	 * 		If called while serving a request.
+	 */
+	static void exit(int status)
+	{
+		Request request = CURRENT_REQUEST.get();
+		if(request == null)
+			return;
+
+		// Only the first exit counts (e.g. parsech() exits also when handling an exit).
+		if(request._exitStatus == null)
+			request._exitStatus = status;
+		throw new Exit();
+	}
+
+
+	private static synchronized void installStreams()
+	{
+		if(_streamsInstalled)
+			return;
+
+		final PrintStream out = System.out;
+		final PrintStream err = System.err;
+		final InputStream in = System.in;
+		System.setOut(new PrintStream(new RoutingOutputStream(out, STDOUT), true));
+		System.setErr(new PrintStream(new RoutingOutputStream(err, STDERR), true));
+		System.setIn(
+			new InputStream() {
+				public int read() throws IOException
+				{
+					return stdin().read();
+				}
+				public int read(byte[] b, int off, int len) throws IOException
+				{
+					return stdin().read(b, off, len);
+				}
+				public int available() throws IOException
+				{
+					return stdin().available();
+				}
+				private InputStream stdin()
+				{
+					Request request = CURRENT_REQUEST.get();
+					return request != null ? request._in : in;
+				}
+			}
+		);
+		_streamsInstalled = true;
+	}
+
+	private static void handle(Socket socket, String token, Program program) throws IOException
+	{
+		// The client must send the request promptly. The standard input may idle, though.
+		socket.setSoTimeout(REQUEST_TIMEOUT);
+		final DataInputStream requestIn =
+			new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+		// The token is checked before anything else is allocated.
+		if(requestIn.readInt() != TOKEN_LENGTH)
+			return;
+		byte[] clientToken = new byte[TOKEN_LENGTH];
+		requestIn.readFully(clientToken);
+		if(!MessageDigest.isEqual(clientToken, token.getBytes(ENCODING)))
+			return;
+
+		Request request = new Request(socket.getOutputStream());
+		request._workingDirectory = readString(requestIn);
+		Map<String, String> environment = new HashMap<String, String>();
+		int size = readLength(requestIn, MAX_COUNT);
+		for(int i = 0; i < size; i++)
+			environment.put(readString(requestIn), readString(requestIn));
+		request._environment = Collections.unmodifiableMap(environment);
+		String[] args = new String[readLength(requestIn, MAX_COUNT)];
+		for(int i = 0; i < args.length; i++)
+			args[i] = readString(requestIn);
+		socket.setSoTimeout(0);
+
+		final PipedOutputStream stdin = new PipedOutputStream();
+		request._in = new PipedInputStream(stdin);
+		Thread stdinPump =
+			new Thread("CommandLineDaemon stdin") {
+				public void run()
+				{
+					try {
+						int length;
+						byte[] buffer = new byte[BUFFER_SIZE];
+						while((length = readLength(requestIn, MAX_LENGTH)) > 0) {
+							if(length > buffer.length)
+								buffer = new byte[length];
+							requestIn.readFully(buffer, 0, length);
+							stdin.write(buffer, 0, length);
+						}
+					}
+					catch(IOException e) {
+						// The client or the request has ended.
+					}
+					finally {
+						try {
+							stdin.close();
+						}
+						catch(IOException e) {
+							// Closing is best effort.
+						}
+					}
+				}
+			};
+		stdinPump.setDaemon(true);
+		stdinPump.start();
+
+		int status = 0;
+		CURRENT_REQUEST.set(request);
+		try {
+			program.run(args);
+		}
+		catch(Exit e) {
+			// The status is set by exit().
+		}
+		catch(Throwable t) {
+			t.printStackTrace();
+			status = UNEXPECTED_ERROR_STATUS;
+		}
+		finally {
+			System.out.flush();
+			System.err.flush();
+			CURRENT_REQUEST.set(null);
+			request._in.close();
+		}
+		if(request._exitStatus != null)
+			status = request._exitStatus.intValue();
+		request.sendExit(status);
+
+		// Unread standard input would make closing the socket to reset the connection before
+		// the client has read the exit status. Thus the rest of the input is read until
+		// the client closes the connection. A client which does not close the connection is
+		// not waited for longer than REQUEST_TIMEOUT, though. Closing the socket ends
+		// the stdin pump if it is still running.
+		socket.shutdownOutput();
+		socket.setSoTimeout(REQUEST_TIMEOUT);
+		long deadline = System.currentTimeMillis() + REQUEST_TIMEOUT;
+		try {
+			stdinPump.join(REQUEST_TIMEOUT);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if(stdinPump.isAlive())
+			return;
+		byte[] buffer = new byte[BUFFER_SIZE];
+		while(System.currentTimeMillis() < deadline && requestIn.read(buffer) >= 0)
+			;
+	}
+
+	private static String createToken()
+	{
+		byte[] bytes = new byte[16];
+		new SecureRandom().nextBytes(bytes);
+		StringBuilder token = new StringBuilder();
+		for(byte b : bytes)
+			token.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+		return token.toString();
+	}
+
+	private static String readString(DataInputStream in) throws IOException
+	{
+		byte[] bytes = new byte[readLength(in, MAX_LENGTH)];
+		in.readFully(bytes);
+		return new String(bytes, ENCODING);
+	}
+
+	private static int readLength(DataInputStream in, int max) throws IOException
+	{
+		int length = in.readInt();
+		if(length < 0 || length > max)
+			throw new IOException("Illegal length " + length + " in the request.");
+		return length;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException
+	{
+		byte[] bytes = value.getBytes(ENCODING);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+
+	/**
+	 * {@code Exit} ends a request (or a command of {@link CommandLineShell}). It is an
+	 * {@link Error} so that it passes ordinary exception handling of the program.
+	 */
+	static final class Exit
+		extends
+			Error
+	{
+		private static final long serialVersionUID = -4411914532817722950L;
+	}
+
+
+	private static final class Request
+	{
+		private final DataOutputStream _out;
+		private String _workingDirectory;
+		private Map<String, String> _environment;
+		private InputStream _in;
+		private Integer _exitStatus;
+
+		Request(OutputStream out)
+		{
+			_out = new DataOutputStream(new BufferedOutputStream(out));
+		}
+
+		synchronized void write(int type, byte[] bytes, int offset, int length) throws IOException
+		{
+			_out.writeByte(type);
+			_out.writeInt(length);
+			_out.write(bytes, offset, length);
+			_out.flush();
+		}
+
+		synchronized void sendExit(int status) throws IOException
+		{
+			_out.writeByte(EXIT);
+			_out.writeInt(status);
+			_out.flush();
+		}
+	}
+
+
+	private static final class RoutingOutputStream
+		extends
+			OutputStream
+	{
+		private final OutputStream _original;
+		private final int _type;
+
+		RoutingOutputStream(OutputStream original, int type)
+		{
+			_original = original;
+			_type = type;
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			write(new byte[] { (byte)b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			Request request = CURRENT_REQUEST.get();
+			if(request != null)
+				request.write(_type, b, off, len);
+			else
+				_original.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			if(CURRENT_REQUEST.get() == null)
+				_original.flush();
+		}
+	}
+}
@@ -1,18 +1,13 @@
 package com.hapiware.util.cmdlineparser;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import com.hapiware.util.cmdlineparser.annotation.Id;
 import com.hapiware.util.cmdlineparser.constraint.Constraint;
@@ -29,7 +24,6 @@ import com.hapiware.util.cmdlineparser.writer.HtmlWriter;
 import com.hapiware.util.cmdlineparser.writer.ScreenWriter;
 import com.hapiware.util.cmdlineparser.writer.WikidotWriter;
 import com.hapiware.util.cmdlineparser.writer.Writer;
-import com.hapiware.util.cmdlineparser.writer.Writer.Level;
 import com.hapiware.util.cmdlineparser.writer.XmlWriter;
 
 
@@ -107,7 +101,11 @@ import com.hapiware.util.cmdlineparser.writer.XmlWriter;
  * </pre>
  * 
  * The order options and arguments are defined (using various {@code add()} methods) is irrelevant.
- * 
+ * <p>
+ * The first {@code --} on the command line ends the options. All the command line arguments after
+ * {@code --} are interpreted as arguments even if they start with minus (-). For example
+ * {@code java -jar utilname.jar -v -- -file-with-minus} has only one option ({@code -v}).
+ *
  * Here is an example of argument definition:
  * <pre>
  * private static CommandLineParser _clp;
@@ -368,8 +366,24 @@ import com.hapiware.util.cmdlineparser.writer.XmlWriter;
  * }
  * </pre>
  * Now, the program can react to internal options without first handling configuration files.
- * 
- * 
+ * <p>
+ * All the parse methods use a {@link CompiledParser} which is an immutable snapshot of the
+ * current definitions. {@link #compile()} creates the compiled parser once and caches it until
+ * the definitions are changed. A compiled parser can also be used directly to parse several
+ * command lines (possibly from several threads) without any per-parse set-up. In that case every
+ * {@link CompiledParser#parse(String[])} call returns a new {@link ParseResult} and nothing is
+ * stored to {@code CommandLineParser}. For example:
+ * <pre>
+ * CompiledParser compiled = _clp.compile();
+ * for(String[] line : lines) {
+ *     ParseResult result = compiled.parse(line);
+ *     process(result.getArgumentValue("INPUT"));
+ * }
+ * </pre>
+ * Notice that {@link CompiledParser} does not handle internal options, annotated fields nor
+ * command executors.
+ *
+ *
  * <h3><a name="cmdlineparser-coding-style">Coding style</a></h3>
  * Argument and command definitions can be defined with two different ways; using double-brace
  * syntax or by chaining commands. They can be mixed if wanted.
@@ -402,6 +416,16 @@ import com.hapiware.util.cmdlineparser.writer.XmlWriter;
  *             )
  *     );
  * </pre>
+ * Every anonymous class of the double-brace syntax is a separate class which must be loaded
+ * and verified when the utility is started. For utilities having a large number of options this
+ * slows down the start up noticeably and thus method chaining is preferred for them. All the
+ * setters of {@link Option}, {@link OptionArgument}, {@link Argument}, {@link Command} and
+ * {@link Enumeration} return the object itself. Notice that when chaining
+ * {@link Option#set(Class, OptionArgument)} must be called after the {@link OptionArgument} has
+ * been completely defined.
+ * <p>
+ * Utilities generated from metadata can also read their definitions from a declarative text
+ * file with {@link DefinitionFile} and share a single main class.
  * 
  * 
  * 
@@ -524,6 +548,15 @@ import com.hapiware.util.cmdlineparser.writer.XmlWriter;
  * If {@link Option#multiple()} has been set then the annotated field must be an array of
  * defined argument types. If there are no defined arguments the field must be a {@code boolean}
  * array.
+ * <p>
+ * The annotated fields are set by reflection unless the annotation processor of the
+ * {@code command-line-parser-processor} module has generated a companion binder class for
+ * the class (see {@link GeneratedBinder}).
+ * <p>
+ * The whole command line can also be defined with annotations (see
+ * {@link com.hapiware.util.cmdlineparser.annotation.CommandLineDefinition}). Then the annotation
+ * processor generates a class which creates the {@code CommandLineParser} with plain builder
+ * calls.
  * 
  * <h4><a name="cmdlineparser-command-executors">Command executors</a></h4>
  * There is two ways to trigger some action depending on what command has been called from the
@@ -685,16 +718,24 @@ import com.hapiware.util.cmdlineparser.writer.XmlWriter;
  */
 public final class CommandLineParser
 {
-	private enum HelpType { OPTIONS, ARGUMENTS, COMMANDS, COMMAND_OPTIONS, COMMAND_ARGUMENTS };
-	
-	private static final String COMPLETE_HELP_COMMAND = "all";
-	private static final String USAGE_HELP_COMMAND = "usage";
-	private static final String EXAMPLES_HELP_COMMAND = "examples";
-	private static final String OPTS_HELP_COMMAND = "opts";
-	private static final String CMDS_HELP_COMMAND = "cmds";
-	private static final String CMD_HELP_COMMAND = "cmd=";
-	private static final String ARGS_HELP_COMMAND = "args";
-	private static final String WRITER_CLASS_PROPERTY = "writerclass";
+	enum HelpType { OPTIONS, ARGUMENTS, COMMANDS, COMMAND_OPTIONS, COMMAND_ARGUMENTS };
+	
+	static final String COMPLETE_HELP_COMMAND = "all";
+	static final String USAGE_HELP_COMMAND = "usage";
+	static final String EXAMPLES_HELP_COMMAND = "examples";
+	static final String OPTS_HELP_COMMAND = "opts";
+	static final String CMDS_HELP_COMMAND = "cmds";
+	static final String CMD_HELP_COMMAND = "cmd=";
+	static final String ARGS_HELP_COMMAND = "args";
+	static final String WRITER_CLASS_PROPERTY = "writerclass";
+	private static final ParseResult EMPTY_RESULT =
+		new ParseResult(
+			new ArrayList<Option.Data>(),
+			new ArrayList<Argument.Data<?>>(),
+			null,
+			null,
+			new HashMap<String, String>()
+		);
 
 	
 	private final Description _description;
@@ -707,14 +748,24 @@ public final class CommandLineParser
 	private boolean _mandatoryArguments;
 	private int _numOfOptionalArguments;
 	private boolean _previousWasOptional;
-	private List<Option.Internal> _cmdLineGlobalOptions = new ArrayList<Option.Internal>(); 
-	private Command.Internal _cmdLineCommand;
-	private List<Argument.Internal<?>> _cmdLineArguments = new ArrayList<Argument.Internal<?>>();
+	private String _multipleArgumentName;
+	private boolean _allowAbbreviations;
+	private boolean _lazyConversion;
+	private boolean _argumentFiles;
+	private CompiledParser _compiledParser;
+	
+	// Incremented whenever the definitions change. Invalidates the recorded help.
+	private int _modificationCount;
+	
+	private ParseResult _cmdLineResult = EMPTY_RESULT;
 	private final Class<?> _mainClass;
 	private final String _javaCommand;
 	private Set<HelpType> _definedArgumentTypes = new HashSet<HelpType>();
 	private List<String> _exampleArguments = new LinkedList<String>();
+	
+	// null if the default writer is used.
 	private final Writer _writer;
+	private HelpPrinter _helpPrinter;
 	
 	// This is overridden in tests by using reflection.
 	private final ExitHandler _exitHandler =
@@ -722,6 +773,10 @@ public final class CommandLineParser
 		{
 			public void exit(int status)
 			{
+				// Ends only the command if running in a shell or the request if running
+				// in a daemon.
+				CommandLineShell.exit(status);
+				CommandLineDaemon.exit(status);
 				System.exit(status);
 			}
 		};
@@ -743,7 +798,8 @@ public final class CommandLineParser
 	 */
 	public CommandLineParser(Class<?> mainClass, Description description)
 	{
-		this(mainClass, new ScreenWriter(), description);
+		// ScreenWriter is created only when something is printed.
+		this(mainClass, null, description, true);
 	}
 	
 	
@@ -767,7 +823,7 @@ public final class CommandLineParser
 	 */
 	public CommandLineParser(Class<?> mainClass, int screenWidth, Description description)
 	{
-		this(mainClass, new ScreenWriter(screenWidth), description);
+		this(mainClass, HelpPrinter.createScreenWriter(screenWidth), description);
 	}
 	
 	
@@ -793,10 +849,20 @@ public final class CommandLineParser
 		Writer writer,
 		Description description
 	)
+	{
+		this(mainClass, writer, description, false);
+	}
+	
+	private CommandLineParser(
+		Class<?> mainClass,
+		Writer writer,
+		Description description,
+		boolean defaultWriter
+	)
 	{
 		if(mainClass == null)
 			throw new ConfigurationException("'mainClass' must have a value.");
-		if(writer == null)
+		if(writer == null && !defaultWriter)
 			throw new ConfigurationException("'writer' must have a value.");
 		if(description == null)
 			throw new ConfigurationException("'description' must have a value.");
@@ -806,8 +872,7 @@ public final class CommandLineParser
 			throw new ConfigurationException("Implementation-Version: is missing from MANIFEST.MF.");
 		
 		_mainClass = mainClass;
-		Writer writerFromSystemProperty = createSystemPropertyWriter();
-		_writer = writerFromSystemProperty != null ? writerFromSystemProperty : writer;
+		_writer = writer;
 		_javaCommand = "java -jar " + _mainClass.getPackage().getImplementationTitle() + ".jar";
 		_description = description;
 	}
@@ -836,7 +901,7 @@ public final class CommandLineParser
 		if(internal.name() == null || internal.name().trim().length() == 0)
 			throw new ConfigurationException("'option' must have a name.");
 		
-		if(internal.description().size() == 0)
+		if(!internal.hasDescription())
 			throw
 				new ConfigurationException("Option '" + internal.name() + "' must have a description.");
 		if(_definedGlobalOptionAlternatives.containsKey(internal.name()))
@@ -853,6 +918,8 @@ public final class CommandLineParser
 					);
 		
 		_definedArgumentTypes.add(HelpType.OPTIONS);
+		_compiledParser = null;
+		_modificationCount++;
 	}
 
 	
@@ -898,7 +965,7 @@ public final class CommandLineParser
 					"Command '" + internal.name() + "' must have a short description."
 				);
 		
-		if(internal.description().size() == 0)
+		if(!internal.hasDescription())
 			throw
 				new ConfigurationException("Command '" + internal.name() + "' must have a description.");
 		if(_definedCommandAlternatives.containsKey(internal.name()))
@@ -919,6 +986,8 @@ public final class CommandLineParser
 			_definedArgumentTypes.add(HelpType.COMMAND_OPTIONS);
 		if(internal.definedArguments().size() > 0)
 			_definedArgumentTypes.add(HelpType.COMMAND_ARGUMENTS);
+		_compiledParser = null;
+		_modificationCount++;
 	}
 	
 	
@@ -968,7 +1037,7 @@ public final class CommandLineParser
 		if(internal.name() == null || internal.name().trim().length() == 0)
 			throw new ConfigurationException("'argument' must have a name.");
 		
-		if(internal.description().size() == 0)
+		if(!internal.hasDescription())
 			throw
 				new ConfigurationException("Argument '" + internal.name() + "' must have a description.");
 		if(_definedArguments.containsKey(internal.name()))
@@ -984,6 +1053,15 @@ public final class CommandLineParser
 				throw new ConfigurationException(msg);
 			}
 		
+		if(_multipleArgumentName != null) {
+			String msg =
+				"A multiple argument must be the last argument. Argument '" + internal.name()
+					+ "' cannot be added after '" + _multipleArgumentName + "'.";
+			throw new ConfigurationException(msg);
+		}
+		if(internal.multiple())
+			_multipleArgumentName = internal.name();
+		
 		_definedArguments.put(internal.name(), internal);
 		if(!internal.optional())
 			_mandatoryArguments = true;
@@ -1000,9 +1078,72 @@ public final class CommandLineParser
 		_previousWasOptional = internal.optional();
 		
 		_definedArgumentTypes.add(HelpType.ARGUMENTS);
+		_compiledParser = null;
+		_modificationCount++;
 	}
 
 	
+	/**
+	 * Allows abbreviated long option and command names on the command line. An abbreviation
+	 * is any unambiguous prefix of a name (or an alternative name). For example {@code --verb}
+	 * is interpreted as {@code --verbose} if there is no other long option starting with
+	 * {@code --verb}. A full name always takes precedence over an abbreviation and an ambiguous
+	 * abbreviation is reported as an error. By default abbreviations are not allowed.
+	 */
+	public void allowAbbreviations()
+	{
+		_allowAbbreviations = true;
+		_compiledParser = null;
+		_modificationCount++;
+	}
+	
+	
+	/**
+	 * Postpones the conversion of option and argument values until the values are read (e.g.
+	 * with {@link #getOptionValue(String)}). Also the constraints are checked at that point.
+	 * Converted values are cached and thus every value is converted at most once. This is useful
+	 * when only some of the given options are actually read (e.g. a wrapper which forwards most
+	 * of its options unread).
+	 * <p>
+	 * A conversion or a constraint error is reported by throwing {@link LazyConversionException}
+	 * when the value is read. Notice that setting the annotated fields reads the values and thus
+	 * the {@code parse()} methods still report those errors as normal exceptions. By default
+	 * values are converted during parsing.
+	 */
+	public void useLazyConversion()
+	{
+		_lazyConversion = true;
+		_compiledParser = null;
+		_modificationCount++;
+	}
+	
+	
+	/**
+	 * Allows reading command line arguments from argument files. A command line argument
+	 * {@code @path} is replaced with the tokens found from the file {@code path}. In the file
+	 * the tokens are separated by newlines or NUL characters and thus a file can hold
+	 * (for example) file names containing spaces or even a complete command line which is too
+	 * long for the operating system. Argument files can include other argument files.
+	 * Argument files are not expanded after the {@code --} terminator and {@code @@} can be used
+	 * to give a value starting with {@code @} (e.g. {@code @@home} is {@code @home}).
+	 * <p>
+	 * Argument files are UTF-8 encoded. Empty lines are skipped and other white space is part of
+	 * the token. A part of a token can be quoted with double quotes (") or single quotes (') to
+	 * include newlines or to give an empty token ({@code ""}). Inside double quotes a backslash
+	 * (\) escapes the next character.
+	 * <p>
+	 * Argument files are memory-mapped and read lazily while parsing, i.e. their tokens are not
+	 * collected into a list before parsing. A missing, malformed or recursive argument file is
+	 * reported by throwing {@link IllegalCommandLineArgumentException}.
+	 */
+	public void useArgumentFiles()
+	{
+		_argumentFiles = true;
+		_compiledParser = null;
+		_modificationCount++;
+	}
+	
+	
 	/**
 	 * Adds a line of example command line arguments. Example arguments are used by the help
 	 * system. The use of example arguments is not required but highly recommended.
@@ -1016,6 +1157,7 @@ public final class CommandLineParser
 			throw new ConfigurationException("'exampleArguments' must have a value.");
 		
 		_exampleArguments.add(exampleArguments);
+		_modificationCount++;
 	}
 	
 	
@@ -1034,13 +1176,7 @@ public final class CommandLineParser
 	 */
 	public boolean optionExists(String name)
 	{
-		Util.checkOptionName(name);
-		
-		for(Option.Internal option : _cmdLineGlobalOptions)
-			if(option.name().equals(_definedGlobalOptionAlternatives.get(name)))
-				return true;
-		
-		return false;
+		return _cmdLineResult.optionExists(name);
 	}
 	
 	
@@ -1060,13 +1196,7 @@ public final class CommandLineParser
 	 */
 	public Option.Data getOption(String name)
 	{
-		Util.checkOptionName(name);
-		try {
-			return getOptions(name)[0];
-		}
-		catch(IndexOutOfBoundsException e) {
-			return null;
-		}
+		return _cmdLineResult.getOption(name);
 	}
 	
 	
@@ -1087,14 +1217,9 @@ public final class CommandLineParser
 	 * @throws IllegalArgumentException
 	 * 		When {@code name} does not have preceding minus character(s).
 	 */
-	@SuppressWarnings("unchecked")
 	public <T> T getOptionValue(String name)
 	{
-		Option.Data option = getOption(name);
-		if(option != null && option.getArgument() != null)
-			return (T)option.getArgument().getValue();
-		else
-			return null;
+		return _cmdLineResult.<T>getOptionValue(name);
 	}
 	
 	
@@ -1114,14 +1239,7 @@ public final class CommandLineParser
 	 */
 	public Option.Data[] getOptions(String name)
 	{
-		Util.checkOptionName(name);
-		
-		List<Option.Data> options = new ArrayList<Option.Data>();
-		for(Option.Internal option : _cmdLineGlobalOptions)
-			if(option.name().equals(_definedGlobalOptionAlternatives.get(name)))
-				options.add(new Option.Data(option));
-		
-		return options.toArray(new Option.Data[0]);
+		return _cmdLineResult.getOptions(name);
 	}
 	
 	
@@ -1133,11 +1251,7 @@ public final class CommandLineParser
 	 */
 	public Option.Data[] getAllOptions()
 	{
-		List<Option.Data> options = new ArrayList<Option.Data>();
-		for(Option.Internal option : _cmdLineGlobalOptions)
-			options.add(new Option.Data(option));
-		
-		return options.toArray(new Option.Data[0]);
+		return _cmdLineResult.getAllOptions();
 	}
 	
 	
@@ -1153,11 +1267,7 @@ public final class CommandLineParser
 	 */
 	public Argument.Data<?> getArgument(String name)
 	{
-		for(Argument.Internal<?> argument : _cmdLineArguments)
-			if(argument.name().equals(name))
-				return argument.createDataObject();
-
-		return null;
+		return _cmdLineResult.getArgument(name);
 	}
 	
 	
@@ -1173,14 +1283,28 @@ public final class CommandLineParser
 	 * @return
 	 * 		The argument value if the argument exists on the command line. {@code null} otherwise.
 	 */
-	@SuppressWarnings("unchecked")
 	public <T> T getArgumentValue(String name)
 	{
-		Argument.Data<?> argument = getArgument(name);
-		if(argument != null)
-			return (T)argument.getValue();
-		else
-			return null;
+		return _cmdLineResult.<T>getArgumentValue(name);
+	}
+	
+	
+	/**
+	 * Returns the values of the argument if exists on the command line. For a multiple argument
+	 * the values are converted while iterated (see {@link Argument#multiple()}).
+	 * 
+	 * @param <T>
+	 * 		A type of the argument.
+	 * 
+	 * @param name
+	 * 		A name of the argument.
+	 * 		
+	 * @return
+	 * 		The argument values if the argument exists on the command line. {@code null} otherwise.
+	 */
+	public <T> Iterable<T> getArgumentValues(String name)
+	{
+		return _cmdLineResult.<T>getArgumentValues(name);
 	}
 	
 	
@@ -1192,11 +1316,7 @@ public final class CommandLineParser
 	 */
 	public Argument.Data<?>[] getAllArguments()
 	{
-		List<Argument.Data<?>> arguments = new ArrayList<Argument.Data<?>>();
-		for(Argument.Internal<?> argument : _cmdLineArguments)
-			arguments.add(argument.createDataObject());
-		
-		return arguments.toArray(new Argument.Data[0]);
+		return _cmdLineResult.getAllArguments();
 	}
 	
 	
@@ -1219,11 +1339,41 @@ public final class CommandLineParser
 	 * Returns the command found from the command line.
 	 * 
 	 * @return
-	 * 		The found command object. 
+	 * 		The found command object. {@code null} if a command has not been parsed.
 	 */
 	public Command.Data getCommand()
 	{
-		return new Command.Data(_cmdLineCommand);
+		return _cmdLineResult.getCommand();
+	}
+	
+	
+	/**
+	 * Compiles the current definitions to an immutable {@link CompiledParser}. The compiled
+	 * parser is cached and a new one is created only if the definitions have been changed
+	 * after the previous call. This method can be called from many threads but the definitions
+	 * must not be changed at the same time. See also
+	 * <a href="#cmdlineparser-parsing-command-line">Parsing command line</a> and
+	 * {@link CompiledParser#tryParse(String[])}.
+	 * 
+	 * @return
+	 * 		A compiled parser for the current definitions.
+	 */
+	public synchronized CompiledParser compile()
+	{
+		if(_compiledParser == null)
+			_compiledParser =
+				new CompiledParser(
+					_definedGlobalOptions,
+					_definedGlobalOptionAlternatives,
+					_definedCommands,
+					_definedCommandAlternatives,
+					_definedArguments,
+					_mandatoryArguments,
+					_allowAbbreviations,
+					_lazyConversion,
+					_argumentFiles
+				);
+		return _compiledParser;
 	}
 	
 	
@@ -1235,7 +1385,7 @@ public final class CommandLineParser
 	 */
 	public Writer getWriter()
 	{
-		return _writer;
+		return help().writer();
 	}
 	
 	
@@ -1406,6 +1556,9 @@ public final class CommandLineParser
 			printErrorWithShortHelp(e);
 			_exitHandler.exit(-1);
 		}
+		catch(CommandLineDaemon.Exit e) {
+			throw e;
+		}
 		catch(Throwable t) {
 			printThrowable(t);
 			_exitHandler.exit(-2);
@@ -1457,6 +1610,9 @@ public final class CommandLineParser
 			printErrorWithShortHelp(e);
 			_exitHandler.exit(-1);
 		}
+		catch(CommandLineDaemon.Exit e) {
+			throw e;
+		}
 		catch(Throwable t) {
 			printThrowable(t);
 			_exitHandler.exit(-2);
@@ -1508,6 +1664,9 @@ public final class CommandLineParser
 			printErrorWithShortHelp(e);
 			_exitHandler.exit(-1);
 		}
+		catch(CommandLineDaemon.Exit e) {
+			throw e;
+		}
 		catch(Throwable t) {
 			printThrowable(t);
 			_exitHandler.exit(-2);
@@ -1549,6 +1708,9 @@ public final class CommandLineParser
 			printErrorMessageWithoutHelp(e);
 			_exitHandler.exit(-1);
 		}
+		catch(CommandLineDaemon.Exit e) {
+			throw e;
+		}
 		catch(Throwable t) {
 			printThrowable(t);
 			_exitHandler.exit(-2);
@@ -1600,6 +1762,9 @@ public final class CommandLineParser
 			printErrorMessageWithoutHelp(e);
 			_exitHandler.exit(-1);
 		}
+		catch(CommandLineDaemon.Exit e) {
+			throw e;
+		}
 		catch(Throwable t) {
 			printThrowable(t);
 			_exitHandler.exit(-2);
@@ -1651,6 +1816,9 @@ public final class CommandLineParser
 			printErrorMessageWithoutHelp(e);
 			_exitHandler.exit(-1);
 		}
+		catch(CommandLineDaemon.Exit e) {
+			throw e;
+		}
 		catch(Throwable t) {
 			printThrowable(t);
 			_exitHandler.exit(-2);
@@ -1728,13 +1896,7 @@ public final class CommandLineParser
 				_exitHandler.exit(0);
 			}
 
-			_writer.header();
-			_writer.level1Begin("Help error:");
-			_writer.line(Level.L1, "'" + helpCommand + "' is not a valid help command.");
-			_writer.line(Level.L1, "");
-			_writer.level1End();
-			printUsage();
-			_writer.footer();
+			help().printHelpCommandError(helpCommand);
 			_exitHandler.exit(0);
 		}
 	}
@@ -1775,130 +1937,44 @@ public final class CommandLineParser
 
 		parseInternalOptions(args);
 		
-		// Adds a space character after a short option if missing.
-		List<String> cmdLineArgs = new LinkedList<String>();
-		Pattern p = Pattern.compile("^-\\p{Alpha}\\p{Graph}+");
-		for(String arg : args) {
-			if(p.matcher(arg).matches()) {
-				cmdLineArgs.add(arg.substring(0, 2));
-				cmdLineArgs.add(arg.substring(2));
-			}
-			else
-				cmdLineArgs.add(arg);
-		}
+		ParseResult result = compile().parse(args);
+		_cmdLineResult = result;
 
-		Set<Option.Internal> nonMultipleOptionCheckSet = new HashSet<Option.Internal>();
-		_cmdLineCommand = null;
-		boolean argumentsChecked = false;
-		while(cmdLineArgs.size() > 0) {
-			String arg = cmdLineArgs.get(0);
-			if(
-				Util.checkOption(
-					arg,
-					cmdLineArgs,
-					_definedGlobalOptions,
-					_definedGlobalOptionAlternatives,
-					nonMultipleOptionCheckSet,
-					_cmdLineGlobalOptions
-				)
-			)
-				continue;
-			else {
-				if(arg.startsWith("-") && !Pattern.matches(Util.NEGATIVE_NUMBER_PATTERN, arg)) {
-					String msg = "'" + arg + "' is not a valid option.";
-					throw new IllegalCommandLineArgumentException(msg);
-				}
-				
-				if(_cmdLineCommand != null) {
-					String msg =
-						"Command line argument '" + arg + "' "
-							+ "for command '" + _cmdLineCommand.name() + "' " 
-							+ "cannot be interpreted as a proper command line argument. "
-							+ "All the arguments must be sequentially positioned. "
-							+ "Check that there are no options between arguments.";
-					throw new IllegalCommandLineArgumentException(msg);
-				}
-			}
-					
-			if(_definedCommands.size() > 0) {
-				Command.Internal command = _definedCommands.get(_definedCommandAlternatives.get(arg));
-				if(command == null)
-					throw
-						new CommandNotFoundException(
-							"A command was expected but '" + arg + "' cannot be interpreted "
-								+ "as a command."
-						);
-				_cmdLineCommand = new Command.Internal(command);
-				if(_cmdLineCommand.parse(cmdLineArgs))
-					continue;
-			}
-			else {
-				if(argumentsChecked) {
-					String msg =
-						"Command line argument '" + arg + "' "
-							+ "cannot be interpreted as a proper command line argument. "
-							+ "All the arguments must be sequentially positioned. "
-							+ "Check that there are no options between arguments.";
-					throw new IllegalCommandLineArgumentException(msg);
-				}
-				if(Util.checkArguments(null, cmdLineArgs, _definedArguments, _cmdLineArguments)) {
-					argumentsChecked = true;
-					continue;
-				}
-			}
+		try {
+			// Global options.
+			Util.setAnnotatedOptions(callerObject, callerClass, result.globalOptions());
 			
-			// If this point is reached then it means that
-			// the command line argument is undefined.
-			throw new IllegalCommandLineArgumentException("'" + arg + "' not defined.");
-		}
-
-		// There are no command line arguments and all the arguments are optional.
-		if(_cmdLineArguments.size() == 0 && _definedArguments.size() > 0 && !_mandatoryArguments) {
-			Set<Entry<String, Argument.Internal<?>>> entrySet = _definedArguments.entrySet();
-			for(Iterator<?> it = entrySet.iterator(); it.hasNext();) {
-				@SuppressWarnings("unchecked")
-				Argument.Internal<?> argument =
-					((Entry<String, Argument.Internal<?>>)it.next()).getValue();
-				argument.setDefaultValue();
-				_cmdLineArguments.add(argument);
+			// Global arguments.
+			Util.setAnnotatedArguments(callerObject, callerClass, result.arguments());
+			
+			// Command, command options, command arguments and executors.
+			Command.Data command = result.getCommand();
+			if(command != null) {
+				Util.setAnnotatedValue(
+					callerObject,
+					callerClass,
+					command.getName(),
+					command.getId()
+				);
+				Util.setAnnotatedOptions(callerObject, callerClass, command.options());
+				Util.setAnnotatedArguments(callerObject, callerClass, command.arguments());
+				result.commandDefinition().execute(command, result.globalOptions());
 			}
 		}
-		
-		if(_mandatoryArguments && _cmdLineArguments.size() == 0)
-			throw
-				new IllegalCommandLineArgumentException(
-					"A mandatory command line argument is missing."
-				);
-		if(_definedCommands.size() > 0 && _cmdLineCommand == null)
-			throw new CommandNotFoundException("No command found from the command line.");
-
-		// Global options.
-		Util.setAnnotatedOptions(callerObject, callerClass, _cmdLineGlobalOptions);
-		
-		// Global arguments.
-		Util.setAnnotatedArguments(callerObject, callerClass, _cmdLineArguments);
-		
-		// Command, command options, command arguments and executors.
-		if(_cmdLineCommand != null) {
-			Util.setAnnotatedValue(
-				callerObject,
-				callerClass,
-				_cmdLineCommand.name(),
-				_cmdLineCommand.id()
-			);
-			Util.setAnnotatedOptions(callerObject, callerClass, _cmdLineCommand.cmdLineOptions());
-			Util.setAnnotatedArguments(callerObject, callerClass, _cmdLineCommand.cmdLineArguments());
-			_cmdLineCommand.execute(_cmdLineGlobalOptions);
+		catch(LazyConversionException e) {
+			// Lazily converted values are reported like eagerly converted ones.
+			if(e.getCause() instanceof ConstraintException)
+				throw (ConstraintException)e.getCause();
+			if(e.getCause() instanceof IllegalCommandLineArgumentException)
+				throw (IllegalCommandLineArgumentException)e.getCause();
+			throw e;
 		}
 	}
 
 	
 	private void showVersionAndExit()
 	{
-		_writer.header();
-		_writer.level1Begin("Version: " + _mainClass.getPackage().getImplementationVersion());
-		_writer.level1End();
-		_writer.footer();
+		help().printVersion();
 		_exitHandler.exit(0);
 	}
 
@@ -1910,14 +1986,7 @@ public final class CommandLineParser
 	 */
 	public void printCompleteHelp()
 	{
-		_writer.header();
-		printUsage();
-		printDescription();
-		printGlobalOptions();
-		printCommands();
-		printGlobalArguments();
-		printExamples();
-		_writer.footer();
+		help().printCompleteHelp();
 	}
 	
 	
@@ -1929,9 +1998,7 @@ public final class CommandLineParser
 	 */
 	public void printShortHelp()
 	{
-		_writer.header();
-		printShortHelpWithoutHeaders();
-		_writer.footer();
+		help().printShortHelp();
 	}
 	
 
@@ -1942,9 +2009,7 @@ public final class CommandLineParser
 	 */
 	public void printUsageHelp()
 	{
-		_writer.header();
-		printUsage();
-		_writer.footer();
+		help().printUsageHelp();
 	}
 
 	/**
@@ -1954,26 +2019,9 @@ public final class CommandLineParser
 	 */
 	public void printExamplesHelp()
 	{
-		_writer.header();
-		printExamples();
-		_writer.footer();
+		help().printExamplesHelp();
 	}
 	
-	private void printShortHelpWithoutHeaders()
-	{
-		printUsage();
-		printDescription();
-		printShortCommands();
-		printGlobalArguments();
-		_writer.line(Level.L1, "");
-		_writer.level1Begin("Notice:");
-		_writer.line(
-			Level.L1,
-			"This is a short help. To get a complete help run:"
-		);
-		_writer.line(Level.L1, _javaCommand + " -? " + COMPLETE_HELP_COMMAND);
-		_writer.level1End();
-	}
 	
 	
 	/**
@@ -1983,9 +2031,7 @@ public final class CommandLineParser
 	 */
 	public void printGlobalOptionsHelp()
 	{
-		_writer.header();
-		printGlobalOptions();
-		_writer.footer();
+		help().printGlobalOptionsHelp();
 	}
 	
 	
@@ -1996,9 +2042,7 @@ public final class CommandLineParser
 	 */
 	public void printGlobalArgumentsHelp()
 	{
-		_writer.header();
-		printGlobalArguments();
-		_writer.footer();
+		help().printGlobalArgumentsHelp();
 	}
 	
 	
@@ -2025,15 +2069,7 @@ public final class CommandLineParser
 	 */
 	public void printThrowable(Throwable t)
 	{
-		_writer.header();
-		_writer.level1Begin(t.getClass().getName());
-		if(t.getCause() != null)
-			_writer.paragraph(Level.L1, t.getCause().getClass().getName());
-		_writer.paragraph(Level.L1, t.getMessage());
-		for(StackTraceElement stackTraceElement : t.getStackTrace())
-			_writer.paragraph(Level.L1, stackTraceElement.toString());
-		_writer.level1End();
-		_writer.footer();
+		help().printThrowable(t);
 	}
 
 	/**
@@ -2058,12 +2094,7 @@ public final class CommandLineParser
 	 */
 	public void printErrorWithShortHelp(String message)
 	{
-		_writer.header();
-		_writer.level1Begin("Error:");
-		_writer.paragraph(Level.L1, message);
-		_writer.level1End();
-		printShortHelpWithoutHeaders();
-		_writer.footer();
+		help().printErrorWithShortHelp(message);
 	}
 	
 	/**
@@ -2112,12 +2143,7 @@ public final class CommandLineParser
 	 */
 	public void printErrorWithCommandsHelp(String message)
 	{
-		_writer.header();
-		_writer.level1Begin("Error:");
-		_writer.paragraph(Level.L1, message);
-		_writer.level1End();
-		printShortCommands();
-		_writer.footer();
+		help().printErrorWithCommandsHelp(message);
 	}
 	
 	
@@ -2167,11 +2193,7 @@ public final class CommandLineParser
 	 */
 	public void printErrorMessageWithoutHelp(String message)
 	{
-		_writer.header();
-		_writer.level1Begin("Error:");
-		_writer.paragraph(Level.L1, message);
-		_writer.level1End();
-		_writer.footer();
+		help().printErrorMessageWithoutHelp(message);
 	}
 
 	/**
@@ -2207,9 +2229,7 @@ public final class CommandLineParser
 	 */
 	public void printCommandsHelp()
 	{
-		_writer.header();
-		printShortCommands();
-		_writer.footer();
+		help().printCommandsHelp();
 	}
 	
 	/**
@@ -2223,418 +2243,74 @@ public final class CommandLineParser
 	 */
 	public void printCommandHelp(String commandName)
 	{
-		Command.Internal command = _definedCommands.get(_definedCommandAlternatives.get(commandName));
-		_writer.header();
-		if(command != null) {
-			_writer.level1Begin("CMD:");
-			printCommand(command);
-			_writer.level1End();
-		}
-		else {
-			_writer.level1Begin("Help error:");
-			_writer.line(Level.L1, "'" + commandName + "' is not a valid command.");
-			_writer.line(Level.L1, "");
-			_writer.level1End();
-			printShortCommands();
-		}
-		_writer.footer();
-	}
-	
-	private String replaceStrong(String inputText)
-	{
-		return
-			inputText.replaceAll(
-				Description.STRONG_BEGIN_TAG,
-				_writer.strongBegin()
-			).replaceAll(Description.STRONG_END_TAG, _writer.strongEnd());
-	}
-	
-	private void printUsage()
-	{
-		String usageExamplesHelpCommand =
-			" -? | --help ['" + USAGE_HELP_COMMAND + "' | '" + EXAMPLES_HELP_COMMAND + "']";
-		String helpCommand = " -? | --help ['" + COMPLETE_HELP_COMMAND + "'"; 
-		helpCommand +=
-			_definedArgumentTypes.contains(HelpType.OPTIONS) ? " | '" + OPTS_HELP_COMMAND + "'" : "";
-		helpCommand +=
-			_definedArgumentTypes.contains(HelpType.ARGUMENTS) ? " | '" + ARGS_HELP_COMMAND + "'" : "";
-		helpCommand +=
-			_definedArgumentTypes.contains(HelpType.COMMANDS) ? " | '" + CMDS_HELP_COMMAND + "'" : "";
-		helpCommand +=
-			_definedArgumentTypes.contains(HelpType.COMMANDS) ? " | " + CMD_HELP_COMMAND + "CMD" : "";
-		helpCommand += "]";
-		String command = "";
-		command += _definedArgumentTypes.contains(HelpType.OPTIONS) ? " [OPTS]" : "";
-		command += _definedArgumentTypes.contains(HelpType.COMMANDS) ? " CMD" : "";
-		command += _definedArgumentTypes.contains(HelpType.COMMAND_OPTIONS) ? " [CMD-OPTS]" : "";
-		command += _definedArgumentTypes.contains(HelpType.COMMAND_ARGUMENTS) ? " CMD-ARGS" : "";
-		command +=
-			_definedArgumentTypes.contains(HelpType.ARGUMENTS) ? 
-				(_definedArguments.size() > 0 && !_mandatoryArguments ? " [ARGS]" : " ARGS") 
-				: "";
-		_writer.level1Begin("Usage:");
-		_writer.codeBegin(Level.L1);
-		_writer.codeLine(_javaCommand + helpCommand);
-		_writer.codeLine(_javaCommand + usageExamplesHelpCommand);
-		_writer.codeLine(_javaCommand + " --version");
-		_writer.codeLine(_javaCommand + command);
-		_writer.codeEnd();
-		_writer.level1End();
-	}
-	
-	private void printDescription()
-	{
-		_writer.level1Begin("Description:");
-		for(String paragraph : _description.toParagraphs())
-			_writer.paragraph(Level.L1, replaceStrong(paragraph));
-		_writer.level1End();
+		help().printCommandHelp(commandName);
 	}
-
-	private void printOptions(
-		Map<String, Option.Internal> options,
-		boolean isCommand
-	)
+	
+	
+	/**
+	 * Returns the help printer. The help printer (and the writer) is created when it is
+	 * needed for the first time. Thus the help machinery is not loaded at all if the command
+	 * line is parsed successfully.
+	 */
+	private synchronized HelpPrinter help()
 	{
-		if(options.size() == 0)
-			return;
-		
-		if(isCommand)
-			_writer.level3Begin("CMD-OPTS:");
-		else
-			_writer.level1Begin("OPTS:");
-		for(Entry<String, Option.Internal> optionEntry : options.entrySet()) {
-			Option.Internal option = optionEntry.getValue();
-			
-			// Adds option names.
-			String optionNames = option.name();
-			for(String alternative : option.alternatives())
-				optionNames += ", " + alternative;
-			Argument.Internal<?> argument = option.argument();
-			if(argument != null) {
-				final String argumentName = "<" + argument.name() + ">";
-				optionNames += " " + (argument.optional() ? "[" + argumentName + "]" : argumentName);
-			}
-			if(isCommand)
-				_writer.level4Begin(optionNames);
-			else
-				_writer.level2Begin(optionNames);
-
-			// Adds description and handles optional arguments and possible default values.
-			boolean isFirstParagraph = true;
-			Level level = isCommand ? Level.L4 : Level.L2;
-			for(String paragraph : option.description()) {
-				if(isFirstParagraph) {
-					if(option.argument() != null && option.argument().optional())
-						paragraph += 
-							" Argument is optional. " 
-								+ option.argument().defaultValueDescription(); 
-					if(option.multiple())
-						paragraph += " This option can occur several times.";
-					
-					isFirstParagraph = false;
-				}
-				_writer.paragraph(level, replaceStrong(paragraph));
-			}
-			
-			boolean hasEnumConstraint = false;
-			boolean hasOtherConstraints = false;
-			if(option.argument() != null)
-				for(Constraint<?> constraint : option.argument().constraints()) {
-					if(constraint instanceof Enumeration<?>)
-						hasEnumConstraint = true;
-					else
-						hasOtherConstraints = true;
-				}
-			
-			level = isCommand ? Level.L5 : Level.L3;
-			if(hasOtherConstraints) {
-				if(isCommand)
-					_writer.level5Begin("Constraints:");
-				else
-					_writer.level3Begin("Constraints:");
-				_writer.listBegin(level);
-				for(Constraint<?> constraint : option.argument().constraints()) {
-					if(constraint instanceof Enumeration<?>)
-						hasEnumConstraint = true;
-					else
-						for(String constraintDesc : constraint.description().toParagraphs())
-							_writer.listItem(replaceStrong(constraintDesc));
-				}
-				_writer.listEnd();
-				if(isCommand)
-					_writer.level5End();
-				else
-					_writer.level3End();
-			}
-				
-			if(hasEnumConstraint) {
-				if(isCommand)
-					_writer.level5Begin("Values:");
-				else
-					_writer.level3Begin("Values:");
-				_writer.listBegin(level);
-				for(Constraint<?> constraint : option.argument().constraints()) {
-					if(constraint instanceof Enumeration<?>)
-						for(String constraintDesc : constraint.description().toParagraphs())
-							_writer.listItem(replaceStrong(constraintDesc));
-				}
-				_writer.listEnd();
-				if(isCommand)
-					_writer.level5End();
-				else
-					_writer.level3End();
-			}
-			
-			if(isCommand)
-				_writer.level4End();
-			else
-				_writer.level2End();
-		}
-		if(isCommand)
-			_writer.level3End();
-		else
-			_writer.level1End();
+		if(_helpPrinter == null)
+			_helpPrinter = new HelpPrinter(this, _writer);
+		return _helpPrinter;
 	}
-
 	
-	private void printArguments(
-		Map<String, Argument.Internal<?>> arguments,
-		boolean isCommand
-	)
+	Description description()
 	{
-		if(arguments.size() == 0)
-			return;
-		
-		if(isCommand)
-			_writer.level3Begin("CMD-ARGS:");
-		else
-			_writer.level1Begin("ARGS:");
-		for(Entry<String, Argument.Internal<?>> argumentEntry : arguments.entrySet()) {
-			Argument.Internal<?> argument = argumentEntry.getValue();
-			
-			// Adds argument name.
-			String argumentName =
-				argument.optional() ? "[" + argument.name() + "]" : argument.name();
-			if(isCommand)
-				_writer.level4Begin(argumentName);
-			else
-				_writer.level2Begin(argumentName);
-
-			// Adds description and handles optional arguments and possible default values.
-			boolean isFirstParagraph = true;
-			Level level = isCommand ? Level.L4 : Level.L2;
-			for(String paragraph : argument.description()) {
-				if(isFirstParagraph && argument.optional()) {
-					paragraph += 
-						" Argument is optional. " 
-							+ argument.defaultValueDescription(); 
-					isFirstParagraph = false;
-				}
-				_writer.paragraph(level, replaceStrong(paragraph));
-			}
-			
-			boolean hasEnumConstraint = false;
-			boolean hasOtherConstraints = false;
-			for(Constraint<?> constraint : argument.constraints()) {
-				if(constraint instanceof Enumeration<?>)
-					hasEnumConstraint = true;
-				else
-					hasOtherConstraints = true;
-			}
-			
-			level = isCommand ? Level.L5 : Level.L3;
-			if(hasOtherConstraints) {
-				if(isCommand)
-					_writer.level5Begin("Constraints:");
-				else
-					_writer.level3Begin("Constraints:");
-				_writer.listBegin(level);
-				for(Constraint<?> constraint : argument.constraints()) {
-					if(constraint instanceof Enumeration<?>)
-						hasEnumConstraint = true;
-					else
-						for(String constraintDesc : constraint.description().toParagraphs())
-							_writer.listItem(replaceStrong(constraintDesc));
-				}
-				_writer.listEnd();
-				if(isCommand)
-					_writer.level5End();
-				else
-					_writer.level3End();
-			}
-				
-			if(hasEnumConstraint) {
-				if(isCommand)
-					_writer.level5Begin("Values:");
-				else
-					_writer.level3Begin("Values:");
-				_writer.listBegin(level);
-				for(Constraint<?> constraint : argument.constraints()) {
-					if(constraint instanceof Enumeration<?>)
-						for(String constraintDesc : constraint.description().toParagraphs())
-							_writer.listItem(replaceStrong(constraintDesc));
-				}
-				_writer.listEnd();
-				if(isCommand)
-					_writer.level5End();
-				else
-					_writer.level3End();
-			}
-			
-			if(isCommand)
-				_writer.level4End();
-			else
-				_writer.level2End();
-		}
-		
-		if(isCommand)
-			_writer.level3End();
-		else
-			_writer.level1End();
+		return _description;
 	}
-
 	
-	private void printGlobalOptions()
+	String javaCommand()
 	{
-		printOptions(_definedGlobalOptions, false);
+		return _javaCommand;
 	}
-
 	
-	private void printCommand(Command.Internal command)
-	{
-		// Adds command names.
-		String commandNames = command.name();
-		for(String alternative : command.alternatives())
-			commandNames += ", " + alternative;
-		commandNames +=
-			command.definedOptions().size() > 0 ? " [CMD-OPTS]" : "";
-		for(Entry<String, Argument.Internal<?>> argumentEntry : command.definedArguments().entrySet()) {
-			Argument.Internal<?> argument = argumentEntry.getValue();
-			if(argument.optional())
-				commandNames += " [" + argument.name() + "]";
-			else
-				commandNames += " " + argument.name();
-		}
-		_writer.level2Begin(commandNames);
-		
-		for(String paragraph : command.description())
-			_writer.paragraph(Level.L2, replaceStrong(paragraph));
-		
-		printOptions(command.definedOptions(), true);
-		
-		printArguments(command.definedArguments(), true);
-		_writer.level2End();
+	String version()
+	{
+		return _mainClass.getPackage().getImplementationVersion();
 	}
 	
-	private void printCommands()
+	Set<HelpType> definedArgumentTypes()
 	{
-		if(_definedCommands.size() == 0)
-			return;
-		
-		_writer.level1Begin("CMD:");
-		for(Entry<String, Command.Internal> commandEntry : _definedCommands.entrySet())
-			printCommand(commandEntry.getValue());
-		_writer.level1End();
+		return _definedArgumentTypes;
 	}
 	
-	private void printShortCommands()
+	Map<String, Option.Internal> definedGlobalOptions()
 	{
-		if(_definedCommands.size() == 0)
-			return;
-		
-		_writer.level1Begin("Commands:");
-		for(Entry<String, Command.Internal> commandEntry : _definedCommands.entrySet()) {
-			Command.Internal command = commandEntry.getValue();
-			String shortDescription = command.name();
-			for(String alternative : command.alternatives())
-				shortDescription += ", " + alternative;
-			_writer.line(Level.L1, shortDescription + ": " + command.shortDescription());
-		}
-		_writer.level1End();
+		return _definedGlobalOptions;
 	}
-
-	private void printGlobalArguments()
+	
+	Map<String, Argument.Internal<?>> definedArguments()
 	{
-		printArguments(_definedArguments, false);
+		return _definedArguments;
 	}
 	
-	private void printExamples()
+	boolean mandatoryArguments()
 	{
-		_writer.level1Begin("Examples:");
-		_writer.codeBegin(Level.L1);
-		_writer.codeLine(_javaCommand + " -? " + COMPLETE_HELP_COMMAND);
-		if(_definedCommands.size() > 0)
-			_writer.codeLine(
-				_javaCommand + " --help cmd=" + _definedCommands.keySet().iterator().next()
-			);
-		_writer.codeLine(_javaCommand + " --version");
-		
-		for(String example : _exampleArguments)
-			_writer.codeLine(_javaCommand + " " + example);
-		_writer.codeEnd();
-		_writer.level1End();
+		return _mandatoryArguments;
 	}
 	
-	/**
-	 * Creates a writer based on the system property. First the property value is tried for
-	 * class creation. If it does not succeed then the shorter form is attempted. For the short
-	 * form the class name is created by combining the {@link Writer}'s package name, the property
-	 * value and a word {@code Writer}.
-	 * 
- 	 * @return
- 	 * 		The writer based on the system property. {@code null} if the writer cannot be created.
-	 */
-	private static Writer createSystemPropertyWriter()
+	Map<String, Command.Internal> definedCommands()
 	{
-		String propertyClassName = "";
-		try {
-			propertyClassName = System.getProperty(WRITER_CLASS_PROPERTY);
-			if(propertyClassName == null)
-				return null;
-		}
-		catch(Throwable ignore) {
-			return null;
-		}
-		
-		Class<?> writerClass = null;
-		try {
-			writerClass = Class.forName(propertyClassName);
-		}
-		catch(ClassNotFoundException e) {
-			try {
-				String className =
-					Writer.class.getPackage().getName() + "." + propertyClassName + "Writer";
-				writerClass = Class.forName(className);
-			}
-			catch(ClassNotFoundException e2) {
-				return null;
-			}
-		}
-		
-		Writer writer = null;
-		try {
-			Constructor<?> constructor = writerClass.getDeclaredConstructor((Class<?>[])null);
-			writer = (Writer)constructor.newInstance((Object[])null);
-		}
-		catch(SecurityException e) {
-			// Does nothing.
-		}
-		catch(NoSuchMethodException e) {
-			// Does nothing.
-		}
-		catch(IllegalArgumentException e) {
-			// Does nothing.
-		}
-		catch(InstantiationException e) {
-			// Does nothing.
-		}
-		catch(IllegalAccessException e) {
-			// Does nothing.
-		}
-		catch(InvocationTargetException e) {
-			// Does nothing.
-		}
-
-		return writer;
+		return _definedCommands;
+	}
+	
+	Command.Internal definedCommand(String name)
+	{
+		return _definedCommands.get(_definedCommandAlternatives.get(name));
+	}
+	
+	List<String> exampleArguments()
+	{
+		return _exampleArguments;
+	}
+	
+	int modificationCount()
+	{
+		return _modificationCount;
 	}
 }
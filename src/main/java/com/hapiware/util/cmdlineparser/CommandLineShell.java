@@ -0,0 +1,339 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * {@code CommandLineShell} is an interactive shell (i.e. a read-eval-print loop) for command
+ * line utilities which define commands. Every line read is split into arguments and parsed and
+ * executed like a command line with {@link CommandLineParser#parsech(Class, String[])}. Thus
+ * a single JVM, {@link CommandLineParser} and the {@link CommandExecutor}s of the commands are
+ * reused for every command.
+ * <p>
+ * A typical shell looks like this:
+ * <pre>
+ * public static void main(String[] args) throws IOException
+ * {
+ *     CommandLineParser p = createParser();
+ *     if(args.length == 0)
+ *         System.exit(
+ *             new CommandLineShell(p).run(
+ *                 Main.class,
+ *                 new BufferedReader(new InputStreamReader(System.in)),
+ *                 System.out
+ *             )
+ *         );
+ *     else
+ *         p.parsech(Main.class, args);
+ * }
+ * </pre>
+ *
+ * How lines are handled:
+ * 	<ul>
+ * 		<li>
+ * 			arguments are separated by white space. Single quotes (') preserve everything
+ * 			inside them. Inside double quotes (") a backslash (\) escapes {@code "} and
+ * 			{@code \}. Elsewhere a backslash escapes the next character. Quotes are removed
+ * 			and thus {@code ""} is an empty argument.
+ * 		</li>
+ * 		<li>
+ * 			empty lines and lines starting with {@code #} (after white space) are skipped. A
+ * 			quoted {@code #} (e.g. {@code '#tag'}) is an ordinary argument.
+ * 		</li>
+ * 		<li>
+ * 			{@code exit} and {@code quit} end the shell unless they have been defined as
+ * 			commands. The shell ends also at the end of the input.
+ * 		</li>
+ * 		<li>
+ * 			the {@link com.hapiware.util.cmdlineparser.annotation.Id} annotated fields of the
+ * 			caller class and of the command executors are reset before every command to the
+ * 			values they had before the first command. Thus an option given to a command does
+ * 			not leak to the next command.
+ * 		</li>
+ * 		<li>
+ * 			errors (and the help) end only the command instead of the JVM. The status of
+ * 			the command is the status {@link CommandLineParser} would have exited with (or
+ * 			{@code 0} if the command was executed successfully). Notice that calling
+ * 			{@code System.exit()} directly still ends the JVM.
+ * 		</li>
+ * 	</ul>
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+public final class CommandLineShell
+{
+	private static final ThreadLocal<CommandLineShell> CURRENT_SHELL =
+		new ThreadLocal<CommandLineShell>();
+
+	private final CommandLineParser _parser;
+	private String _prompt = "> ";
+	private Integer _exitStatus;
+
+	// The default values of the annotated fields by the caller class (static fields) or by
+	// the command executor (instance fields).
+	private final Map<Object, Map<Field, Object>> _defaultValues =
+		new IdentityHashMap<Object, Map<Field, Object>>();
+
+
+	/**
+	 * Creates a shell for a command line parser.
+	 *
+	 * @param parser
+	 * 		The parser. The parser must have commands defined.
+	 *
+	 * @throws ConfigurationException
+	 * 		If the parser does not have commands.
+	 */
+	public CommandLineShell(CommandLineParser parser)
+	{
+		if(parser == null)
+			throw new NullPointerException("'parser' must have a value.");
+		if(!parser.compile().commandsDefined())
+			throw new ConfigurationException("A shell requires at least one command to be defined.");
+
+		_parser = parser;
+	}
+
+
+	/**
+	 * Sets the prompt. The default prompt is {@code "> "}.
+	 *
+	 * @param prompt
+	 * 		The prompt. An empty string does not show a prompt.
+	 *
+	 * @return
+	 * 		This shell.
+	 */
+	public CommandLineShell prompt(String prompt)
+	{
+		if(prompt == null)
+			throw new NullPointerException("'prompt' must have a value.");
+
+		_prompt = prompt;
+		return this;
+	}
+
+
+	/**
+	 * Reads and executes lines until the end of the input or {@code exit} (or {@code quit}).
+	 *
+	 * @param callerClass
+	 * 		The class which contains the annotated fields.
+	 *
+	 * @param in
+	 * 		The input for the lines.
+	 *
+	 * @param out
+	 * 		A stream for the prompt.
+	 *
+	 * @return
+	 * 		The status of the last command. {@code 0} if no commands were executed.
+	 *
+	 * @throws IOException
+	 * 		If reading the input fails.
+	 */
+	public int run(Class<?> callerClass, BufferedReader in, PrintStream out) throws IOException
+	{
+		if(callerClass == null)
+			throw new NullPointerException("'callerClass' must have a value.");
+
+		int status = 0;
+		while(true) {
+			out.print(_prompt);
+			out.flush();
+			String line = in.readLine();
+			if(line == null)
+				break;
+
+			// A quoted # (e.g. '#tag') does not start a comment.
+			if(line.trim().startsWith("#"))
+				continue;
+			String[] args;
+			try {
+				args = split(line);
+			}
+			catch(IllegalCommandLineArgumentException e) {
+				out.println(e.getMessage());
+				status = -1;
+				continue;
+			}
+			if(args.length == 0)
+				continue;
+			if(
+				args.length == 1
+					&& (args[0].equals("exit") || args[0].equals("quit"))
+					&& !_parser.commandExists(args[0])
+			)
+				break;
+
+			status = execute(callerClass, args);
+		}
+		return status;
+	}
+
+
+	/**
+	 * Parses and executes a single command line.
+	 *
+	 * @param callerClass
+	 * 		The class which contains the annotated fields.
+	 *
+	 * @param line
+	 * 		The command line to be split into arguments.
+	 *
+	 * @return
+	 * 		The status of the command. {@code 0} if the command was executed successfully.
+	 *
+	 * @throws IllegalCommandLineArgumentException
+	 * 		If the line has an unterminated quote or a trailing backslash.
+	 */
+	public int execute(Class<?> callerClass, String line)
+		throws
+			IllegalCommandLineArgumentException
+	{
+		if(callerClass == null)
+			throw new NullPointerException("'callerClass' must have a value.");
+		if(line == null)
+			throw new NullPointerException("'line' must have a value.");
+
+		return execute(callerClass, split(line));
+	}
+
+
+	/**
+	 * Ends the current command with {@code status} if called while a shell executes a command.
+	 * Otherwise does nothing. Used by {@link ExitHandler}.
+	 *
+	 * @param status
+	 * 		The exit status.
+	 *
+	 * @throws CommandLineDaemon.Exit
+	 * 		If called while executing a command.
+	 */
+	static void exit(int status)
+	{
+		CommandLineShell shell = CURRENT_SHELL.get();
+		if(shell == null)
+			return;
+
+		// Only the first exit counts (e.g. parsech() exits also when handling an exit).
+		if(shell._exitStatus == null)
+			shell._exitStatus = status;
+		throw new CommandLineDaemon.Exit();
+	}
+
+
+	/**
+	 * Splits a line into arguments like a shell.
+	 *
+	 * @param line
+	 * 		The line.
+	 *
+	 * @return
+	 * 		The arguments.
+	 *
+	 * @throws IllegalCommandLineArgumentException
+	 * 		If the line has an unterminated quote or a trailing backslash.
+	 */
+	static String[] split(String line) throws IllegalCommandLineArgumentException
+	{
+		List<String> args = new ArrayList<String>();
+		StringBuilder arg = new StringBuilder();
+		boolean inArg = false;
+		char quote = 0;
+		for(int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if(quote == '\'') {
+				if(c == '\'')
+					quote = 0;
+				else
+					arg.append(c);
+				continue;
+			}
+			if(c == '\\') {
+				if(++i == line.length())
+					throw
+						new IllegalCommandLineArgumentException(
+							"A line cannot end with a backslash (\\)."
+						);
+				char next = line.charAt(i);
+				if(quote == '"' && next != '"' && next != '\\')
+					arg.append(c);
+				arg.append(next);
+				inArg = true;
+				continue;
+			}
+			if(quote == '"') {
+				if(c == '"')
+					quote = 0;
+				else
+					arg.append(c);
+				continue;
+			}
+			if(c == '\'' || c == '"') {
+				quote = c;
+				inArg = true;
+				continue;
+			}
+			if(Character.isWhitespace(c)) {
+				if(inArg) {
+					args.add(arg.toString());
+					arg.setLength(0);
+					inArg = false;
+				}
+				continue;
+			}
+			arg.append(c);
+			inArg = true;
+		}
+		if(quote != 0)
+			throw
+				new IllegalCommandLineArgumentException(
+					"A line has an unterminated quote (" + quote + ")."
+				);
+		if(inArg)
+			args.add(arg.toString());
+		return args.toArray(new String[0]);
+	}
+
+	private int execute(Class<?> callerClass, String[] args)
+	{
+		resetFields(callerClass, null);
+		for(Command.Internal command : _parser.definedCommands().values())
+			if(command.commandExecutor() != null)
+				resetFields(command.commandExecutor(), command.commandExecutor());
+
+		CommandLineShell previous = CURRENT_SHELL.get();
+		CURRENT_SHELL.set(this);
+		_exitStatus = null;
+		try {
+			_parser.parsech(callerClass, args);
+		}
+		catch(CommandLineDaemon.Exit e) {
+			// The status is set by exit().
+		}
+		finally {
+			CURRENT_SHELL.set(previous);
+		}
+		return _exitStatus != null ? _exitStatus.intValue() : 0;
+	}
+
+	private void resetFields(Object key, Object obj)
+	{
+		Map<Field, Object> defaultValues = _defaultValues.get(key);
+		if(defaultValues == null) {
+			Class<?> type = obj != null ? obj.getClass() : (Class<?>)key;
+			_defaultValues.put(key, BindingPlan.forClass(type).fieldValues(obj));
+		}
+		else
+			BindingPlan.setFieldValues(obj, defaultValues);
+	}
+}
@@ -0,0 +1,514 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+
+
+/**
+ * {@code CompiledParser} is an immutable snapshot of the definitions of a
+ * {@link CommandLineParser}. It is created with {@link CommandLineParser#compile()} and it can
+ * be used to parse any number of command lines. Parsing never changes the state of the
+ * {@code CompiledParser} and thus a single instance can be shared between threads and reused
+ * for repeated parses without any per-parse set-up cost.
+ * <p>
+ * Every call to {@link #parse(String[])} returns a new {@link ParseResult} which holds the
+ * found options, arguments and the command. Notice that {@code CompiledParser} handles only
+ * the defined command line elements. The built-in help system (i.e. {@code --help},
+ * {@code --version} etc.), annotated fields and command executors are handled only by
+ * {@link CommandLineParser}.
+ * <p>
+ * Services parsing command lines from many threads should use {@link #tryParse(String[])}
+ * which returns errors as values and never reads the standard input.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ * 
+ */
+public final class CompiledParser
+{
+	/**
+	 * The number of command lines validated by a single task of
+	 * {@link #validateAll(List, ExecutorService)}.
+	 */
+	public static final int VALIDATION_TASK_SIZE = 256;
+	
+	private final Map<String, Option.Internal> _definedGlobalOptions;
+	private final NameTrie<Option.Internal> _globalOptionLookup;
+	private final Map<String, String> _definedGlobalOptionAlternatives;
+	private final NameTrie<Command.Internal> _commandLookup;
+	private final boolean _commandsDefined;
+	private final Map<String, Argument.Internal<?>> _definedArguments;
+	private final boolean _mandatoryArguments;
+	private final boolean _lazyConversion;
+	private final boolean _argumentFiles;
+	private final Validator _validator;
+
+
+	CompiledParser(
+		Map<String, Option.Internal> definedGlobalOptions,
+		Map<String, String> definedGlobalOptionAlternatives,
+		Map<String, Command.Internal> definedCommands,
+		Map<String, String> definedCommandAlternatives,
+		Map<String, Argument.Internal<?>> definedArguments,
+		boolean mandatoryArguments,
+		boolean allowAbbreviations,
+		boolean lazyConversion,
+		boolean argumentFiles
+	)
+	{
+		Map<String, Option.Internal> globalOptions = new LinkedHashMap<String, Option.Internal>();
+		for(Entry<String, Option.Internal> entry : definedGlobalOptions.entrySet())
+			globalOptions.put(entry.getKey(), new Option.Internal(entry.getValue()));
+		_definedGlobalOptions = Collections.unmodifiableMap(globalOptions);
+		_globalOptionLookup =
+			NameTrie.create(globalOptions, definedGlobalOptionAlternatives, allowAbbreviations);
+		_definedGlobalOptionAlternatives =
+			Collections.unmodifiableMap(new HashMap<String, String>(definedGlobalOptionAlternatives));
+
+		Map<String, Command.Internal> commands = new HashMap<String, Command.Internal>();
+		for(Entry<String, Command.Internal> entry : definedCommands.entrySet())
+			commands.put(
+				entry.getKey(),
+				new Command.Internal(entry.getValue(), allowAbbreviations)
+			);
+		_commandLookup = NameTrie.create(commands, definedCommandAlternatives, allowAbbreviations);
+		_commandsDefined = commands.size() > 0;
+
+		Map<String, Argument.Internal<?>> arguments =
+			new LinkedHashMap<String, Argument.Internal<?>>();
+		for(Entry<String, Argument.Internal<?>> entry : definedArguments.entrySet())
+			arguments.put(entry.getKey(), entry.getValue().clone());
+		_definedArguments = Collections.unmodifiableMap(arguments);
+		_mandatoryArguments = mandatoryArguments;
+		_lazyConversion = lazyConversion;
+		_argumentFiles = argumentFiles;
+		_validator =
+			new Validator(
+				_globalOptionLookup,
+				_commandLookup,
+				_commandsDefined,
+				_definedArguments,
+				_mandatoryArguments
+			);
+	}
+
+
+	/**
+	 * Parses given command line arguments and returns everything found from the command line.
+	 * If something goes wrong a proper exception is thrown.
+	 * 
+	 * @param args
+	 * 		Command line arguments.
+	 * 
+	 * @return
+	 * 		A new result object for the parsed command line.
+	 * 
+	 * @throws ConstraintException
+	 * 		When a constraint violation is detected.
+	 * 
+	 * @throws CommandNotFoundException
+	 * 		When an undefined command is detected from the command line.
+	 * 
+	 * @throws IllegalCommandLineArgumentException
+	 * 		When a given command line argument cannot be interpreted as an argument, command
+	 * 		or option.
+	 */
+	public ParseResult parse(String[] args)
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		return parse(args, true);
+	}
+	
+	
+	/**
+	 * Parses given command line arguments like {@link #parse(String[])} but returns errors as
+	 * {@link ParseError} objects instead of throwing exceptions. This is meant for services
+	 * which parse command lines from many threads at the same time:
+	 * 	<ul>
+	 * 		<li>
+	 * 			every call has its own state and returns a new {@link ParseOutcome} and thus
+	 * 			calls from different threads never affect each other.
+	 * 		</li>
+	 * 		<li>
+	 * 			errors never exit the program (i.e. {@link System#exit(int)} is never called).
+	 * 		</li>
+	 * 		<li>
+	 * 			process-wide state is not touched. Especially, the standard input is never read.
+	 * 			Arguments reading the standard input (see {@link Argument#standardInput(boolean)})
+	 * 			get their values only from the command line.
+	 * 		</li>
+	 * 	</ul>
+	 * 
+	 * Notice that if lazy conversion is used (see {@link CommandLineParser#useLazyConversion()})
+	 * conversion errors are not detected here but {@link LazyConversionException} is thrown when
+	 * the value is read.
+	 * 
+	 * @param args
+	 * 		Command line arguments.
+	 * 
+	 * @return
+	 * 		A new outcome object having either the result or the error.
+	 */
+	public ParseOutcome tryParse(String[] args)
+	{
+		try {
+			return new ParseOutcome(parse(args, false));
+		}
+		catch(ConstraintException e) {
+			return new ParseOutcome(new ParseError(e));
+		}
+		catch(CommandNotFoundException e) {
+			return new ParseOutcome(new ParseError(e));
+		}
+		catch(IllegalCommandLineArgumentException e) {
+			return new ParseOutcome(new ParseError(e));
+		}
+	}
+	
+	
+	/**
+	 * Checks given command line arguments and returns every problem found. Unlike
+	 * {@link #parse(String[])} validating does not stop at the first problem and problems are
+	 * reported as {@link Diagnostic} objects instead of exceptions. Thus validating is meant for
+	 * checking large amounts of command lines where most of the command lines may be invalid.
+	 * <p>
+	 * The rules are the same as with {@link #tryParse(String[])} (e.g. the standard input is
+	 * never read). Notice that:
+	 * 	<ul>
+	 * 		<li>
+	 * 			after an undefined command the rest of the command line is not checked.
+	 * 		</li>
+	 * 		<li>
+	 * 			values are always converted and checked (i.e. lazy conversion is not used).
+	 * 			Malformed numbers are detected without exceptions but constraints report
+	 * 			violations by throwing {@link ConstraintException} (see
+	 * 			{@link com.hapiware.util.cmdlineparser.constraint.Constraint}).
+	 * 		</li>
+	 * 	</ul>
+	 * 
+	 * @param args
+	 * 		Command line arguments.
+	 * 
+	 * @return
+	 * 		An unmodifiable list of the problems in the order they were found. The list is empty
+	 * 		if the command line is valid.
+	 */
+	public List<Diagnostic> validate(String[] args)
+	{
+		if(args == null)
+			throw new NullPointerException("'args' must have a value.");
+
+		List<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+		validate(args, diagnostics, null, -1);
+		return
+			diagnostics.size() > 0 ?
+				Collections.unmodifiableList(diagnostics) :
+				Collections.<Diagnostic>emptyList();
+	}
+	
+	
+	/**
+	 * Validates many command lines in parallel with {@link #validate(String[])}. The command
+	 * lines are split into tasks of {@value #VALIDATION_TASK_SIZE} command lines which are run by
+	 * {@code executor}. For example, a {@code java.util.concurrent.ForkJoinPool} can be used as
+	 * an executor.
+	 * 
+	 * @param commandLines
+	 * 		Command lines to be validated.
+	 * 
+	 * @param executor
+	 * 		An executor for the validation tasks.
+	 * 
+	 * @return
+	 * 		A list having the diagnostics of each command line in the same order as
+	 * 		{@code commandLines}.
+	 * 
+	 * @throws InterruptedException
+	 * 		If the current thread is interrupted while waiting for the tasks.
+	 */
+	public List<List<Diagnostic>> validateAll(List<String[]> commandLines, ExecutorService executor)
+		throws
+			InterruptedException
+	{
+		if(commandLines == null)
+			throw new NullPointerException("'commandLines' must have a value.");
+		if(executor == null)
+			throw new NullPointerException("'executor' must have a value.");
+
+		final String[][] lines = commandLines.toArray(new String[commandLines.size()][]);
+		final List<List<Diagnostic>> results =
+			new ArrayList<List<Diagnostic>>(
+				Collections.<List<Diagnostic>>nCopies(lines.length, null)
+			);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for(int start = 0; start < lines.length; start += VALIDATION_TASK_SIZE) {
+			final int begin = start;
+			final int end = Math.min(start + VALIDATION_TASK_SIZE, lines.length);
+			futures.add(
+				executor.submit(
+					new Runnable() {
+						public void run()
+						{
+							// Different tasks set different elements and thus the list is not
+							// modified structurally.
+							for(int i = begin; i < end; i++)
+								results.set(i, validate(lines[i]));
+						}
+					}
+				)
+			);
+		}
+		for(Future<?> future : futures)
+			try {
+				future.get();
+			}
+			catch(ExecutionException e) {
+				if(e.getCause() instanceof RuntimeException)
+					throw (RuntimeException)e.getCause();
+				if(e.getCause() instanceof Error)
+					throw (Error)e.getCause();
+				throw new RuntimeException("Should not be here but here we are...", e.getCause());
+			}
+		return results;
+	}
+	
+	
+	/**
+	 * Parses many command lines and stores the results in columns. This is meant for validating
+	 * and parsing large amounts of stored command lines with the same definitions. A command line
+	 * which cannot be parsed does not stop parsing but it is marked failed in the result with
+	 * the first problem found by {@link #validate(String[])}.
+	 * <p>
+	 * The values are converted and stored directly to the columns without creating a
+	 * {@link ParseResult} for each command line. Like {@link #validate(String[])} this method
+	 * never reads the standard input and lazy conversion (see
+	 * {@link CommandLineParser#useLazyConversion()}) is not used.
+	 * 
+	 * @param commandLines
+	 * 		Command lines to be parsed. Each element is handled like the argument of
+	 * 		{@link #parse(String[])}.
+	 * 
+	 * @return
+	 * 		A new result object having a row for each command line.
+	 * 
+	 * @see ColumnarResult
+	 */
+	public ColumnarResult parseAll(List<String[]> commandLines)
+	{
+		if(commandLines == null)
+			throw new NullPointerException("'commandLines' must have a value.");
+		
+		ColumnarResult result =
+			new ColumnarResult(
+				commandLines.size(),
+				_definedGlobalOptions,
+				_definedGlobalOptionAlternatives,
+				_definedArguments,
+				_commandsDefined
+			);
+		List<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+		int row = 0;
+		for(String[] args : commandLines) {
+			if(args == null)
+				throw new NullPointerException("'args' must have a value.");
+			
+			validate(args, diagnostics, result, row);
+			if(diagnostics.size() > 0) {
+				result.fail(row, diagnostics.get(0).getReason());
+				diagnostics.clear();
+			}
+			row++;
+		}
+		return result;
+	}
+	
+	
+	/**
+	 * Tells if commands have been defined.
+	 */
+	boolean commandsDefined()
+	{
+		return _commandsDefined;
+	}
+	
+	private void validate(
+		String[] args,
+		List<Diagnostic> diagnostics,
+		ColumnarResult result,
+		int row
+	)
+	{
+		try {
+			Tokens tokens =
+				_argumentFiles ?
+					new Tokens(new ArgumentFileExpander(args), false) :
+					new Tokens(args, false);
+			tokens.disableStandardInput();
+			_validator.validate(tokens, diagnostics, result, row);
+		}
+		catch(ArgumentFileExpander.ExpansionException e) {
+			diagnostics.add(
+				new Diagnostic(-1, null, ParseError.Type.ILLEGAL_ARGUMENT, e.getMessage())
+			);
+		}
+	}
+	
+	private ParseResult parse(String[] args, boolean standardInput)
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		if(args == null)
+			throw new NullPointerException("'args' must have a value.");
+
+		if(!_argumentFiles)
+			return parse(new Tokens(args, _lazyConversion), standardInput);
+		
+		try {
+			return
+				parse(new Tokens(new ArgumentFileExpander(args), _lazyConversion), standardInput);
+		}
+		catch(ArgumentFileExpander.ExpansionException e) {
+			throw e.exception();
+		}
+	}
+	
+	private ParseResult parse(Tokens tokens, boolean standardInput)
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		// Tokens are classified once (and short options with an attached value are split).
+		if(!standardInput)
+			tokens.disableStandardInput();
+
+		List<Option.Data> cmdLineGlobalOptions = new ArrayList<Option.Data>();
+		List<Argument.Data<?>> cmdLineArguments = new ArrayList<Argument.Data<?>>();
+		Command.Internal cmdLineCommandDefinition = null;
+		Command.Data cmdLineCommand = null;
+		Set<Option.Internal> nonMultipleOptionCheckSet = new HashSet<Option.Internal>();
+		boolean argumentsChecked = false;
+		while(tokens.hasNext()) {
+			String arg = tokens.peek();
+			int kind = tokens.peekKind();
+			if(
+				Util.checkOption(
+					tokens,
+					_globalOptionLookup,
+					nonMultipleOptionCheckSet,
+					cmdLineGlobalOptions
+				)
+			)
+				continue;
+			else {
+				// The kind of the original token is checked because an option missing its value
+				// has already been consumed.
+				if(TokenClassifier.isOptionLike(kind)) {
+					String msg = "'" + arg + "' is not a valid option.";
+					throw new IllegalCommandLineArgumentException(msg);
+				}
+
+				if(cmdLineCommandDefinition != null) {
+					String msg =
+						"Command line argument '" + arg + "' "
+							+ "for command '" + cmdLineCommandDefinition.name() + "' "
+							+ "cannot be interpreted as a proper command line argument. "
+							+ "All the arguments must be sequentially positioned. "
+							+ "Check that there are no options between arguments.";
+					throw new IllegalCommandLineArgumentException(msg);
+				}
+			}
+
+			if(_commandsDefined) {
+				Command.Internal command = _commandLookup.get(arg);
+				if(command == null && _commandLookup.ambiguousNames(arg).size() > 0)
+					throw
+						new CommandNotFoundException(
+							"'" + arg + "' is ambiguous. It can be any of "
+								+ _commandLookup.ambiguousNames(arg) + "."
+						);
+				if(command == null)
+					throw
+						new CommandNotFoundException(
+							"A command was expected but '" + arg + "' cannot be interpreted "
+								+ "as a command."
+						);
+				cmdLineCommandDefinition = command;
+				cmdLineCommand = command.parse(tokens);
+				if(cmdLineCommand != null)
+					continue;
+			}
+			else {
+				if(argumentsChecked) {
+					String msg =
+						"Command line argument '" + arg + "' "
+							+ "cannot be interpreted as a proper command line argument. "
+							+ "All the arguments must be sequentially positioned. "
+							+ "Check that there are no options between arguments.";
+					throw new IllegalCommandLineArgumentException(msg);
+				}
+				if(Util.checkArguments(null, tokens, _definedArguments, cmdLineArguments)) {
+					argumentsChecked = true;
+					continue;
+				}
+			}
+
+			// If this point is reached then it means that
+			// the command line argument is undefined.
+			throw new IllegalCommandLineArgumentException("'" + arg + "' not defined.");
+		}
+
+		// An argument reading the standard input can be missing from the command line.
+		if(
+			!argumentsChecked
+				&& tokens.standardInput()
+				&& Util.hasStandardInputArgument(_definedArguments)
+		)
+			argumentsChecked = Util.checkArguments(null, tokens, _definedArguments, cmdLineArguments);
+
+		// There are no command line arguments and all the arguments are optional.
+		if(cmdLineArguments.size() == 0 && _definedArguments.size() > 0 && !_mandatoryArguments) {
+			Set<Entry<String, Argument.Internal<?>>> entrySet = _definedArguments.entrySet();
+			for(Iterator<?> it = entrySet.iterator(); it.hasNext();) {
+				@SuppressWarnings("unchecked")
+				Argument.Internal<?> argument =
+					((Entry<String, Argument.Internal<?>>)it.next()).getValue();
+				cmdLineArguments.add(argument.createDefaultDataObject());
+			}
+		}
+
+		if(_mandatoryArguments && cmdLineArguments.size() == 0)
+			throw
+				new IllegalCommandLineArgumentException(
+					"A mandatory command line argument is missing."
+				);
+		if(_commandsDefined && cmdLineCommand == null)
+			throw new CommandNotFoundException("No command found from the command line.");
+
+		return
+			new ParseResult(
+				cmdLineGlobalOptions,
+				cmdLineArguments,
+				cmdLineCommandDefinition,
+				cmdLineCommand,
+				_definedGlobalOptionAlternatives
+			);
+	}
+}
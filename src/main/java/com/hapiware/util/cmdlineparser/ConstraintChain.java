@@ -0,0 +1,358 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.hapiware.util.cmdlineparser.constraint.Constraint;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+import com.hapiware.util.cmdlineparser.constraint.Length;
+import com.hapiware.util.cmdlineparser.constraint.MaxLength;
+import com.hapiware.util.cmdlineparser.constraint.MaxValue;
+import com.hapiware.util.cmdlineparser.constraint.MinLength;
+import com.hapiware.util.cmdlineparser.constraint.MinValue;
+
+
+/**
+ * {@code ConstraintChain} is the compiled form of the constraints of an argument. The built-in
+ * constraints are fused when the argument is added:
+ * 	<ul>
+ * 		<li>
+ * 			{@link MinValue} and {@link MaxValue} constraints are merged to a single range.
+ * 			{@link Integer}, {@link Long} and {@link Double} values are compared as primitives.
+ * 		</li>
+ * 		<li>
+ * 			{@link MinLength}, {@link MaxLength} and {@link Length} constraints of {@link String}
+ * 			arguments are merged to a single length window.
+ * 		</li>
+ * 	</ul>
+ * If there are several constraints of the same kind the strictest one is used. Contradicting
+ * constraints (e.g. a minimum value greater than the maximum value) are reported with
+ * {@link ConfigurationException}. The rest of the constraints are evaluated as such after the
+ * fused checks. The violation messages are the same as the messages of the built-in
+ * constraints. The fused checks return the violation messages instead of throwing
+ * {@link ConstraintException} and thus only the rest of the constraints throw.
+ * <p>
+ * {@code ConstraintChain} is immutable.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ * @param <T>
+ * 		A type of the argument.
+ */
+final class ConstraintChain<T>
+{
+	private final int _primitive;
+	private final List<Constraint<T>> _others = new ArrayList<Constraint<T>>();
+
+	private boolean _hasMinValue;
+	private boolean _hasMaxValue;
+	private long _minLong;
+	private long _maxLong;
+	private double _minDouble;
+	private double _maxDouble;
+	private Comparable<Object> _minComparable;
+	private Comparable<Object> _maxComparable;
+
+	private boolean _hasLength;
+	private int _length;
+	private int _minLength = Integer.MIN_VALUE;
+	private int _maxLength = Integer.MAX_VALUE;
+
+
+	/**
+	 * Compiles the constraints.
+	 *
+	 * @param id
+	 * 		An id of the argument for the error messages. For option arguments the id is
+	 * 		the name of the option without the minus characters.
+	 *
+	 * @param argumentTypeClass
+	 * 		A type of the argument.
+	 *
+	 * @param primitive
+	 * 		A kind of the argument (see {@link Argument.Internal#primitive()}).
+	 *
+	 * @param constraints
+	 * 		The constraints in the order they were defined.
+	 *
+	 * @throws ConfigurationException
+	 * 		If the constraints contradict each other.
+	 */
+	@SuppressWarnings("unchecked")
+	ConstraintChain(
+		String id,
+		Class<T> argumentTypeClass,
+		int primitive,
+		List<Constraint<T>> constraints
+	)
+	{
+		_primitive = primitive;
+		boolean numeric =
+			primitive == Argument.Internal.INT
+				|| primitive == Argument.Internal.LONG
+				|| primitive == Argument.Internal.DOUBLE;
+		boolean string = argumentTypeClass == String.class;
+		for(Constraint<T> constraint : constraints) {
+			if(constraint instanceof MinValue<?>) {
+				Object minValue = ((MinValue<?>)constraint).getMinValue();
+				if(numeric)
+					fuseMinValue((Number)minValue);
+				else if(argumentTypeClass.isInstance(minValue))
+					fuseMinValue((Comparable<Object>)minValue);
+				else
+					_others.add(constraint);
+			}
+			else if(constraint instanceof MaxValue<?>) {
+				Object maxValue = ((MaxValue<?>)constraint).getMaxValue();
+				if(numeric)
+					fuseMaxValue((Number)maxValue);
+				else if(argumentTypeClass.isInstance(maxValue))
+					fuseMaxValue((Comparable<Object>)maxValue);
+				else
+					_others.add(constraint);
+			}
+			else if(string && constraint instanceof Length) {
+				int length = ((Length)constraint).getLength();
+				if(_hasLength && _length != length)
+					throw
+						new ConfigurationException(
+							"Constraints for '" + id + "' are contradictory. Length cannot be both "
+								+ _length + " and " + length + "."
+						);
+				_hasLength = true;
+				_length = length;
+			}
+			else if(string && constraint instanceof MinLength)
+				_minLength = Math.max(_minLength, ((MinLength)constraint).getMinLength());
+			else if(string && constraint instanceof MaxLength)
+				_maxLength = Math.min(_maxLength, ((MaxLength)constraint).getMaxLength());
+			else
+				_others.add(constraint);
+		}
+		checkContradictions(id);
+	}
+
+	private void fuseMinValue(Number minValue)
+	{
+		if(!_hasMinValue || compare(minValue, _minLong, _minDouble) > 0) {
+			_minLong = minValue.longValue();
+			_minDouble = minValue.doubleValue();
+		}
+		_hasMinValue = true;
+	}
+
+	private void fuseMaxValue(Number maxValue)
+	{
+		if(!_hasMaxValue || compare(maxValue, _maxLong, _maxDouble) < 0) {
+			_maxLong = maxValue.longValue();
+			_maxDouble = maxValue.doubleValue();
+		}
+		_hasMaxValue = true;
+	}
+
+	private void fuseMinValue(Comparable<Object> minValue)
+	{
+		if(_minComparable == null || minValue.compareTo(_minComparable) > 0)
+			_minComparable = minValue;
+		_hasMinValue = true;
+	}
+
+	private void fuseMaxValue(Comparable<Object> maxValue)
+	{
+		if(_maxComparable == null || maxValue.compareTo(_maxComparable) < 0)
+			_maxComparable = maxValue;
+		_hasMaxValue = true;
+	}
+
+	private int compare(Number value, long longValue, double doubleValue)
+	{
+		if(_primitive == Argument.Internal.DOUBLE)
+			return Double.compare(value.doubleValue(), doubleValue);
+		long l = value.longValue();
+		return l < longValue ? -1 : (l == longValue ? 0 : 1);
+	}
+
+	private void checkContradictions(String id)
+	{
+		String prefix = "Constraints for '" + id + "' are contradictory. ";
+		if(_hasMinValue && _hasMaxValue) {
+			boolean contradiction;
+			String minValue;
+			String maxValue;
+			if(_primitive == Argument.Internal.DOUBLE) {
+				contradiction = Double.compare(_minDouble, _maxDouble) > 0;
+				minValue = String.valueOf(_minDouble);
+				maxValue = String.valueOf(_maxDouble);
+			}
+			else if(_minComparable == null) {
+				contradiction = _minLong > _maxLong;
+				minValue = String.valueOf(_minLong);
+				maxValue = String.valueOf(_maxLong);
+			}
+			else {
+				contradiction = _minComparable.compareTo(_maxComparable) > 0;
+				minValue = _minComparable.toString();
+				maxValue = _maxComparable.toString();
+			}
+			if(contradiction)
+				throw
+					new ConfigurationException(
+						prefix + "The minimum value " + minValue
+							+ " is greater than the maximum value " + maxValue + "."
+					);
+		}
+		if(_minLength > _maxLength)
+			throw
+				new ConfigurationException(
+					prefix + "The minimum length " + _minLength
+						+ " is greater than the maximum length " + _maxLength + "."
+				);
+		if(_hasLength && (_length < _minLength || _length > _maxLength))
+			throw
+				new ConfigurationException(
+					prefix + "The length " + _length + " is not between the minimum and "
+						+ "the maximum length."
+				);
+	}
+
+	/**
+	 * Returns {@code true} if there are constraints which were not fused.
+	 *
+	 * @return
+	 * 		{@code true} if {@link #checkOthers(String, Object)} must be called.
+	 */
+	boolean hasOthers()
+	{
+		return _others.size() > 0;
+	}
+
+	/**
+	 * Checks all the constraints.
+	 *
+	 * @param dataName
+	 * 		A name for the constraint violation messages.
+	 *
+	 * @param value
+	 * 		A value to check.
+	 *
+	 * @throws ConstraintException
+	 * 		If any of the constraints is violated.
+	 */
+	void check(String dataName, T value) throws ConstraintException
+	{
+		String violation = violation(dataName, value);
+		if(violation != null)
+			throw new ConstraintException(violation);
+		checkOthers(dataName, value);
+	}
+
+	/**
+	 * Checks the fused constraints without throwing an exception.
+	 *
+	 * @param dataName
+	 * 		A name for the constraint violation message.
+	 *
+	 * @param value
+	 * 		A value to check.
+	 *
+	 * @return
+	 * 		The violation message or {@code null} if the value satisfies the fused constraints.
+	 */
+	String violation(String dataName, T value)
+	{
+		if(_hasMinValue || _hasMaxValue) {
+			String violation;
+			if(_primitive == Argument.Internal.INT || _primitive == Argument.Internal.LONG)
+				violation = rangeViolation(dataName, ((Number)value).longValue());
+			else if(_primitive == Argument.Internal.DOUBLE)
+				violation = rangeViolation(dataName, ((Number)value).doubleValue());
+			else
+				violation = rangeViolation(dataName, value);
+			if(violation != null)
+				return violation;
+		}
+		if(value instanceof String)
+			return lengthViolation(dataName, (String)value);
+		return null;
+	}
+
+	/**
+	 * Checks the constraints which were not fused.
+	 *
+	 * @param dataName
+	 * 		A name for the constraint violation messages.
+	 *
+	 * @param value
+	 * 		A value to check.
+	 *
+	 * @throws ConstraintException
+	 * 		If any of the constraints is violated.
+	 */
+	void checkOthers(String dataName, T value) throws ConstraintException
+	{
+		for(int i = 0; i < _others.size(); i++)
+			_others.get(i).evaluate(dataName, value);
+	}
+
+	// The messages are the same as the messages of MinValue and MaxValue.
+	String rangeViolation(String dataName, long value)
+	{
+		if(_hasMinValue && value < _minLong)
+			return
+				"'" + value + "' is smaller than the minimum value " + _minLong
+					+ " allowed for '" + dataName + "'.";
+		if(_hasMaxValue && value > _maxLong)
+			return
+				"'" + value + "' is greater than the maximum value " + _maxLong
+					+ " allowed for '" + dataName + "'.";
+		return null;
+	}
+
+	String rangeViolation(String dataName, double value)
+	{
+		// Double.compare() orders NaN and -0.0 like Double.compareTo().
+		if(_hasMinValue && Double.compare(value, _minDouble) < 0)
+			return
+				"'" + value + "' is smaller than the minimum value " + _minDouble
+					+ " allowed for '" + dataName + "'.";
+		if(_hasMaxValue && Double.compare(value, _maxDouble) > 0)
+			return
+				"'" + value + "' is greater than the maximum value " + _maxDouble
+					+ " allowed for '" + dataName + "'.";
+		return null;
+	}
+
+	private String rangeViolation(String dataName, T value)
+	{
+		if(_minComparable != null && _minComparable.compareTo(value) > 0)
+			return
+				"'" + value + "' is smaller than the minimum value " + _minComparable
+					+ " allowed for '" + dataName + "'.";
+		if(_maxComparable != null && _maxComparable.compareTo(value) < 0)
+			return
+				"'" + value + "' is greater than the maximum value " + _maxComparable
+					+ " allowed for '" + dataName + "'.";
+		return null;
+	}
+
+	// The messages are the same as the messages of Length, MinLength and MaxLength.
+	private String lengthViolation(String dataName, String value)
+	{
+		int length = value.length();
+		if(_hasLength)
+			return
+				length != _length ?
+					"Length of '" + value + "' differs from the length " + _length
+						+ " allowed for '" + dataName + "'." :
+					null;
+		if(length < _minLength)
+			return
+				"Length of '" + value + "' is shorter than the minimum length " + _minLength
+					+ " allowed for '" + dataName + "'.";
+		if(length > _maxLength)
+			return
+				"Length of '" + value + "' is longer than the maximum length " + _maxLength
+					+ " allowed for '" + dataName + "'.";
+		return null;
+	}
+}
@@ -0,0 +1,30 @@
+package com.hapiware.util.cmdlineparser;
+
+
+/**
+ * {@code Converter} converts a command line value to an argument type. Converters for types
+ * which cannot be found automatically are registered with
+ * {@link Converters#register(Class, Converter)}. Implementations must be thread safe.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ * @param <T>
+ * 		A type of the converted values.
+ */
+public interface Converter<T>
+{
+	/**
+	 * Converts a command line value.
+	 * 
+	 * @param valueAsString
+	 * 		The value as it was on the command line.
+	 * 
+	 * @return
+	 * 		The converted value. Must not be {@code null}.
+	 * 
+	 * @throws Exception
+	 * 		If the value cannot be converted. The exception is reported as
+	 * 		{@link IllegalCommandLineArgumentException}.
+	 */
+	public T convert(String valueAsString) throws Exception;
+}
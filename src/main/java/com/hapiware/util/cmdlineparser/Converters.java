@@ -0,0 +1,328 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * {@code Converters} is a registry of {@link Converter}s keyed by the argument type. The
+ * converter of an argument is looked up once when the argument is defined and thus converting
+ * a command line value is a direct call.
+ * <p>
+ * Converters for the following types are built in and cannot be replaced:
+ * {@link String}, {@link Integer}, {@link Long}, {@link Byte}, {@link Short}, {@link Double},
+ * {@link Float}, {@link Boolean}, {@link BigDecimal} and {@link BigInteger}.
+ * <p>
+ * For other types a converter is searched by reflection in the following order:
+ * 	<ol>
+ * 		<li>a converter registered with {@link #register(Class, Converter)}</li>
+ * 		<li>a public static {@code valueOf(String)} method (e.g. enums)</li>
+ * 		<li>
+ * 			a public static {@code parse(CharSequence)} or {@code parse(String)} method
+ * 			(e.g. {@code java.time.Duration})
+ * 		</li>
+ * 		<li>a public constructor taking a {@link String} (e.g. {@link java.io.File})</li>
+ * 	</ol>
+ * The found method or constructor is cached without preventing the type from being unloaded.
+ * Types to which a {@link String} can be assigned (e.g. {@link Object} and
+ * {@link CharSequence}) get the value as such.
+ * <p>
+ * Converters must be registered before the arguments using them are defined. For example:
+ * <pre>
+ * Converters.register(Color.class, new Converter&lt;Color&gt;() {
+ *     public Color convert(String valueAsString)
+ *     {
+ *         return Color.decode(valueAsString);
+ *     }
+ * });
+ * p.add(Color.class, new Argument&lt;Color&gt;("COLOR") {{
+ *     description("A colour like #ff8800.");
+ * }});
+ * </pre>
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+public final class Converters
+{
+	// Not modified after the static initializer.
+	private static final Map<Class<?>, Converter<?>> BUILT_IN_CONVERTERS =
+		new HashMap<Class<?>, Converter<?>>();
+	private static final Map<Class<?>, Converter<?>> REGISTERED_CONVERTERS =
+		Collections.synchronizedMap(new WeakHashMap<Class<?>, Converter<?>>());
+
+	// The found converters refer to their types and thus they are held softly.
+	private static final Map<Class<?>, SoftReference<Converter<?>>> FOUND_CONVERTERS =
+		Collections.synchronizedMap(new WeakHashMap<Class<?>, SoftReference<Converter<?>>>());
+
+	static {
+		// All the built-in converters share one class to keep the number of loaded classes down.
+		BUILT_IN_CONVERTERS.put(String.class, new BuiltInConverter(BuiltInConverter.STRING));
+		BUILT_IN_CONVERTERS.put(Integer.class, new BuiltInConverter(BuiltInConverter.INTEGER));
+		BUILT_IN_CONVERTERS.put(Long.class, new BuiltInConverter(BuiltInConverter.LONG));
+		BUILT_IN_CONVERTERS.put(Byte.class, new BuiltInConverter(BuiltInConverter.BYTE));
+		BUILT_IN_CONVERTERS.put(Short.class, new BuiltInConverter(BuiltInConverter.SHORT));
+		BUILT_IN_CONVERTERS.put(Double.class, new BuiltInConverter(BuiltInConverter.DOUBLE));
+		BUILT_IN_CONVERTERS.put(Float.class, new BuiltInConverter(BuiltInConverter.FLOAT));
+		BUILT_IN_CONVERTERS.put(Boolean.class, new BuiltInConverter(BuiltInConverter.BOOLEAN));
+		BUILT_IN_CONVERTERS.put(BigDecimal.class, new BuiltInConverter(BuiltInConverter.BIG_DECIMAL));
+		BUILT_IN_CONVERTERS.put(BigInteger.class, new BuiltInConverter(BuiltInConverter.BIG_INTEGER));
+	}
+
+
+	private Converters()
+	{
+		// Only static methods.
+	}
+
+
+	/**
+	 * Registers a converter for a type. A registered converter replaces a converter found
+	 * by reflection but it does not affect the arguments already defined.
+	 * <p>
+	 * A registered converter usually refers to the class loader of {@code type} and thus
+	 * the type cannot be unloaded while the converter is registered. Use
+	 * {@link #unregister(Class)} if the type must be unloaded (e.g. when a web application
+	 * is undeployed and this library is shared between applications).
+	 *
+	 * @param <T>
+	 * 		A type of the converted values.
+	 *
+	 * @param type
+	 * 		A type of the converted values.
+	 *
+	 * @param converter
+	 * 		The converter.
+	 *
+	 * @throws ConfigurationException
+	 * 		If either of the parameters is {@code null} or if {@code type} has a built-in
+	 * 		converter.
+	 */
+	public static <T> void register(Class<T> type, Converter<T> converter)
+	{
+		if(type == null)
+			throw new ConfigurationException("'type' must have a value.");
+		if(converter == null)
+			throw new ConfigurationException("'converter' must have a value.");
+		if(BUILT_IN_CONVERTERS.containsKey(type))
+			throw
+				new ConfigurationException(
+					"A built-in converter for '" + type.getName() + "' cannot be replaced."
+				);
+
+		REGISTERED_CONVERTERS.put(type, converter);
+	}
+
+	/**
+	 * Removes a converter registered with {@link #register(Class, Converter)}. Does nothing if
+	 * there is no registered converter for {@code type}. The arguments already defined still
+	 * use the removed converter.
+	 *
+	 * @param type
+	 * 		A type of the converted values.
+	 *
+	 * @throws ConfigurationException
+	 * 		If {@code type} is {@code null}.
+	 */
+	public static void unregister(Class<?> type)
+	{
+		if(type == null)
+			throw new ConfigurationException("'type' must have a value.");
+
+		REGISTERED_CONVERTERS.remove(type);
+	}
+
+	/**
+	 * Returns a converter for a type. A converter found by reflection is cached.
+	 *
+	 * @param <T>
+	 * 		A type of the converted values.
+	 *
+	 * @param type
+	 * 		A type of the converted values.
+	 *
+	 * @return
+	 * 		The converter or {@code null} if the type cannot be converted from a {@link String}.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Converter<T> get(Class<T> type)
+	{
+		Converter<T> converter = (Converter<T>)BUILT_IN_CONVERTERS.get(type);
+		if(converter != null)
+			return converter;
+		converter = (Converter<T>)REGISTERED_CONVERTERS.get(type);
+		if(converter != null)
+			return converter;
+
+		SoftReference<Converter<?>> reference = FOUND_CONVERTERS.get(type);
+		converter = reference == null ? null : (Converter<T>)reference.get();
+		if(converter == null) {
+			// Finding a converter twice in a race is harmless.
+			converter = find(type);
+			if(converter == null)
+				return null;
+			FOUND_CONVERTERS.put(type, new SoftReference<Converter<?>>(converter));
+		}
+		return converter;
+	}
+
+	private static <T> Converter<T> find(final Class<T> type)
+	{
+		Method method = factoryMethod(type, "valueOf", String.class);
+		if(method == null)
+			method = factoryMethod(type, "parse", CharSequence.class);
+		if(method == null)
+			method = factoryMethod(type, "parse", String.class);
+		if(method != null) {
+			final Method factoryMethod = method;
+			return
+				new Converter<T>()
+				{
+					public T convert(String valueAsString) throws Exception
+					{
+						try {
+							return type.cast(factoryMethod.invoke(null, valueAsString));
+						}
+						catch(InvocationTargetException ex) {
+							throw rethrow(ex);
+						}
+					}
+				};
+		}
+
+		if(!type.isInterface() && !Modifier.isAbstract(type.getModifiers()))
+			try {
+				final Constructor<T> constructor = type.getConstructor(String.class);
+				makeAccessible(constructor);
+				return
+					new Converter<T>()
+					{
+						public T convert(String valueAsString) throws Exception
+						{
+							try {
+								return constructor.newInstance(valueAsString);
+							}
+							catch(InvocationTargetException ex) {
+								throw rethrow(ex);
+							}
+						}
+					};
+			}
+			catch(NoSuchMethodException ex) {
+				// Continues to the next alternative.
+			}
+
+		if(type.isAssignableFrom(String.class))
+			return
+				new Converter<T>()
+				{
+					public T convert(String valueAsString)
+					{
+						return type.cast(valueAsString);
+					}
+				};
+		return null;
+	}
+
+	private static Method factoryMethod(Class<?> type, String name, Class<?> parameterType)
+	{
+		try {
+			Method method = type.getMethod(name, parameterType);
+			if(
+				!Modifier.isStatic(method.getModifiers())
+					|| !type.isAssignableFrom(method.getReturnType())
+			)
+				return null;
+			makeAccessible(method);
+			return method;
+		}
+		catch(NoSuchMethodException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Public members of non-public classes are not accessible by reflection without this.
+	 */
+	private static void makeAccessible(AccessibleObject accessibleObject)
+	{
+		try {
+			accessibleObject.setAccessible(true);
+		}
+		catch(SecurityException ex) {
+			// Public members of public classes are accessible anyway.
+		}
+	}
+
+	private static Exception rethrow(InvocationTargetException ex)
+	{
+		Throwable cause = ex.getCause();
+		if(cause instanceof Exception)
+			return (Exception)cause;
+		if(cause instanceof Error)
+			throw (Error)cause;
+		return ex;
+	}
+
+	private static final class BuiltInConverter
+		implements
+			Converter<Object>
+	{
+		static final int STRING = 0;
+		static final int INTEGER = 1;
+		static final int LONG = 2;
+		static final int BYTE = 3;
+		static final int SHORT = 4;
+		static final int DOUBLE = 5;
+		static final int FLOAT = 6;
+		static final int BOOLEAN = 7;
+		static final int BIG_DECIMAL = 8;
+		static final int BIG_INTEGER = 9;
+
+		private final int _type;
+
+		public BuiltInConverter(int type)
+		{
+			_type = type;
+		}
+
+		public Object convert(String valueAsString)
+		{
+			switch(_type) {
+				case INTEGER:
+					return Integer.valueOf(valueAsString);
+				case LONG:
+					return Long.valueOf(valueAsString);
+				case BYTE:
+					return Byte.valueOf(valueAsString);
+				case SHORT:
+					return Short.valueOf(valueAsString);
+				case DOUBLE:
+					return Double.valueOf(valueAsString);
+				case FLOAT:
+					return Float.valueOf(valueAsString);
+				case BOOLEAN:
+					if(Util.isMalformed(valueAsString, Boolean.class))
+						throw
+							new IllegalArgumentException("'" + valueAsString + "' is not a boolean.");
+					return Boolean.valueOf(valueAsString);
+				case BIG_DECIMAL:
+					return new BigDecimal(valueAsString);
+				case BIG_INTEGER:
+					return new BigInteger(valueAsString);
+				default:
+					return valueAsString;
+			}
+		}
+	}
+}
@@ -0,0 +1,882 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.ref.SoftReference;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.hapiware.util.cmdlineparser.constraint.Enumeration;
+import com.hapiware.util.cmdlineparser.writer.Writer;
+
+
+/**
+ * {@code DefinitionFile} defines {@link CommandLineParser}s from a declarative text file instead
+ * of Java code. This is useful when command line utilities are generated (e.g. from service
+ * metadata) because a single generic main class can serve any number of utilities:
+ * <pre>
+ * public static void main(String[] args)
+ * {
+ *     CommandLineParser p =
+ *         DefinitionFile.load(Main.class, System.getProperty("definition")).createParser(Main.class);
+ *     p.parse(args);
+ *     ...
+ * }
+ * </pre>
+ *
+ * The file is read in a single pass and the loaded definitions are cached by the URL of the
+ * file and the class loader until the file changes. A {@code DefinitionFile} is immutable and
+ * {@link #createParser(Class)} creates a new {@link CommandLineParser} every time it is called.
+ *
+ * <h4>File format</h4>
+ * The file uses the syntax of properties files: every line is a {@code key = value} (or
+ * {@code key : value}) pair, lines starting with {@code #} or {@code !} are comments and a line
+ * ending with a backslash ({@code \}) continues on the next line. The file is read as UTF-8
+ * and, unlike properties files, the order of the lines is significant. The keys are:
+ * 	<ul>
+ * 		<li>{@code description} for the main description</li>
+ * 		<li>{@code example} for example arguments (see {@link CommandLineParser#addExampleArguments(String)})</li>
+ * 		<li>{@code option.NAME.PROPERTY} for global options</li>
+ * 		<li>{@code argument.NAME.PROPERTY} for global arguments</li>
+ * 		<li>{@code command.NAME.PROPERTY} for commands</li>
+ * 		<li>{@code command.NAME.option.NAME.PROPERTY} for command options</li>
+ * 		<li>{@code command.NAME.argument.NAME.PROPERTY} for command arguments</li>
+ * 	</ul>
+ *
+ * The elements are defined in the order they first appear in the file. {@code description}
+ * can be repeated and every {@code description} line starts a new paragraph. The other
+ * properties can be given only once per element. Properties for all the elements are:
+ * 	<ul>
+ * 		<li>{@code description} (mandatory, repeatable)</li>
+ * 		<li>{@code id}</li>
+ * 		<li>{@code alternatives} (options and commands), separated by commas or white space</li>
+ * 		<li>{@code shortDescription} (commands, mandatory)</li>
+ * 		<li>
+ * 			{@code executor} (commands), a fully qualified name of a {@link CommandExecutor} class
+ * 			having a public constructor without arguments
+ * 		</li>
+ * 		<li>{@code multiple} (options and arguments), {@code true} or {@code false}</li>
+ * 	</ul>
+ *
+ * Arguments and options having an argument can also have the following properties. An option
+ * has an argument if any of these are given.
+ * 	<ul>
+ * 		<li>
+ * 			{@code type}, a fully qualified class name or a simple name of a built-in type
+ * 			(e.g. {@code Integer}). The default type is {@link String}. The type must have
+ * 			a converter (see {@link Converters}).
+ * 		</li>
+ * 		<li>{@code argument} (options), a name of the option argument for the help</li>
+ * 		<li>{@code optional}, a default value</li>
+ * 		<li>{@code minValue}, {@code maxValue}, {@code minLength}, {@code maxLength} and {@code length}</li>
+ * 		<li>{@code value.VALUE}, where the property value is the description of {@code VALUE}</li>
+ * 		<li>{@code valueIgnoreCase.VALUE} (only for {@link String} types)</li>
+ * 		<li>{@code includeRange.LOWER..UPPER} and {@code excludeRange.LOWER..UPPER}</li>
+ * 	</ul>
+ *
+ * The {@code value} and {@code range} properties define an {@link Enumeration} constraint.
+ * Notice that enumerated values cannot contain white space, {@code =} or {@code :} because
+ * they are part of the key. For example:
+ * <pre>
+ * description = Sets log levels of a running JVM.
+ * example = -t j set 50001 root INFO
+ *
+ * option.v.alternatives = verbose
+ * option.v.description = Prints more information.
+ *
+ * option.t.description = Type of the logger.
+ * option.t.value.j = Java logger.
+ * option.t.value.4 = log4j logger.
+ *
+ * command.set.alternatives = s
+ * command.set.shortDescription = Sets a new logging level.
+ * command.set.description = Sets a new logging level for the logger.
+ * command.set.executor = com.example.SetExecutor
+ * command.set.argument.PID.type = Integer
+ * command.set.argument.PID.description = Process id of the JVM.
+ * command.set.argument.PID.includeRange.1..65535 = Any process id.
+ * command.set.argument.LEVEL.description = A new level.
+ * command.set.argument.LEVEL.optional = INFO
+ * </pre>
+ *
+ * Errors in the file are reported as {@link ConfigurationException}s having the line number
+ * of the erroneous element.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ * @see CommandLineParser
+ */
+public final class DefinitionFile
+{
+	private static final String OPTION = "option";
+	private static final String ARGUMENT = "argument";
+	private static final String COMMAND = "command";
+
+	// Guarded by itself. The definitions are held softly because they refer to the classes of
+	// the class loader.
+	private static final Map<ClassLoader, Map<String, SoftReference<DefinitionFile>>> CACHE =
+		new WeakHashMap<ClassLoader, Map<String, SoftReference<DefinitionFile>>>();
+	private static final Map<String, Class<?>> BUILT_IN_TYPES = new HashMap<String, Class<?>>();
+	static {
+		BUILT_IN_TYPES.put("String", String.class);
+		BUILT_IN_TYPES.put("Integer", Integer.class);
+		BUILT_IN_TYPES.put("Long", Long.class);
+		BUILT_IN_TYPES.put("Byte", Byte.class);
+		BUILT_IN_TYPES.put("Short", Short.class);
+		BUILT_IN_TYPES.put("Double", Double.class);
+		BUILT_IN_TYPES.put("Float", Float.class);
+		BUILT_IN_TYPES.put("Boolean", Boolean.class);
+		BUILT_IN_TYPES.put("BigDecimal", BigDecimal.class);
+		BUILT_IN_TYPES.put("BigInteger", BigInteger.class);
+	}
+
+	private final String _source;
+	private long _lastModified;
+	private final List<String> _description = new ArrayList<String>();
+	private final List<String> _examples = new ArrayList<String>();
+	private final Map<String, Element> _options = new LinkedHashMap<String, Element>();
+	private final Map<String, Element> _arguments = new LinkedHashMap<String, Element>();
+	private final Map<String, Element> _commands = new LinkedHashMap<String, Element>();
+
+
+	private DefinitionFile(String source)
+	{
+		_source = source;
+	}
+
+
+	/**
+	 * Loads a definition file as a resource of {@code mainClass} (see
+	 * {@link Class#getResource(String)}). Types and executors are loaded with the class loader
+	 * of {@code mainClass}. The definitions are cached as described in
+	 * {@link #load(URL, ClassLoader)}.
+	 *
+	 * @param mainClass
+	 * 		The main class of the utility.
+	 *
+	 * @param resourceName
+	 * 		A name of the definition file resource.
+	 *
+	 * @return
+	 * 		The loaded definitions.
+	 *
+	 * @throws ConfigurationException
+	 * 		If the file cannot be found or read or if it has errors.
+	 */
+	public static DefinitionFile load(Class<?> mainClass, String resourceName)
+	{
+		if(mainClass == null)
+			throw new ConfigurationException("'mainClass' must have a value.");
+		if(resourceName == null)
+			throw new ConfigurationException("'resourceName' must have a value.");
+
+		URL url = mainClass.getResource(resourceName);
+		if(url == null)
+			throw
+				new ConfigurationException("Definition file '" + resourceName + "' was not found.");
+		return load(url, mainClass.getClassLoader());
+	}
+
+	/**
+	 * Loads a definition file from a URL. The definitions are cached by {@code url} and
+	 * {@code classLoader} and the file is read again only if its modification time has changed.
+	 * The cache does not prevent {@code classLoader} from being garbage collected.
+	 *
+	 * @param url
+	 * 		A URL of the definition file.
+	 *
+	 * @param classLoader
+	 * 		A class loader for the types and executors. {@code null} means the bootstrap class
+	 * 		loader.
+	 *
+	 * @return
+	 * 		The loaded definitions.
+	 *
+	 * @throws ConfigurationException
+	 * 		If the file cannot be read or if it has errors.
+	 */
+	public static DefinitionFile load(URL url, ClassLoader classLoader)
+	{
+		if(url == null)
+			throw new ConfigurationException("'url' must have a value.");
+
+		String key = url.toExternalForm();
+		DefinitionFile definitionFile;
+		try {
+			URLConnection connection = url.openConnection();
+			InputStream in = connection.getInputStream();
+			try {
+				long lastModified = connection.getLastModified();
+				definitionFile = cached(classLoader, key);
+				if(definitionFile != null && definitionFile._lastModified == lastModified)
+					return definitionFile;
+
+				// Reading a file twice in a race is harmless.
+				definitionFile = read(new InputStreamReader(in, "UTF-8"), classLoader, key);
+				definitionFile._lastModified = lastModified;
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch(IOException ex) {
+			throw new ConfigurationException("Reading definition file '" + key + "' failed.", ex);
+		}
+		synchronized(CACHE) {
+			Map<String, SoftReference<DefinitionFile>> files = CACHE.get(classLoader);
+			if(files == null) {
+				files = new HashMap<String, SoftReference<DefinitionFile>>();
+				CACHE.put(classLoader, files);
+			}
+			files.put(key, new SoftReference<DefinitionFile>(definitionFile));
+		}
+		return definitionFile;
+	}
+
+	private static DefinitionFile cached(ClassLoader classLoader, String key)
+	{
+		synchronized(CACHE) {
+			Map<String, SoftReference<DefinitionFile>> files = CACHE.get(classLoader);
+			SoftReference<DefinitionFile> reference = files == null ? null : files.get(key);
+			return reference == null ? null : reference.get();
+		}
+	}
+
+	/**
+	 * Reads definitions from a reader. The definitions are not cached.
+	 *
+	 * @param reader
+	 * 		A reader for the definitions. The reader is not closed.
+	 *
+	 * @param classLoader
+	 * 		A class loader for the types and executors. {@code null} means the bootstrap class
+	 * 		loader.
+	 *
+	 * @return
+	 * 		The read definitions.
+	 *
+	 * @throws IOException
+	 * 		If reading fails.
+	 *
+	 * @throws ConfigurationException
+	 * 		If the definitions have errors.
+	 */
+	public static DefinitionFile read(Reader reader, ClassLoader classLoader)
+		throws
+			IOException
+	{
+		if(reader == null)
+			throw new ConfigurationException("'reader' must have a value.");
+
+		return read(reader, classLoader, null);
+	}
+
+	private static DefinitionFile read(Reader reader, ClassLoader classLoader, String source)
+		throws
+			IOException
+	{
+		DefinitionFile definitionFile = new DefinitionFile(source);
+		BufferedReader in = new BufferedReader(reader);
+		int lineNumber = 0;
+		String line;
+		while((line = in.readLine()) != null) {
+			lineNumber++;
+			int firstLineNumber = lineNumber;
+			line = line.trim();
+			if(line.length() == 0 || line.startsWith("#") || line.startsWith("!"))
+				continue;
+
+			while(line.endsWith("\\")) {
+				String next = in.readLine();
+				line = line.substring(0, line.length() - 1);
+				if(next == null)
+					break;
+				lineNumber++;
+				line += next.trim();
+			}
+			definitionFile.define(line, firstLineNumber);
+		}
+		for(Element element : definitionFile._options.values())
+			element.resolve(classLoader);
+		for(Element element : definitionFile._arguments.values())
+			element.resolve(classLoader);
+		for(Element element : definitionFile._commands.values())
+			element.resolve(classLoader);
+		return definitionFile;
+	}
+
+
+	/**
+	 * Creates a new {@link CommandLineParser} having the definitions of this file. The help is
+	 * written with {@link com.hapiware.util.cmdlineparser.writer.ScreenWriter}.
+	 *
+	 * @param mainClass
+	 * 		The main class of the utility. See {@link CommandLineParser}.
+	 *
+	 * @return
+	 * 		A new command line parser.
+	 */
+	public CommandLineParser createParser(Class<?> mainClass)
+	{
+		return define(new CommandLineParser(mainClass, createDescription()));
+	}
+
+	/**
+	 * Creates a new {@link CommandLineParser} having the definitions of this file.
+	 *
+	 * @param mainClass
+	 * 		The main class of the utility. See {@link CommandLineParser}.
+	 *
+	 * @param writer
+	 * 		A writer for the help.
+	 *
+	 * @return
+	 * 		A new command line parser.
+	 */
+	public CommandLineParser createParser(Class<?> mainClass, Writer writer)
+	{
+		return define(new CommandLineParser(mainClass, writer, createDescription()));
+	}
+
+
+	private Description createDescription()
+	{
+		Description description = new Description();
+		for(int i = 0; i < _description.size(); i++) {
+			if(i > 0)
+				description.p();
+			description.description(_description.get(i));
+		}
+		return description;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private CommandLineParser define(CommandLineParser parser)
+	{
+		for(String example : _examples)
+			parser.addExampleArguments(example);
+		for(Element element : _options.values())
+			try {
+				parser.add(element.createOption());
+			}
+			catch(ConfigurationException ex) {
+				throw error(element._line, ex.getMessage(), ex);
+			}
+		for(Element element : _arguments.values())
+			try {
+				parser.add((Class)element._type, element.createArgument());
+			}
+			catch(ConfigurationException ex) {
+				throw error(element._line, ex.getMessage(), ex);
+			}
+		for(Element element : _commands.values()) {
+			// Errors of the command options and arguments have their own line numbers.
+			Command command = element.createCommand();
+			try {
+				parser.add(command);
+			}
+			catch(ConfigurationException ex) {
+				throw error(element._line, ex.getMessage(), ex);
+			}
+		}
+		return parser;
+	}
+
+	private void define(String line, int lineNumber)
+	{
+		int separator = line.length();
+		for(int i = 0; i < line.length(); i++)
+			if(line.charAt(i) == '=' || line.charAt(i) == ':') {
+				separator = i;
+				break;
+			}
+		if(separator == line.length())
+			throw error(lineNumber, "'=' is missing.", null);
+
+		String key = line.substring(0, separator).trim();
+		String value = line.substring(separator + 1).trim();
+		if(key.equals("description"))
+			_description.add(value);
+		else
+			if(key.equals("example"))
+				_examples.add(value);
+			else {
+				String[] parts = key.split("\\.", 3);
+				if(parts.length < 3)
+					throw error(lineNumber, "Unknown key '" + key + "'.", null);
+
+				Element element;
+				if(parts[0].equals(OPTION))
+					element = element(_options, OPTION, parts[1], lineNumber);
+				else
+					if(parts[0].equals(ARGUMENT))
+						element = element(_arguments, ARGUMENT, parts[1], lineNumber);
+					else
+						if(parts[0].equals(COMMAND))
+							element = element(_commands, COMMAND, parts[1], lineNumber);
+						else
+							throw error(lineNumber, "Unknown key '" + key + "'.", null);
+
+				String property = parts[2];
+				if(element._kind == COMMAND) {
+					String[] commandParts = property.split("\\.", 3);
+					if(commandParts.length == 3 && commandParts[0].equals(OPTION)) {
+						element = element(element._options, OPTION, commandParts[1], lineNumber);
+						property = commandParts[2];
+					}
+					else
+						if(commandParts.length == 3 && commandParts[0].equals(ARGUMENT)) {
+							element = element(element._arguments, ARGUMENT, commandParts[1], lineNumber);
+							property = commandParts[2];
+						}
+				}
+				element.set(property, value, lineNumber);
+			}
+	}
+
+	private Element element(Map<String, Element> elements, String kind, String name, int lineNumber)
+	{
+		Element element = elements.get(name);
+		if(element == null) {
+			element = new Element(this, kind, name, lineNumber);
+			elements.put(name, element);
+		}
+		return element;
+	}
+
+	private ConfigurationException error(int lineNumber, String message, Throwable cause)
+	{
+		String location = _source == null ? "Line " + lineNumber : _source + ", line " + lineNumber;
+		return new ConfigurationException(location + ": " + message, cause);
+	}
+
+
+	/**
+	 * A single property line of an element.
+	 */
+	private static final class Property
+	{
+		private final String _name;
+		private final String _qualifier;
+		private final String _value;
+		private final int _line;
+		private Object _converted;
+		private Object _upper;
+
+		public Property(String name, String qualifier, String value, int line)
+		{
+			_name = name;
+			_qualifier = qualifier;
+			_value = value;
+			_line = line;
+		}
+	}
+
+
+	/**
+	 * An option, an argument or a command collected from the file.
+	 */
+	private static final class Element
+	{
+		private final DefinitionFile _file;
+		private final String _kind;
+		private final String _name;
+		private final int _line;
+		private final List<String> _description = new ArrayList<String>();
+		private final Map<String, Property> _properties = new HashMap<String, Property>();
+		private final List<Property> _enumeration = new ArrayList<Property>();
+		private final Map<String, Element> _options = new LinkedHashMap<String, Element>();
+		private final Map<String, Element> _arguments = new LinkedHashMap<String, Element>();
+		private Class<?> _type = String.class;
+		private Class<?> _executor;
+
+		public Element(DefinitionFile file, String kind, String name, int line)
+		{
+			_file = file;
+			_kind = kind;
+			_name = name;
+			_line = line;
+		}
+
+		public void set(String property, String value, int lineNumber)
+		{
+			int dot = property.indexOf('.');
+			String name = dot < 0 ? property : property.substring(0, dot);
+			String qualifier = dot < 0 ? null : property.substring(dot + 1);
+			if(!allowed(name) || (qualifier == null) == isEnumeration(name))
+				throw
+					_file.error(
+						lineNumber,
+						"Unknown property '" + property + "' for " + _kind + " '" + _name + "'.",
+						null
+					);
+
+			Property definedProperty = new Property(name, qualifier, value, lineNumber);
+			if(name.equals("description"))
+				_description.add(value);
+			else
+				if(isEnumeration(name))
+					_enumeration.add(definedProperty);
+				else {
+					if(_properties.containsKey(name))
+						throw
+							_file.error(
+								lineNumber,
+								"Property '" + name + "' for " + _kind + " '" + _name
+									+ "' is already defined.",
+								null
+							);
+					_properties.put(name, definedProperty);
+				}
+		}
+
+		private boolean allowed(String name)
+		{
+			if(name.equals("description") || name.equals("id"))
+				return true;
+			if(_kind == COMMAND)
+				return
+					name.equals("alternatives")
+						|| name.equals("shortDescription")
+						|| name.equals("executor");
+			if(_kind == OPTION && (name.equals("alternatives") || name.equals("argument")))
+				return true;
+			return
+				name.equals("multiple")
+					|| name.equals("type")
+					|| name.equals("optional")
+					|| name.equals("minValue")
+					|| name.equals("maxValue")
+					|| name.equals("minLength")
+					|| name.equals("maxLength")
+					|| name.equals("length")
+					|| isEnumeration(name);
+		}
+
+		private static boolean isEnumeration(String name)
+		{
+			return
+				name.equals("value")
+					|| name.equals("valueIgnoreCase")
+					|| name.equals("includeRange")
+					|| name.equals("excludeRange");
+		}
+
+		private boolean hasArgument()
+		{
+			if(_kind != OPTION)
+				return _kind == ARGUMENT;
+			if(_enumeration.size() > 0)
+				return true;
+			for(String name : _properties.keySet())
+				if(!name.equals("alternatives") && !name.equals("id") && !name.equals("multiple"))
+					return true;
+			return false;
+		}
+
+		public void resolve(ClassLoader classLoader)
+		{
+			Property type = _properties.get("type");
+			if(type != null) {
+				_type = BUILT_IN_TYPES.get(type._value);
+				if(_type == null)
+					try {
+						_type = Class.forName(type._value, false, classLoader);
+					}
+					catch(ClassNotFoundException ex) {
+						throw _file.error(type._line, "Type '" + type._value + "' was not found.", ex);
+					}
+				if(Converters.get(_type) == null)
+					throw
+						_file.error(
+							type._line,
+							"Type '" + type._value + "' cannot be converted from a string. "
+								+ "Use Converters.register() to register a converter.",
+							null
+						);
+			}
+			Property executor = _properties.get("executor");
+			if(executor != null) {
+				try {
+					_executor = Class.forName(executor._value, false, classLoader);
+				}
+				catch(ClassNotFoundException ex) {
+					throw
+						_file.error(
+							executor._line,
+							"Executor '" + executor._value + "' was not found.",
+							ex
+						);
+				}
+				if(!CommandExecutor.class.isAssignableFrom(_executor))
+					throw
+						_file.error(
+							executor._line,
+							"'" + executor._value + "' is not a " + CommandExecutor.class.getName() + ".",
+							null
+						);
+			}
+
+			for(String name : new String[] { "optional", "minValue", "maxValue" }) {
+				Property property = _properties.get(name);
+				if(property != null)
+					property._converted = convert(property._value, property._line);
+			}
+			for(String name : new String[] { "minLength", "maxLength", "length" }) {
+				Property property = _properties.get(name);
+				if(property != null)
+					try {
+						property._converted = Integer.valueOf(property._value);
+					}
+					catch(NumberFormatException ex) {
+						throw
+							_file.error(
+								property._line,
+								"'" + property._value + "' is not an integer.",
+								ex
+							);
+					}
+			}
+			for(Property property : _properties.values())
+				if(property._name.equals("multiple"))
+					if(
+						!property._value.equalsIgnoreCase("true")
+							&& !property._value.equalsIgnoreCase("false")
+					)
+						throw
+							_file.error(
+								property._line,
+								"'" + property._value + "' is not a boolean.",
+								null
+							);
+			for(Property property : _enumeration)
+				if(property._name.equals("includeRange") || property._name.equals("excludeRange")) {
+					int range = property._qualifier.indexOf("..");
+					if(range < 0)
+						throw
+							_file.error(
+								property._line,
+								"A range must be given as LOWER..UPPER.",
+								null
+							);
+					property._converted =
+						convert(property._qualifier.substring(0, range), property._line);
+					property._upper =
+						convert(property._qualifier.substring(range + 2), property._line);
+				}
+				else {
+					if(property._name.equals("valueIgnoreCase") && _type != String.class)
+						throw
+							_file.error(
+								property._line,
+								"'valueIgnoreCase' can be used only for String types.",
+								null
+							);
+					property._converted = convert(property._qualifier, property._line);
+				}
+
+			for(Element element : _options.values())
+				element.resolve(classLoader);
+			for(Element element : _arguments.values())
+				element.resolve(classLoader);
+		}
+
+		private Object convert(String value, int lineNumber)
+		{
+			try {
+				return Converters.get(_type).convert(value);
+			}
+			catch(Exception ex) {
+				throw
+					_file.error(
+						lineNumber,
+						"'" + value + "' cannot be converted to " + _type.getName() + ".",
+						ex
+					);
+			}
+		}
+
+		private String value(String name)
+		{
+			Property property = _properties.get(name);
+			return property != null ? property._value : null;
+		}
+
+		private Object converted(String name)
+		{
+			Property property = _properties.get(name);
+			return property != null ? property._converted : null;
+		}
+
+		private boolean isTrue(String name)
+		{
+			return "true".equalsIgnoreCase(value(name));
+		}
+
+		private String[] alternatives()
+		{
+			String alternatives = value("alternatives");
+			if(alternatives == null || alternatives.length() == 0)
+				return null;
+			return alternatives.split("[,\\s]+");
+		}
+
+		public Option createOption()
+		{
+			Option option = new Option(_name);
+			String[] alternatives = alternatives();
+			if(alternatives != null)
+				option.alternatives(alternatives);
+			if(value("id") != null)
+				option.id(value("id"));
+			for(int i = 0; i < _description.size(); i++) {
+				if(i > 0)
+					option.p();
+				option.description(_description.get(i));
+			}
+			if(isTrue("multiple"))
+				option.multiple();
+			if(hasArgument())
+				setArgument(option, _type);
+			return option;
+		}
+
+		private <T> void setArgument(Option option, Class<T> type)
+		{
+			String name = value("argument");
+			OptionArgument<T> argument =
+				name != null ? new OptionArgument<T>(name) : new OptionArgument<T>();
+			constrain(argument);
+			option.set(type, argument);
+		}
+
+		public Argument<?> createArgument()
+		{
+			Argument<Object> argument = new Argument<Object>(_name);
+			if(value("id") != null)
+				argument.id(value("id"));
+			for(int i = 0; i < _description.size(); i++) {
+				if(i > 0)
+					argument.p();
+				argument.description(_description.get(i));
+			}
+			if(isTrue("multiple"))
+				argument.multiple();
+			constrain(argument);
+			return argument;
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void constrain(Argument argument)
+		{
+			if(_properties.containsKey("optional"))
+				argument.optional(converted("optional"));
+			if(_properties.containsKey("minValue"))
+				argument.minValue(converted("minValue"));
+			if(_properties.containsKey("maxValue"))
+				argument.maxValue(converted("maxValue"));
+			if(_properties.containsKey("minLength"))
+				argument.minLength((Integer)converted("minLength"));
+			if(_properties.containsKey("maxLength"))
+				argument.maxLength((Integer)converted("maxLength"));
+			if(_properties.containsKey("length"))
+				argument.length((Integer)converted("length"));
+			if(_enumeration.size() > 0) {
+				Enumeration enumeration = new Enumeration();
+				for(Property property : _enumeration)
+					if(property._name.equals("value"))
+						enumeration.value(property._converted, property._value);
+					else
+						if(property._name.equals("valueIgnoreCase"))
+							enumeration.valueIgnoreCase(property._converted, property._value);
+						else
+							if(property._name.equals("includeRange"))
+								enumeration.includeRange(
+									property._converted,
+									property._upper,
+									property._value
+								);
+							else
+								enumeration.excludeRange(
+									property._converted,
+									property._upper,
+									property._value
+								);
+				argument.constraint(enumeration);
+			}
+		}
+
+		private CommandExecutor createExecutor()
+		{
+			try {
+				return (CommandExecutor)_executor.newInstance();
+			}
+			catch(InstantiationException ex) {
+				throw
+					new ConfigurationException(
+						"Executor '" + _executor.getName() + "' cannot be instantiated.",
+						ex
+					);
+			}
+			catch(IllegalAccessException ex) {
+				throw
+					new ConfigurationException(
+						"Executor '" + _executor.getName() + "' must have a public "
+							+ "constructor without arguments.",
+						ex
+					);
+			}
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		public Command createCommand()
+		{
+			Command command;
+			try {
+				if(_executor == null)
+					command = new Command(_name, value("shortDescription"));
+				else
+					command = new Command(_name, value("shortDescription"), createExecutor());
+				String[] alternatives = alternatives();
+				if(alternatives != null)
+					command.alternatives(alternatives);
+				if(value("id") != null)
+					command.id(value("id"));
+				for(int i = 0; i < _description.size(); i++) {
+					if(i > 0)
+						command.p();
+					command.description(_description.get(i));
+				}
+			}
+			catch(ConfigurationException ex) {
+				throw _file.error(_line, ex.getMessage(), ex);
+			}
+			for(Element element : _options.values())
+				try {
+					command.add(element.createOption());
+				}
+				catch(ConfigurationException ex) {
+					throw _file.error(element._line, ex.getMessage(), ex);
+				}
+			for(Element element : _arguments.values())
+				try {
+					command.add((Class)element._type, element.createArgument());
+				}
+				catch(ConfigurationException ex) {
+					throw _file.error(element._line, ex.getMessage(), ex);
+				}
+			return command;
+		}
+	}
+}
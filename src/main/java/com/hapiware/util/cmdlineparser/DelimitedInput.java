@@ -0,0 +1,105 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+
+/**
+ * {@code DelimitedInput} splits a byte stream into values separated either by NUL characters
+ * (e.g. the output of {@code find -print0}) or by newlines (LF or CR LF). The stream is read
+ * through a fixed size buffer only when the next value is asked and thus the reader never
+ * holds more than a single buffer and a single value in memory. Empty values are skipped and
+ * values are decoded with the platform default encoding.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+final class DelimitedInput
+{
+	private static final int BUFFER_SIZE = 8192;
+
+	private final ReadableByteChannel _channel;
+	private final boolean _nulSeparated;
+	private final ByteBuffer _buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private byte[] _value = new byte[128];
+	private boolean _endOfStream;
+
+
+	/**
+	 * Creates a reader for a channel.
+	 *
+	 * @param channel
+	 * 		A channel to be read. The channel is not closed.
+	 *
+	 * @param nulSeparated
+	 * 		{@code true} if the values are separated by NUL characters. {@code false} if the
+	 * 		values are separated by newlines.
+	 */
+	DelimitedInput(ReadableByteChannel channel, boolean nulSeparated)
+	{
+		_channel = channel;
+		_nulSeparated = nulSeparated;
+		_buffer.flip();
+	}
+
+
+	/**
+	 * Reads the next value.
+	 *
+	 * @return
+	 * 		The next value or {@code null} at the end of the stream.
+	 *
+	 * @throws IOException
+	 * 		If reading the channel fails.
+	 */
+	String next() throws IOException
+	{
+		int length = 0;
+		while(fill()) {
+			byte b = _buffer.get();
+			if(_nulSeparated ? b == 0 : b == '\n') {
+				length = trim(length);
+				if(length > 0)
+					return new String(_value, 0, length);
+				continue;
+			}
+			length = append(length, b);
+		}
+		length = trim(length);
+		return length > 0 ? new String(_value, 0, length) : null;
+	}
+
+
+	private boolean fill() throws IOException
+	{
+		while(!_buffer.hasRemaining()) {
+			if(_endOfStream)
+				return false;
+			_buffer.clear();
+			_endOfStream = _channel.read(_buffer) < 0;
+			_buffer.flip();
+		}
+		return true;
+	}
+
+	// Removes CR from CR LF line ends.
+	private int trim(int length)
+	{
+		if(!_nulSeparated && length > 0 && _value[length - 1] == '\r')
+			return length - 1;
+		else
+			return length;
+	}
+
+	private int append(int length, byte b)
+	{
+		if(length == _value.length) {
+			byte[] value = new byte[_value.length * 2];
+			System.arraycopy(_value, 0, value, 0, length);
+			_value = value;
+		}
+		_value[length] = b;
+		return length + 1;
+	}
+}
@@ -228,4 +228,20 @@ public class Description
 		
 		return retVal;
 	}
+	
+	/**
+	 * Checks if the description has any text. Gives the same result as
+	 * {@code !toParagraphs().isEmpty()} but does not build the paragraphs. This is used when
+	 * the definitions are validated.
+	 * 
+	 * @return
+	 * 		{@code true} if {@link #toParagraphs()} would return at least one paragraph.
+	 */
+	boolean hasText()
+	{
+		for(String descriptionElement : _description)
+			if(descriptionElement != END_PARAGRAPH && descriptionElement.trim().length() > 0)
+				return true;
+		return false;
+	}
 }
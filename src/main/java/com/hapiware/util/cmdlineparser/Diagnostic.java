@@ -0,0 +1,90 @@
+package com.hapiware.util.cmdlineparser;
+
+
+/**
+ * {@code Diagnostic} describes a single problem found by
+ * {@link CompiledParser#validate(String[])}. Diagnostics are plain values and creating them
+ * does not create exceptions nor stack traces.
+ * <p>
+ * This class is immutable.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ * 
+ */
+public final class Diagnostic
+{
+	private final int _index;
+	private final String _element;
+	private final ParseError.Type _type;
+	private final String _reason;
+	
+	
+	Diagnostic(int index, String element, ParseError.Type type, String reason)
+	{
+		_index = index;
+		_element = element;
+		_type = type;
+		_reason = reason;
+	}
+	
+	
+	/**
+	 * Returns the index of the command line argument having the problem. With argument files
+	 * (see {@link CommandLineParser#useArgumentFiles()}) the index counts the expanded
+	 * arguments.
+	 * 
+	 * @return
+	 * 		The index or {@code -1} if the problem is not in any single argument (e.g. a missing
+	 * 		mandatory argument).
+	 */
+	public int getIndex()
+	{
+		return _index;
+	}
+	
+	
+	/**
+	 * Returns the name of the defined element (i.e. an option, an argument or a command)
+	 * having the problem.
+	 * 
+	 * @return
+	 * 		The name or {@code null} if the problem is not related to any defined element (e.g.
+	 * 		an undefined option).
+	 */
+	public String getElement()
+	{
+		return _element;
+	}
+	
+	
+	/**
+	 * Returns the type of the problem. The type tells which exception
+	 * {@link CompiledParser#parse(String[])} would throw for the problem.
+	 * 
+	 * @return
+	 * 		The problem type.
+	 */
+	public ParseError.Type getType()
+	{
+		return _type;
+	}
+	
+	
+	/**
+	 * Returns the description of the problem.
+	 * 
+	 * @return
+	 * 		The description.
+	 */
+	public String getReason()
+	{
+		return _reason;
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "[" + _index + "] " + (_element != null ? _element + ": " : "") + _reason;
+	}
+}
@@ -141,6 +141,11 @@ class ElementBase
 	{
 		return _description.toParagraphs();
 	}
+	
+	public boolean hasDescription()
+	{
+		return _description.hasText();
+	}
 
 	@Override
 	public boolean equals(Object obj)
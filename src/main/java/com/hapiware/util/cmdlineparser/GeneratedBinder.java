@@ -0,0 +1,75 @@
+package com.hapiware.util.cmdlineparser;
+
+import com.hapiware.util.cmdlineparser.annotation.Id;
+
+
+/**
+ * {@code GeneratedBinder} is a base class for companion classes which set {@link Id} annotated
+ * fields without reflection. The companion classes are generated at compile time by the
+ * annotation processor of the {@code command-line-parser-processor} module. A companion class
+ * is in the same package as the class it binds and its name is the binary name of the bound
+ * class followed by {@link #SUFFIX} (e.g. {@code Main$$Binder} or {@code Main$Options$$Binder}).
+ * <p>
+ * When a companion class is found the values are set with plain field writes. If there is no
+ * companion class, or it does not handle an id (e.g. because the field is {@code private}),
+ * the fields are set by reflection.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+public abstract class GeneratedBinder
+{
+	/**
+	 * A suffix added to the binary name of the bound class to get the name of the companion
+	 * class.
+	 */
+	public static final String SUFFIX = "$$Binder";
+
+
+	/**
+	 * Sets the value to all the fields annotated with {@code id}.
+	 *
+	 * @param target
+	 * 		An object having the fields. {@code null} if only static fields are set.
+	 *
+	 * @param value
+	 * 		A value to set. Values for array fields are {@code Object[]}s which must be converted
+	 * 		with {@link #arrayValue(Object, Class)}.
+	 *
+	 * @param id
+	 * 		An id of the value.
+	 *
+	 * @return
+	 * 		{@code true} if the value was set. {@code false} if the id is not handled by the
+	 * 		binder and the fields must be set by reflection.
+	 */
+	public abstract boolean bind(Object target, Object value, String id);
+
+	/**
+	 * Converts an {@code Object[]} to an array of the exact field type (including primitive
+	 * arrays).
+	 *
+	 * @param value
+	 * 		An {@code Object[]} created by the parser.
+	 *
+	 * @param componentType
+	 * 		A component type of the field.
+	 *
+	 * @return
+	 * 		The converted array or {@code null} if {@code value} is empty (in which case the
+	 * 		field must not be set).
+	 *
+	 * @throws IllegalArgumentException
+	 * 		If an element cannot be stored to a primitive array.
+	 * 
+	 * @throws ArrayStoreException
+	 * 		If an element cannot be stored to an object array.
+	 */
+	protected static Object arrayValue(Object value, Class<?> componentType)
+	{
+		Object[] values = (Object[])value;
+		if(values.length == 0)
+			return null;
+		return BindingPlan.toArray(values, componentType);
+	}
+}
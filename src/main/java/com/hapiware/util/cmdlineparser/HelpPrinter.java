@@ -0,0 +1,716 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.hapiware.util.cmdlineparser.CommandLineParser.HelpType;
+import com.hapiware.util.cmdlineparser.constraint.Constraint;
+import com.hapiware.util.cmdlineparser.constraint.Enumeration;
+import com.hapiware.util.cmdlineparser.writer.ScreenWriter;
+import com.hapiware.util.cmdlineparser.writer.Writer;
+import com.hapiware.util.cmdlineparser.writer.Writer.Level;
+
+
+/**
+ * {@code HelpPrinter} renders the help texts and the error messages of a {@link CommandLineParser}.
+ * The help is needed only when a help option is given or an error is reported. Thus
+ * {@code CommandLineParser} creates {@code HelpPrinter} on demand and neither this class, the
+ * writers nor the description paragraphs are processed (or even loaded) when the command line
+ * is parsed successfully.
+ * <p>
+ * The help topics are rendered once and the calls made to the writer are recorded (see
+ * {@link RecordedHelp}). Printing the same topic again replays the recorded calls until the
+ * definitions of the parser are changed. This matters for resident utilities (see
+ * {@link CommandLineDaemon} and {@link CommandLineShell}) which print the help repeatedly.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+final class HelpPrinter
+{
+	private static final String SHORT_HELP = "short";
+	
+	private final CommandLineParser _parser;
+	private final Writer _output;
+	private final Map<String, RecordedHelp> _recordedHelp = new HashMap<String, RecordedHelp>();
+	private int _recordedModificationCount;
+	
+	// Either _output or RecordedHelp while a help topic is being recorded.
+	private Writer _writer;
+	
+	
+	/**
+	 * Creates a help printer.
+	 * 
+	 * @param parser
+	 * 		The parser which help is printed.
+	 * 
+	 * @param writer
+	 * 		A writer given by the user. {@code null} if {@link ScreenWriter} is to be used. A writer
+	 * 		defined with the {@code writerclass} system property overrides both.
+	 */
+	HelpPrinter(CommandLineParser parser, Writer writer)
+	{
+		_parser = parser;
+		Writer writerFromSystemProperty = createSystemPropertyWriter();
+		if(writerFromSystemProperty != null)
+			_output = writerFromSystemProperty;
+		else
+			_output = writer != null ? writer : new ScreenWriter();
+		_writer = _output;
+	}
+	
+	
+	/**
+	 * Creates a {@link ScreenWriter} with the given width. This is here (and not in
+	 * {@link CommandLineParser}) to keep the writer classes from being loaded when the parser
+	 * class is verified.
+	 * 
+	 * @param screenWidth
+	 * 		A width of the "screen".
+	 * 
+	 * @return
+	 * 		The screen writer.
+	 */
+	static Writer createScreenWriter(int screenWidth)
+	{
+		return new ScreenWriter(screenWidth);
+	}
+	
+	Writer writer()
+	{
+		return _output;
+	}
+	
+	synchronized void printVersion()
+	{
+		_writer.header();
+		_writer.level1Begin("Version: " + _parser.version());
+		_writer.level1End();
+		_writer.footer();
+	}
+	
+	synchronized void printHelpCommandError(String helpCommand)
+	{
+		_writer.header();
+		_writer.level1Begin("Help error:");
+		_writer.line(Level.L1, "'" + helpCommand + "' is not a valid help command.");
+		_writer.line(Level.L1, "");
+		_writer.level1End();
+		printRecorded(CommandLineParser.USAGE_HELP_COMMAND);
+		_writer.footer();
+	}
+	
+	synchronized void printCompleteHelp()
+	{
+		_writer.header();
+		printRecorded(CommandLineParser.COMPLETE_HELP_COMMAND);
+		_writer.footer();
+	}
+	
+	synchronized void printShortHelp()
+	{
+		_writer.header();
+		printRecorded(SHORT_HELP);
+		_writer.footer();
+	}
+	
+	synchronized void printUsageHelp()
+	{
+		_writer.header();
+		printRecorded(CommandLineParser.USAGE_HELP_COMMAND);
+		_writer.footer();
+	}
+	
+	synchronized void printExamplesHelp()
+	{
+		_writer.header();
+		printRecorded(CommandLineParser.EXAMPLES_HELP_COMMAND);
+		_writer.footer();
+	}
+	
+	synchronized void printGlobalOptionsHelp()
+	{
+		_writer.header();
+		printRecorded(CommandLineParser.OPTS_HELP_COMMAND);
+		_writer.footer();
+	}
+	
+	synchronized void printGlobalArgumentsHelp()
+	{
+		_writer.header();
+		printRecorded(CommandLineParser.ARGS_HELP_COMMAND);
+		_writer.footer();
+	}
+	
+	synchronized void printThrowable(Throwable t)
+	{
+		_writer.header();
+		_writer.level1Begin(t.getClass().getName());
+		if(t.getCause() != null)
+			_writer.paragraph(Level.L1, t.getCause().getClass().getName());
+		_writer.paragraph(Level.L1, t.getMessage());
+		for(StackTraceElement stackTraceElement : t.getStackTrace())
+			_writer.paragraph(Level.L1, stackTraceElement.toString());
+		_writer.level1End();
+		_writer.footer();
+	}
+	
+	synchronized void printErrorWithShortHelp(String message)
+	{
+		_writer.header();
+		_writer.level1Begin("Error:");
+		_writer.paragraph(Level.L1, message);
+		_writer.level1End();
+		printRecorded(SHORT_HELP);
+		_writer.footer();
+	}
+	
+	synchronized void printErrorWithCommandsHelp(String message)
+	{
+		_writer.header();
+		_writer.level1Begin("Error:");
+		_writer.paragraph(Level.L1, message);
+		_writer.level1End();
+		printRecorded(CommandLineParser.CMDS_HELP_COMMAND);
+		_writer.footer();
+	}
+	
+	synchronized void printErrorMessageWithoutHelp(String message)
+	{
+		_writer.header();
+		_writer.level1Begin("Error:");
+		_writer.paragraph(Level.L1, message);
+		_writer.level1End();
+		_writer.footer();
+	}
+	
+	synchronized void printCommandsHelp()
+	{
+		_writer.header();
+		printRecorded(CommandLineParser.CMDS_HELP_COMMAND);
+		_writer.footer();
+	}
+	
+	synchronized void printCommandHelp(String commandName)
+	{
+		Command.Internal command = _parser.definedCommand(commandName);
+		_writer.header();
+		if(command != null)
+			printRecorded(CommandLineParser.CMD_HELP_COMMAND + command.name());
+		else {
+			_writer.level1Begin("Help error:");
+			_writer.line(Level.L1, "'" + commandName + "' is not a valid command.");
+			_writer.line(Level.L1, "");
+			_writer.level1End();
+			printRecorded(CommandLineParser.CMDS_HELP_COMMAND);
+		}
+		_writer.footer();
+	}
+	
+	/**
+	 * Prints a help topic replaying the recorded writer calls. The topic is rendered and
+	 * recorded first if the definitions have changed after the previous recording.
+	 * 
+	 * @param topic
+	 * 		A help command (e.g. {@code all} or {@code cmd=set}) or {@link #SHORT_HELP}.
+	 */
+	private void printRecorded(String topic)
+	{
+		if(_recordedModificationCount != _parser.modificationCount()) {
+			_recordedHelp.clear();
+			_recordedModificationCount = _parser.modificationCount();
+		}
+		RecordedHelp recordedHelp = _recordedHelp.get(topic);
+		if(recordedHelp == null) {
+			recordedHelp = new RecordedHelp(_output);
+			_writer = recordedHelp;
+			try {
+				render(topic);
+			}
+			finally {
+				_writer = _output;
+			}
+			_recordedHelp.put(topic, recordedHelp);
+		}
+		recordedHelp.replay();
+	}
+	
+	private void render(String topic)
+	{
+		if(topic.equals(CommandLineParser.COMPLETE_HELP_COMMAND)) {
+			printUsage();
+			printDescription();
+			printGlobalOptions();
+			printCommands();
+			printGlobalArguments();
+			printExamples();
+			return;
+		}
+		if(topic.equals(SHORT_HELP)) {
+			printShortHelpWithoutHeaders();
+			return;
+		}
+		if(topic.equals(CommandLineParser.USAGE_HELP_COMMAND)) {
+			printUsage();
+			return;
+		}
+		if(topic.equals(CommandLineParser.EXAMPLES_HELP_COMMAND)) {
+			printExamples();
+			return;
+		}
+		if(topic.equals(CommandLineParser.OPTS_HELP_COMMAND)) {
+			printGlobalOptions();
+			return;
+		}
+		if(topic.equals(CommandLineParser.ARGS_HELP_COMMAND)) {
+			printGlobalArguments();
+			return;
+		}
+		if(topic.equals(CommandLineParser.CMDS_HELP_COMMAND)) {
+			printShortCommands();
+			return;
+		}
+		
+		String commandName = topic.substring(CommandLineParser.CMD_HELP_COMMAND.length());
+		_writer.level1Begin("CMD:");
+		printCommand(_parser.definedCommand(commandName));
+		_writer.level1End();
+	}
+	
+	private void printShortHelpWithoutHeaders()
+	{
+		printUsage();
+		printDescription();
+		printShortCommands();
+		printGlobalArguments();
+		_writer.line(Level.L1, "");
+		_writer.level1Begin("Notice:");
+		_writer.line(
+			Level.L1,
+			"This is a short help. To get a complete help run:"
+		);
+		_writer.line(
+			Level.L1,
+			_parser.javaCommand() + " -? " + CommandLineParser.COMPLETE_HELP_COMMAND
+		);
+		_writer.level1End();
+	}
+	
+	private String replaceStrong(String inputText)
+	{
+		return
+			inputText.replaceAll(
+				Description.STRONG_BEGIN_TAG,
+				_writer.strongBegin()
+			).replaceAll(Description.STRONG_END_TAG, _writer.strongEnd());
+	}
+	
+	private void printUsage()
+	{
+		Set<HelpType> helpTypes = _parser.definedArgumentTypes();
+		String javaCommand = _parser.javaCommand();
+		String usageExamplesHelpCommand =
+			" -? | --help ['" + CommandLineParser.USAGE_HELP_COMMAND + "' | '"
+				+ CommandLineParser.EXAMPLES_HELP_COMMAND + "']";
+		String helpCommand = " -? | --help ['" + CommandLineParser.COMPLETE_HELP_COMMAND + "'"; 
+		helpCommand +=
+			helpTypes.contains(HelpType.OPTIONS) ?
+				" | '" + CommandLineParser.OPTS_HELP_COMMAND + "'" :
+				"";
+		helpCommand +=
+			helpTypes.contains(HelpType.ARGUMENTS) ?
+				" | '" + CommandLineParser.ARGS_HELP_COMMAND + "'" :
+				"";
+		helpCommand +=
+			helpTypes.contains(HelpType.COMMANDS) ?
+				" | '" + CommandLineParser.CMDS_HELP_COMMAND + "'" :
+				"";
+		helpCommand +=
+			helpTypes.contains(HelpType.COMMANDS) ?
+				" | " + CommandLineParser.CMD_HELP_COMMAND + "CMD" :
+				"";
+		helpCommand += "]";
+		String command = "";
+		command += helpTypes.contains(HelpType.OPTIONS) ? " [OPTS]" : "";
+		command += helpTypes.contains(HelpType.COMMANDS) ? " CMD" : "";
+		command += helpTypes.contains(HelpType.COMMAND_OPTIONS) ? " [CMD-OPTS]" : "";
+		command += helpTypes.contains(HelpType.COMMAND_ARGUMENTS) ? " CMD-ARGS" : "";
+		command +=
+			helpTypes.contains(HelpType.ARGUMENTS) ? 
+				(_parser.definedArguments().size() > 0 && !_parser.mandatoryArguments() ? " [ARGS]" : " ARGS") 
+				: "";
+		_writer.level1Begin("Usage:");
+		_writer.codeBegin(Level.L1);
+		_writer.codeLine(javaCommand + helpCommand);
+		_writer.codeLine(javaCommand + usageExamplesHelpCommand);
+		_writer.codeLine(javaCommand + " --version");
+		_writer.codeLine(javaCommand + command);
+		_writer.codeEnd();
+		_writer.level1End();
+	}
+
+	
+	private void printDescription()
+	{
+		_writer.level1Begin("Description:");
+		for(String paragraph : _parser.description().toParagraphs())
+			_writer.paragraph(Level.L1, replaceStrong(paragraph));
+		_writer.level1End();
+	}
+
+	private void printOptions(
+		Map<String, Option.Internal> options,
+		boolean isCommand
+	)
+	{
+		if(options.size() == 0)
+			return;
+		
+		if(isCommand)
+			_writer.level3Begin("CMD-OPTS:");
+		else
+			_writer.level1Begin("OPTS:");
+		for(Entry<String, Option.Internal> optionEntry : options.entrySet()) {
+			Option.Internal option = optionEntry.getValue();
+			
+			// Adds option names.
+			String optionNames = option.name();
+			for(String alternative : option.alternatives())
+				optionNames += ", " + alternative;
+			Argument.Internal<?> argument = option.argument();
+			if(argument != null) {
+				final String argumentName = "<" + argument.name() + ">";
+				optionNames += " " + (argument.optional() ? "[" + argumentName + "]" : argumentName);
+			}
+			if(isCommand)
+				_writer.level4Begin(optionNames);
+			else
+				_writer.level2Begin(optionNames);
+
+			// Adds description and handles optional arguments and possible default values.
+			boolean isFirstParagraph = true;
+			Level level = isCommand ? Level.L4 : Level.L2;
+			for(String paragraph : option.description()) {
+				if(isFirstParagraph) {
+					if(option.argument() != null && option.argument().optional())
+						paragraph += 
+							" Argument is optional. " 
+								+ option.argument().defaultValueDescription(); 
+					if(option.multiple())
+						paragraph += " This option can occur several times.";
+					
+					isFirstParagraph = false;
+				}
+				_writer.paragraph(level, replaceStrong(paragraph));
+			}
+			
+			boolean hasEnumConstraint = false;
+			boolean hasOtherConstraints = false;
+			if(option.argument() != null)
+				for(Constraint<?> constraint : option.argument().constraints()) {
+					if(constraint instanceof Enumeration<?>)
+						hasEnumConstraint = true;
+					else
+						hasOtherConstraints = true;
+				}
+			
+			level = isCommand ? Level.L5 : Level.L3;
+			if(hasOtherConstraints) {
+				if(isCommand)
+					_writer.level5Begin("Constraints:");
+				else
+					_writer.level3Begin("Constraints:");
+				_writer.listBegin(level);
+				for(Constraint<?> constraint : option.argument().constraints()) {
+					if(constraint instanceof Enumeration<?>)
+						hasEnumConstraint = true;
+					else
+						for(String constraintDesc : constraint.description().toParagraphs())
+							_writer.listItem(replaceStrong(constraintDesc));
+				}
+				_writer.listEnd();
+				if(isCommand)
+					_writer.level5End();
+				else
+					_writer.level3End();
+			}
+				
+			if(hasEnumConstraint) {
+				if(isCommand)
+					_writer.level5Begin("Values:");
+				else
+					_writer.level3Begin("Values:");
+				_writer.listBegin(level);
+				for(Constraint<?> constraint : option.argument().constraints()) {
+					if(constraint instanceof Enumeration<?>)
+						for(String constraintDesc : constraint.description().toParagraphs())
+							_writer.listItem(replaceStrong(constraintDesc));
+				}
+				_writer.listEnd();
+				if(isCommand)
+					_writer.level5End();
+				else
+					_writer.level3End();
+			}
+			
+			if(isCommand)
+				_writer.level4End();
+			else
+				_writer.level2End();
+		}
+		if(isCommand)
+			_writer.level3End();
+		else
+			_writer.level1End();
+	}
+
+	
+	private void printArguments(
+		Map<String, Argument.Internal<?>> arguments,
+		boolean isCommand
+	)
+	{
+		if(arguments.size() == 0)
+			return;
+		
+		if(isCommand)
+			_writer.level3Begin("CMD-ARGS:");
+		else
+			_writer.level1Begin("ARGS:");
+		for(Entry<String, Argument.Internal<?>> argumentEntry : arguments.entrySet()) {
+			Argument.Internal<?> argument = argumentEntry.getValue();
+			
+			// Adds argument name.
+			String argumentName = argument.name() + (argument.multiple() ? "..." : "");
+			argumentName = argument.optional() ? "[" + argumentName + "]" : argumentName;
+			if(isCommand)
+				_writer.level4Begin(argumentName);
+			else
+				_writer.level2Begin(argumentName);
+
+			// Adds description and handles optional arguments and possible default values.
+			boolean isFirstParagraph = true;
+			Level level = isCommand ? Level.L4 : Level.L2;
+			for(String paragraph : argument.description()) {
+				if(isFirstParagraph && argument.optional()) {
+					paragraph += 
+						" Argument is optional. " 
+							+ argument.defaultValueDescription(); 
+					isFirstParagraph = false;
+				}
+				_writer.paragraph(level, replaceStrong(paragraph));
+			}
+			
+			boolean hasEnumConstraint = false;
+			boolean hasOtherConstraints = false;
+			for(Constraint<?> constraint : argument.constraints()) {
+				if(constraint instanceof Enumeration<?>)
+					hasEnumConstraint = true;
+				else
+					hasOtherConstraints = true;
+			}
+			
+			level = isCommand ? Level.L5 : Level.L3;
+			if(hasOtherConstraints) {
+				if(isCommand)
+					_writer.level5Begin("Constraints:");
+				else
+					_writer.level3Begin("Constraints:");
+				_writer.listBegin(level);
+				for(Constraint<?> constraint : argument.constraints()) {
+					if(constraint instanceof Enumeration<?>)
+						hasEnumConstraint = true;
+					else
+						for(String constraintDesc : constraint.description().toParagraphs())
+							_writer.listItem(replaceStrong(constraintDesc));
+				}
+				_writer.listEnd();
+				if(isCommand)
+					_writer.level5End();
+				else
+					_writer.level3End();
+			}
+				
+			if(hasEnumConstraint) {
+				if(isCommand)
+					_writer.level5Begin("Values:");
+				else
+					_writer.level3Begin("Values:");
+				_writer.listBegin(level);
+				for(Constraint<?> constraint : argument.constraints()) {
+					if(constraint instanceof Enumeration<?>)
+						for(String constraintDesc : constraint.description().toParagraphs())
+							_writer.listItem(replaceStrong(constraintDesc));
+				}
+				_writer.listEnd();
+				if(isCommand)
+					_writer.level5End();
+				else
+					_writer.level3End();
+			}
+			
+			if(isCommand)
+				_writer.level4End();
+			else
+				_writer.level2End();
+		}
+		
+		if(isCommand)
+			_writer.level3End();
+		else
+			_writer.level1End();
+	}
+
+	
+	private void printGlobalOptions()
+	{
+		printOptions(_parser.definedGlobalOptions(), false);
+	}
+
+	
+	private void printCommand(Command.Internal command)
+	{
+		// Adds command names.
+		String commandNames = command.name();
+		for(String alternative : command.alternatives())
+			commandNames += ", " + alternative;
+		commandNames +=
+			command.definedOptions().size() > 0 ? " [CMD-OPTS]" : "";
+		for(Entry<String, Argument.Internal<?>> argumentEntry : command.definedArguments().entrySet()) {
+			Argument.Internal<?> argument = argumentEntry.getValue();
+			String argumentName = argument.name() + (argument.multiple() ? "..." : "");
+			if(argument.optional())
+				commandNames += " [" + argumentName + "]";
+			else
+				commandNames += " " + argumentName;
+		}
+		_writer.level2Begin(commandNames);
+		
+		for(String paragraph : command.description())
+			_writer.paragraph(Level.L2, replaceStrong(paragraph));
+		
+		printOptions(command.definedOptions(), true);
+		
+		printArguments(command.definedArguments(), true);
+		_writer.level2End();
+	}
+	
+	private void printCommands()
+	{
+		if(_parser.definedCommands().size() == 0)
+			return;
+		
+		_writer.level1Begin("CMD:");
+		for(Entry<String, Command.Internal> commandEntry : _parser.definedCommands().entrySet())
+			printCommand(commandEntry.getValue());
+		_writer.level1End();
+	}
+	
+	private void printShortCommands()
+	{
+		if(_parser.definedCommands().size() == 0)
+			return;
+		
+		_writer.level1Begin("Commands:");
+		for(Entry<String, Command.Internal> commandEntry : _parser.definedCommands().entrySet()) {
+			Command.Internal command = commandEntry.getValue();
+			String shortDescription = command.name();
+			for(String alternative : command.alternatives())
+				shortDescription += ", " + alternative;
+			_writer.line(Level.L1, shortDescription + ": " + command.shortDescription());
+		}
+		_writer.level1End();
+	}
+
+	private void printGlobalArguments()
+	{
+		printArguments(_parser.definedArguments(), false);
+	}
+	
+	private void printExamples()
+	{
+		String javaCommand = _parser.javaCommand();
+		_writer.level1Begin("Examples:");
+		_writer.codeBegin(Level.L1);
+		_writer.codeLine(javaCommand + " -? " + CommandLineParser.COMPLETE_HELP_COMMAND);
+		if(_parser.definedCommands().size() > 0)
+			_writer.codeLine(
+				javaCommand + " --help cmd=" + _parser.definedCommands().keySet().iterator().next()
+			);
+		_writer.codeLine(javaCommand + " --version");
+		
+		for(String example : _parser.exampleArguments())
+			_writer.codeLine(javaCommand + " " + example);
+		_writer.codeEnd();
+		_writer.level1End();
+	}
+
+	
+	/**
+	 * Creates a writer based on the system property. First the property value is tried for
+	 * class creation. If it does not succeed then the shorter form is attempted. For the short
+	 * form the class name is created by combining the {@link Writer}'s package name, the property
+	 * value and a word {@code Writer}.
+	 * 
+ 	 * @return
+ 	 * 		The writer based on the system property. {@code null} if the writer cannot be created.
+	 */
+	private static Writer createSystemPropertyWriter()
+	{
+		String propertyClassName = "";
+		try {
+			propertyClassName = System.getProperty(CommandLineParser.WRITER_CLASS_PROPERTY);
+			if(propertyClassName == null)
+				return null;
+		}
+		catch(Throwable ignore) {
+			return null;
+		}
+		
+		Class<?> writerClass = null;
+		try {
+			writerClass = Class.forName(propertyClassName);
+		}
+		catch(ClassNotFoundException e) {
+			try {
+				String className =
+					Writer.class.getPackage().getName() + "." + propertyClassName + "Writer";
+				writerClass = Class.forName(className);
+			}
+			catch(ClassNotFoundException e2) {
+				return null;
+			}
+		}
+		
+		Writer writer = null;
+		try {
+			Constructor<?> constructor = writerClass.getDeclaredConstructor((Class<?>[])null);
+			writer = (Writer)constructor.newInstance((Object[])null);
+		}
+		catch(SecurityException e) {
+			// Does nothing.
+		}
+		catch(NoSuchMethodException e) {
+			// Does nothing.
+		}
+		catch(IllegalArgumentException e) {
+			// Does nothing.
+		}
+		catch(InstantiationException e) {
+			// Does nothing.
+		}
+		catch(IllegalAccessException e) {
+			// Does nothing.
+		}
+		catch(InvocationTargetException e) {
+			// Does nothing.
+		}
+
+		return writer;
+	}
+}
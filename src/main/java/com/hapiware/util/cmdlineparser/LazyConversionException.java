@@ -0,0 +1,35 @@
+package com.hapiware.util.cmdlineparser;
+
+
+/**
+ * {@code LazyConversionException} is thrown when a value parsed with lazy conversion (see
+ * {@link CommandLineParser#useLazyConversion()}, {@link Argument#multiple()} and
+ * {@link Argument#standardInput(boolean)}) cannot be read or converted to its type or the
+ * converted value violates a constraint. The original {@link IllegalCommandLineArgumentException} or
+ * {@link com.hapiware.util.cmdlineparser.constraint.ConstraintException} is available as the
+ * cause.
+ * 
+ * Notice that {@code LazyConversionException} is a runtime exception because the conversion
+ * happens when the value is read for the first time.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+public class LazyConversionException
+	extends
+		RuntimeException
+{
+	private static final long serialVersionUID = 4317532905546386561L;
+
+	/**
+	 * Constructs {@code LazyConversionException} with the specified cause. The detail message
+	 * is the message of the cause.
+	 * 
+	 * @param cause
+	 * 		The cause.
+	 */
+	public LazyConversionException(Throwable cause)
+	{
+		super(cause.getMessage(), cause);
+	}
+}
@@ -0,0 +1,225 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * {@code NameTrie} is a compiled, immutable lookup structure for option and command names. All
+ * the names (including alternative names) are stored to a character trie and a name is resolved
+ * by walking the trie once.
+ * <p>
+ * If abbreviations are allowed then also unambiguous prefixes of the names are resolved (e.g.
+ * {@code --verb} for {@code --verbose}). Whether a prefix is unambiguous is calculated once when
+ * the trie is created and thus resolving a prefix is as fast as resolving a full name.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ * @param <V>
+ * 		A type of the values.
+ */
+final class NameTrie<V>
+{
+	private final Node<V> _root = new Node<V>();
+	private final boolean _allowAbbreviations;
+
+
+	/**
+	 * Creates a trie.
+	 *
+	 * @param names
+	 * 		Names (and alternative names) mapped to their values. Several names can be mapped to
+	 * 		the same value.
+	 *
+	 * @param allowAbbreviations
+	 * 		{@code true} if unambiguous prefixes of the names are resolved too.
+	 */
+	NameTrie(Map<String, V> names, boolean allowAbbreviations)
+	{
+		for(Map.Entry<String, V> entry : names.entrySet()) {
+			Node<V> node = _root;
+			String name = entry.getKey();
+			for(int i = 0; i < name.length(); i++)
+				node = node.addChild(name.charAt(i));
+			node._name = name;
+			node._value = entry.getValue();
+		}
+		_root.resolveUniqueValues();
+		_allowAbbreviations = allowAbbreviations;
+	}
+
+
+	/**
+	 * Creates a trie from definitions and their alternative names.
+	 *
+	 * @param <V>
+	 * 		A type of the definitions.
+	 *
+	 * @param definitions
+	 * 		Definitions mapped by their names.
+	 *
+	 * @param alternatives
+	 * 		All the names (including the definition names) mapped to the definition names.
+	 *
+	 * @param allowAbbreviations
+	 * 		{@code true} if unambiguous prefixes of the names are resolved too.
+	 *
+	 * @return
+	 * 		A new trie.
+	 */
+	static <V> NameTrie<V> create(
+		Map<String, V> definitions,
+		Map<String, String> alternatives,
+		boolean allowAbbreviations
+	)
+	{
+		Map<String, V> names = new HashMap<String, V>();
+		for(Map.Entry<String, String> entry : alternatives.entrySet())
+			names.put(entry.getKey(), definitions.get(entry.getValue()));
+		return new NameTrie<V>(names, allowAbbreviations);
+	}
+
+
+	/**
+	 * Resolves a name (or an unambiguous prefix if abbreviations are allowed).
+	 *
+	 * @param name
+	 * 		A name to be resolved.
+	 *
+	 * @return
+	 * 		A value for the name. {@code null} if the name is not found or the prefix is
+	 * 		ambiguous.
+	 */
+	V get(String name)
+	{
+		Node<V> node = find(name);
+		if(node == null)
+			return null;
+		if(node._value != null)
+			return node._value;
+		return _allowAbbreviations ? node._unique : null;
+	}
+
+
+	/**
+	 * Returns all the names starting with {@code prefix} if {@code prefix} is an ambiguous
+	 * abbreviation. This is meant only for creating error messages.
+	 *
+	 * @param prefix
+	 * 		A prefix to be checked.
+	 *
+	 * @return
+	 * 		A sorted list of matching names. An empty list if abbreviations are not allowed or
+	 * 		{@code prefix} is not ambiguous.
+	 */
+	List<String> ambiguousNames(String prefix)
+	{
+		Node<V> node = find(prefix);
+		if(!_allowAbbreviations || node == null || node._value != null || node._unique != null)
+			return Collections.emptyList();
+
+		List<String> names = new ArrayList<String>();
+		node.collectNames(names);
+		Collections.sort(names);
+		return names;
+	}
+
+
+	private Node<V> find(String name)
+	{
+		Node<V> node = _root;
+		for(int i = 0; i < name.length() && node != null; i++)
+			node = node.child(name.charAt(i));
+		return node == _root ? null : node;
+	}
+
+
+	private static final class Node<V>
+	{
+		private char[] _keys = new char[0];
+		private Node<V>[] _children = newArray(0);
+		private String _name;
+		private V _value;
+
+		// A value shared by all the names under this node. null if the names have different values.
+		private V _unique;
+
+		private Node<V> child(char key)
+		{
+			int index = Arrays.binarySearch(_keys, key);
+			return index >= 0 ? _children[index] : null;
+		}
+
+		private Node<V> addChild(char key)
+		{
+			int index = Arrays.binarySearch(_keys, key);
+			if(index >= 0)
+				return _children[index];
+
+			// Keeps the keys sorted for the binary search.
+			int insertionPoint = -(index + 1);
+			char[] keys = new char[_keys.length + 1];
+			Node<V>[] children = newArray(_children.length + 1);
+			System.arraycopy(_keys, 0, keys, 0, insertionPoint);
+			System.arraycopy(_children, 0, children, 0, insertionPoint);
+			System.arraycopy(
+				_keys, insertionPoint, keys, insertionPoint + 1, _keys.length - insertionPoint
+			);
+			System.arraycopy(
+				_children,
+				insertionPoint,
+				children,
+				insertionPoint + 1,
+				_children.length - insertionPoint
+			);
+			Node<V> child = new Node<V>();
+			keys[insertionPoint] = key;
+			children[insertionPoint] = child;
+			_keys = keys;
+			_children = children;
+			return child;
+		}
+
+		/**
+		 * Calculates {@link #_unique} for this node and all its descendants.
+		 *
+		 * @return
+		 * 		{@code true} if the names under this node have different values.
+		 */
+		private boolean resolveUniqueValues()
+		{
+			boolean ambiguous = false;
+			V unique = _value;
+			for(Node<V> child : _children) {
+				if(child.resolveUniqueValues())
+					ambiguous = true;
+				else
+					if(unique == null)
+						unique = child._unique;
+					else
+						if(unique != child._unique)
+							ambiguous = true;
+			}
+			_unique = ambiguous ? null : unique;
+			return ambiguous;
+		}
+
+		private void collectNames(List<String> names)
+		{
+			if(_name != null)
+				names.add(_name);
+			for(Node<V> child : _children)
+				child.collectNames(names);
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private static <V> Node<V>[] newArray(int length)
+		{
+			return new Node[length];
+		}
+	}
+}
@@ -226,7 +226,7 @@ public class Option
 					"'argument' for option '" + _option.name() + "' must have an id."
 				);
 		
-		if(_definedArgument.description().size() > 0)
+		if(_definedArgument.hasDescription())
 			throw
 				new ConfigurationException(
 					"Only the option '" + _option.name() + "' can have a description. "
@@ -276,18 +276,18 @@ public class Option
 		private final boolean _allowMultipleOccurences;
 		
 		/**
-		 * "Copy" constructs a data object from the internal option object.
+		 * Constructs a data object for an option found by the internal option object.
 		 * 
 		 * @param internal
 		 * 		The internal option object.
+		 * 
+		 * @param argument
+		 * 		The parsed option argument. {@code null} if the option does not have an argument.
 		 */
-		Data(Internal internal)
+		Data(Internal internal, Argument.Data<?> argument)
 		{
 			super(internal.name(), internal.id(), internal.alternatives());
-			if(internal.argument() != null)
-				_argument =  internal.argument().createDataObject();
-			else
-				_argument = null;
+			_argument = argument;
 			_allowMultipleOccurences = internal.multiple();
 		}
 		
@@ -355,7 +355,7 @@ public class Option
 
 	static final class Internal
 		implements
-			Parser
+			Parser<Data>
 	{
 		private Option _outer;
 		
@@ -387,6 +387,10 @@ public class Option
 		{
 			return _outer._option.description();
 		}
+		public boolean hasDescription()
+		{
+			return _outer._option.hasDescription();
+		}
 		public Argument.Internal<?> argument()
 		{
 			return _outer._definedArgument;
@@ -395,25 +399,42 @@ public class Option
 		{
 			return _outer._multiple;
 		}
-		public boolean parse(List<String> arguments)
+		public Data parse(Tokens tokens)
 			throws
 				ConstraintException,
 				IllegalCommandLineArgumentException
 		{
-			if(arguments.size() == 0)
-				return false;
+			if(!tokens.hasNext() || !TokenClassifier.isOption(tokens.peekKind()))
+				return null;
 			
-			String optionName = (String)arguments.get(0);
-			if(optionName.equals(name()) || checkAlternative(optionName)) {
-				arguments.remove(0);
-				if(argument() != null) {
-					argument().name(optionName);
-					return argument().parse(arguments);
-				}
-				else
-					return true;
+			String optionName = tokens.peek();
+			if(optionName.equals(name()) || checkAlternative(optionName))
+				return parseFound(tokens);
+			return null;
+		}
+		
+		/**
+		 * Parses the option when the next token is already known to name this option (e.g.
+		 * resolved from an abbreviation).
+		 * 
+		 * @param tokens
+		 * 		Tokens to be parsed. The next token is the option name.
+		 * 
+		 * @return
+		 * 		A new data object or {@code null} if a mandatory option argument is missing.
+		 */
+		public Data parseFound(Tokens tokens)
+			throws
+				ConstraintException,
+				IllegalCommandLineArgumentException
+		{
+			String optionName = tokens.next();
+			if(argument() != null) {
+				Argument.Data<?> argument = argument().parse(tokens, optionName);
+				return argument != null ? new Data(this, argument) : null;
 			}
-			return false;
+			else
+				return new Data(this, null);
 		}
 		
 		@Override
@@ -441,7 +462,7 @@ public class Option
 		{
 			String str =
 				"{" + name() + "(" + id() + ", " + multiple() + ")"
-					+ (argument() != null ? " = " + argument().value() : "");
+					+ (argument() != null ? " = " + argument() : "");
 			str += " : " + alternatives();
 			str += "}";
 			return str;
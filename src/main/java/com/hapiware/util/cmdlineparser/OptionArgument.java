@@ -96,6 +96,25 @@ public class OptionArgument<T>
 		return this;
 	}
 	
+	/**
+	 * Do not call this method because option arguments always have a single value. Calling
+	 * {@link #multiple()} throws {@link ConfigurationException}. Use
+	 * {@link Option#multiple()} instead.
+	 */
+	public OptionArgument<T> multiple()
+	{
+		throw new ConfigurationException("'multiple' cannot be set for OptionArgument");
+	}
+	
+	/**
+	 * Do not call this method because option arguments always have a single value. Calling
+	 * {@link #standardInput(boolean)} throws {@link ConfigurationException}.
+	 */
+	public OptionArgument<T> standardInput(boolean nulSeparated)
+	{
+		throw new ConfigurationException("'standardInput' cannot be set for OptionArgument");
+	}
+	
 	public OptionArgument<T> constraint(Constraint<T> constraint)
 	{
 		super.constraint(constraint);
@@ -0,0 +1,110 @@
+package com.hapiware.util.cmdlineparser;
+
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+
+
+/**
+ * {@code ParseError} describes why a command line could not be parsed by
+ * {@link CompiledParser#tryParse(String[])}. Instead of throwing an exception (or exiting) the
+ * error is returned to the caller as a value. The type of the error tells which exception
+ * {@link CompiledParser#parse(String[])} would have thrown and the original exception is
+ * available from {@link #getException()}.
+ * <p>
+ * This class is immutable.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ * 
+ */
+public final class ParseError
+{
+	/**
+	 * Error types.
+	 */
+	public enum Type {
+		/**
+		 * A constraint violation (see {@link ConstraintException}).
+		 */
+		CONSTRAINT_VIOLATION,
+		
+		/**
+		 * An undefined or ambiguous command (see {@link CommandNotFoundException}).
+		 */
+		COMMAND_NOT_FOUND,
+		
+		/**
+		 * A command line argument which cannot be interpreted as an argument, command or
+		 * option (see {@link IllegalCommandLineArgumentException}).
+		 */
+		ILLEGAL_ARGUMENT
+	};
+	
+	private final Type _type;
+	private final Exception _exception;
+	
+	
+	ParseError(ConstraintException exception)
+	{
+		this(Type.CONSTRAINT_VIOLATION, exception);
+	}
+	
+	ParseError(CommandNotFoundException exception)
+	{
+		this(Type.COMMAND_NOT_FOUND, exception);
+	}
+	
+	ParseError(IllegalCommandLineArgumentException exception)
+	{
+		this(Type.ILLEGAL_ARGUMENT, exception);
+	}
+	
+	private ParseError(Type type, Exception exception)
+	{
+		_type = type;
+		_exception = exception;
+	}
+	
+	
+	/**
+	 * Returns the type of the error.
+	 * 
+	 * @return
+	 * 		The error type.
+	 */
+	public Type getType()
+	{
+		return _type;
+	}
+	
+	
+	/**
+	 * Returns the error message. The message is the same as the message of the exception
+	 * {@link CompiledParser#parse(String[])} would have thrown.
+	 * 
+	 * @return
+	 * 		The error message.
+	 */
+	public String getMessage()
+	{
+		return _exception.getMessage();
+	}
+	
+	
+	/**
+	 * Returns the exception describing the error. The exception has not been thrown.
+	 * 
+	 * @return
+	 * 		Either {@link ConstraintException}, {@link CommandNotFoundException} or
+	 * 		{@link IllegalCommandLineArgumentException} depending on the error type.
+	 */
+	public Exception getException()
+	{
+		return _exception;
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return _type + ": " + getMessage();
+	}
+}
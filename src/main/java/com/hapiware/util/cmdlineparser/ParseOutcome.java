@@ -0,0 +1,68 @@
+package com.hapiware.util.cmdlineparser;
+
+
+/**
+ * {@code ParseOutcome} is the result of {@link CompiledParser#tryParse(String[])}. It has either
+ * a {@link ParseResult} (when the command line was parsed successfully) or a {@link ParseError}
+ * but never both.
+ * <p>
+ * This class is immutable <b>only if {@link ParseResult} is immutable</b>.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ * 
+ */
+public final class ParseOutcome
+{
+	private final ParseResult _result;
+	private final ParseError _error;
+	
+	
+	ParseOutcome(ParseResult result)
+	{
+		_result = result;
+		_error = null;
+	}
+	
+	ParseOutcome(ParseError error)
+	{
+		_result = null;
+		_error = error;
+	}
+	
+	
+	/**
+	 * Checks if the command line was parsed successfully.
+	 * 
+	 * @return
+	 * 		{@code true} if the command line was parsed successfully. {@code false} if there
+	 * 		was an error.
+	 */
+	public boolean isSuccessful()
+	{
+		return _error == null;
+	}
+	
+	
+	/**
+	 * Returns the result of a successful parse.
+	 * 
+	 * @return
+	 * 		The parse result or {@code null} if there was an error.
+	 */
+	public ParseResult getResult()
+	{
+		return _result;
+	}
+	
+	
+	/**
+	 * Returns the error of a failed parse.
+	 * 
+	 * @return
+	 * 		The error or {@code null} if the command line was parsed successfully.
+	 */
+	public ParseError getError()
+	{
+		return _error;
+	}
+}
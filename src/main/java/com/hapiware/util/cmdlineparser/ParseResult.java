@@ -0,0 +1,258 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * {@code ParseResult} holds everything found from a single command line by
+ * {@link CompiledParser#parse(String[])}. A new {@code ParseResult} object is created for every
+ * parsed command line and thus results of different parses never affect each other.
+ * <p>
+ * This class is immutable <b>only if {@link Argument.Data} is immutable</b>.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ * 
+ */
+public final class ParseResult
+{
+	private final List<Option.Data> _globalOptions;
+	private final List<Argument.Data<?>> _arguments;
+	private final Command.Internal _commandDefinition;
+	private final Command.Data _command;
+	private final Map<String, String> _definedGlobalOptionAlternatives;
+
+
+	ParseResult(
+		List<Option.Data> globalOptions,
+		List<Argument.Data<?>> arguments,
+		Command.Internal commandDefinition,
+		Command.Data command,
+		Map<String, String> definedGlobalOptionAlternatives
+	)
+	{
+		_globalOptions = Collections.unmodifiableList(new ArrayList<Option.Data>(globalOptions));
+		_arguments = Collections.unmodifiableList(new ArrayList<Argument.Data<?>>(arguments));
+		_commandDefinition = commandDefinition;
+		_command = command;
+		_definedGlobalOptionAlternatives = definedGlobalOptionAlternatives;
+	}
+
+
+	/**
+	 * Checks if the option exists among the command line arguments.
+	 * 
+	 * @param name
+	 * 		A name (or alternative name) of the option with preceding
+	 * 		minus characters (- or --). For example: "-a", "--verbose".
+	 * 
+	 * @return
+	 * 		{@code true} if the option exists.
+	 * 
+	 * @throws IllegalArgumentException
+	 * 		When {@code name} does not have preceding minus character(s).
+	 */
+	public boolean optionExists(String name)
+	{
+		return getOptions(name).length > 0;
+	}
+
+
+	/**
+	 * Returns the option if it exists on the command line.
+	 * 
+	 * @param name
+	 * 		A name (or alternative name) of the option with preceding
+	 * 		minus characters (- or --). For example: "-a", "--verbose".
+	 * 
+	 * @return
+	 * 		The option object if exists on the command line. {@code null} if the option does not
+	 * 		exist.
+	 * 
+	 * @throws IllegalArgumentException
+	 * 		When {@code name} does not have preceding minus character(s).
+	 */
+	public Option.Data getOption(String name)
+	{
+		Option.Data[] options = getOptions(name);
+		return options.length > 0 ? options[0] : null;
+	}
+
+
+	/**
+	 * Returns the value of the option if it exists on the command line.
+	 * 
+	 * @param <T>
+	 * 		A type of the option argument.
+	 * 
+	 * @param name
+	 * 		A name (or alternative name) of the option with preceding
+	 * 		minus characters (- or --). For example: "-a", "--verbose".
+	 * 
+	 * @return
+	 * 		The option value if the option exists on the command line. {@code null} if the option
+	 * 		does not exist or does not have an argument.
+	 * 
+	 * @throws IllegalArgumentException
+	 * 		When {@code name} does not have preceding minus character(s).
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getOptionValue(String name)
+	{
+		Option.Data option = getOption(name);
+		if(option != null && option.getArgument() != null)
+			return (T)option.getArgument().getValue();
+		else
+			return null;
+	}
+
+
+	/**
+	 * Returns an array of options if exists on the command line. The first option is the
+	 * left-most option on the command line.
+	 * 
+	 * @param name
+	 * 		A name (or alternative name) of the option with preceding
+	 * 		minus characters (- or --). For example: "-a", "--verbose".
+	 * 
+	 * @return
+	 * 		An array of option objects.
+	 * 
+	 * @throws IllegalArgumentException
+	 * 		When {@code name} does not have preceding minus character(s).
+	 */
+	public Option.Data[] getOptions(String name)
+	{
+		Util.checkOptionName(name);
+
+		String definedName = _definedGlobalOptionAlternatives.get(name);
+		List<Option.Data> options = new ArrayList<Option.Data>();
+		for(Option.Data option : _globalOptions)
+			if(option.getName().equals(definedName))
+				options.add(option);
+
+		return options.toArray(new Option.Data[0]);
+	}
+
+
+	/**
+	 * Returns all the options found from the command line.
+	 * 
+	 * @return
+	 * 		An array of option objects.
+	 */
+	public Option.Data[] getAllOptions()
+	{
+		return _globalOptions.toArray(new Option.Data[0]);
+	}
+
+
+	/**
+	 * Returns an argument from the command line if exists. Notice that only optional arguments
+	 * can be missing.
+	 * 
+	 * @param name
+	 * 		A name of the argument.
+	 * 
+	 * @return
+	 * 		An argument object if exist on the command line.
+	 */
+	public Argument.Data<?> getArgument(String name)
+	{
+		for(Argument.Data<?> argument : _arguments)
+			if(argument.getName().equals(name))
+				return argument;
+
+		return null;
+	}
+
+
+	/**
+	 * Returns the value of the argument if exists on the command line.
+	 * 
+	 * @param <T>
+	 * 		A type of the argument.
+	 * 
+	 * @param name
+	 * 		A name of the argument.
+	 * 
+	 * @return
+	 * 		The argument value if the argument exists on the command line. {@code null} otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getArgumentValue(String name)
+	{
+		Argument.Data<?> argument = getArgument(name);
+		if(argument != null)
+			return (T)argument.getValue();
+		else
+			return null;
+	}
+	
+	
+	/**
+	 * Returns the values of the argument if exists on the command line. For a multiple
+	 * argument the values are converted while iterated (see {@link Argument#multiple()}).
+	 * 
+	 * @param <T>
+	 * 		A type of the argument.
+	 * 
+	 * @param name
+	 * 		A name of the argument.
+	 * 		
+	 * @return
+	 * 		The argument values if the argument exists on the command line.
+	 * 		{@code null} otherwise.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Iterable<T> getArgumentValues(String name)
+	{
+		Argument.Data<?> argument = getArgument(name);
+		if(argument != null)
+			return (Iterable<T>)argument.getValues();
+		else
+			return null;
+	}
+
+
+	/**
+	 * Returns all the arguments found from the command line.
+	 * 
+	 * @return
+	 * 		An array of argument objects.
+	 */
+	public Argument.Data<?>[] getAllArguments()
+	{
+		return _arguments.toArray(new Argument.Data[0]);
+	}
+
+
+	/**
+	 * Returns the command found from the command line.
+	 * 
+	 * @return
+	 * 		The found command object. {@code null} if commands are not used.
+	 */
+	public Command.Data getCommand()
+	{
+		return _command;
+	}
+
+
+	List<Option.Data> globalOptions()
+	{
+		return _globalOptions;
+	}
+
+	List<Argument.Data<?>> arguments()
+	{
+		return _arguments;
+	}
+
+	Command.Internal commandDefinition()
+	{
+		return _commandDefinition;
+	}
+}
@@ -1,27 +1,29 @@
 package com.hapiware.util.cmdlineparser;
 
-import java.util.List;
-
 import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
 
 /**
- * A parser interface for internal classes.
+ * A parser interface for internal classes. Implementing classes hold only definitions and thus
+ * parsing never changes the state of the implementing object. All the parsed information is
+ * returned as a new data object instead.
  * 
  * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
- *
+ * 
+ * @param <D>
+ * 		A type of the data object created by the parser.
  */
-interface Parser
+interface Parser<D>
 {
 	/**
 	 * Parses given arguments considering the class implementing this interface.
 	 * 
-	 * @param arguments
-	 * 		Arguments to be parsed.
+	 * @param tokens
+	 * 		Classified command line tokens to be parsed. Parsing consumes the tokens belonging
+	 * 		to the implementing object.
 	 * 
 	 * @return
-	 * 		{@code true} if parsing was successful. Notice that successful parsing does not
-	 * 		necessarily mean that the implementing object gets anything from {@code arguments}
-	 * 		belonging to the object. 
+	 * 		A data object created from the consumed tokens. {@code null} if the tokens
+	 * 		do not belong to the implementing object.
 	 * 
 	 * @throws ConstraintException
 	 * 		When a constraint violation has been detected.
@@ -29,7 +31,7 @@ interface Parser
 	 * @throws IllegalCommandLineArgumentException
 	 * 		If argument(s) cannot be interpreted any of the defined command line element type.
 	 */
-	public boolean parse(List<String> arguments)
+	public D parse(Tokens tokens)
 		throws
 			ConstraintException,
 			IllegalCommandLineArgumentException;
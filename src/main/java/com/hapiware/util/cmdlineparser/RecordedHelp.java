@@ -0,0 +1,259 @@
+package com.hapiware.util.cmdlineparser;
+
+import com.hapiware.util.cmdlineparser.writer.Writer;
+
+
+/**
+ * {@code RecordedHelp} records the calls made to a {@link Writer} while a help topic is rendered.
+ * Replaying the recorded calls writes the same help again without going through the
+ * definitions, the description paragraphs and the constraint descriptions. The strong tags are
+ * asked from the target writer while recording and thus the recorded help can be replayed only
+ * to the same writer.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ * @see HelpPrinter
+ */
+final class RecordedHelp
+	implements
+		Writer
+{
+	private static final int HEADER = 0;
+	private static final int LEVEL_1_BEGIN = 1;
+	private static final int LEVEL_1_END = 2;
+	private static final int LEVEL_2_BEGIN = 3;
+	private static final int LEVEL_2_END = 4;
+	private static final int LEVEL_3_BEGIN = 5;
+	private static final int LEVEL_3_END = 6;
+	private static final int LEVEL_4_BEGIN = 7;
+	private static final int LEVEL_4_END = 8;
+	private static final int LEVEL_5_BEGIN = 9;
+	private static final int LEVEL_5_END = 10;
+	private static final int PARAGRAPH = 11;
+	private static final int LINE = 12;
+	private static final int LIST_BEGIN = 13;
+	private static final int LIST_ITEM = 14;
+	private static final int LIST_END = 15;
+	private static final int CODE_BEGIN = 16;
+	private static final int CODE_LINE = 17;
+	private static final int CODE_END = 18;
+	private static final int FOOTER = 19;
+
+	private final Writer _target;
+	private int[] _calls = new int[64];
+	private String[] _texts = new String[64];
+	private Level[] _levels = new Level[64];
+	private int _size;
+
+
+	/**
+	 * Creates an empty recording.
+	 *
+	 * @param target
+	 * 		The writer the recorded help is replayed to.
+	 */
+	RecordedHelp(Writer target)
+	{
+		_target = target;
+	}
+
+
+	/**
+	 * Writes the recorded help to the target writer.
+	 */
+	void replay()
+	{
+		for(int i = 0; i < _size; i++)
+			switch(_calls[i]) {
+				case HEADER:
+					_target.header();
+					break;
+				case LEVEL_1_BEGIN:
+					_target.level1Begin(_texts[i]);
+					break;
+				case LEVEL_1_END:
+					_target.level1End();
+					break;
+				case LEVEL_2_BEGIN:
+					_target.level2Begin(_texts[i]);
+					break;
+				case LEVEL_2_END:
+					_target.level2End();
+					break;
+				case LEVEL_3_BEGIN:
+					_target.level3Begin(_texts[i]);
+					break;
+				case LEVEL_3_END:
+					_target.level3End();
+					break;
+				case LEVEL_4_BEGIN:
+					_target.level4Begin(_texts[i]);
+					break;
+				case LEVEL_4_END:
+					_target.level4End();
+					break;
+				case LEVEL_5_BEGIN:
+					_target.level5Begin(_texts[i]);
+					break;
+				case LEVEL_5_END:
+					_target.level5End();
+					break;
+				case PARAGRAPH:
+					_target.paragraph(_levels[i], _texts[i]);
+					break;
+				case LINE:
+					_target.line(_levels[i], _texts[i]);
+					break;
+				case LIST_BEGIN:
+					_target.listBegin(_levels[i]);
+					break;
+				case LIST_ITEM:
+					_target.listItem(_texts[i]);
+					break;
+				case LIST_END:
+					_target.listEnd();
+					break;
+				case CODE_BEGIN:
+					_target.codeBegin(_levels[i]);
+					break;
+				case CODE_LINE:
+					_target.codeLine(_texts[i]);
+					break;
+				case CODE_END:
+					_target.codeEnd();
+					break;
+				case FOOTER:
+					_target.footer();
+					break;
+			}
+	}
+
+	private void record(int call, Level level, String text)
+	{
+		if(_size == _calls.length) {
+			int[] calls = new int[_size * 2];
+			String[] texts = new String[_size * 2];
+			Level[] levels = new Level[_size * 2];
+			System.arraycopy(_calls, 0, calls, 0, _size);
+			System.arraycopy(_texts, 0, texts, 0, _size);
+			System.arraycopy(_levels, 0, levels, 0, _size);
+			_calls = calls;
+			_texts = texts;
+			_levels = levels;
+		}
+		_calls[_size] = call;
+		_levels[_size] = level;
+		_texts[_size] = text;
+		_size++;
+	}
+
+	public void header()
+	{
+		record(HEADER, null, null);
+	}
+
+	public void level1Begin(String text)
+	{
+		record(LEVEL_1_BEGIN, null, text);
+	}
+
+	public void level1End()
+	{
+		record(LEVEL_1_END, null, null);
+	}
+
+	public void level2Begin(String text)
+	{
+		record(LEVEL_2_BEGIN, null, text);
+	}
+
+	public void level2End()
+	{
+		record(LEVEL_2_END, null, null);
+	}
+
+	public void level3Begin(String text)
+	{
+		record(LEVEL_3_BEGIN, null, text);
+	}
+
+	public void level3End()
+	{
+		record(LEVEL_3_END, null, null);
+	}
+
+	public void level4Begin(String text)
+	{
+		record(LEVEL_4_BEGIN, null, text);
+	}
+
+	public void level4End()
+	{
+		record(LEVEL_4_END, null, null);
+	}
+
+	public void level5Begin(String text)
+	{
+		record(LEVEL_5_BEGIN, null, text);
+	}
+
+	public void level5End()
+	{
+		record(LEVEL_5_END, null, null);
+	}
+
+	public void paragraph(Level headingLevel, String text)
+	{
+		record(PARAGRAPH, headingLevel, text);
+	}
+
+	public void line(Level headingLevel, String text)
+	{
+		record(LINE, headingLevel, text);
+	}
+
+	public void listBegin(Level headingLevel)
+	{
+		record(LIST_BEGIN, headingLevel, null);
+	}
+
+	public void listItem(String text)
+	{
+		record(LIST_ITEM, null, text);
+	}
+
+	public void listEnd()
+	{
+		record(LIST_END, null, null);
+	}
+
+	public void codeBegin(Level headingLevel)
+	{
+		record(CODE_BEGIN, headingLevel, null);
+	}
+
+	public void codeLine(String code)
+	{
+		record(CODE_LINE, null, code);
+	}
+
+	public void codeEnd()
+	{
+		record(CODE_END, null, null);
+	}
+
+	public String strongBegin()
+	{
+		return _target.strongBegin();
+	}
+
+	public String strongEnd()
+	{
+		return _target.strongEnd();
+	}
+
+	public void footer()
+	{
+		record(FOOTER, null, null);
+	}
+}
@@ -0,0 +1,202 @@
+package com.hapiware.util.cmdlineparser;
+
+
+/**
+ * {@code TokenClassifier} tags command line tokens by inspecting their characters once. It
+ * replaces regular expression matching in the parse loop and thus classifying a token never
+ * allocates anything. The rules are equivalent to these RE patterns:
+ * 	<ul>
+ * 		<li>{@link #SHORT_OPTION}, <code>^-\p{Alpha}$</code></li>
+ * 		<li>{@link #SHORT_OPTION_WITH_VALUE}, <code>^-\p{Alpha}\p{Graph}+$</code></li>
+ * 		<li>{@link #LONG_OPTION}, <code>^--\p{Alpha}[-_\p{Alnum}]+$</code></li>
+ * 		<li>{@link #NEGATIVE_NUMBER}, <code>^-\p{Digit}+$</code></li>
+ * 		<li>{@link #TERMINATOR}, <code>^--$</code></li>
+ * 		<li>{@link #MALFORMED_OPTION}, any other token starting with minus (-)</li>
+ * 		<li>{@link #VALUE}, everything else</li>
+ * 	</ul>
+ *
+ * Notice that {@code \p{Alpha}}, {@code \p{Alnum}}, {@code \p{Digit}} and {@code \p{Graph}}
+ * are US-ASCII classes.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+final class TokenClassifier
+{
+	/**
+	 * A plain value (e.g. an argument or an option argument).
+	 */
+	static final int VALUE = 0;
+
+	/**
+	 * A negative integer number (e.g. {@code -12}). Negative numbers are treated as values.
+	 */
+	static final int NEGATIVE_NUMBER = 1;
+
+	/**
+	 * A short option (e.g. {@code -v}).
+	 */
+	static final int SHORT_OPTION = 2;
+
+	/**
+	 * A short option with an attached value (e.g. {@code -n100}).
+	 */
+	static final int SHORT_OPTION_WITH_VALUE = 3;
+
+	/**
+	 * A long option (e.g. {@code --verbose}).
+	 */
+	static final int LONG_OPTION = 4;
+
+	/**
+	 * An end of options marker (i.e. {@code --}). All the tokens after the marker are values.
+	 */
+	static final int TERMINATOR = 5;
+
+	/**
+	 * A token starting with minus (-) which is not any of the other kinds (e.g. {@code -1.5}
+	 * or {@code --x}).
+	 */
+	static final int MALFORMED_OPTION = 6;
+
+
+	private TokenClassifier()
+	{
+		// Prevents instantiation.
+	}
+
+
+	/**
+	 * Classifies a single command line token.
+	 *
+	 * @param token
+	 * 		A token to be classified.
+	 *
+	 * @return
+	 * 		A kind of the token.
+	 */
+	static int classify(String token)
+	{
+		return classify(token, 0);
+	}
+
+
+	/**
+	 * Classifies the end part of a command line token without creating a substring.
+	 *
+	 * @param token
+	 * 		A token to be classified.
+	 *
+	 * @param beginIndex
+	 * 		The index where the classified part begins.
+	 *
+	 * @return
+	 * 		A kind of the part.
+	 */
+	static int classify(String token, int beginIndex)
+	{
+		int length = token.length() - beginIndex;
+		if(length <= 0 || token.charAt(beginIndex) != '-')
+			return VALUE;
+		if(length == 1)
+			return MALFORMED_OPTION;
+
+		char second = token.charAt(beginIndex + 1);
+		if(isAlpha(second)) {
+			if(length == 2)
+				return SHORT_OPTION;
+			for(int i = beginIndex + 2; i < token.length(); i++)
+				if(!isGraph(token.charAt(i)))
+					return MALFORMED_OPTION;
+			return SHORT_OPTION_WITH_VALUE;
+		}
+		if(isDigit(second)) {
+			for(int i = beginIndex + 2; i < token.length(); i++)
+				if(!isDigit(token.charAt(i)))
+					return MALFORMED_OPTION;
+			return NEGATIVE_NUMBER;
+		}
+		if(second == '-') {
+			if(length == 2)
+				return TERMINATOR;
+			if(length > 3 && isName(token, beginIndex + 2))
+				return LONG_OPTION;
+		}
+		return MALFORMED_OPTION;
+	}
+
+
+	/**
+	 * Checks if the token kind is a properly formed option name (i.e. {@link #SHORT_OPTION} or
+	 * {@link #LONG_OPTION}).
+	 *
+	 * @param kind
+	 * 		A token kind.
+	 *
+	 * @return
+	 * 		{@code true} if {@code kind} is an option name.
+	 */
+	static boolean isOption(int kind)
+	{
+		return kind == SHORT_OPTION || kind == LONG_OPTION;
+	}
+
+
+	/**
+	 * Checks if the token kind starts with minus (-) but is not a negative number. Such tokens
+	 * cannot be arguments.
+	 *
+	 * @param kind
+	 * 		A token kind.
+	 *
+	 * @return
+	 * 		{@code true} if {@code kind} looks like an option.
+	 */
+	static boolean isOptionLike(int kind)
+	{
+		return kind != VALUE && kind != NEGATIVE_NUMBER;
+	}
+
+
+	/**
+	 * Checks if the characters of {@code name} starting from {@code beginIndex} match
+	 * <code>\p{Alpha}[-_\p{Alnum}]*</code>.
+	 *
+	 * @param name
+	 * 		A name to be checked.
+	 *
+	 * @param beginIndex
+	 * 		The first index to be checked.
+	 *
+	 * @return
+	 * 		{@code true} if {@code name} is a valid name.
+	 */
+	static boolean isName(String name, int beginIndex)
+	{
+		int length = name.length();
+		if(beginIndex >= length || !isAlpha(name.charAt(beginIndex)))
+			return false;
+		for(int i = beginIndex + 1; i < length; i++) {
+			char c = name.charAt(i);
+			if(!(isAlpha(c) || isDigit(c) || c == '-' || c == '_'))
+				return false;
+		}
+		return true;
+	}
+
+
+	private static boolean isAlpha(char c)
+	{
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isGraph(char c)
+	{
+		return c > ' ' && c < 0x7f;
+	}
+}
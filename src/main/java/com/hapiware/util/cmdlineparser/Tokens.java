@@ -0,0 +1,340 @@
+package com.hapiware.util.cmdlineparser;
+
+
+/**
+ * {@code Tokens} is a cursor over the original command line arguments. The arguments are
+ * classified by {@link TokenClassifier} once when {@code Tokens} is created and the parsers
+ * consume them by moving the cursor. The argument array is never copied nor modified.
+ * <p>
+ * The cursor interprets the arguments like this:
+ * 	<ul>
+ * 		<li>
+ * 			a short option with an attached value (e.g. {@code -n100}) is two tokens, an option
+ * 			and its value (e.g. {@code -n} and {@code 100}).
+ * 		</li>
+ * 		<li>
+ * 			the first {@code --} is skipped and all the arguments after it are values even if
+ * 			they start with minus (-).
+ * 		</li>
+ * 	</ul>
+ *
+ * If argument files are used (see {@link ArgumentFileExpander}) the arguments are read from
+ * the expander only when the cursor (or a look-ahead) reaches them.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+final class Tokens
+{
+	// Offset of the attached value in a short option with a value (e.g. -n100).
+	private static final int ATTACHED_VALUE_OFFSET = 2;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private String[] _args;
+	private int[] _kinds;
+	private int _count;
+	private boolean _terminated;
+	private final ArgumentFileExpander _expander;
+	private final boolean _lazyConversion;
+	private boolean _standardInput = true;
+	private int _index;
+	private boolean _attachedValue;
+
+
+	/**
+	 * Classifies command line arguments.
+	 *
+	 * @param args
+	 * 		Command line arguments. The array is not copied and thus it must not be changed
+	 * 		while the tokens are in use.
+	 */
+	Tokens(String[] args)
+	{
+		this(args, false);
+	}
+
+
+	/**
+	 * Classifies command line arguments.
+	 *
+	 * @param args
+	 * 		Command line arguments. The array is not copied and thus it must not be changed
+	 * 		while the tokens are in use.
+	 *
+	 * @param lazyConversion
+	 * 		{@code true} if the parsers should postpone value conversions until the values are
+	 * 		read.
+	 */
+	Tokens(String[] args, boolean lazyConversion)
+	{
+		_args = args;
+		_kinds = new int[args.length];
+		_expander = null;
+		_lazyConversion = lazyConversion;
+		for(int i = 0; i < args.length; i++)
+			_kinds[i] = classify(args[i]);
+		_count = args.length;
+		skipTerminator();
+	}
+
+
+	/**
+	 * Classifies command line arguments read from an argument file expander. The arguments are
+	 * read and classified when they are needed.
+	 *
+	 * @param expander
+	 * 		An expander for the command line arguments.
+	 *
+	 * @param lazyConversion
+	 * 		{@code true} if the parsers should postpone value conversions until the values are
+	 * 		read.
+	 *
+	 * @throws ArgumentFileExpander.ExpansionException
+	 * 		From any method if an argument file cannot be read.
+	 */
+	Tokens(ArgumentFileExpander expander, boolean lazyConversion)
+	{
+		_args = new String[INITIAL_CAPACITY];
+		_kinds = new int[INITIAL_CAPACITY];
+		_expander = expander;
+		_lazyConversion = lazyConversion;
+		skipTerminator();
+	}
+
+
+	/**
+	 * Tells if the values should be converted lazily.
+	 *
+	 * @return
+	 * 		{@code true} if the parsers should postpone value conversions until the values are
+	 * 		read.
+	 */
+	boolean lazyConversion()
+	{
+		return _lazyConversion;
+	}
+
+
+	/**
+	 * Prevents the parsers from reading the standard input. Arguments reading their values from
+	 * the standard input (see {@link Argument#standardInput(boolean)}) get their values only
+	 * from the command line.
+	 */
+	void disableStandardInput()
+	{
+		_standardInput = false;
+	}
+
+
+	/**
+	 * Tells if the parsers are allowed to read the standard input.
+	 *
+	 * @return
+	 * 		{@code true} if the standard input can be read.
+	 */
+	boolean standardInput()
+	{
+		return _standardInput;
+	}
+
+
+	/**
+	 * Checks if there are unconsumed tokens left.
+	 *
+	 * @return
+	 * 		{@code true} if there are tokens left.
+	 */
+	boolean hasNext()
+	{
+		return fill(_index);
+	}
+
+
+	/**
+	 * Returns the number of unconsumed tokens. Notice that this reads all the remaining
+	 * arguments.
+	 *
+	 * @return
+	 * 		The number of tokens left.
+	 */
+	int size()
+	{
+		int size = 0;
+		boolean attachedValue = _attachedValue;
+		for(int index = _index; fill(index); index++) {
+			if(_kinds[index] == TokenClassifier.TERMINATOR)
+				continue;
+			if(_kinds[index] == TokenClassifier.SHORT_OPTION_WITH_VALUE && !attachedValue)
+				size++;
+			size++;
+			attachedValue = false;
+		}
+		return size;
+	}
+
+
+	/**
+	 * Returns the next token without consuming it.
+	 *
+	 * @return
+	 * 		The next token.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 * 		If there are no tokens left.
+	 */
+	String peek()
+	{
+		checkNext();
+		String arg = _args[_index];
+		if(_kinds[_index] != TokenClassifier.SHORT_OPTION_WITH_VALUE)
+			return arg;
+		if(_attachedValue)
+			return arg.substring(ATTACHED_VALUE_OFFSET);
+		else
+			return arg.substring(0, ATTACHED_VALUE_OFFSET);
+	}
+
+
+	/**
+	 * Returns the index of the next token. Without argument files this is the index in the
+	 * command line arguments. With argument files the index counts the expanded tokens.
+	 *
+	 * @return
+	 * 		The index of the next token.
+	 */
+	int index()
+	{
+		return _index;
+	}
+
+
+	/**
+	 * Returns the kind of the next token without consuming it.
+	 *
+	 * @return
+	 * 		The kind of the next token.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 * 		If there are no tokens left.
+	 */
+	int peekKind()
+	{
+		checkNext();
+		return kind(_index, _attachedValue);
+	}
+
+
+	/**
+	 * Consumes the next token.
+	 *
+	 * @return
+	 * 		The consumed token.
+	 *
+	 * @throws IndexOutOfBoundsException
+	 * 		If there are no tokens left.
+	 */
+	String next()
+	{
+		String token = peek();
+		if(_kinds[_index] == TokenClassifier.SHORT_OPTION_WITH_VALUE && !_attachedValue)
+			_attachedValue = true;
+		else {
+			_attachedValue = false;
+			_index++;
+			skipTerminator();
+		}
+		return token;
+	}
+
+
+	/**
+	 * Counts how many of the next tokens can be arguments, i.e. the number of tokens before
+	 * the next token which looks like an option. The cursor is not moved.
+	 *
+	 * @return
+	 * 		The number of consecutive argument tokens.
+	 */
+	int countValues()
+	{
+		int count = 0;
+		boolean attachedValue = _attachedValue;
+		for(int index = _index; fill(index); index++) {
+			if(_kinds[index] == TokenClassifier.TERMINATOR)
+				continue;
+			if(TokenClassifier.isOptionLike(kind(index, attachedValue)))
+				break;
+			count++;
+			attachedValue = false;
+		}
+		return count;
+	}
+
+
+	private int kind(int index, boolean attachedValue)
+	{
+		int kind = _kinds[index];
+		if(kind != TokenClassifier.SHORT_OPTION_WITH_VALUE)
+			return kind;
+		if(!attachedValue)
+			return TokenClassifier.SHORT_OPTION;
+
+		// An attached value "--" is not a terminator (e.g. -s--).
+		int valueKind = TokenClassifier.classify(_args[index], ATTACHED_VALUE_OFFSET);
+		return valueKind == TokenClassifier.TERMINATOR ? TokenClassifier.MALFORMED_OPTION : valueKind;
+	}
+
+	private int classify(String arg)
+	{
+		if(_terminated)
+			return TokenClassifier.VALUE;
+
+		int kind = TokenClassifier.classify(arg);
+		if(kind == TokenClassifier.TERMINATOR) {
+			_terminated = true;
+			if(_expander != null)
+				_expander.stopExpansion();
+		}
+		return kind;
+	}
+
+	/**
+	 * Makes sure that the argument at {@code index} has been read from the expander.
+	 *
+	 * @return
+	 * 		{@code true} if the argument exists.
+	 */
+	private boolean fill(int index)
+	{
+		while(index >= _count) {
+			if(_expander == null || !_expander.hasNext())
+				return false;
+
+			if(_count == _args.length) {
+				String[] args = new String[_count * 2];
+				int[] kinds = new int[_count * 2];
+				System.arraycopy(_args, 0, args, 0, _count);
+				System.arraycopy(_kinds, 0, kinds, 0, _count);
+				_args = args;
+				_kinds = kinds;
+			}
+			String arg = _expander.next();
+			_args[_count] = arg;
+			_kinds[_count] = classify(arg);
+			_count++;
+		}
+		return true;
+	}
+
+	private void skipTerminator()
+	{
+		if(fill(_index) && _kinds[_index] == TokenClassifier.TERMINATOR)
+			_index++;
+	}
+
+	private void checkNext()
+	{
+		if(!fill(_index))
+			throw new IndexOutOfBoundsException("There are no tokens left.");
+	}
+}
@@ -2,24 +2,17 @@ package com.hapiware.util.cmdlineparser;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.security.AccessController;
-import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
 
-import com.hapiware.util.cmdlineparser.annotation.Id;
 import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
 
 
@@ -203,7 +196,7 @@ public class Util
 	 */
 	public static boolean checkName(String name)
 	{
-		return Pattern.matches(NAME_PATTERN, name);
+		return TokenClassifier.isName(name, 0);
 	}
 	
 	/**
@@ -218,7 +211,7 @@ public class Util
 	 */
 	public static boolean checkOptionNaming(String optionName)
 	{
-		return Pattern.matches("^-\\p{Alpha}|--" + OPTION_LONG_NAME_PATTERN + "$", optionName);
+		return TokenClassifier.isOption(TokenClassifier.classify(optionName));
 	}
 	
 	static void checkOptionName(String optionName)
@@ -231,17 +224,24 @@ public class Util
 	
 	
 	static boolean checkOption(
-		String arg,
-		List<String> cmdLineArgs,
-		Map<String, Option.Internal> definedOptions,
-		Map<String, String> definedOptionAlternatives,
+		Tokens tokens,
+		NameTrie<Option.Internal> definedOptions,
 		Set<Option.Internal> nonMultipleOptionCheckSet,
-		List<Option.Internal> cmdLineOptions
+		List<Option.Data> cmdLineOptions
 	) throws ConstraintException, IllegalCommandLineArgumentException
 	{
-		Option.Internal option = definedOptions.get(definedOptionAlternatives.get(arg));
-		if(option != null)
-			option = new Option.Internal(option);
+		if(!TokenClassifier.isOption(tokens.peekKind()))
+			return false;
+		
+		Option.Internal option = definedOptions.get(tokens.peek());
+		if(option == null) {
+			List<String> ambiguousNames = definedOptions.ambiguousNames(tokens.peek());
+			if(ambiguousNames.size() > 0) {
+				String msg =
+					"'" + tokens.peek() + "' is ambiguous. It can be any of " + ambiguousNames + ".";
+				throw new IllegalCommandLineArgumentException(msg);
+			}
+		}
 		if(option != null && !option.multiple()) {
 			if(nonMultipleOptionCheckSet.contains(option)) {
 				String msg = "Option '" + option.name() + "' can occur only once.";
@@ -250,12 +250,13 @@ public class Util
 			else
 				nonMultipleOptionCheckSet.add(option);
 		}
-		if(option != null && option.parse(cmdLineArgs)) {
-			// Option found.
-			if(option.argument() != null)
-				option.argument().checkConstraints();
-			cmdLineOptions.add(option);
-			return true;
+		if(option != null) {
+			// Constraints are checked by the parser.
+			Option.Data cmdLineOption = option.parseFound(tokens);
+			if(cmdLineOption != null) {
+				cmdLineOptions.add(cmdLineOption);
+				return true;
+			}
 		}
 		return false;
 	}
@@ -263,47 +264,53 @@ public class Util
 	@SuppressWarnings("unchecked")
 	static boolean checkArguments(
 		String commandName,
-		List<String> cmdLineArgs,
+		Tokens tokens,
 		Map<String, Argument.Internal<?>> definedArguments,
-		List<Argument.Internal<?>> outputArguments
+		List<Argument.Data<?>> outputArguments
 	) throws ConstraintException, IllegalCommandLineArgumentException
 	{
 		int numberOfOptionalArguments = 0;
+		int numberOfStandardInputArguments = 0;
+		boolean hasMultipleArgument = false;
 		Set<Entry<String, Argument.Internal<?>>> entrySet = definedArguments.entrySet();
 		for(Iterator<?> it = entrySet.iterator(); it.hasNext();) {
 			Entry<String, Argument.Internal<?>> entry = (Entry<String, Argument.Internal<?>>)it.next();
 			if(entry.getValue().optional())
 				numberOfOptionalArguments++;
+			if(entry.getValue().multiple())
+				hasMultipleArgument = true;
+			if(
+				entry.getValue().standardInput()
+					&& !entry.getValue().optional()
+					&& tokens.standardInput()
+			)
+				numberOfStandardInputArguments++;
 		}
 
 		int numberOfMandatoryArguments = entrySet.size() - numberOfOptionalArguments;
 		int numberOfMaximumArguments = numberOfMandatoryArguments + numberOfOptionalArguments;
 		int mandatoryOptionalDiff = numberOfMaximumArguments - numberOfMandatoryArguments;
-		int numberOfCmdLineArguments = 0;
 		
 		// There cannot be options between command arguments. Only before or after
 		// all the command arguments.
-		for(String cmdLineArg : cmdLineArgs) {
-			if(cmdLineArg.startsWith("-") && !Pattern.matches(NEGATIVE_NUMBER_PATTERN, cmdLineArg))
-				break;
-			else
-				numberOfCmdLineArguments++;
-		}
+		int numberOfCmdLineArguments = tokens.countValues();
 		
-		if(numberOfCmdLineArguments < numberOfMandatoryArguments) {
+		// A mandatory argument reading the standard input can be missing from the command line.
+		int numberOfMinimumArguments = numberOfMandatoryArguments - numberOfStandardInputArguments;
+		if(numberOfCmdLineArguments < numberOfMinimumArguments) {
 			String msg =
 				"Too few command line arguments"
 					+ (commandName != null ? " for command '" + commandName + "'" : "")
-					+ ". Expected min: " + numberOfMandatoryArguments
+					+ ". Expected min: " + numberOfMinimumArguments
 					+ " but was: " + numberOfCmdLineArguments + "."
 					+ (
-						cmdLineArgs.size() > numberOfCmdLineArguments ?
+						tokens.size() > numberOfCmdLineArguments ?
 						" Check that there are no options between arguments." :
 						""
 					);
 			throw new IllegalCommandLineArgumentException(msg);
 		}
-		if(numberOfCmdLineArguments > numberOfMaximumArguments) {
+		if(!hasMultipleArgument && numberOfCmdLineArguments > numberOfMaximumArguments) {
 			String msg =
 				"Too many command line arguments"
 					+ (commandName != null ? " for command '" + commandName + "'" : "")
@@ -315,54 +322,82 @@ public class Util
 		for(Iterator<?> it = entrySet.iterator(); it.hasNext();) {
 			Entry<String, Argument.Internal<?>> entry = (Entry<String, Argument.Internal<?>>)it.next();
 			Argument.Internal<?> argument = entry.getValue();
+			boolean useDefault = false;
 			if(argument.optional() && numberOfCmdLineArguments < entrySet.size())
 				if(mandatoryOptionalDiff == 1) {
-					// Adds a default value to one optional argument.
-					if(it.hasNext() || cmdLineArgs.size() == 0)
-						((LinkedList<String>)cmdLineArgs).addFirst(argument.defaultValueAsString());
+					// Uses a default value for one optional argument.
+					if(it.hasNext() || !tokens.hasNext())
+						useDefault = true;
 					else
 						break;
 				}
 				else
-					// Adds default values to the rest of the optional arguments
+					// Uses default values for the rest of the optional arguments
 					// (which must be at end of the command definition).
-					if(cmdLineArgs.size() == 0)
-						((LinkedList<String>)cmdLineArgs).addFirst(argument.defaultValueAsString());
+					if(!tokens.hasNext())
+						useDefault = true;
 			
-			if(argument.parse(cmdLineArgs)) {
-				argument.checkConstraints();
-				outputArguments.add(argument);
-			}
+			// Constraints are checked by the parser (or while iterating multiple arguments).
+			Argument.Data<?> cmdLineArgument;
+			if(useDefault)
+				cmdLineArgument = argument.parseDefault(argument.name());
+			else
+				if(argument.multiple())
+					cmdLineArgument = argument.parseMultiple(tokens);
+				else
+					cmdLineArgument = argument.parse(tokens);
+			if(cmdLineArgument != null)
+				outputArguments.add(cmdLineArgument);
 		}
 		return true;
 	}
 	
 
+	/**
+	 * Checks if any of the arguments reads its values from the standard input.
+	 * 
+	 * @param definedArguments
+	 * 		Argument definitions.
+	 * 
+	 * @return
+	 * 		{@code true} if there is an argument reading the standard input.
+	 * 
+	 * @see Argument#standardInput(boolean)
+	 */
+	static boolean hasStandardInputArgument(Map<String, Argument.Internal<?>> definedArguments)
+	{
+		for(Argument.Internal<?> argument : definedArguments.values())
+			if(argument.standardInput())
+				return true;
+		return false;
+	}
+	
+
 	static void setAnnotatedOptions(
 		Object callerObject,
 		Class<?> callerClass,
-		List<Option.Internal> cmdLineOptions
+		List<Option.Data> cmdLineOptions
 	)
 		throws AnnotatedFieldSetException
 	{
 		Map<String, List<Object>> multipleOptions =
 			new HashMap<String, List<Object>>();
-		for(Option.Internal cmdLineOption : cmdLineOptions) {
-			if(cmdLineOption.argument() != null) {
-				String id = cmdLineOption.argument().id();
-				if(cmdLineOption.multiple()) {
+		for(Option.Data cmdLineOption : cmdLineOptions) {
+			if(cmdLineOption.getArgument() != null) {
+				String id = cmdLineOption.getArgument().getId();
+				if(cmdLineOption.allowMultipleOccurences()) {
 					List<Object> multipleOptionValues = multipleOptions.get(id);
 					if(multipleOptionValues == null) {
 						multipleOptionValues = new ArrayList<Object>();
 						multipleOptions.put(id, multipleOptionValues);
 					}
-					multipleOptionValues.add(cmdLineOption.argument().value());
+					multipleOptionValues.add(cmdLineOption.getArgument().getValue());
 				}
 				else
 					Util.setAnnotatedValue(
 						callerObject,
 						callerClass,
-						cmdLineOption.argument().value(),
+						cmdLineOption.getArgument().getValue(),
 						id
 					);
 			}
@@ -374,7 +409,7 @@ public class Util
 					callerObject,
 					callerClass,
 					true,
-					removeOptionMinusFromId(cmdLineOption.id())
+					removeOptionMinusFromId(cmdLineOption.getId())
 				);
 			}
 		}
@@ -392,13 +427,20 @@ public class Util
 	static void setAnnotatedArguments(
 		Object callerObject,
 		Class<?> callerClass,
-		List<Argument.Internal<?>> cmdLineArguments
+		List<Argument.Data<?>> cmdLineArguments
 	)
 		throws
 			AnnotatedFieldSetException
 	{
-		for(Argument.Internal<?> cmdLineArgument : cmdLineArguments)
-			setAnnotatedValue(callerObject, callerClass, cmdLineArgument.value(), cmdLineArgument.id());
+		for(Argument.Data<?> cmdLineArgument : cmdLineArguments)
+			setAnnotatedValue(
+				callerObject,
+				callerClass,
+				cmdLineArgument.isMultiple() ?
+					cmdLineArgument.getValues() :
+					cmdLineArgument.getValue(),
+				cmdLineArgument.getId()
+			);
 	}
 	
 	
@@ -416,77 +458,7 @@ public class Util
 		if(callerClass == null)
 			throw new NullPointerException("'callerClass' (or 'callerObject') must have a value.");
 
-		setValues(callerObject, callerClass.getDeclaredFields(), value, valueId);
-		setValues(callerObject, callerClass.getFields(), value, valueId);
-	}
-	
-	private static <T> void setValues(
-		Object obj,
-		Field[] fields,
-		T value,
-		String valueId
-	)
-		throws
-			AnnotatedFieldSetException
-	{
-		try {
-			for(final Field f : fields) {
-				Id id = f.getAnnotation(Id.class);
-				if(id != null && id.value().equals(valueId)) {
-					AccessController.doPrivileged(
-						new PrivilegedAction<T>()
-						{
-							public T run()
-							{
-								f.setAccessible(true);
-								return null;
-							}
-						}
-					);
-					if(f.getType().isArray()) {
-						int length = Array.getLength(value);
-						if(length > 0) {
-							Object[] origArray = (Object[])value;
-							Object array = Array.newInstance(f.getType().getComponentType(), length);
-							for(int i = 0; i < length; i++)
-								Array.set(array, i, origArray[i]);
-							f.set(obj, array);
-						}
-					}
-					else
-						f.set(obj, value);
-				}
-			}
-		}
-		catch(NullPointerException e) {
-			if(obj == null) {
-				String msg =
-					"Object reference for the field annotated '" + valueId + "' "
-						+ "is missing while required. Most probably the default parse(String[]), "
-						+ "parsec(String[]) or parsech(String[]) method failed finding the correct "
-						+ "object reference. Use either parse[ch](Object,String[]) or "
-						+ "parse[ch](Class<?>,String[]).";
-				throw new AnnotatedFieldSetException(msg, e);
-			}
-			else
-				throw e;
-		}
-		catch(SecurityException e) {
-			String msg =
-				"Security is turned on and the field annotated '" + valueId + "' cannot be accessed. "
-					+ "Grant access to 'java.lang.reflect.ReflectPermission \"suppressAccessChecks\"'.";
-			throw new AnnotatedFieldSetException(msg, e);
-		}
-		catch(IllegalArgumentException e) {
-			String msg =
-				"[" + value + "] is an illegal argument for the field annotated '"
-					+ valueId + "'. " + e.getMessage();
-			throw new AnnotatedFieldSetException(msg, e);
-		}
-		catch(IllegalAccessException e) {
-			String msg = "Should not be here but here we are...";
-			throw new AnnotatedFieldSetException(msg, e);
-		}
+		BindingPlan.forClass(callerClass).bind(callerObject, value, valueId);
 	}
 	
 	static String removeOptionMinusFromId(String id)
@@ -497,24 +469,149 @@ public class Util
 			return id;
 	}
 	
-	static Object valueOf(String valueAsString, Class<?> argumentTypeClass)
+	/**
+	 * Checks without throwing exceptions if a value certainly cannot be converted to the
+	 * argument type. Values of {@link Integer}, {@link Long}, {@link Short} and {@link Byte}
+	 * arguments are checked also for overflow while the digits are scanned and thus for them
+	 * {@code false} guarantees that the conversion succeeds. For other types {@code false}
+	 * does not guarantee it (e.g. a hexadecimal {@link Double} or an exponent of
+	 * {@link BigDecimal} too large).
+	 * 
+	 * @param valueAsString
+	 * 		The value as it was on the command line.
+	 * 
+	 * @param argumentTypeClass
+	 * 		The type of the argument.
+	 * 
+	 * @return
+	 * 		{@code true} if the value cannot be a number of the given type.
+	 */
+	static boolean isMalformed(String valueAsString, Class<?> argumentTypeClass)
 	{
 		if(argumentTypeClass == Integer.class)
-			return Integer.valueOf(valueAsString);
+			return !isInteger(valueAsString, Integer.MIN_VALUE, Integer.MAX_VALUE);
 		if(argumentTypeClass == Long.class)
-			return Long.valueOf(valueAsString);
-		if(argumentTypeClass == Byte.class)
-			return Byte.valueOf(valueAsString);
+			return !isInteger(valueAsString, Long.MIN_VALUE, Long.MAX_VALUE);
 		if(argumentTypeClass == Short.class)
-			return Short.valueOf(valueAsString);
-		if(argumentTypeClass == Double.class)
-			return Double.valueOf(valueAsString);
-		if(argumentTypeClass == Float.class)
-			return Float.valueOf(valueAsString);
-		if(argumentTypeClass == BigDecimal.class)
-			return new BigDecimal(valueAsString);
+			return !isInteger(valueAsString, Short.MIN_VALUE, Short.MAX_VALUE);
+		if(argumentTypeClass == Byte.class)
+			return !isInteger(valueAsString, Byte.MIN_VALUE, Byte.MAX_VALUE);
 		if(argumentTypeClass == BigInteger.class)
-			return new BigInteger(valueAsString);
-		return valueAsString;
+			return !isSignedNumber(valueAsString);
+		if(argumentTypeClass == BigDecimal.class)
+			return !isDecimal(valueAsString, false);
+		if(argumentTypeClass == Boolean.class)
+			return
+				!valueAsString.equalsIgnoreCase("true") && !valueAsString.equalsIgnoreCase("false");
+		if(argumentTypeClass == Double.class || argumentTypeClass == Float.class) {
+			// Double.valueOf() accepts also hexadecimal numbers, NaN and Infinity. Hexadecimal
+			// numbers are left for the conversion.
+			String value = valueAsString.trim();
+			int start = value.startsWith("-") || value.startsWith("+") ? 1 : 0;
+			if(
+				value.startsWith("NaN", start) && value.length() == start + 3
+					|| value.startsWith("Infinity", start) && value.length() == start + 8
+					|| value.startsWith("0x", start)
+					|| value.startsWith("0X", start)
+			)
+				return false;
+			return !isDecimal(value, true);
+		}
+		return false;
+	}
+	
+	/**
+	 * Converts a decimal integer. The value must have been checked with
+	 * {@link #isMalformed(String, Class)} first.
+	 * 
+	 * @param valueAsString
+	 * 		An optionally signed decimal integer fitting to a {@code long}.
+	 * 
+	 * @return
+	 * 		The converted value.
+	 */
+	static long parseLong(String valueAsString)
+	{
+		boolean negative = valueAsString.startsWith("-");
+		int i = negative || valueAsString.startsWith("+") ? 1 : 0;
+		
+		// The value is accumulated negatively because the negative range is larger.
+		long value = 0;
+		for(; i < valueAsString.length(); i++)
+			value = value * 10 - (valueAsString.charAt(i) - '0');
+		return negative ? value : -value;
+	}
+	
+	private static boolean isInteger(String value, long min, long max)
+	{
+		boolean negative = value.startsWith("-");
+		int start = negative || value.startsWith("+") ? 1 : 0;
+		if(start == value.length())
+			return false;
+		
+		// Like parseLong() but checks the limits before every step.
+		long limit = negative ? min : -max;
+		long multiplicationLimit = limit / 10;
+		long result = 0;
+		for(int i = start; i < value.length(); i++) {
+			int digit = value.charAt(i) - '0';
+			if(digit < 0 || digit > 9 || result < multiplicationLimit)
+				return false;
+			result *= 10;
+			if(result < limit + digit)
+				return false;
+			result -= digit;
+		}
+		return true;
+	}
+	
+	private static boolean isSignedNumber(String value)
+	{
+		int start = value.startsWith("-") || value.startsWith("+") ? 1 : 0;
+		if(start == value.length())
+			return false;
+		for(int i = start; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if(c < '0' || c > '9')
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks that a value is an optionally signed decimal number having digits with an optional
+	 * decimal point and an optional exponent. For {@link Double} an optional
+	 * type suffix (f, F, d or D) is accepted too.
+	 */
+	private static boolean isDecimal(String value, boolean typeSuffix)
+	{
+		int length = value.length();
+		int i = value.startsWith("-") || value.startsWith("+") ? 1 : 0;
+		int digits = 0;
+		for(; i < length && isDigit(value.charAt(i)); i++)
+			digits++;
+		if(i < length && value.charAt(i) == '.')
+			for(i++; i < length && isDigit(value.charAt(i)); i++)
+				digits++;
+		if(digits == 0)
+			return false;
+		if(i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+			i++;
+			if(i < length && (value.charAt(i) == '-' || value.charAt(i) == '+'))
+				i++;
+			int exponentDigits = 0;
+			for(; i < length && isDigit(value.charAt(i)); i++)
+				exponentDigits++;
+			if(exponentDigits == 0)
+				return false;
+		}
+		if(typeSuffix && i < length && "fFdD".indexOf(value.charAt(i)) >= 0)
+			i++;
+		return i == length;
+	}
+	
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
 	}
 }
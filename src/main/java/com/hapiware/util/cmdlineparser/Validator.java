@@ -0,0 +1,355 @@
+package com.hapiware.util.cmdlineparser;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * {@code Validator} checks a command line against the definitions of a {@link CompiledParser}
+ * and collects every problem as a {@link Diagnostic}. The rules are the same as in
+ * {@link CompiledParser#parse(String[])} but instead of throwing an exception for the first
+ * problem the validator skips the offending tokens and continues. Thus a command line is valid
+ * if, and only if, there are no diagnostics.
+ * <p>
+ * Like {@link CompiledParser#tryParse(String[])} the validator never reads the standard input.
+ * The validator does not have any state of its own and thus it can be used from many threads.
+ * <p>
+ * The validator also fills the rows of a {@link ColumnarResult} for
+ * {@link CompiledParser#parseAll(List)} because the values are converted anyway while they are
+ * checked.
+ *
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+final class Validator
+{
+	private final NameTrie<Option.Internal> _globalOptionLookup;
+	private final NameTrie<Command.Internal> _commandLookup;
+	private final boolean _commandsDefined;
+	private final Map<String, Argument.Internal<?>> _definedArguments;
+	private final boolean _mandatoryArguments;
+
+
+	Validator(
+		NameTrie<Option.Internal> globalOptionLookup,
+		NameTrie<Command.Internal> commandLookup,
+		boolean commandsDefined,
+		Map<String, Argument.Internal<?>> definedArguments,
+		boolean mandatoryArguments
+	)
+	{
+		_globalOptionLookup = globalOptionLookup;
+		_commandLookup = commandLookup;
+		_commandsDefined = commandsDefined;
+		_definedArguments = definedArguments;
+		_mandatoryArguments = mandatoryArguments;
+	}
+
+
+	/**
+	 * Validates the command line.
+	 *
+	 * @param tokens
+	 * 		Tokens to be validated. All the tokens are consumed.
+	 *
+	 * @param diagnostics
+	 * 		A list where the problems are added in the order they were found.
+	 */
+	void validate(Tokens tokens, List<Diagnostic> diagnostics)
+	{
+		validate(tokens, diagnostics, null, -1);
+	}
+
+	/**
+	 * Validates the command line and stores the valid values of global options, bare arguments
+	 * and the command name to a row of a columnar result. Values of a command line having
+	 * problems are stored too and thus the caller must clear the row (see
+	 * {@link ColumnarResult#fail(int, String)}).
+	 *
+	 * @param tokens
+	 * 		Tokens to be validated. All the tokens are consumed.
+	 *
+	 * @param diagnostics
+	 * 		A list where the problems are added in the order they were found.
+	 *
+	 * @param result
+	 * 		A result where the values are stored. {@code null} if the values are not stored.
+	 *
+	 * @param row
+	 * 		The row of {@code result}.
+	 */
+	void validate(Tokens tokens, List<Diagnostic> diagnostics, ColumnarResult result, int row)
+	{
+		Set<Option.Internal> foundGlobalOptions = new HashSet<Option.Internal>();
+		Set<Option.Internal> foundCommandOptions = new HashSet<Option.Internal>();
+		Command.Internal command = null;
+		Map<String, Argument.Internal<?>> definedArguments = _definedArguments;
+		boolean argumentsChecked = false;
+		while(tokens.hasNext()) {
+			int index = tokens.index();
+			String token = tokens.peek();
+			int kind = tokens.peekKind();
+			if(TokenClassifier.isOption(kind)) {
+				// Global options are accepted also after the command.
+				if(command != null && command.optionLookup().get(token) != null)
+					checkOption(
+						tokens,
+						command.optionLookup(),
+						foundCommandOptions,
+						diagnostics,
+						null,
+						row
+					);
+				else
+					checkOption(
+						tokens,
+						_globalOptionLookup,
+						foundGlobalOptions,
+						diagnostics,
+						result,
+						row
+					);
+				continue;
+			}
+			if(TokenClassifier.isOptionLike(kind)) {
+				diagnostics.add(illegal(index, null, "'" + token + "' is not a valid option."));
+				tokens.next();
+				continue;
+			}
+
+			if(_commandsDefined && command == null) {
+				tokens.next();
+				command = _commandLookup.get(token);
+				if(command == null) {
+					List<String> ambiguousNames = _commandLookup.ambiguousNames(token);
+					String reason =
+						ambiguousNames.size() > 0 ?
+							"'" + token + "' is ambiguous. It can be any of " + ambiguousNames + "." :
+							"A command was expected but '" + token + "' cannot be interpreted "
+								+ "as a command.";
+					diagnostics.add(
+						new Diagnostic(index, null, ParseError.Type.COMMAND_NOT_FOUND, reason)
+					);
+
+					// The rest cannot be checked without the command definition.
+					return;
+				}
+				definedArguments = command.definedArguments();
+				if(result != null)
+					result.setCommand(row, command.name());
+				continue;
+			}
+
+			if(argumentsChecked) {
+				String reason =
+					"Command line argument '" + token + "' "
+						+ (command != null ? "for command '" + command.name() + "' " : "")
+						+ "cannot be interpreted as a proper command line argument. "
+						+ "All the arguments must be sequentially positioned. "
+						+ "Check that there are no options between arguments.";
+				diagnostics.add(illegal(index, null, reason));
+				tokens.next();
+				continue;
+			}
+			// Only bare arguments have columns.
+			checkArguments(
+				command != null ? command.name() : null,
+				tokens,
+				definedArguments,
+				diagnostics,
+				command != null ? null : result,
+				row
+			);
+			argumentsChecked = true;
+		}
+
+		if(command != null && command.mandatoryArguments() && !argumentsChecked)
+			diagnostics.add(
+				illegal(
+					-1,
+					command.name(),
+					"Command '" + command.name() + "' does not have a mandatory argument."
+				)
+			);
+		else if(command == null && _mandatoryArguments && !argumentsChecked)
+			diagnostics.add(illegal(-1, null, "A mandatory command line argument is missing."));
+		else if(!argumentsChecked && (command != null || !_commandsDefined))
+			// Checks the default values of the optional arguments.
+			checkArguments(
+				command != null ? command.name() : null,
+				tokens,
+				definedArguments,
+				diagnostics,
+				command != null ? null : result,
+				row
+			);
+		if(_commandsDefined && command == null)
+			diagnostics.add(
+				new Diagnostic(
+					-1,
+					null,
+					ParseError.Type.COMMAND_NOT_FOUND,
+					"No command found from the command line."
+				)
+			);
+	}
+
+	private static void checkOption(
+		Tokens tokens,
+		NameTrie<Option.Internal> optionLookup,
+		Set<Option.Internal> foundOptions,
+		List<Diagnostic> diagnostics,
+		ColumnarResult result,
+		int row
+	)
+	{
+		int index = tokens.index();
+		String name = tokens.next();
+
+		// An attached value (e.g. -n100) does not move the index.
+		boolean attachedValue = tokens.hasNext() && tokens.index() == index;
+		Option.Internal option = optionLookup.get(name);
+		if(option == null) {
+			List<String> ambiguousNames = optionLookup.ambiguousNames(name);
+			String reason =
+				ambiguousNames.size() > 0 ?
+					"'" + name + "' is ambiguous. It can be any of " + ambiguousNames + "." :
+					"'" + name + "' is not a valid option.";
+			diagnostics.add(illegal(index, null, reason));
+			if(attachedValue)
+				tokens.next();
+			return;
+		}
+		if(!option.multiple() && !foundOptions.add(option))
+			diagnostics.add(
+				illegal(index, option.name(), "Option '" + option.name() + "' can occur only once.")
+			);
+
+		Argument.Internal<?> argument = option.argument();
+		if(argument == null) {
+			if(result != null)
+				result.set(option.name(), row, null);
+			return;
+		}
+		if(!tokens.hasNext() || TokenClassifier.isOption(tokens.peekKind())) {
+			Diagnostic diagnostic =
+				argument.optional() ?
+					argument.checkDefault(option.name(), name, result, row) :
+					illegal(index, option.name(), "Option '" + name + "' requires a value.");
+			if(diagnostic != null)
+				diagnostics.add(diagnostic);
+			return;
+		}
+		int valueIndex = tokens.index();
+		Diagnostic diagnostic =
+			argument.check(valueIndex, option.name(), tokens.next(), name, result, row);
+		if(diagnostic != null)
+			diagnostics.add(diagnostic);
+	}
+
+	/**
+	 * Checks the arguments like {@link Util#checkArguments(String, Tokens, Map, List)}. All
+	 * the consecutive values are consumed. Multiple arguments are not stored to
+	 * {@code result}.
+	 */
+	private static void checkArguments(
+		String commandName,
+		Tokens tokens,
+		Map<String, Argument.Internal<?>> definedArguments,
+		List<Diagnostic> diagnostics,
+		ColumnarResult result,
+		int row
+	)
+	{
+		int numberOfOptionalArguments = 0;
+		boolean hasMultipleArgument = false;
+		for(Argument.Internal<?> argument : definedArguments.values()) {
+			if(argument.optional())
+				numberOfOptionalArguments++;
+			if(argument.multiple())
+				hasMultipleArgument = true;
+		}
+		int numberOfMandatoryArguments = definedArguments.size() - numberOfOptionalArguments;
+		int numberOfMaximumArguments = definedArguments.size();
+		int mandatoryOptionalDiff = numberOfMaximumArguments - numberOfMandatoryArguments;
+
+		int index = tokens.index();
+		int numberOfCmdLineArguments = tokens.countValues();
+		if(numberOfCmdLineArguments < numberOfMandatoryArguments) {
+			String reason =
+				"Too few command line arguments"
+					+ (commandName != null ? " for command '" + commandName + "'" : "")
+					+ ". Expected min: " + numberOfMandatoryArguments
+					+ " but was: " + numberOfCmdLineArguments + "."
+					+ (
+						tokens.size() > numberOfCmdLineArguments ?
+						" Check that there are no options between arguments." :
+						""
+					);
+			diagnostics.add(illegal(index, null, reason));
+		}
+		if(!hasMultipleArgument && numberOfCmdLineArguments > numberOfMaximumArguments) {
+			String reason =
+				"Too many command line arguments"
+					+ (commandName != null ? " for command '" + commandName + "'" : "")
+					+ ". Expected max: " + numberOfMaximumArguments
+					+ " but was: " + numberOfCmdLineArguments + ".";
+			diagnostics.add(illegal(index, null, reason));
+		}
+
+		int remaining = numberOfCmdLineArguments;
+		for(Iterator<Argument.Internal<?>> it = definedArguments.values().iterator(); it.hasNext();) {
+			Argument.Internal<?> argument = it.next();
+			ColumnarResult columns = argument.multiple() ? null : result;
+			boolean useDefault = false;
+			if(argument.optional() && numberOfCmdLineArguments < definedArguments.size())
+				if(mandatoryOptionalDiff == 1) {
+					// Uses a default value for one optional argument.
+					if(it.hasNext() || remaining == 0)
+						useDefault = true;
+					else
+						break;
+				}
+				else
+					// Uses default values for the rest of the optional arguments
+					// (which must be at end of the command definition).
+					if(remaining == 0)
+						useDefault = true;
+
+			if(useDefault || (remaining == 0 && argument.optional())) {
+				Diagnostic diagnostic =
+					argument.checkDefault(argument.name(), argument.name(), columns, row);
+				if(diagnostic != null)
+					diagnostics.add(diagnostic);
+				continue;
+			}
+			int numberOfValues = argument.multiple() ? remaining : Math.min(remaining, 1);
+			for(int i = 0; i < numberOfValues; i++) {
+				Diagnostic diagnostic =
+					argument.check(
+						tokens.index(),
+						argument.name(),
+						tokens.next(),
+						argument.name(),
+						columns,
+						row
+					);
+				if(diagnostic != null)
+					diagnostics.add(diagnostic);
+			}
+			remaining -= numberOfValues;
+		}
+
+		// Values exceeding the maximum have already been reported.
+		for(; remaining > 0; remaining--)
+			tokens.next();
+	}
+
+	private static Diagnostic illegal(int index, String element, String reason)
+	{
+		return new Diagnostic(index, element, ParseError.Type.ILLEGAL_ARGUMENT, reason);
+	}
+}
@@ -0,0 +1,49 @@
+package com.hapiware.util.cmdlineparser.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * {@code @ArgumentDefinition} defines an argument with a field (see
+ * {@link CommandLineDefinition}). The type of the argument is the type of the field (primitive
+ * types are boxed). The arguments are defined in the order of the fields.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.SOURCE)
+public @interface ArgumentDefinition
+{
+	/**
+	 * The name of the argument.
+	 */
+	String name();
+	
+	/**
+	 * An id of the argument. The name is used by default.
+	 */
+	String id() default "";
+	
+	/**
+	 * The description. Each element is a paragraph.
+	 */
+	String[] description();
+	
+	/**
+	 * A default value of an optional argument. An empty string means that the argument is
+	 * mandatory.
+	 */
+	String optional() default "";
+	
+	/**
+	 * The type of the values of a multiple argument (see
+	 * {@link com.hapiware.util.cmdlineparser.Argument#multiple()}). The field of a multiple
+	 * argument must be an {@link Iterable}. {@code Void.class} (the default) means that the
+	 * argument is not a multiple argument.
+	 */
+	Class<?> multiple() default Void.class;
+}
@@ -0,0 +1,48 @@
+package com.hapiware.util.cmdlineparser.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * {@code @CommandDefinition} defines a command with a static nested class of a class annotated
+ * with {@link CommandLineDefinition}. The options and the arguments of the command are defined
+ * by annotating the fields of the nested class with {@link OptionDefinition},
+ * {@link ArgumentDefinition} and {@link ConstraintDefinition}. If the nested class implements
+ * {@link com.hapiware.util.cmdlineparser.CommandExecutor} an instance of it (created with the
+ * no-argument constructor) is used as the command executor.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.SOURCE)
+public @interface CommandDefinition
+{
+	/**
+	 * The name of the command.
+	 */
+	String name();
+	
+	/**
+	 * Alternative names of the command.
+	 */
+	String[] alternatives() default {};
+	
+	/**
+	 * An id of the command. The name is used by default.
+	 */
+	String id() default "";
+	
+	/**
+	 * A short description shown in the command list.
+	 */
+	String shortDescription();
+	
+	/**
+	 * The description. Each element is a paragraph.
+	 */
+	String[] description();
+}
@@ -0,0 +1,58 @@
+package com.hapiware.util.cmdlineparser.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * {@code @CommandLineDefinition} marks a main class whose command line is defined with
+ * annotations. The annotation processor of the {@code command-line-parser-processor} module
+ * generates a class named {@code <binary name of the main class>$$Definition} (e.g.
+ * {@code Main$$Definition}) to the same package. The generated class has a static
+ * {@code createParser()} method which creates a
+ * {@link com.hapiware.util.cmdlineparser.CommandLineParser} with plain method calls. There are
+ * no anonymous classes and no annotations are read at runtime.
+ * <p>
+ * The command line elements are defined by annotating the fields of the main class:
+ * 	<ul>
+ * 		<li>{@link OptionDefinition} for global options</li>
+ * 		<li>{@link ArgumentDefinition} for arguments (in the order of the fields)</li>
+ * 		<li>{@link ConstraintDefinition} for constraints of arguments and option arguments</li>
+ * 	</ul>
+ * Commands are defined with static nested classes annotated with {@link CommandDefinition}.
+ * Notice that the values are set to the fields only if the fields are annotated with {@link Id}
+ * as well. For example:
+ * <pre>
+ * &#64;CommandLineDefinition(description = "Sends a file.")
+ * public class Main
+ * {
+ *     &#64;OptionDefinition(name = "v", description = "Verbose output.")
+ *     &#64;Id("v")
+ *     static boolean verbose;
+ *     
+ *     &#64;ArgumentDefinition(name = "FILE", description = "A file to send.")
+ *     &#64;ConstraintDefinition(minLength = 1)
+ *     &#64;Id("FILE")
+ *     static String file;
+ *     
+ *     public static void main(String[] args)
+ *     {
+ *         Main$$Definition.createParser().parse(args);
+ *     }
+ * }
+ * </pre>
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.SOURCE)
+public @interface CommandLineDefinition
+{
+	/**
+	 * The main description. Each element is a paragraph.
+	 */
+	String[] description();
+}
@@ -0,0 +1,66 @@
+package com.hapiware.util.cmdlineparser.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * {@code @ConstraintDefinition} defines the built-in constraints for a field annotated with
+ * {@link ArgumentDefinition} or {@link OptionDefinition} (see {@link CommandLineDefinition}).
+ * Values are given as strings and they are converted to the argument type at compile time.
+ * Unset attributes do not define a constraint. {@link #values()}, {@link #includeRanges()} and
+ * {@link #excludeRanges()} together define a single
+ * {@link com.hapiware.util.cmdlineparser.constraint.Enumeration} constraint.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.SOURCE)
+public @interface ConstraintDefinition
+{
+	/**
+	 * A minimum value (see {@link com.hapiware.util.cmdlineparser.constraint.MinValue}).
+	 */
+	String minValue() default "";
+	
+	/**
+	 * A maximum value (see {@link com.hapiware.util.cmdlineparser.constraint.MaxValue}).
+	 */
+	String maxValue() default "";
+	
+	/**
+	 * A minimum length (see {@link com.hapiware.util.cmdlineparser.constraint.MinLength}).
+	 */
+	int minLength() default -1;
+	
+	/**
+	 * A maximum length (see {@link com.hapiware.util.cmdlineparser.constraint.MaxLength}).
+	 */
+	int maxLength() default -1;
+	
+	/**
+	 * An exact length (see {@link com.hapiware.util.cmdlineparser.constraint.Length}).
+	 */
+	int length() default -1;
+	
+	/**
+	 * Individual values of an enumeration (see
+	 * {@link com.hapiware.util.cmdlineparser.constraint.Enumeration#value(Object, String)}).
+	 */
+	EnumerationValue[] values() default {};
+	
+	/**
+	 * Include ranges of an enumeration (see
+	 * {@link com.hapiware.util.cmdlineparser.constraint.Enumeration#includeRange(Object, Object, String)}).
+	 */
+	EnumerationRange[] includeRanges() default {};
+	
+	/**
+	 * Exclude ranges of an enumeration (see
+	 * {@link com.hapiware.util.cmdlineparser.constraint.Enumeration#excludeRange(Object, Object, String)}).
+	 */
+	EnumerationRange[] excludeRanges() default {};
+}
@@ -0,0 +1,35 @@
+package com.hapiware.util.cmdlineparser.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * {@code @EnumerationRange} defines an include or an exclude range of an
+ * {@link com.hapiware.util.cmdlineparser.constraint.Enumeration} constraint (see
+ * {@link ConstraintDefinition#includeRanges()} and {@link ConstraintDefinition#excludeRanges()}).
+ * The limits are given as strings and they are converted to the argument type at compile time.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+@Target({})
+@Retention(RetentionPolicy.SOURCE)
+public @interface EnumerationRange
+{
+	/**
+	 * The lower limit of the range.
+	 */
+	String lower();
+	
+	/**
+	 * The upper limit of the range.
+	 */
+	String upper();
+	
+	/**
+	 * A description for the range.
+	 */
+	String description();
+}
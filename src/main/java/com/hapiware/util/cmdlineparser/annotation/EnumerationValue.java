@@ -0,0 +1,37 @@
+package com.hapiware.util.cmdlineparser.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * {@code @EnumerationValue} defines an individual value of an
+ * {@link com.hapiware.util.cmdlineparser.constraint.Enumeration} constraint (see
+ * {@link ConstraintDefinition#values()}). The value is given as a string and it is converted to
+ * the argument type at compile time.
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+@Target({})
+@Retention(RetentionPolicy.SOURCE)
+public @interface EnumerationValue
+{
+	/**
+	 * The value.
+	 */
+	String value();
+	
+	/**
+	 * A description for the value.
+	 */
+	String description();
+	
+	/**
+	 * {@code true} if case is ignored (see
+	 * {@link com.hapiware.util.cmdlineparser.constraint.Enumeration#valueIgnoreCase(Object, String)}).
+	 * Only {@link String} arguments can ignore case.
+	 */
+	boolean ignoreCase() default false;
+}
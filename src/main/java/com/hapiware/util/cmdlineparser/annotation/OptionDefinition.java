@@ -0,0 +1,56 @@
+package com.hapiware.util.cmdlineparser.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * {@code @OptionDefinition} defines an option with a field (see {@link CommandLineDefinition}).
+ * The argument of the option is derived from the type of the field:
+ * 	<ul>
+ * 		<li>{@code boolean} defines an option without an argument.</li>
+ * 		<li>
+ * 			Other types define an option having an argument of that type (primitive types are
+ * 			boxed).
+ * 		</li>
+ * 		<li>
+ * 			Arrays define options having an argument of the component type. The options can
+ * 			occur multiple times.
+ * 		</li>
+ * 	</ul>
+ * 
+ * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
+ *
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.SOURCE)
+public @interface OptionDefinition
+{
+	/**
+	 * The name of the option without the minus characters.
+	 */
+	String name();
+	
+	/**
+	 * Alternative names of the option.
+	 */
+	String[] alternatives() default {};
+	
+	/**
+	 * An id of the option. The name is used by default.
+	 */
+	String id() default "";
+	
+	/**
+	 * The description. Each element is a paragraph.
+	 */
+	String[] description();
+	
+	/**
+	 * A default value of an optional option argument. An empty string means that the
+	 * argument is mandatory.
+	 */
+	String optional() default "";
+}
@@ -1,7 +1,12 @@
 package com.hapiware.util.cmdlineparser.constraint;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import com.hapiware.util.cmdlineparser.Argument;
 import com.hapiware.util.cmdlineparser.ConfigurationException;
@@ -44,7 +49,23 @@ import com.hapiware.util.cmdlineparser.OptionArgument;
  * }});
  * </pre>
  * all the following integers are valid {@code [1, 2, 5, 7, 8, 9, 10, 17]} while the others are
- * not.
+ * not. The same {@code Enumeration} can be created without an anonymous class by chaining the
+ * calls:
+ * <pre>
+ * constraint(
+ *     new Enumeration<Integer>()
+ *         .value(5, "description for five")
+ *         .value(17, "description for seventeen")
+ *         .includeRange(1, 10, "description for 1 ... 10")
+ *         .excludeRange(3, 6, "description for 3 ... 6")
+ * );
+ * </pre>
+ * <p>
+ * When the {@code Enumeration} is added to an argument it is compiled to a lookup structure.
+ * Individual values are kept in hash sets and the ranges are merged to sorted intervals which
+ * are searched with a binary search. Thus even enumerations having thousands of values are
+ * fast to evaluate. If the {@code Enumeration} is modified afterwards it is compiled again
+ * on the next evaluation.
  * 
  * @author <a href="http://www.hapiware.com" target="_blank">hapi</a>
  *
@@ -57,6 +78,7 @@ public class Enumeration<T>
 	private List<Enum<T>> _enumerations = new LinkedList<Enum<T>>();
 	private List<Enum<T>> _includeRanges = new LinkedList<Enum<T>>();
 	private List<Enum<T>> _excludeRanges = new LinkedList<Enum<T>>();
+	private volatile Lookup _lookup;
 	
 	/**
 	 * Adds an individual value to the enumeration.
@@ -73,6 +95,7 @@ public class Enumeration<T>
 	public Enumeration<T> value(T value, String description)
 	{
 		_enumerations.add(new NormalEnum<T>(value, description));
+		_lookup = null;
 		return this;
 	}
 	
@@ -93,6 +116,7 @@ public class Enumeration<T>
 	public Enumeration<T> valueIgnoreCase(T value, String description)
 	{
 		_enumerations.add((Enum<T>)new IgnoreCaseEnum((String) value, description));
+		_lookup = null;
 		return this;
 	}
 	
@@ -116,6 +140,7 @@ public class Enumeration<T>
 	public Enumeration<T> includeRange(T lower, T upper, String description)
 	{
 		_includeRanges.add(new Range((Comparable<?>)lower, (Comparable<?>)upper, description));
+		_lookup = null;
 		return this;
 	}
 
@@ -139,6 +164,7 @@ public class Enumeration<T>
 	public Enumeration<T> excludeRange(T lower, T upper, String description)
 	{
 		_excludeRanges.add(new Range((Comparable<?>)lower, (Comparable<?>)upper, description));
+		_lookup = null;
 		return this;
 	}
 
@@ -154,6 +180,13 @@ public class Enumeration<T>
 			if(!e.typeCheck(typeClass))
 				return false;
 		
+		try {
+			_lookup = compile();
+		}
+		catch(ClassCastException ex) {
+			// Ranges having values of different types cannot be ordered.
+			return false;
+		}
 		return true;
 	}
 	
@@ -173,22 +206,42 @@ public class Enumeration<T>
 
 	private boolean evaluate(T value)
 	{
-		// Single values overrule includes and excludes.
+		Lookup lookup = _lookup;
+		if(lookup == null) {
+			lookup = compile();
+			_lookup = lookup;
+		}
+		return lookup.evaluate(value);
+	}
+	
+	private Lookup compile()
+	{
+		Set<Object> values = new HashSet<Object>();
+		Set<String> ignoreCaseValues = new HashSet<String>();
 		for(Enum<T> e : _enumerations)
-			if(e.evaluate(value))
-				return true;
-		
-		// Excludes overrule includes.
-		for(Enum<T> e : _excludeRanges)
-			if(e.evaluate(value))
-				return false;
-		
-		// Includes are overruled by excludes (and single values).
-		for(Enum<T> e : _includeRanges)
-			if(e.evaluate(value))
-				return true;
-		
-		return false;
+			if(e instanceof IgnoreCaseEnum)
+				ignoreCaseValues.add(foldCase(((IgnoreCaseEnum)e)._value));
+			else
+				values.add(((NormalEnum<T>)e)._value);
+		return
+			new Lookup(
+				values,
+				ignoreCaseValues,
+				new Intervals(_excludeRanges),
+				new Intervals(_includeRanges)
+			);
+	}
+
+	/**
+	 * Folds the case of a {@link String} so that two folded strings are equal if, and only if,
+	 * the original strings are equal according to {@link String#equalsIgnoreCase(String)}.
+	 */
+	private static String foldCase(String value)
+	{
+		char[] chars = value.toCharArray();
+		for(int i = 0; i < chars.length; i++)
+			chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+		return new String(chars);
 	}
 
 	public Description description()
@@ -226,6 +279,114 @@ public class Enumeration<T>
 	}
 	
 	
+	/**
+	 * An immutable lookup structure compiled from the values and the ranges. The resolve order
+	 * is the same as documented for {@link Enumeration}.
+	 */
+	private static final class Lookup
+	{
+		private final Set<Object> _values;
+		private final Set<String> _ignoreCaseValues;
+		private final Intervals _excludes;
+		private final Intervals _includes;
+		
+		public Lookup(
+			Set<Object> values,
+			Set<String> ignoreCaseValues,
+			Intervals excludes,
+			Intervals includes
+		)
+		{
+			_values = values;
+			_ignoreCaseValues = ignoreCaseValues;
+			_excludes = excludes;
+			_includes = includes;
+		}
+		
+		public boolean evaluate(Object value)
+		{
+			// Single values overrule includes and excludes.
+			if(_values.contains(value))
+				return true;
+			if(
+				_ignoreCaseValues.size() > 0
+					&& value instanceof String
+					&& _ignoreCaseValues.contains(foldCase((String)value))
+			)
+				return true;
+			
+			// Excludes overrule includes.
+			if(_excludes.contains(value))
+				return false;
+			
+			// Includes are overruled by excludes (and single values).
+			return _includes.contains(value);
+		}
+	}
+	
+	/**
+	 * Ranges merged to sorted, non-overlapping intervals. A value is searched with a binary
+	 * search.
+	 */
+	private static final class Intervals
+	{
+		private static final Comparator<Range<?>> LOWER_ORDER =
+			new Comparator<Range<?>>()
+			{
+				@SuppressWarnings({ "unchecked", "rawtypes" })
+				public int compare(Range<?> r1, Range<?> r2)
+				{
+					return ((Comparable)r1._lower).compareTo(r2._lower);
+				}
+			};
+		
+		private final Comparable<Object>[] _lowers;
+		private final Comparable<Object>[] _uppers;
+		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		public Intervals(List<? extends Enum<?>> ranges)
+		{
+			Range<?>[] sorted = ranges.toArray(new Range<?>[ranges.size()]);
+			Arrays.sort(sorted, LOWER_ORDER);
+			List<Comparable<Object>> lowers = new ArrayList<Comparable<Object>>();
+			List<Comparable<Object>> uppers = new ArrayList<Comparable<Object>>();
+			for(Range<?> range : sorted) {
+				Comparable<Object> lower = (Comparable<Object>)range._lower;
+				Comparable<Object> upper = (Comparable<Object>)range._upper;
+				int last = uppers.size() - 1;
+				if(last >= 0 && lower.compareTo(uppers.get(last)) <= 0) {
+					// Overlapping ranges are merged.
+					if(upper.compareTo(uppers.get(last)) > 0)
+						uppers.set(last, upper);
+				}
+				else {
+					lowers.add(lower);
+					uppers.add(upper);
+				}
+			}
+			_lowers = lowers.toArray(new Comparable[lowers.size()]);
+			_uppers = uppers.toArray(new Comparable[uppers.size()]);
+		}
+		
+		public boolean contains(Object value)
+		{
+			// Finds the last interval whose lower limit is not greater than the value.
+			int low = 0;
+			int high = _lowers.length - 1;
+			int found = -1;
+			while(low <= high) {
+				int middle = (low + high) >>> 1;
+				if(_lowers[middle].compareTo(value) <= 0) {
+					found = middle;
+					low = middle + 1;
+				}
+				else
+					high = middle - 1;
+			}
+			return found >= 0 && _uppers[found].compareTo(value) >= 0;
+		}
+	}
+	
 	private static abstract class Enum<T>
 	{
 		private final String _description;
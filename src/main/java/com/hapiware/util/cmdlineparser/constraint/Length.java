@@ -26,6 +26,17 @@ public class Length
 		_length = length;
 	}
 	
+	/**
+	 * Returns the length.
+	 * 
+	 * @return
+	 * 		The length in number of characters.
+	 */
+	public int getLength()
+	{
+		return _length;
+	}
+	
 	public boolean typeCheck(Class<?> typeClass)
 	{
 		return typeClass == String.class;
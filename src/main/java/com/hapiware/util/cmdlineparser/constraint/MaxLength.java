@@ -26,6 +26,17 @@ public class MaxLength
 		_maxLength = maxLength;
 	}
 	
+	/**
+	 * Returns the maximum length.
+	 * 
+	 * @return
+	 * 		The maximum length in number of characters.
+	 */
+	public int getMaxLength()
+	{
+		return _maxLength;
+	}
+	
 	public boolean typeCheck(Class<?> typeClass)
 	{
 		return typeClass == String.class;
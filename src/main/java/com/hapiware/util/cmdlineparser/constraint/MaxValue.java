@@ -31,6 +31,17 @@ public class MaxValue<T extends Comparable<T>>
 		_maxValue = maxValue;
 	}
 	
+	/**
+	 * Returns the maximum value.
+	 * 
+	 * @return
+	 * 		The maximum value.
+	 */
+	public T getMaxValue()
+	{
+		return _maxValue;
+	}
+	
 	public boolean typeCheck(Class<?> typeClass)
 	{
 		for(Class<?> i : typeClass.getInterfaces())
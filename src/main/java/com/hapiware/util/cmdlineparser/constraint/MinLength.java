@@ -25,6 +25,17 @@ public class MinLength
 		_minLength = minLength;
 	}
 	
+	/**
+	 * Returns the minimum length.
+	 * 
+	 * @return
+	 * 		The minimum length in number of characters.
+	 */
+	public int getMinLength()
+	{
+		return _minLength;
+	}
+	
 	public boolean typeCheck(Class<?> typeClass)
 	{
 		return typeClass == String.class;
@@ -31,6 +31,17 @@ public class MinValue<T extends Comparable<T>>
 		_minValue = minValue;
 	}
 	
+	/**
+	 * Returns the minimum value.
+	 * 
+	 * @return
+	 * 		The minimum value.
+	 */
+	public T getMinValue()
+	{
+		return _minValue;
+	}
+	
 	public boolean typeCheck(Class<?> typeClass)
 	{
 		for(Class<?> i : typeClass.getInterfaces())
@@ -0,0 +1,168 @@
+package com.hapiware.util.cmdlineparser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+import org.testng.annotations.Test;
+
+public class ArgumentFileExpanderTest
+{
+	@Test
+	public void separatorsAndQuotes() throws IOException
+	{
+		File file = createFile("a b\nc\r\n\r\nd\u0000e\r\"x\ny\"z\n\"\"\n'\\n'\"\\\"\"\nc:\\temp\n");
+		assertTokens(
+			new ArgumentFileExpander(new String[] { "first", "@" + file.getPath(), "last" }),
+			"first", "a b", "c", "d", "e", "x\nyz", "", "\\n\"", "c:\\temp", "last"
+		);
+	}
+
+
+	@Test
+	public void nestedFilesAndEscapes() throws IOException
+	{
+		File inner = createFile("-v\n@@home\n");
+		File outer = createFile("1\n@" + inner.getPath() + "\n2\n@" + inner.getPath() + "\n");
+		assertTokens(
+			new ArgumentFileExpander(new String[] { "@" + outer.getPath(), "@@x", "@" }),
+			"1", "-v", "@home", "2", "-v", "@home", "@x", "@"
+		);
+	}
+
+
+	@Test
+	public void cycleIsDetected() throws IOException
+	{
+		File first = createFile("");
+		File second = createFile("b\n@" + first.getPath() + "\n");
+		write(first, "a\n@" + second.getPath() + "\n");
+
+		ArgumentFileExpander expander = new ArgumentFileExpander(new String[] { "@" + first.getPath() });
+		assertEquals(expander.next(), "a");
+		assertEquals(expander.next(), "b");
+		try {
+			expander.next();
+		}
+		catch(ArgumentFileExpander.ExpansionException e) {
+			assertEquals(
+				e.exception().getMessage(),
+				"Argument file '" + first.getPath() + "' includes itself."
+			);
+			return;
+		}
+		assertTrue(false, "A cycle must be detected.");
+	}
+
+
+	@Test
+	public void errors() throws IOException
+	{
+		File missing = new File(createFile("").getPath() + ".missing");
+		try {
+			new ArgumentFileExpander(new String[] { "@" + missing.getPath() }).next();
+			assertTrue(false, "A missing file must be detected.");
+		}
+		catch(ArgumentFileExpander.ExpansionException e) {
+			assertTrue(
+				e.exception().getMessage().startsWith(
+					"Argument file '" + missing.getPath() + "' cannot be read."
+				)
+			);
+		}
+
+		File unterminated = createFile("a\n\"b\n");
+		ArgumentFileExpander expander =
+			new ArgumentFileExpander(new String[] { "@" + unterminated.getPath() });
+		assertEquals(expander.next(), "a");
+		try {
+			expander.next();
+			assertTrue(false, "An unterminated quote must be detected.");
+		}
+		catch(ArgumentFileExpander.ExpansionException e) {
+			assertEquals(
+				e.exception().getMessage(),
+				"Argument file '" + unterminated.getPath() + "' has an unterminated quote."
+			);
+		}
+	}
+
+
+	@Test
+	public void tooLargeFile() throws IOException
+	{
+		// A sparse file does not need the disk space.
+		File large = createFile("");
+		RandomAccessFile file = new RandomAccessFile(large, "rw");
+		try {
+			file.setLength(Integer.MAX_VALUE + 1L);
+		}
+		finally {
+			file.close();
+		}
+		try {
+			new ArgumentFileExpander(new String[] { "@" + large.getPath() }).next();
+			assertTrue(false, "A too large file must be detected.");
+		}
+		catch(ArgumentFileExpander.ExpansionException e) {
+			assertEquals(
+				e.exception().getMessage(),
+				"Argument file '" + large.getPath() + "' is too large (2147483648 bytes)."
+			);
+		}
+		finally {
+			large.delete();
+		}
+	}
+
+
+	@Test
+	public void noExpansionAfterTerminator() throws IOException
+	{
+		File file = createFile("-n5\n--\n@x\n");
+		Tokens tokens =
+			new Tokens(new ArgumentFileExpander(new String[] { "@" + file.getPath(), "@y" }), false);
+		assertEquals(tokens.next(), "-n");
+		assertEquals(tokens.countValues(), 3);
+		assertEquals(tokens.next(), "5");
+		assertEquals(tokens.peekKind(), TokenClassifier.VALUE);
+		assertEquals(tokens.next(), "@x");
+		assertEquals(tokens.next(), "@y");
+		assertFalse(tokens.hasNext());
+	}
+
+
+	private static void assertTokens(ArgumentFileExpander expander, String... expected)
+	{
+		for(String token : expected) {
+			assertTrue(expander.hasNext());
+			assertEquals(expander.next(), token);
+		}
+		assertFalse(expander.hasNext());
+	}
+
+	private static File createFile(String content) throws IOException
+	{
+		File file = File.createTempFile("args", ".txt");
+		file.deleteOnExit();
+		write(file, content);
+		return file;
+	}
+
+	private static void write(File file, String content) throws IOException
+	{
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(content.getBytes("UTF-8"));
+		}
+		finally {
+			out.close();
+		}
+	}
+}
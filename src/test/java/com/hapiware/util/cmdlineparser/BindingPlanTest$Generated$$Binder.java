@@ -0,0 +1,34 @@
+package com.hapiware.util.cmdlineparser;
+
+/**
+ * A binder for {@link BindingPlanTest.Generated} like the one generated by the annotation
+ * processor. Counts the handled values.
+ */
+public final class BindingPlanTest$Generated$$Binder
+	extends
+		com.hapiware.util.cmdlineparser.GeneratedBinder
+{
+	static int _calls;
+
+	@Override
+	public boolean bind(Object target, Object value, String id)
+	{
+		if("count".equals(id)) {
+			((com.hapiware.util.cmdlineparser.BindingPlanTest.Generated)target)._count =
+				(java.lang.Integer)value;
+			_calls++;
+			return true;
+		}
+		if("numbers".equals(id)) {
+			{
+				Object array = arrayValue(value, long.class);
+				if(array != null)
+					((com.hapiware.util.cmdlineparser.BindingPlanTest.Generated)target)._numbers =
+						(long[])array;
+			}
+			_calls++;
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,157 @@
+package com.hapiware.util.cmdlineparser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.annotation.Id;
+
+public class BindingPlanTest
+{
+	private static class Target
+	{
+		@Id("ints")
+		private int[] _ints;
+
+		@Id("longs")
+		private long[] _longs;
+
+		@Id("doubles")
+		private double[] _doubles;
+
+		@Id("flags")
+		private boolean[] _flags;
+
+		@Id("names")
+		private String[] _names;
+
+		@Id("number")
+		private int _number;
+
+		@Id("number")
+		public Integer _sameNumber;
+
+		@Id("count")
+		public int _count;
+
+		@Id("empty")
+		private String[] _empty;
+	}
+
+	static class Generated
+	{
+		@Id("count")
+		int _count;
+
+		@Id("numbers")
+		long[] _numbers;
+
+		@Id("name")
+		private String _name;
+	}
+
+	@Test
+	public void cachedPlan()
+	{
+		assertSame(BindingPlan.forClass(Target.class), BindingPlan.forClass(Target.class));
+	}
+
+	@Test
+	public void arrays()
+		throws
+			AnnotatedFieldSetException
+	{
+		Target target = new Target();
+		BindingPlan plan = BindingPlan.forClass(Target.class);
+		plan.bind(target, new Object[] { 1, 2 }, "ints");
+		plan.bind(target, new Object[] { 3L }, "longs");
+		plan.bind(target, new Object[] { 0.5, 1.5 }, "doubles");
+		plan.bind(target, new Object[] { true, false }, "flags");
+		plan.bind(target, new Object[] { "a", "b" }, "names");
+		plan.bind(target, new Object[0], "empty");
+		assertEquals(Arrays.toString(target._ints), "[1, 2]");
+		assertEquals(Arrays.toString(target._longs), "[3]");
+		assertEquals(Arrays.toString(target._doubles), "[0.5, 1.5]");
+		assertEquals(Arrays.toString(target._flags), "[true, false]");
+		assertEquals(Arrays.toString(target._names), "[a, b]");
+		assertNull(target._empty);
+	}
+
+	@Test
+	public void wideningArray()
+		throws
+			AnnotatedFieldSetException
+	{
+		Target target = new Target();
+		BindingPlan.forClass(Target.class).bind(target, new Object[] { (short)7, 'a' }, "ints");
+		assertEquals(Arrays.toString(target._ints), "[7, 97]");
+	}
+
+	@Test
+	public void sameIdForSeveralFields()
+		throws
+			AnnotatedFieldSetException
+	{
+		Target target = new Target();
+		BindingPlan plan = BindingPlan.forClass(Target.class);
+		plan.bind(target, 5, "number");
+		plan.bind(target, 6, "count");
+		plan.bind(target, 7, "unknown");
+		assertEquals(target._number, 5);
+		assertEquals(target._sameNumber, Integer.valueOf(5));
+		assertEquals(target._count, 6);
+	}
+
+	@Test(expectedExceptions = { AnnotatedFieldSetException.class })
+	public void illegalArrayValue()
+		throws
+			AnnotatedFieldSetException
+	{
+		BindingPlan.forClass(Target.class).bind(new Target(), new Object[] { "a" }, "ints");
+	}
+
+	@Test(expectedExceptions = { AnnotatedFieldSetException.class })
+	public void illegalObjectArrayValue()
+		throws
+			AnnotatedFieldSetException
+	{
+		BindingPlan.forClass(Target.class).bind(new Target(), new Object[] { 1 }, "names");
+	}
+
+	@Test(expectedExceptions = { AnnotatedFieldSetException.class })
+	public void missingObject()
+		throws
+			AnnotatedFieldSetException
+	{
+		BindingPlan.forClass(Target.class).bind(null, 1, "count");
+	}
+
+	@Test
+	public void generatedBinder()
+		throws
+			AnnotatedFieldSetException
+	{
+		Generated target = new Generated();
+		BindingPlan plan = BindingPlan.forClass(Generated.class);
+		int calls = BindingPlanTest$Generated$$Binder._calls;
+		plan.bind(target, 3, "count");
+		plan.bind(target, new Object[] { 4L, 5L }, "numbers");
+		plan.bind(target, "text", "name");
+		assertEquals(BindingPlanTest$Generated$$Binder._calls, calls + 2);
+		assertEquals(target._count, 3);
+		assertEquals(Arrays.toString(target._numbers), "[4, 5]");
+		assertEquals(target._name, "text");
+	}
+
+	@Test(expectedExceptions = { AnnotatedFieldSetException.class })
+	public void generatedBinderIllegalValue()
+		throws
+			AnnotatedFieldSetException
+	{
+		BindingPlan.forClass(Generated.class).bind(new Generated(), "text", "count");
+	}
+}
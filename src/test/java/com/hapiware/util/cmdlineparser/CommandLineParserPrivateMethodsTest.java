@@ -27,7 +27,7 @@ public class CommandLineParserPrivateMethodsTest
 	}
 	
 	private SCommandLineParser _sParser =
-		Publisher.publish(SCommandLineParser.class, CommandLineParser.class);
+		Publisher.publish(SCommandLineParser.class, HelpPrinter.class);
 	
 
 	@AfterClass
@@ -0,0 +1,58 @@
+package com.hapiware.util.cmdlineparser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import org.testng.annotations.Test;
+
+public class DelimitedInputTest
+{
+	@Test
+	public void nulSeparated() throws IOException
+	{
+		DelimitedInput input = input("./a b\n.txt\u0000\u0000./c\r\u0000./d", true);
+		assertEquals(input.next(), "./a b\n.txt");
+		assertEquals(input.next(), "./c\r");
+		assertEquals(input.next(), "./d");
+		assertNull(input.next());
+		assertNull(input.next());
+	}
+
+
+	@Test
+	public void newlineSeparated() throws IOException
+	{
+		DelimitedInput input = input("a\r\n\nb c\nd\r", false);
+		assertEquals(input.next(), "a");
+		assertEquals(input.next(), "b c");
+		assertEquals(input.next(), "d");
+		assertNull(input.next());
+	}
+
+
+	@Test
+	public void valuesLongerThanBuffer() throws IOException
+	{
+		StringBuilder value = new StringBuilder();
+		for(int i = 0; i < 20000; i++)
+			value.append((char)('a' + i % 26));
+		DelimitedInput input = input(value + "\n" + value, false);
+		assertEquals(input.next(), value.toString());
+		assertEquals(input.next(), value.toString());
+		assertNull(input.next());
+	}
+
+
+	private static DelimitedInput input(String content, boolean nulSeparated)
+	{
+		return
+			new DelimitedInput(
+				Channels.newChannel(new ByteArrayInputStream(content.getBytes())),
+				nulSeparated
+			);
+	}
+}
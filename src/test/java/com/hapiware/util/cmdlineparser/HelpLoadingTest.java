@@ -0,0 +1,106 @@
+package com.hapiware.util.cmdlineparser;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.writer.Writer;
+
+public class HelpLoadingTest
+{
+	private static final String PACKAGE = CommandLineParser.class.getPackage().getName();
+	private static final String WRITER_PACKAGE = Writer.class.getPackage().getName();
+
+
+	/**
+	 * Loads the parser classes in isolation and records every class it defines.
+	 */
+	private static final class RecordingClassLoader
+		extends
+			URLClassLoader
+	{
+		private final Set<String> _loaded =
+			Collections.synchronizedSet(new LinkedHashSet<String>());
+
+		public RecordingClassLoader()
+		{
+			super(
+				new URL[] { CommandLineParser.class.getProtectionDomain().getCodeSource().getLocation() },
+				ClassLoader.getSystemClassLoader().getParent()
+			);
+			// CommandLineParser requires the manifest entries.
+			definePackage(PACKAGE, null, null, null, "HelpLoadingTest", "1.0.0-for-testing", null, null);
+		}
+
+		@Override
+		protected Class<?> findClass(String name)
+			throws
+				ClassNotFoundException
+		{
+			Class<?> loadedClass = super.findClass(name);
+			_loaded.add(name);
+			return loadedClass;
+		}
+
+		public Set<String> loaded()
+		{
+			synchronized(_loaded) {
+				return new LinkedHashSet<String>(_loaded);
+			}
+		}
+	}
+
+
+	private static Object createParser(ClassLoader loader)
+		throws
+			Exception
+	{
+		Class<?> parserClass = loader.loadClass(CommandLineParser.class.getName());
+		Class<?> descriptionClass = loader.loadClass(Description.class.getName());
+		Class<?> optionClass = loader.loadClass(Option.class.getName());
+
+		Object description = descriptionClass.newInstance();
+		descriptionClass.getMethod("description", String.class).invoke(description, "Main description.");
+		Object parser =
+			parserClass.getConstructor(Class.class, descriptionClass).newInstance(parserClass, description);
+		Object option = optionClass.getConstructor(String.class).newInstance("v");
+		optionClass.getMethod("description", String.class).invoke(option, "Description");
+		parserClass.getMethod("add", optionClass).invoke(parser, option);
+		return parser;
+	}
+
+	@Test
+	public void plainParseDoesNotLoadHelp()
+		throws
+			Exception
+	{
+		RecordingClassLoader loader = new RecordingClassLoader();
+		Object parser = createParser(loader);
+		// Scanning the @Id fields of the parser itself would load the field types.
+		parser.getClass().getMethod("parse", Class.class, String[].class).invoke(
+			parser,
+			loader.loadClass(Description.class.getName()),
+			new String[] { "-v" }
+		);
+		Set<String> parseClasses = loader.loaded();
+		assertTrue(parseClasses.contains(CommandLineParser.class.getName()));
+		assertFalse(parseClasses.contains(HelpPrinter.class.getName()), parseClasses.toString());
+		for(String name : parseClasses)
+			// The Writer interface itself is resolved by the reflective constructor lookup above.
+			if(!name.equals(Writer.class.getName()))
+				assertFalse(name.startsWith(WRITER_PACKAGE), name + " was loaded for parsing.");
+
+		// The help machinery is loaded on demand.
+		parser.getClass().getMethod("getWriter").invoke(parser);
+		Set<String> helpClasses = loader.loaded();
+		assertTrue(helpClasses.contains(HelpPrinter.class.getName()));
+		assertTrue(helpClasses.size() > parseClasses.size());
+	}
+}
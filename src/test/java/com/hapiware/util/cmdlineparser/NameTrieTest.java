@@ -0,0 +1,49 @@
+package com.hapiware.util.cmdlineparser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+public class NameTrieTest
+{
+	private static Map<String, String> names()
+	{
+		Map<String, String> names = new HashMap<String, String>();
+		names.put("--verbose", "verbose");
+		names.put("--verb", "verbose");
+		names.put("--version", "version");
+		names.put("--number", "number");
+		names.put("-n", "number");
+		return names;
+	}
+
+	@Test
+	public void fullNames()
+	{
+		NameTrie<String> trie = new NameTrie<String>(names(), false);
+		assertEquals(trie.get("--verbose"), "verbose");
+		assertEquals(trie.get("--verb"), "verbose");
+		assertEquals(trie.get("-n"), "number");
+		assertNull(trie.get("--numb"));
+		assertNull(trie.get("--verbosely"));
+		assertNull(trie.get(""));
+		assertEquals(trie.ambiguousNames("--ver").size(), 0);
+	}
+
+	@Test
+	public void abbreviations()
+	{
+		NameTrie<String> trie = new NameTrie<String>(names(), true);
+		assertEquals(trie.get("--numb"), "number");
+		assertEquals(trie.get("--verbo"), "verbose");
+		assertEquals(trie.get("--vers"), "version");
+		assertNull(trie.get("--ver"));
+		assertNull(trie.get("--x"));
+		assertEquals(trie.ambiguousNames("--ver").toString(), "[--verb, --verbose, --version]");
+		assertEquals(trie.ambiguousNames("--numb").size(), 0);
+	}
+}
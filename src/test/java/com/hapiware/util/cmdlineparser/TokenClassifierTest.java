@@ -0,0 +1,84 @@
+package com.hapiware.util.cmdlineparser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class TokenClassifierTest
+{
+	@Test
+	public void classify()
+	{
+		assertEquals(TokenClassifier.classify("value"), TokenClassifier.VALUE);
+		assertEquals(TokenClassifier.classify(""), TokenClassifier.VALUE);
+		assertEquals(TokenClassifier.classify("-a"), TokenClassifier.SHORT_OPTION);
+		assertEquals(TokenClassifier.classify("-n100"), TokenClassifier.SHORT_OPTION_WITH_VALUE);
+		assertEquals(TokenClassifier.classify("-a-b"), TokenClassifier.SHORT_OPTION_WITH_VALUE);
+		assertEquals(TokenClassifier.classify("--verbose"), TokenClassifier.LONG_OPTION);
+		assertEquals(TokenClassifier.classify("--a5-6"), TokenClassifier.LONG_OPTION);
+		assertEquals(TokenClassifier.classify("-12"), TokenClassifier.NEGATIVE_NUMBER);
+		assertEquals(TokenClassifier.classify("--"), TokenClassifier.TERMINATOR);
+		assertEquals(TokenClassifier.classify("-"), TokenClassifier.MALFORMED_OPTION);
+		assertEquals(TokenClassifier.classify("-1.5"), TokenClassifier.MALFORMED_OPTION);
+		assertEquals(TokenClassifier.classify("--a"), TokenClassifier.MALFORMED_OPTION);
+		assertEquals(TokenClassifier.classify("--5point"), TokenClassifier.MALFORMED_OPTION);
+		assertEquals(TokenClassifier.classify("-a b"), TokenClassifier.MALFORMED_OPTION);
+	}
+
+	@Test
+	public void optionKinds()
+	{
+		assertTrue(TokenClassifier.isOption(TokenClassifier.SHORT_OPTION));
+		assertTrue(TokenClassifier.isOption(TokenClassifier.LONG_OPTION));
+		assertFalse(TokenClassifier.isOption(TokenClassifier.SHORT_OPTION_WITH_VALUE));
+		assertFalse(TokenClassifier.isOptionLike(TokenClassifier.VALUE));
+		assertFalse(TokenClassifier.isOptionLike(TokenClassifier.NEGATIVE_NUMBER));
+		assertTrue(TokenClassifier.isOptionLike(TokenClassifier.MALFORMED_OPTION));
+	}
+
+	@Test
+	public void splitShortOptionWithValue()
+	{
+		Tokens tokens = new Tokens(new String[] { "-n100", "abc" });
+		assertEquals(tokens.size(), 3);
+		assertEquals(tokens.next(), "-n");
+		assertEquals(tokens.peekKind(), TokenClassifier.VALUE);
+		assertEquals(tokens.next(), "100");
+		assertEquals(tokens.next(), "abc");
+		assertFalse(tokens.hasNext());
+	}
+
+	@Test
+	public void terminator()
+	{
+		Tokens tokens = new Tokens(new String[] { "-v", "--", "-x", "--", "-n5" });
+		assertEquals(tokens.size(), 4);
+		assertEquals(tokens.peekKind(), TokenClassifier.SHORT_OPTION);
+		assertEquals(tokens.next(), "-v");
+		assertEquals(tokens.countValues(), 3);
+		assertEquals(tokens.peekKind(), TokenClassifier.VALUE);
+		assertEquals(tokens.next(), "-x");
+		assertEquals(tokens.peekKind(), TokenClassifier.VALUE);
+		assertEquals(tokens.next(), "--");
+		assertEquals(tokens.peekKind(), TokenClassifier.VALUE);
+		assertEquals(tokens.next(), "-n5");
+		assertFalse(tokens.hasNext());
+	}
+
+	@Test
+	public void cursorDoesNotModifyArguments()
+	{
+		String[] args = { "a", "-12", "-n5", "b" };
+		Tokens tokens = new Tokens(args);
+		assertEquals(tokens.countValues(), 2);
+		tokens.next();
+		tokens.next();
+		assertEquals(tokens.countValues(), 0);
+		tokens.next();
+		assertEquals(tokens.countValues(), 2);
+		assertEquals(args[2], "-n5");
+		assertEquals(args.length, 4);
+	}
+}
@@ -1,8 +1,11 @@
 package com.hapiware.util.cmdlineparser;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.assertFalse;
 
+import java.math.BigDecimal;
+
 import org.testng.annotations.Test;
 
 public class UtilTest
@@ -52,4 +55,43 @@ public class UtilTest
 		assertFalse(Util.checkOptionNaming("--5point"));
 		assertFalse(Util.checkOptionNaming("--a"));
 	}
+
+	@Test
+	public void malformedIntegers()
+	{
+		assertFalse(Util.isMalformed("2147483647", Integer.class));
+		assertFalse(Util.isMalformed("-2147483648", Integer.class));
+		assertTrue(Util.isMalformed("2147483648", Integer.class));
+		assertTrue(Util.isMalformed("-2147483649", Integer.class));
+		assertFalse(Util.isMalformed("+9223372036854775807", Long.class));
+		assertTrue(Util.isMalformed("9223372036854775808", Long.class));
+		assertTrue(Util.isMalformed("99999999999999999999", Long.class));
+		assertTrue(Util.isMalformed("128", Byte.class));
+		assertTrue(Util.isMalformed("-", Long.class));
+		assertTrue(Util.isMalformed("1x", Integer.class));
+	}
+
+	@Test
+	public void parseLong()
+	{
+		assertEquals(Util.parseLong("0"), 0L);
+		assertEquals(Util.parseLong("+17"), 17L);
+		assertEquals(Util.parseLong("-9223372036854775808"), Long.MIN_VALUE);
+		assertEquals(Util.parseLong("9223372036854775807"), Long.MAX_VALUE);
+	}
+
+	@Test
+	public void malformedDecimals()
+	{
+		assertFalse(Util.isMalformed("1.5e-3", Double.class));
+		assertFalse(Util.isMalformed(" .5d ", Double.class));
+		assertFalse(Util.isMalformed("-Infinity", Double.class));
+		assertFalse(Util.isMalformed("0x1p3", Double.class));
+		assertTrue(Util.isMalformed("1.2.3", Double.class));
+		assertTrue(Util.isMalformed("1e", Double.class));
+		assertTrue(Util.isMalformed("NaNx", Double.class));
+		assertFalse(Util.isMalformed("-1.5E+10", BigDecimal.class));
+		assertTrue(Util.isMalformed("1.5d", BigDecimal.class));
+		assertTrue(Util.isMalformed("1-2", BigDecimal.class));
+	}
 }
@@ -0,0 +1,157 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.ColumnarResult;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+
+
+public class ColumnarResultTest
+	extends
+		TestBase
+{
+	private CommandLineParser _parser;
+
+
+	@BeforeMethod
+	public void init()
+	{
+		_parser =
+			new CommandLineParser(
+				ColumnarResultTest.class,
+				new Description().description("Main description.")
+			);
+		_parser.add(new Option("v") {{
+			alternatives("verbose");
+			description("Description");
+		}});
+		_parser.add(new Option("n") {{
+			description("Description");
+			multiple();
+			set(Integer.class, new OptionArgument<Integer>() {{
+				minValue(1);
+			}});
+		}});
+		_parser.add(new Option("r") {{
+			description("Description");
+			set(Double.class, new OptionArgument<Double>());
+		}});
+		_parser.add(String.class, new Argument<String>("queue") {{
+			description("Description");
+		}});
+		_parser.add(BigDecimal.class, new Argument<BigDecimal>("cost") {{
+			optional(BigDecimal.ONE);
+			description("Description");
+		}});
+	}
+
+
+	@Test
+	public void columns()
+	{
+		List<String[]> commandLines = new ArrayList<String[]>();
+		commandLines.add(new String[] { "-v", "-n5", "-r", "0.5", "batch", "2.5" });
+		commandLines.add(new String[] { "-n", "0", "batch" });
+		commandLines.add(new String[] { "-n3", "-n7", "new".substring(0, 3) + "-queue".substring(1) });
+		commandLines.add(new String[] { "--verbose", "-x", "batch" });
+		commandLines.add(new String[] { new String("batch") });
+		
+		ColumnarResult result = _parser.compile().parseAll(commandLines);
+		assertEquals(result.size(), 5);
+		assertEquals(result.getFailedRows().toString(), "{1, 3}");
+		assertNull(result.getError(0));
+		assertEquals(result.getError(1), "'0' is smaller than the minimum value 1 allowed for '-n'.");
+		assertEquals(result.getError(3), "'-x' is not a valid option.");
+
+		assertEquals(result.getPresence("-v").toString(), "{0}");
+		assertEquals(result.getPresence("--verbose").toString(), "{0}");
+		assertEquals(result.getPresence("-n").toString(), "{0, 2}");
+		assertEquals(result.getIntColumn("-n")[0], 5);
+		assertEquals(result.getIntColumn("-n")[2], 7);
+		assertEquals(result.getDoubleColumn("-r")[0], 0.5);
+		assertEquals(result.getPresence("queue").toString(), "{0, 2, 4}");
+		
+		String[] queues = result.getStringColumn("queue");
+		assertEquals(queues[2], "newqueue");
+		assertSame(queues[0], queues[4]);
+		assertEquals(result.getObjectColumn("cost")[0], new BigDecimal("2.5"));
+		assertEquals(result.getObjectColumn("cost")[4], BigDecimal.ONE);
+		assertNull(result.getCommandColumn());
+		assertNull(result.getPresence("unknown"));
+	}
+
+
+	@Test
+	public void longAndBooleanColumns()
+	{
+		CommandLineParser parser =
+			new CommandLineParser(
+				ColumnarResultTest.class,
+				new Description().description("Main description.")
+			);
+		parser.add(new Option("s") {{
+			description("Description");
+			set(Long.class, new OptionArgument<Long>() {{
+				maxValue(10000000000L);
+			}});
+		}});
+		parser.add(Boolean.class, new Argument<Boolean>("force") {{
+			optional(Boolean.FALSE);
+			description("Description");
+		}});
+		List<String[]> commandLines = new ArrayList<String[]>();
+		commandLines.add(new String[] { "-s", "9876543210", "TRUE" });
+		commandLines.add(new String[] { "-s", "10000000001" });
+		commandLines.add(new String[] { "-s", "-5" });
+		
+		ColumnarResult result = parser.compile().parseAll(commandLines);
+		assertEquals(result.getFailedRows().toString(), "{1}");
+		assertEquals(result.getPresence("-s").toString(), "{0, 2}");
+		assertEquals(result.getLongColumn("-s")[0], 9876543210L);
+		assertEquals(result.getLongColumn("-s")[2], -5L);
+		assertEquals(result.getPresence("force").toString(), "{0, 2}");
+		assertEquals(result.getObjectColumn("force")[0], Boolean.TRUE);
+		assertEquals(result.getObjectColumn("force")[2], Boolean.FALSE);
+	}
+
+
+	@Test(
+		expectedExceptions = { IllegalArgumentException.class },
+		expectedExceptionsMessageRegExp = "'-n' is not a String column."
+	)
+	public void wrongColumnType()
+	{
+		_parser.compile().parseAll(new ArrayList<String[]>()).getStringColumn("-n");
+	}
+
+
+	@Test
+	public void lazyConversionErrorsFailRows()
+	{
+		_parser.useLazyConversion();
+		List<String[]> commandLines = new ArrayList<String[]>();
+		commandLines.add(new String[] { "-v", "-n", "x", "batch" });
+		ColumnarResult result = _parser.compile().parseAll(commandLines);
+		assertTrue(result.getFailedRows().get(0));
+		assertEquals(
+			result.getError(0),
+			"'x' cannot be interpreted as java.lang.Integer for '-n'."
+		);
+		assertFalse(result.getPresence("-v").get(0));
+	}
+}
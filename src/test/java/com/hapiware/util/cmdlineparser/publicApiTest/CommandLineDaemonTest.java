@@ -0,0 +1,257 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.CommandLineDaemon;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+
+
+public class CommandLineDaemonTest
+	extends
+		TestBase
+{
+	private CommandLineDaemon _daemon;
+	private File _portFile;
+
+
+	@BeforeClass
+	public void startDaemon() throws Exception
+	{
+		_daemon = new CommandLineDaemon();
+		final CommandLineParser p =
+			new CommandLineParser(
+				CommandLineDaemonTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(new Option("n") {{
+			description("Description");
+			set(Integer.class, new OptionArgument<Integer>());
+		}});
+		
+		_portFile = File.createTempFile("daemon", ".port");
+		_portFile.deleteOnExit();
+		_portFile.delete();
+		Thread server =
+			new Thread() {
+				public void run()
+				{
+					try {
+						_daemon.serve(
+							_portFile,
+							new CommandLineDaemon.Program() {
+								public void run(String[] args) throws Exception
+								{
+									p.parsech(args);
+									System.out.println("n=" + p.getOptionValue("-n"));
+									BufferedReader in =
+										new BufferedReader(new InputStreamReader(System.in));
+									System.err.println("in=" + in.readLine());
+									System.out.println(
+										"home=" + CommandLineDaemon.environment().get("HOME")
+									);
+								}
+							}
+						);
+					}
+					catch(IOException e) {
+						e.printStackTrace();
+					}
+				}
+			};
+		server.setDaemon(true);
+		server.start();
+		for(int i = 0; i < 500 && _portFile.length() == 0; i++)
+			Thread.sleep(10);
+	}
+
+
+	@AfterClass
+	public void stopDaemon()
+	{
+		_daemon.stop();
+	}
+
+
+	@Test
+	public void request() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		int status =
+			CommandLineDaemon.request(
+				_portFile,
+				new String[] { "-n", "5" },
+				new ByteArrayInputStream("line\n".getBytes()),
+				out,
+				err
+			);
+		assertEquals(status, 0);
+		assertEquals(
+			out.toString(),
+			"n=5" + System.getProperty("line.separator")
+				+ "home=" + System.getenv("HOME") + System.getProperty("line.separator")
+		);
+		assertEquals(err.toString(), "in=line" + System.getProperty("line.separator"));
+	}
+
+
+	@Test
+	public void exitEndsOnlyRequest() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int status =
+			CommandLineDaemon.request(
+				_portFile,
+				new String[] { "-n", "x" },
+				new ByteArrayInputStream(new byte[0]),
+				out,
+				new ByteArrayOutputStream()
+			);
+		assertEquals(status, -1);
+		assertTrue(out.toString().contains("'x' cannot be interpreted as java.lang.Integer for '-n'."));
+
+		// The daemon still serves requests.
+		status =
+			CommandLineDaemon.request(
+				_portFile,
+				new String[0],
+				new ByteArrayInputStream(new byte[0]),
+				new ByteArrayOutputStream(),
+				new ByteArrayOutputStream()
+			);
+		assertEquals(status, 0);
+	}
+
+
+	@Test
+	public void malformedRequests() throws IOException
+	{
+		BufferedReader reader =
+			new BufferedReader(new InputStreamReader(new FileInputStream(_portFile), "UTF-8"));
+		int port;
+		String token;
+		try {
+			port = Integer.parseInt(reader.readLine());
+			token = reader.readLine();
+		}
+		finally {
+			reader.close();
+		}
+
+		// A negative token length.
+		sendAndClose(port, new int[] { -1 }, null);
+
+		// A huge token length.
+		sendAndClose(port, new int[] { Integer.MAX_VALUE }, null);
+
+		// A wrong token.
+		sendAndClose(port, new int[] { token.length() }, token.replace(token.charAt(0), 'x'));
+
+		// A negative and a huge number of arguments after a valid token.
+		sendAndClose(port, new int[] { token.length() }, token, 0, 0, -1);
+		sendAndClose(port, new int[] { token.length() }, token, 0, 0, Integer.MAX_VALUE);
+
+		// A huge string after a valid token.
+		sendAndClose(port, new int[] { token.length() }, token, Integer.MAX_VALUE);
+
+		// The daemon still serves requests.
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int status =
+			CommandLineDaemon.request(
+				_portFile,
+				new String[] { "-n", "7" },
+				new ByteArrayInputStream(new byte[0]),
+				out,
+				new ByteArrayOutputStream()
+			);
+		assertEquals(status, 0);
+		assertTrue(out.toString().startsWith("n=7"));
+	}
+
+	@Test(timeOut = 60000)
+	public void idleClientDoesNotBlockDaemon() throws IOException
+	{
+		BufferedReader reader =
+			new BufferedReader(new InputStreamReader(new FileInputStream(_portFile), "UTF-8"));
+		int port;
+		String token;
+		try {
+			port = Integer.parseInt(reader.readLine());
+			token = reader.readLine();
+		}
+		finally {
+			reader.close();
+		}
+
+		// A complete request with a line of the standard input which is never closed.
+		Socket socket = new Socket(InetAddress.getByName(null), port);
+		try {
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			out.writeInt(token.length());
+			out.write(token.getBytes("UTF-8"));
+			out.writeInt(1);
+			out.write('/');
+			out.writeInt(0);
+			out.writeInt(0);
+			out.writeInt(5);
+			out.write("line\n".getBytes("UTF-8"));
+			out.flush();
+
+			// The daemon still serves requests.
+			int status =
+				CommandLineDaemon.request(
+					_portFile,
+					new String[] { "-n", "9" },
+					new ByteArrayInputStream(new byte[0]),
+					new ByteArrayOutputStream(),
+					new ByteArrayOutputStream()
+				);
+			assertEquals(status, 0);
+		}
+		finally {
+			socket.close();
+		}
+	}
+
+	private static void sendAndClose(int port, int[] prefix, String token, int... rest)
+		throws
+			IOException
+	{
+		Socket socket = new Socket(InetAddress.getByName(null), port);
+		try {
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			for(int i : prefix)
+				out.writeInt(i);
+			if(token != null)
+				out.write(token.getBytes("UTF-8"));
+			for(int i : rest)
+				out.writeInt(i);
+			out.flush();
+
+			// The daemon closes the connection without a response.
+			assertEquals(socket.getInputStream().read(), -1);
+		}
+		finally {
+			socket.close();
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.Command;
+import com.hapiware.util.cmdlineparser.CommandExecutor;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CommandLineShell;
+import com.hapiware.util.cmdlineparser.ConfigurationException;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.IllegalCommandLineArgumentException;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.Command.Data;
+import com.hapiware.util.cmdlineparser.annotation.Id;
+
+
+public class CommandLineShellTest
+	extends
+		TestBase
+{
+	@Id("l") private static boolean _loud;
+
+	private CommandLineParser _parser;
+	private List<String> _executed;
+
+
+	private static class ShoutExecutor
+		implements
+			CommandExecutor
+	{
+		@Id("times") private int _times = 1;
+		@Id("text") private String _text;
+		private final List<String> _shouted = new ArrayList<String>();
+
+		public void execute(Data command, List<Option.Data> globalOptions)
+		{
+			StringBuilder shout = new StringBuilder();
+			for(int i = 0; i < _times; i++)
+				shout.append(_text);
+			_shouted.add(shout + (_loud ? "!" : ""));
+		}
+	}
+
+
+	@BeforeMethod
+	public void init()
+	{
+		_executed = new ArrayList<String>();
+		_parser =
+			new CommandLineParser(
+				CommandLineShellTest.class,
+				new Description().description("Main description.")
+			);
+		_parser.add(
+			new Command(
+				"echo",
+				"Short description",
+				new CommandExecutor() {
+					public void execute(Data command, List<Option.Data> globalOptions)
+					{
+						_executed.add((String)command.getArgumentValue("text"));
+					}
+				}
+			) {{
+				description("Description");
+				add(String.class, new Argument<String>("text") {{
+					description("Description");
+				}});
+			}}
+		);
+	}
+
+
+	@Test
+	public void executeSplitsLikeShell() throws IllegalCommandLineArgumentException
+	{
+		CommandLineShell shell = new CommandLineShell(_parser);
+		assertEquals(shell.execute(CommandLineShellTest.class, "echo 'a  b'"), 0);
+		assertEquals(shell.execute(CommandLineShellTest.class, "echo \"x \\\"y\\\" \\z\""), 0);
+		assertEquals(shell.execute(CommandLineShellTest.class, "echo a\\ b"), 0);
+		assertEquals(shell.execute(CommandLineShellTest.class, "echo ''"), 0);
+		assertEquals(shell.execute(CommandLineShellTest.class, "  echo c'd'\"e\"  "), 0);
+		assertEquals(_executed.toString(), "[a  b, x \"y\" \\z, a b, , cde]");
+	}
+
+
+	@Test
+	public void errorsEndOnlyCommand() throws IllegalCommandLineArgumentException
+	{
+		CommandLineShell shell = new CommandLineShell(_parser);
+		assertEquals(shell.execute(CommandLineShellTest.class, "jump"), -1);
+		assertEquals(shell.execute(CommandLineShellTest.class, "echo"), -1);
+		assertEquals(shell.execute(CommandLineShellTest.class, "--help"), 0);
+		assertEquals(shell.execute(CommandLineShellTest.class, "echo ok"), 0);
+		assertEquals(_executed.toString(), "[ok]");
+	}
+
+
+	@Test(expectedExceptions = IllegalCommandLineArgumentException.class)
+	public void unterminatedQuote() throws IllegalCommandLineArgumentException
+	{
+		new CommandLineShell(_parser).execute(CommandLineShellTest.class, "echo 'a");
+	}
+
+
+	@Test
+	public void runReadsLinesUntilExit() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int status =
+			new CommandLineShell(_parser).prompt("$ ").run(
+				CommandLineShellTest.class,
+				new BufferedReader(
+					new StringReader(
+						"echo first\n"
+							+ "\n"
+							+ "# A comment.\n"
+							+ "echo \"unterminated\n"
+							+ "echo second\n"
+							+ "exit\n"
+							+ "echo third\n"
+					)
+				),
+				new PrintStream(out, true)
+			);
+		assertEquals(status, 0);
+		assertEquals(_executed.toString(), "[first, second]");
+		assertTrue(out.toString().startsWith("$ $ $ $ A line has an unterminated quote (\")."));
+	}
+
+
+	@Test
+	public void quotedHashIsNotComment() throws IOException
+	{
+		int status =
+			new CommandLineShell(_parser).prompt("").run(
+				CommandLineShellTest.class,
+				new BufferedReader(new StringReader("echo first\n  # A comment.\n'#echo' x\n")),
+				new PrintStream(new ByteArrayOutputStream(), true)
+			);
+
+		// '#echo' is not a command.
+		assertEquals(status, -1);
+		assertEquals(_executed.toString(), "[first]");
+	}
+
+
+	@Test
+	public void runReturnsStatusOfLastCommand() throws IOException
+	{
+		int status =
+			new CommandLineShell(_parser).prompt("").run(
+				CommandLineShellTest.class,
+				new BufferedReader(new StringReader("echo first\njump\n")),
+				new PrintStream(new ByteArrayOutputStream(), true)
+			);
+		assertEquals(status, -1);
+		assertEquals(_executed.toString(), "[first]");
+	}
+
+
+	@Test(expectedExceptions = ConfigurationException.class)
+	public void parserWithoutCommands()
+	{
+		new CommandLineShell(
+			new CommandLineParser(
+				CommandLineShellTest.class,
+				new Description().description("Main description.")
+			)
+		);
+	}
+
+
+	@Test
+	public void fieldsAreResetBetweenCommands() throws IllegalCommandLineArgumentException
+	{
+		ShoutExecutor executor = new ShoutExecutor();
+		CommandLineParser p =
+			new CommandLineParser(
+				CommandLineShellTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(new Option("l").alternatives("loud").description("Loud."));
+		p.add(
+			new Command("shout", "Shouts.", executor)
+				.description("Shouts.")
+				.add(
+					new Option("times")
+						.description("Times.")
+						.set(Integer.class, new OptionArgument<Integer>())
+				)
+				.add(String.class, new Argument<String>("text").description("Text."))
+		);
+		_loud = false;
+		CommandLineShell shell = new CommandLineShell(p);
+		assertEquals(shell.execute(CommandLineShellTest.class, "-l shout --times 3 a"), 0);
+		assertEquals(shell.execute(CommandLineShellTest.class, "shout b"), 0);
+		assertEquals(shell.execute(CommandLineShellTest.class, "--loud shout c"), 0);
+		assertEquals(executor._shouted.toString(), "[aaa!, b, c!]");
+		assertEquals(executor._times, 1);
+	}
+}
@@ -0,0 +1,224 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.Command;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CommandNotFoundException;
+import com.hapiware.util.cmdlineparser.CompiledParser;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.IllegalCommandLineArgumentException;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseResult;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+
+
+public class CompiledParserTest
+	extends
+		TestBase
+{
+	private CommandLineParser _parser;
+
+
+	@BeforeMethod
+	public void init()
+	{
+		_parser =
+			new CommandLineParser(
+				CompiledParserTest.class,
+				new Description().description("Main description.")
+			);
+		_parser.add(new Option("v") {{
+			alternatives("verbose");
+			description("Description");
+		}});
+		_parser.add(new Option("n") {{
+			description("Description");
+			set(Integer.class, new OptionArgument<Integer>() {{
+				minValue(1);
+			}});
+		}});
+		_parser.add(Integer.class, new Argument<Integer>("first") {{
+			description("Description");
+		}});
+		_parser.add(String.class, new Argument<String>("second") {{
+			optional("def");
+			description("Description");
+		}});
+	}
+
+
+	@Test
+	public void compiledParserIsCached()
+	{
+		assertSame(_parser.compile(), _parser.compile());
+	}
+
+
+	@Test
+	public void addingDefinitionRecompiles()
+	{
+		CompiledParser compiled = _parser.compile();
+		_parser.add(new Option("x") {{
+			description("Description");
+		}});
+		assertFalse(compiled == _parser.compile());
+	}
+
+
+	@Test
+	public void repeatedParsesAreIndependent()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CompiledParser compiled = _parser.compile();
+		ParseResult first = compiled.parse(new String[] { "-v", "-n5", "10", "abc" });
+		ParseResult second = compiled.parse(new String[] { "20" });
+
+		assertTrue(first.optionExists("--verbose"));
+		assertEquals(first.getOptionValue("-n"), 5);
+		assertEquals(first.getArgumentValue("first"), 10);
+		assertEquals(first.getArgumentValue("second"), "abc");
+		assertEquals(first.getAllOptions().length, 2);
+		assertNull(first.getCommand());
+
+		assertFalse(second.optionExists("-v"));
+		assertEquals(second.getAllOptions().length, 0);
+		assertEquals(second.getArgumentValue("first"), 20);
+		assertEquals(second.getArgumentValue("second"), "def");
+	}
+
+
+	@Test
+	public void laterDefinitionChangesDoNotAffectCompiledParser()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		Option option = new Option("q") {{
+			description("Description");
+		}};
+		_parser.add(option);
+		CompiledParser compiled = _parser.compile();
+		option.alternatives("quiet");
+
+		try {
+			compiled.parse(new String[] { "--quiet", "1" });
+		}
+		catch(IllegalCommandLineArgumentException e) {
+			assertEquals(e.getMessage(), "'--quiet' is not a valid option.");
+			return;
+		}
+		assertTrue(false, "An alternative added after compiling must not be recognised.");
+	}
+
+
+	@Test
+	public void terminatorEndsOptions()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		ParseResult result = _parser.compile().parse(new String[] { "-v", "--", "-5", "-v" });
+		assertEquals(result.getAllOptions().length, 1);
+		assertEquals(result.getArgumentValue("first"), -5);
+		assertEquals(result.getArgumentValue("second"), "-v");
+	}
+
+
+	@Test(
+		expectedExceptions = { ConstraintException.class },
+		expectedExceptionsMessageRegExp = "'0' is smaller than the minimum value 1 allowed for '-n'."
+	)
+	public void constraintViolation()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.compile().parse(new String[] { "-n", "0", "1" });
+	}
+
+
+	@Test
+	public void commands()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				CompiledParserTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(new Command("set", "Short") {{
+			description("Description");
+			add(new Option("f") {{
+				description("Description");
+			}});
+			add(String.class, new Argument<String>("name") {{
+				description("Description");
+			}});
+		}});
+
+		CompiledParser compiled = p.compile();
+		ParseResult result = compiled.parse(new String[] { "set", "-f", "abc" });
+		assertEquals(result.getCommand().getName(), "set");
+		assertTrue(result.getCommand().optionExists("-f"));
+		assertEquals(result.getCommand().getArgumentValue("name"), "abc");
+
+		result = compiled.parse(new String[] { "set", "xyz" });
+		assertFalse(result.getCommand().optionExists("-f"));
+		assertEquals(result.getCommand().getArgumentValue("name"), "xyz");
+
+		p.allowAbbreviations();
+		result = p.compile().parse(new String[] { "se", "uvw" });
+		assertEquals(result.getCommand().getName(), "set");
+		assertEquals(result.getCommand().getArgumentValue("name"), "uvw");
+	}
+
+
+	@Test
+	public void argumentFiles()
+		throws
+			IOException,
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		File file = File.createTempFile("args", ".txt");
+		file.deleteOnExit();
+		FileWriter writer = new FileWriter(file);
+		try {
+			writer.write("-n\n5\n10\n");
+		}
+		finally {
+			writer.close();
+		}
+
+		_parser.useArgumentFiles();
+		ParseResult result = _parser.compile().parse(new String[] { "-v", "@" + file.getPath(), "a b" });
+		assertTrue(result.optionExists("-v"));
+		assertEquals(result.getOptionValue("-n"), 5);
+		assertEquals(result.getArgumentValue("first"), 10);
+		assertEquals(result.getArgumentValue("second"), "a b");
+	}
+}
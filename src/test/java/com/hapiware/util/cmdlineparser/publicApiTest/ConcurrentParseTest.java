@@ -0,0 +1,203 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.Command;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CommandNotFoundException;
+import com.hapiware.util.cmdlineparser.CompiledParser;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.IllegalCommandLineArgumentException;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseError;
+import com.hapiware.util.cmdlineparser.ParseOutcome;
+import com.hapiware.util.cmdlineparser.ParseResult;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+
+
+public class ConcurrentParseTest
+	extends
+		TestBase
+{
+	private CommandLineParser _parser;
+
+
+	@BeforeMethod
+	public void init()
+	{
+		_parser =
+			new CommandLineParser(
+				ConcurrentParseTest.class,
+				new Description().description("Main description.")
+			);
+		_parser.add(new Option("n") {{
+			description("Description");
+			set(Integer.class, new OptionArgument<Integer>() {{
+				minValue(1);
+			}});
+		}});
+		_parser.add(new Command("run", "Short description") {{
+			description("Description");
+			add(Integer.class, new Argument<Integer>("id") {{
+				description("Description");
+			}});
+		}});
+		_parser.add(new Command("stop", "Short description") {{
+			description("Description");
+		}});
+	}
+
+
+	@Test
+	public void successfulParse()
+	{
+		ParseOutcome outcome = _parser.compile().tryParse(new String[] { "-n", "2", "run", "7" });
+		assertTrue(outcome.isSuccessful());
+		assertNull(outcome.getError());
+		ParseResult result = outcome.getResult();
+		assertEquals(result.getOptionValue("-n"), 2);
+		assertEquals(result.getCommand().getName(), "run");
+		assertEquals(result.getCommand().getArgument("id").getValue(), 7);
+	}
+
+
+	@Test
+	public void errorsAreReturned()
+	{
+		CompiledParser compiled = _parser.compile();
+
+		ParseError error = compiled.tryParse(new String[] { "-n", "0", "stop" }).getError();
+		assertEquals(error.getType(), ParseError.Type.CONSTRAINT_VIOLATION);
+		assertTrue(error.getException() instanceof ConstraintException);
+
+		ParseOutcome outcome = compiled.tryParse(new String[] { "jump" });
+		assertFalse(outcome.isSuccessful());
+		assertNull(outcome.getResult());
+		assertEquals(outcome.getError().getType(), ParseError.Type.COMMAND_NOT_FOUND);
+		assertTrue(outcome.getError().getException() instanceof CommandNotFoundException);
+		assertEquals(
+			outcome.getError().getMessage(),
+			"A command was expected but 'jump' cannot be interpreted as a command."
+		);
+
+		error = compiled.tryParse(new String[] { "-x", "stop" }).getError();
+		assertEquals(error.getType(), ParseError.Type.ILLEGAL_ARGUMENT);
+		assertTrue(error.getException() instanceof IllegalCommandLineArgumentException);
+		assertEquals(error.getMessage(), "'-x' is not a valid option.");
+	}
+
+
+	@Test
+	public void standardInputIsNotRead()
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				ConcurrentParseTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(String.class, new Argument<String>("files") {{
+			description("Description");
+			standardInput(false);
+		}});
+
+		InputStream in = System.in;
+		try {
+			System.setIn(
+				new InputStream()
+				{
+					public int read() throws IOException
+					{
+						throw new IOException("The standard input must not be read.");
+					}
+				}
+			);
+			ParseOutcome outcome = p.compile().tryParse(new String[] { "a", "b" });
+			assertTrue(outcome.isSuccessful());
+			assertEquals(outcome.getResult().getArgumentValue("files"), "a");
+
+			outcome = p.compile().tryParse(new String[0]);
+			assertEquals(outcome.getError().getType(), ParseError.Type.ILLEGAL_ARGUMENT);
+			assertEquals(
+				outcome.getError().getMessage(),
+				"A mandatory command line argument is missing."
+			);
+		}
+		finally {
+			System.setIn(in);
+		}
+	}
+
+
+	@Test
+	public void parallelParsesAreIndependent()
+		throws
+			InterruptedException
+	{
+		final CompiledParser compiled = _parser.compile();
+		final List<String> failures = new ArrayList<String>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for(int i = 0; i < 8; i++) {
+			final int thread = i;
+			threads.add(
+				new Thread()
+				{
+					public void run()
+					{
+						for(int j = 1; j <= 500; j++) {
+							String id = Integer.toString(thread * 1000 + j);
+							ParseOutcome outcome;
+							if(j % 10 == 0)
+								outcome = compiled.tryParse(new String[] { "-n", "0", "run", id });
+							else
+								outcome = compiled.tryParse(new String[] { "-n", id, "run", id });
+							String failure = check(outcome, j % 10 == 0, thread * 1000 + j);
+							if(failure != null)
+								synchronized(failures) {
+									failures.add(failure);
+								}
+						}
+					}
+				}
+			);
+		}
+		for(Thread thread : threads)
+			thread.start();
+		for(Thread thread : threads)
+			thread.join();
+		assertEquals(failures.size(), 0, failures.toString());
+	}
+
+	private static String check(ParseOutcome outcome, boolean shouldFail, int id)
+	{
+		if(shouldFail)
+			return
+				outcome.isSuccessful()
+					|| outcome.getError().getType() != ParseError.Type.CONSTRAINT_VIOLATION ?
+						"Row " + id + " should have failed." :
+						null;
+
+		if(!outcome.isSuccessful())
+			return "Row " + id + ": " + outcome.getError();
+		ParseResult result = outcome.getResult();
+		if(
+			result.getAllOptions().length != 1
+				|| !result.getOptionValue("-n").equals(id)
+				|| !result.getCommand().getArgument("id").getValue().equals(id)
+		)
+			return "Row " + id + " has a wrong result.";
+		return null;
+	}
+}
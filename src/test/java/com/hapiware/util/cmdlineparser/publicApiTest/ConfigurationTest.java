@@ -9,6 +9,7 @@ import com.hapiware.util.cmdlineparser.CommandLineParser;
 import com.hapiware.util.cmdlineparser.ConfigurationException;
 import com.hapiware.util.cmdlineparser.Description;
 import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
 
 
 public class ConfigurationTest
@@ -326,4 +327,56 @@ public class ConfigurationTest
 			}});
 		}});
 	}
+
+
+	@Test(
+		expectedExceptions = {ConfigurationException.class},
+		expectedExceptionsMessageRegExp =
+			"Constraints for 'PID' are contradictory\\. "
+				+ "The minimum value 10 is greater than the maximum value 5\\."
+	)
+	public void contradictoryValueConstraints()
+	{
+		_parser.add(Integer.class, new Argument<Integer>("PID") {{
+			description("Description for PID.");
+			minValue(1);
+			maxValue(5);
+			minValue(10);
+		}});
+	}
+
+
+	@Test(
+		expectedExceptions = {ConfigurationException.class},
+		expectedExceptionsMessageRegExp =
+			"Constraints for 'NAME' are contradictory\\. "
+				+ "The length 8 is not between the minimum and the maximum length\\."
+	)
+	public void contradictoryLengthConstraints()
+	{
+		_parser.add(String.class, new Argument<String>("NAME") {{
+			description("Description for NAME.");
+			minLength(2);
+			maxLength(6);
+			length(8);
+		}});
+	}
+
+
+	@Test(
+		expectedExceptions = {ConfigurationException.class},
+		expectedExceptionsMessageRegExp =
+			"Constraints for 'n' are contradictory\\. "
+				+ "The minimum value 2\\.5 is greater than the maximum value 1\\.5\\."
+	)
+	public void contradictoryOptionArgumentConstraints()
+	{
+		_parser.add(new Option("n") {{
+			description("Description for n.");
+			set(Double.class, new OptionArgument<Double>() {{
+				minValue(2.5);
+				maxValue(1.5);
+			}});
+		}});
+	}
 }
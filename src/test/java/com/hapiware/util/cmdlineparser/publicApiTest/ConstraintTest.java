@@ -1,7 +1,9 @@
 package com.hapiware.util.cmdlineparser.publicApiTest;
 
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.fail;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -735,4 +737,144 @@ public class ConstraintTest
 		}
 	}
 	// ENUMMIX End
+	
+	
+	
+	/************************************
+	 * 
+	 * Compiled enumeration Begin
+	 * 
+	 ************************************/
+	@Test
+	public void testEnumLargeSuccess()
+		throws
+			ConstraintException
+	{
+		Enumeration<String> enumeration = new Enumeration<String>();
+		for(int i = 0; i < 5000; i++) {
+			enumeration.value("table" + i, "Table " + i + ".");
+			enumeration.valueIgnoreCase("region" + i, "Region " + i + ".");
+		}
+		enumeration.typeCheck(String.class);
+		enumeration.evaluate("TABLE", "table4999");
+		enumeration.evaluate("REGION", "REGION4999");
+		enumeration.evaluate("REGION", "Region0");
+		try {
+			enumeration.evaluate("TABLE", "TABLE1");
+			fail("'TABLE1' was accepted.");
+		}
+		catch(ConstraintException e) {
+			// Expected.
+		}
+	}
+	
+	@Test
+	public void testEnumOverlappingRanges()
+	{
+		Enumeration<Integer> enumeration =
+			new Enumeration<Integer>()
+				.includeRange(20, 30, "Include.")
+				.includeRange(-10, 0, "Include.")
+				.includeRange(-5, 12, "Include.")
+				.excludeRange(3, 4, "Exclude.")
+				.excludeRange(8, 25, "Exclude.")
+				.value(22, "Value.");
+		enumeration.typeCheck(Integer.class);
+		List<Integer> valid = new ArrayList<Integer>();
+		for(int i = -20; i <= 40; i++) {
+			try {
+				enumeration.evaluate("RANGE", i);
+				valid.add(i);
+			}
+			catch(ConstraintException e) {
+				// Not valid.
+			}
+		}
+		List<Integer> expected = new ArrayList<Integer>();
+		for(int i = -10; i <= 30; i++)
+			if((i < 3 || i > 4) && (i < 8 || i > 25) || i == 22)
+				expected.add(i);
+		if(!valid.equals(expected))
+			fail("Expected " + expected + " but was " + valid + ".");
+	}
+	
+	@Test
+	public void testEnumModifiedAfterAdding()
+		throws
+			ConstraintException
+	{
+		Enumeration<Integer> enumeration = new Enumeration<Integer>().value(1, "One.");
+		enumeration.typeCheck(Integer.class);
+		enumeration.evaluate("VALUE", 1);
+		enumeration.includeRange(5, 6, "Five and six.");
+		enumeration.evaluate("VALUE", 6);
+	}
+	
+	@Test
+	public void testEnumRangeTypeConflict()
+	{
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Enumeration<Object> enumeration =
+			new Enumeration()
+				.includeRange(1, 2, "Integers.")
+				.includeRange("a", "b", "Strings.");
+		assertFalse(enumeration.typeCheck(Integer.class));
+	}
+	// Compiled enumeration End
+	
+	
+	
+	/************************************
+	 * 
+	 * Fused constraints Begin
+	 * 
+	 ************************************/
+	@Test
+	public void testFusedStrictestBounds()
+		throws
+			AnnotatedFieldSetException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				ConstraintTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(String.class, new Argument<String>("CODE") {{
+			description("Description for CODE.");
+			minLength(2);
+			maxLength(8);
+			minLength(3);
+			maxLength(5);
+		}});
+		p.add(BigDecimal.class, new Argument<BigDecimal>("AMOUNT") {{
+			description("Description for AMOUNT.");
+			minValue(new BigDecimal("0.5"));
+			maxValue(new BigDecimal("9.5"));
+		}});
+		String[][] invalid = {
+			{ "ab", "1", "Length of 'ab' is shorter than the minimum length 3 allowed for 'CODE'." },
+			{ "abcdef", "1", "Length of 'abcdef' is longer than the maximum length 5 allowed for 'CODE'." },
+			{ "abc", "0.4", "'0.4' is smaller than the minimum value 0.5 allowed for 'AMOUNT'." },
+			{ "abc", "9.51", "'9.51' is greater than the maximum value 9.5 allowed for 'AMOUNT'." }
+		};
+		for(String[] args : invalid) {
+			try {
+				p.parse(new String[] { args[0], args[1] });
+				fail("'" + args[0] + " " + args[1] + "' was accepted.");
+			}
+			catch(ConstraintException e) {
+				if(!e.getMessage().equals(args[2]))
+					fail("Unexpected message: " + e.getMessage());
+			}
+		}
+		try {
+			p.parse(new String[] { "abcde", "9.5" });
+		}
+		catch(ConstraintException e) {
+			fail(e.getMessage());
+		}
+	}
+	// Fused constraints End
 }
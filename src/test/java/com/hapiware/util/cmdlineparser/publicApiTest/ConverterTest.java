@@ -0,0 +1,218 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.net.URI;
+
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CommandNotFoundException;
+import com.hapiware.util.cmdlineparser.ConfigurationException;
+import com.hapiware.util.cmdlineparser.Converter;
+import com.hapiware.util.cmdlineparser.Converters;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.IllegalCommandLineArgumentException;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseResult;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+
+
+public class ConverterTest
+	extends
+		TestBase
+{
+	public enum Mode
+	{
+		FAST,
+		SAFE
+	}
+
+	public static final class Point
+	{
+		private final int _x;
+		private final int _y;
+
+		public Point(int x, int y)
+		{
+			_x = x;
+			_y = y;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			return obj instanceof Point && ((Point)obj)._x == _x && ((Point)obj)._y == _y;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * _x + _y;
+		}
+	}
+
+	public static final class Unconvertible
+	{
+		// No factory methods.
+	}
+
+
+	private static CommandLineParser createParser()
+	{
+		return
+			new CommandLineParser(
+				ConverterTest.class,
+				new Description().description("Main description.")
+			);
+	}
+
+
+	@Test
+	public void reflectiveConverters()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CommandLineParser p = createParser();
+		p.add(new Option("m") {{
+			description("Description");
+			set(Mode.class, new OptionArgument<Mode>());
+		}});
+		p.add(File.class, new Argument<File>("FILE") {{
+			description("Description");
+		}});
+		p.add(URI.class, new Argument<URI>("URI") {{
+			description("Description");
+		}});
+		p.add(CharSequence.class, new Argument<CharSequence>("TEXT") {{
+			description("Description");
+		}});
+		ParseResult result =
+			p.compile().parse(
+				new String[] { "-m", "SAFE", "/tmp/a.txt", "http://www.hapiware.com", "text" }
+			);
+		assertEquals(result.getOptionValue("-m"), Mode.SAFE);
+		assertEquals(result.getArgumentValue("FILE"), new File("/tmp/a.txt"));
+		assertEquals(result.getArgumentValue("URI"), URI.create("http://www.hapiware.com"));
+		assertEquals(result.getArgumentValue("TEXT"), "text");
+	}
+
+	@Test
+	public void cachedConverter()
+	{
+		assertSame(Converters.get(File.class), Converters.get(File.class));
+	}
+
+	@Test(
+		expectedExceptions = { IllegalCommandLineArgumentException.class },
+		expectedExceptionsMessageRegExp =
+			"'SLOW' cannot be interpreted as com\\.hapiware\\.util\\.cmdlineparser\\.publicApiTest"
+				+ "\\.ConverterTest\\.Mode for '-m'\\."
+	)
+	public void conversionError()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CommandLineParser p = createParser();
+		p.add(new Option("m") {{
+			description("Description");
+			set(Mode.class, new OptionArgument<Mode>());
+		}});
+		p.compile().parse(new String[] { "-m", "SLOW" });
+	}
+
+	@Test
+	public void registeredConverter()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		Converters.register(Point.class, new Converter<Point>() {
+			public Point convert(String valueAsString)
+			{
+				int comma = valueAsString.indexOf(',');
+				return
+					new Point(
+						Integer.parseInt(valueAsString.substring(0, comma)),
+						Integer.parseInt(valueAsString.substring(comma + 1))
+					);
+			}
+		});
+		CommandLineParser p = createParser();
+		p.add(Point.class, new Argument<Point>("POINT") {{
+			description("Description");
+		}});
+		ParseResult result = p.compile().parse(new String[] { "3,4" });
+		assertEquals(result.getArgumentValue("POINT"), new Point(3, 4));
+		try {
+			p.compile().parse(new String[] { "3" });
+			fail("'3' was accepted.");
+		}
+		catch(IllegalCommandLineArgumentException e) {
+			assertEquals(e.getCause().getClass(), StringIndexOutOfBoundsException.class);
+		}
+	}
+
+	@Test
+	public void unregisteredConverter()
+		throws
+			Exception
+	{
+		Converter<Mode> registered =
+			new Converter<Mode>() {
+				public Mode convert(String valueAsString)
+				{
+					return Mode.SAFE;
+				}
+			};
+		Converters.register(Mode.class, registered);
+		try {
+			assertSame(Converters.get(Mode.class), registered);
+		}
+		finally {
+			Converters.unregister(Mode.class);
+		}
+		assertNotSame(Converters.get(Mode.class), registered);
+		assertEquals(Converters.get(Mode.class).convert("FAST"), Mode.FAST);
+	}
+
+	@Test(
+		expectedExceptions = { ConfigurationException.class },
+		expectedExceptionsMessageRegExp =
+			"'com\\.hapiware\\.util\\.cmdlineparser\\.publicApiTest\\.ConverterTest\\$Unconvertible' "
+				+ "for 'VALUE' cannot be converted from a command line value\\. "
+				+ "Use Converters\\.register\\(\\) to register a converter\\."
+	)
+	public void noConverter()
+	{
+		createParser().add(Unconvertible.class, new Argument<Unconvertible>("VALUE") {{
+			description("Description");
+		}});
+	}
+
+	@Test(
+		expectedExceptions = { ConfigurationException.class },
+		expectedExceptionsMessageRegExp =
+			"A built-in converter for 'java\\.lang\\.Integer' cannot be replaced\\."
+	)
+	public void builtInConverterCannotBeReplaced()
+	{
+		Converters.register(Integer.class, new Converter<Integer>() {
+			public Integer convert(String valueAsString)
+			{
+				return 0;
+			}
+		});
+	}
+}
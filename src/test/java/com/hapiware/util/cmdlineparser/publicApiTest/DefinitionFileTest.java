@@ -0,0 +1,346 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.Command;
+import com.hapiware.util.cmdlineparser.CommandExecutor;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CommandNotFoundException;
+import com.hapiware.util.cmdlineparser.ConfigurationException;
+import com.hapiware.util.cmdlineparser.DefinitionFile;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.IllegalCommandLineArgumentException;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseResult;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+import com.hapiware.util.cmdlineparser.constraint.Enumeration;
+import com.hapiware.util.cmdlineparser.writer.XmlWriter;
+
+
+public class DefinitionFileTest
+	extends
+		TestBase
+{
+	private static final String DEFINITION =
+		"# A comment.\n"
+			+ "description = Main description.\n"
+			+ "example = -v set 42\n"
+			+ "option.v.alternatives = verbose\n"
+			+ "option.v.description = Verbose.\n"
+			+ "\n"
+			+ "option.t.description = Type.\n"
+			+ "option.t.description = Second \\\n"
+			+ "    paragraph.\n"
+			+ "option.t.valueIgnoreCase.a = Type a.\n"
+			+ "option.t.value.b = Type b.\n"
+			+ "option.t.multiple = true\n"
+			+ "command.set.shortDescription = Sets a level.\n"
+			+ "command.set.alternatives = s\n"
+			+ "command.set.description = Sets a level.\n"
+			+ "command.set.option.n.description = Number.\n"
+			+ "command.set.option.n.type = Integer\n"
+			+ "command.set.option.n.minValue = 1\n"
+			+ "command.set.option.n.optional = 5\n"
+			+ "command.set.argument.PID.type = java.lang.Integer\n"
+			+ "command.set.argument.PID.description = Process id.\n"
+			+ "command.set.argument.PID.includeRange.1..100 = From 1 to 100.\n"
+			+ "command.set.argument.LEVEL.description = Level.\n"
+			+ "command.set.argument.LEVEL.optional = INFO\n";
+
+	private static CommandLineParser createCode(ByteArrayOutputStream os)
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				DefinitionFileTest.class,
+				new XmlWriter(os),
+				new Description().description("Main description.")
+			);
+		p.addExampleArguments("-v set 42");
+		p.add(new Option("v").alternatives("verbose").description("Verbose."));
+		p.add(
+			new Option("t")
+				.description("Type.")
+				.p()
+				.description("Second paragraph.")
+				.set(
+					String.class,
+					new OptionArgument<String>().constraint(
+						new Enumeration<String>()
+							.valueIgnoreCase("a", "Type a.")
+							.value("b", "Type b.")
+					)
+				)
+				.multiple()
+		);
+		p.add(
+			new Command("set", "Sets a level.")
+				.alternatives("s")
+				.description("Sets a level.")
+				.add(
+					new Option("n")
+						.description("Number.")
+						.set(Integer.class, new OptionArgument<Integer>().minValue(1).optional(5))
+				)
+				.add(
+					Integer.class,
+					new Argument<Integer>("PID")
+						.description("Process id.")
+						.constraint(new Enumeration<Integer>().includeRange(1, 100, "From 1 to 100."))
+				)
+				.add(String.class, new Argument<String>("LEVEL").description("Level.").optional("INFO"))
+		);
+		return p;
+	}
+
+	private static void write(File file, String definition)
+		throws
+			IOException
+	{
+		FileOutputStream os = new FileOutputStream(file);
+		try {
+			os.write(definition.getBytes("UTF-8"));
+		}
+		finally {
+			os.close();
+		}
+	}
+
+	private static CommandLineParser createFromFile(String definition, ByteArrayOutputStream os)
+		throws
+			IOException
+	{
+		return
+			DefinitionFile.read(new StringReader(definition), DefinitionFileTest.class.getClassLoader())
+				.createParser(DefinitionFileTest.class, new XmlWriter(os));
+	}
+
+
+	public static class Executor
+		implements
+			CommandExecutor
+	{
+		static Command.Data _command;
+
+		public void execute(Command.Data command, List<Option.Data> globalOptions)
+		{
+			_command = command;
+		}
+	}
+
+
+	@Test
+	public void sameHelp()
+		throws
+			IOException
+	{
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		createCode(code).printCompleteHelp();
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		createFromFile(DEFINITION, file).printCompleteHelp();
+		assertTrue(code.size() > 0);
+		assertEquals(file.toString(), code.toString());
+	}
+
+	@Test
+	public void sameResult()
+		throws
+			IOException,
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		String[] args = new String[] { "--verbose", "-t", "A", "-t", "b", "s", "-n", "3", "42" };
+		ParseResult code = createCode(new ByteArrayOutputStream()).compile().parse(args);
+		ParseResult file =
+			createFromFile(DEFINITION, new ByteArrayOutputStream()).compile().parse(args);
+		assertEquals(Arrays.toString(file.getAllOptions()), Arrays.toString(code.getAllOptions()));
+		assertEquals(
+			Arrays.toString(file.getCommand().getAllOptions()),
+			Arrays.toString(code.getCommand().getAllOptions())
+		);
+		assertEquals(
+			Arrays.toString(file.getCommand().getAllArguments()),
+			Arrays.toString(code.getCommand().getAllArguments())
+		);
+		assertEquals(file.getCommand().getOptionValue("-n"), Integer.valueOf(3));
+		assertEquals(file.getCommand().getArgumentValue("PID"), Integer.valueOf(42));
+		assertEquals(file.getCommand().getArgumentValue("LEVEL"), "INFO");
+	}
+
+	@Test(expectedExceptions = { ConstraintException.class })
+	public void enumeration()
+		throws
+			IOException,
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		createFromFile(DEFINITION, new ByteArrayOutputStream()).compile().parse(
+			new String[] { "set", "101" }
+		);
+	}
+
+	@Test
+	public void executor()
+		throws
+			Exception
+	{
+		String definition =
+			"description = Main description.\n"
+				+ "command.run.shortDescription = Runs.\n"
+				+ "command.run.description = Runs.\n"
+				+ "command.run.executor = " + Executor.class.getName() + "\n";
+		Executor._command = null;
+		CommandLineParser p = createFromFile(definition, new ByteArrayOutputStream());
+		p.parse(new String[] { "run" });
+		assertEquals(Executor._command.getName(), "run");
+	}
+
+	@Test
+	public void loadIsCached()
+		throws
+			IOException
+	{
+		File file = File.createTempFile("definition", ".properties");
+		file.deleteOnExit();
+		write(file, DEFINITION);
+		URL url = file.toURI().toURL();
+		ClassLoader classLoader = DefinitionFileTest.class.getClassLoader();
+		DefinitionFile definitionFile = DefinitionFile.load(url, classLoader);
+		assertSame(DefinitionFile.load(url, classLoader), definitionFile);
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		createCode(code).printCompleteHelp();
+		ByteArrayOutputStream loaded = new ByteArrayOutputStream();
+		definitionFile.createParser(DefinitionFileTest.class, new XmlWriter(loaded))
+			.printCompleteHelp();
+		assertEquals(loaded.toString(), code.toString());
+	}
+
+	@Test
+	public void cacheIsPerClassLoader()
+		throws
+			IOException
+	{
+		File file = File.createTempFile("definition", ".properties");
+		file.deleteOnExit();
+		write(file, DEFINITION);
+		URL url = file.toURI().toURL();
+		ClassLoader classLoader =
+			new URLClassLoader(new URL[0], DefinitionFileTest.class.getClassLoader());
+		DefinitionFile definitionFile = DefinitionFile.load(url, classLoader);
+		assertSame(DefinitionFile.load(url, classLoader), definitionFile);
+		assertNotSame(
+			DefinitionFile.load(url, DefinitionFileTest.class.getClassLoader()),
+			definitionFile
+		);
+	}
+
+	@Test
+	public void changedFileIsReadAgain()
+		throws
+			IOException
+	{
+		File file = File.createTempFile("definition", ".properties");
+		file.deleteOnExit();
+		write(file, DEFINITION);
+		file.setLastModified(file.lastModified() - 10000);
+		URL url = file.toURI().toURL();
+		ClassLoader classLoader = DefinitionFileTest.class.getClassLoader();
+		DefinitionFile definitionFile = DefinitionFile.load(url, classLoader);
+
+		write(file, DEFINITION + "option.q.description = Quiet.\n");
+		file.setLastModified(file.lastModified() + 10000);
+		DefinitionFile changed = DefinitionFile.load(url, classLoader);
+		assertNotSame(changed, definitionFile);
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		changed.createParser(DefinitionFileTest.class, new XmlWriter(os)).printCompleteHelp();
+		assertTrue(os.toString().contains("Quiet."));
+		assertSame(DefinitionFile.load(url, classLoader), changed);
+	}
+
+	@Test(
+		expectedExceptions = { ConfigurationException.class },
+		expectedExceptionsMessageRegExp = "Line 3: Unknown property 'colour' for option 'v'\\."
+	)
+	public void unknownProperty()
+		throws
+			IOException
+	{
+		createFromFile(
+			"description = Main description.\n\noption.v.colour = red\n",
+			new ByteArrayOutputStream()
+		);
+	}
+
+	@Test(
+		expectedExceptions = { ConfigurationException.class },
+		expectedExceptionsMessageRegExp = "Line 2: Type 'Colour' was not found\\."
+	)
+	public void unknownType()
+		throws
+			IOException
+	{
+		createFromFile(
+			"description = Main description.\nargument.A.type = Colour\nargument.A.description = A.\n",
+			new ByteArrayOutputStream()
+		);
+	}
+
+	@Test(
+		expectedExceptions = { ConfigurationException.class },
+		expectedExceptionsMessageRegExp = "Line 2: 'x' cannot be converted to java\\.lang\\.Integer\\."
+	)
+	public void unconvertibleValue()
+		throws
+			IOException
+	{
+		createFromFile(
+			"argument.A.type = Integer\nargument.A.value.x = X.\nargument.A.description = A.\n",
+			new ByteArrayOutputStream()
+		);
+	}
+
+	@Test(
+		expectedExceptions = { ConfigurationException.class },
+		expectedExceptionsMessageRegExp = "Line 3: Argument 'B' for command 'c' must have a description\\."
+	)
+	public void commandArgumentError()
+		throws
+			IOException
+	{
+		createFromFile(
+			"command.c.shortDescription = C.\n"
+				+ "command.c.description = C.\n"
+				+ "command.c.argument.B.optional = b\n",
+			new ByteArrayOutputStream()
+		);
+	}
+
+	@Test(
+		expectedExceptions = { ConfigurationException.class },
+		expectedExceptionsMessageRegExp = "Line 1: '=' is missing\\."
+	)
+	public void missingSeparator()
+		throws
+			IOException
+	{
+		createFromFile("description\n", new ByteArrayOutputStream());
+	}
+}
@@ -0,0 +1,160 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.Command;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CommandNotFoundException;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.IllegalCommandLineArgumentException;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseResult;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+import com.hapiware.util.cmdlineparser.constraint.Enumeration;
+import com.hapiware.util.cmdlineparser.writer.XmlWriter;
+
+
+public class FluentDefinitionTest
+	extends
+		TestBase
+{
+	private static CommandLineParser createAnonymous(ByteArrayOutputStream os)
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				FluentDefinitionTest.class,
+				new XmlWriter(os),
+				new Description().description("Main description.")
+			);
+		p.add(new Option("v") {{
+			alternatives("verbose");
+			description("Verbose.");
+		}});
+		p.add(new Option("t") {{
+			description("Type.");
+			p();
+			description("Second paragraph.");
+			set(String.class, new OptionArgument<String>() {{
+				constraint(new Enumeration<String>() {{
+					valueIgnoreCase("a", "Type a.");
+					value("b", "Type b.");
+				}});
+			}});
+			multiple();
+		}});
+		p.add(new Command("set", "Sets a level.") {{
+			alternatives("s");
+			description("Sets a level.");
+			add(new Option("n") {{
+				description("Number.");
+				set(Integer.class, new OptionArgument<Integer>() {{
+					minValue(1);
+					optional(5);
+				}});
+			}});
+			add(Integer.class, new Argument<Integer>("PID") {{
+				description("Process id.");
+				constraint(new Enumeration<Integer>() {{
+					includeRange(1, 100, "From 1 to 100.");
+				}});
+			}});
+			add(String.class, new Argument<String>("LEVEL") {{
+				description("Level.");
+				optional("INFO");
+			}});
+		}});
+		return p;
+	}
+
+	private static CommandLineParser createFluent(ByteArrayOutputStream os)
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				FluentDefinitionTest.class,
+				new XmlWriter(os),
+				new Description().description("Main description.")
+			);
+		p.add(new Option("v").alternatives("verbose").description("Verbose."));
+		p.add(
+			new Option("t")
+				.description("Type.")
+				.p()
+				.description("Second paragraph.")
+				.set(
+					String.class,
+					new OptionArgument<String>().constraint(
+						new Enumeration<String>()
+							.valueIgnoreCase("a", "Type a.")
+							.value("b", "Type b.")
+					)
+				)
+				.multiple()
+		);
+		p.add(
+			new Command("set", "Sets a level.")
+				.alternatives("s")
+				.description("Sets a level.")
+				.add(
+					new Option("n")
+						.description("Number.")
+						.set(Integer.class, new OptionArgument<Integer>().minValue(1).optional(5))
+				)
+				.add(
+					Integer.class,
+					new Argument<Integer>("PID")
+						.description("Process id.")
+						.constraint(new Enumeration<Integer>().includeRange(1, 100, "From 1 to 100."))
+				)
+				.add(String.class, new Argument<String>("LEVEL").description("Level.").optional("INFO"))
+		);
+		return p;
+	}
+
+
+	@Test
+	public void sameHelp()
+	{
+		ByteArrayOutputStream anonymous = new ByteArrayOutputStream();
+		createAnonymous(anonymous).printCompleteHelp();
+		ByteArrayOutputStream fluent = new ByteArrayOutputStream();
+		createFluent(fluent).printCompleteHelp();
+		assertTrue(anonymous.size() > 0);
+		assertEquals(fluent.toString(), anonymous.toString());
+	}
+
+	@Test
+	public void sameResult()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		String[] args = new String[] { "--verbose", "-t", "A", "-t", "b", "s", "-n", "3", "42" };
+		ParseResult anonymous = createAnonymous(new ByteArrayOutputStream()).compile().parse(args);
+		ParseResult fluent = createFluent(new ByteArrayOutputStream()).compile().parse(args);
+		assertEquals(
+			Arrays.toString(fluent.getAllOptions()),
+			Arrays.toString(anonymous.getAllOptions())
+		);
+		assertEquals(
+			Arrays.toString(fluent.getCommand().getAllOptions()),
+			Arrays.toString(anonymous.getCommand().getAllOptions())
+		);
+		assertEquals(
+			Arrays.toString(fluent.getCommand().getAllArguments()),
+			Arrays.toString(anonymous.getCommand().getAllArguments())
+		);
+		assertEquals(fluent.getCommand().getOptionValue("-n"), Integer.valueOf(3));
+		assertEquals(fluent.getCommand().getArgumentValue("PID"), Integer.valueOf(42));
+		assertEquals(fluent.getCommand().getArgumentValue("LEVEL"), "INFO");
+		assertEquals(fluent.getOptions("-t").length, 2);
+	}
+}
@@ -214,6 +214,65 @@ public class GlobalOptionTest
 		p.parse(this, new String[] { "--numbe", "1" });
 	}
 	
+	@Test
+	public void abbreviatedOptionName()
+		throws
+			ConstraintException,
+			AnnotatedFieldSetException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				GlobalOptionTest.class,
+				new Description().description("Main description.")
+			);
+		p.allowAbbreviations();
+		p.add(new Option("number") {{
+			alternatives("num");
+			description("Description");
+			set(Integer.class, new OptionArgument<Integer>());
+		}});
+		p.add(new Option("verbose") {{
+			description("Description");
+		}});
+		p.parse(this, new String[] { "--numbe", "12", "--ve" });
+		assertEquals(p.getOptionValue("--number"), 12);
+		assertEquals(p.optionExists("--verbose"), true);
+		
+		// Both --num and --number resolve to the same option.
+		p.parse(this, new String[] { "--nu", "13" });
+		assertEquals(p.getOptionValue("--num"), 13);
+		assertEquals(p.optionExists("--verbose"), false);
+	}
+	
+	@Test(
+		expectedExceptions = { IllegalCommandLineArgumentException.class },
+		expectedExceptionsMessageRegExp =
+			"'--ver' is ambiguous\\. It can be any of \\[--verbose, --version\\]\\."
+	)
+	public void ambiguousOptionName()
+		throws
+			ConstraintException,
+			AnnotatedFieldSetException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				GlobalOptionTest.class,
+				new Description().description("Main description.")
+			);
+		p.allowAbbreviations();
+		p.add(new Option("verbose") {{
+			description("Description");
+		}});
+		p.add(new Option("version") {{
+			description("Description");
+		}});
+		p.parse(this, new String[] { "--ver" });
+	}
+	
 	@Test(
 		expectedExceptions = { IllegalArgumentException.class },
 		expectedExceptionsMessageRegExp =
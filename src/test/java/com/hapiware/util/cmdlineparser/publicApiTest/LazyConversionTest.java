@@ -0,0 +1,121 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.AnnotatedFieldSetException;
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CommandNotFoundException;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.IllegalCommandLineArgumentException;
+import com.hapiware.util.cmdlineparser.LazyConversionException;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseResult;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+
+
+public class LazyConversionTest
+	extends
+		TestBase
+{
+	private CommandLineParser _parser;
+
+
+	@BeforeMethod
+	public void init()
+	{
+		_parser =
+			new CommandLineParser(
+				LazyConversionTest.class,
+				new Description().description("Main description.")
+			);
+		_parser.useLazyConversion();
+		_parser.add(new Option("n") {{
+			description("Description");
+			set(Integer.class, new OptionArgument<Integer>() {{
+				minValue(1);
+			}});
+		}});
+		_parser.add(new Option("d") {{
+			description("Description");
+			set(Double.class, new OptionArgument<Double>());
+		}});
+		_parser.add(Integer.class, new Argument<Integer>("first") {{
+			optional(7);
+			description("Description");
+		}});
+	}
+
+
+	@Test
+	public void unreadValuesAreNotConverted()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		ParseResult result = _parser.compile().parse(new String[] { "-n", "0", "-d", "x", "5" });
+		assertTrue(result.optionExists("-n"));
+		assertTrue(result.optionExists("-d"));
+		assertEquals(result.getArgumentValue("first"), 5);
+	}
+
+
+	@Test
+	public void convertedValueIsCached()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		ParseResult result = _parser.compile().parse(new String[] { "-n1000" });
+		Object value = result.getOptionValue("-n");
+		assertEquals(value, 1000);
+		assertSame(result.getOptionValue("-n"), value);
+		assertEquals(result.getArgumentValue("first"), 7);
+	}
+
+
+	@Test
+	public void constraintViolationOnAccess()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		ParseResult result = _parser.compile().parse(new String[] { "-n", "0" });
+		try {
+			result.getOptionValue("-n");
+		}
+		catch(LazyConversionException e) {
+			assertEquals(
+				e.getMessage(),
+				"'0' is smaller than the minimum value 1 allowed for '-n'."
+			);
+			assertTrue(e.getCause() instanceof ConstraintException);
+			return;
+		}
+		assertTrue(false, "A constraint violation must be reported on access.");
+	}
+
+
+	@Test(
+		expectedExceptions = { ConstraintException.class },
+		expectedExceptionsMessageRegExp = "'0' is smaller than the minimum value 1 allowed for '-n'."
+	)
+	public void parseReportsErrorsOfAnnotatedFields()
+		throws
+			ConstraintException,
+			AnnotatedFieldSetException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.parse(new String[] { "-n", "0" });
+	}
+}
@@ -0,0 +1,234 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CommandNotFoundException;
+import com.hapiware.util.cmdlineparser.ConfigurationException;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.IllegalCommandLineArgumentException;
+import com.hapiware.util.cmdlineparser.LazyConversionException;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseResult;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+
+
+public class MultipleArgumentTest
+	extends
+		TestBase
+{
+	private CommandLineParser _parser;
+
+
+	@BeforeMethod
+	public void init()
+	{
+		_parser =
+			new CommandLineParser(
+				MultipleArgumentTest.class,
+				new Description().description("Main description.")
+			);
+		_parser.add(new Option("v") {{
+			description("Description");
+		}});
+		_parser.add(String.class, new Argument<String>("mode") {{
+			description("Description");
+		}});
+		_parser.add(Integer.class, new Argument<Integer>("numbers") {{
+			description("Description");
+			multiple();
+			maxValue(100);
+		}});
+	}
+
+
+	@Test
+	public void allRemainingValues()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		ParseResult result =
+			_parser.compile().parse(new String[] { "sum", "1", "2", "-3", "4", "-v" });
+		assertTrue(result.optionExists("-v"));
+		assertEquals(result.getArgumentValue("mode"), "sum");
+		assertTrue(result.getArgument("numbers").isMultiple());
+		assertEquals(result.getArgumentValue("numbers"), 1);
+		
+		List<Integer> values = new ArrayList<Integer>();
+		for(Integer value : result.<Integer>getArgumentValues("numbers"))
+			values.add(value);
+		assertEquals(values.toString(), "[1, 2, -3, 4]");
+	}
+
+
+	@Test
+	public void valuesAreConvertedWhileIterated()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		ParseResult result =
+			_parser.compile().parse(new String[] { "sum", "1", "x", "1000" });
+		Iterator<Integer> it = result.<Integer>getArgumentValues("numbers").iterator();
+		assertEquals(it.next(), Integer.valueOf(1));
+		try {
+			it.next();
+			assertTrue(false, "'x' must not be converted.");
+		}
+		catch(LazyConversionException e) {
+			assertEquals(
+				e.getMessage(),
+				"'x' cannot be interpreted as java.lang.Integer for 'numbers'."
+			);
+		}
+		try {
+			it.next();
+			assertTrue(false, "1000 must violate the constraint.");
+		}
+		catch(LazyConversionException e) {
+			assertTrue(e.getCause() instanceof ConstraintException);
+		}
+		assertFalse(it.hasNext());
+	}
+
+
+	@Test(
+		expectedExceptions = { IllegalCommandLineArgumentException.class },
+		expectedExceptionsMessageRegExp = "Too few command line arguments. Expected min: 2 but was: 1."
+	)
+	public void multipleArgumentNeedsValue()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.compile().parse(new String[] { "sum" });
+	}
+
+
+	@Test
+	public void optionalMultipleArgument()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				MultipleArgumentTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(String.class, new Argument<String>("files") {{
+			description("Description");
+			optional("-");
+			multiple();
+		}});
+		Iterator<String> it = p.compile().parse(new String[0]).<String>getArgumentValues("files").iterator();
+		assertEquals(it.next(), "-");
+		assertFalse(it.hasNext());
+	}
+
+
+	@Test(
+		expectedExceptions = { ConfigurationException.class },
+		expectedExceptionsMessageRegExp = 
+			"A multiple argument must be the last argument. Argument 'last' cannot be added after 'numbers'."
+	)
+	public void multipleArgumentMustBeLast()
+	{
+		_parser.add(String.class, new Argument<String>("last") {{
+			description("Description");
+		}});
+	}
+
+
+	@Test(
+		expectedExceptions = { ConfigurationException.class },
+		expectedExceptionsMessageRegExp = "'multiple' cannot be set for OptionArgument"
+	)
+	public void optionArgumentCannotBeMultiple()
+	{
+		new OptionArgument<String>().multiple();
+	}
+
+
+	@Test
+	public void standardInput()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				MultipleArgumentTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(new Option("v") {{
+			description("Description");
+		}});
+		p.add(String.class, new Argument<String>("files") {{
+			description("Description");
+			standardInput(true);
+		}});
+		
+		InputStream in = System.in;
+		try {
+			System.setIn(new ByteArrayInputStream("./a b\u0000./c\n\u0000".getBytes()));
+			ParseResult result = p.compile().parse(new String[] { "-v" });
+			assertTrue(result.optionExists("-v"));
+			assertEquals(result.getArgumentValue("files"), "./a b");
+			
+			Iterable<String> files = result.<String>getArgumentValues("files");
+			List<String> values = new ArrayList<String>();
+			for(String value : files)
+				values.add(value);
+			assertEquals(values.toString(), "[./a b, ./c\n]");
+			try {
+				files.iterator();
+				assertTrue(false, "The standard input can be iterated only once.");
+			}
+			catch(IllegalStateException e) {
+				assertEquals(e.getMessage(), "Values for 'files' have already been read.");
+			}
+			
+			// The command line has precedence.
+			result = p.compile().parse(new String[] { "x", "y" });
+			values.clear();
+			for(String value : result.<String>getArgumentValues("files"))
+				values.add(value);
+			assertEquals(values.toString(), "[x, y]");
+
+			System.setIn(new ByteArrayInputStream(new byte[0]));
+			try {
+				p.compile().parse(new String[] { "-v" });
+				assertTrue(false, "A missing mandatory argument must be detected.");
+			}
+			catch(IllegalCommandLineArgumentException e) {
+				assertEquals(
+					e.getMessage(),
+					"Argument 'files' was not found from the command line nor from the standard input."
+				);
+			}
+		}
+		finally {
+			System.setIn(in);
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CommandNotFoundException;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.IllegalCommandLineArgumentException;
+import com.hapiware.util.cmdlineparser.LazyConversionException;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseResult;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+
+
+public class PrimitiveArgumentTest
+	extends
+		TestBase
+{
+	private CommandLineParser _parser;
+
+
+	@BeforeMethod
+	public void init()
+	{
+		_parser =
+			new CommandLineParser(
+				PrimitiveArgumentTest.class,
+				new Description().description("Main description.")
+			);
+		_parser.add(new Option("l") {{
+			description("Description");
+			set(Long.class, new OptionArgument<Long>() {{
+				minValue(-5L);
+			}});
+		}});
+		_parser.add(new Option("d") {{
+			description("Description");
+			set(Double.class, new OptionArgument<Double>() {{
+				maxValue(1.5);
+			}});
+		}});
+		_parser.add(Integer.class, new Argument<Integer>("count") {{
+			description("Description");
+			minValue(1);
+			maxValue(100);
+		}});
+		_parser.add(Boolean.class, new Argument<Boolean>("flag") {{
+			optional(true);
+			description("Description");
+		}});
+	}
+
+
+	@Test
+	public void primitiveValues()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		ParseResult result =
+			_parser.compile().parse(new String[] { "-l", "-5", "-d", "1.25", "42", "FALSE" });
+		assertEquals(result.getArgument("count").getInt(), 42);
+		assertEquals(result.getArgument("count").getLong(), 42L);
+		assertEquals(result.getArgument("count").getDouble(), 42.0);
+		assertEquals(result.getArgumentValue("count"), 42);
+		assertFalse(result.getArgument("flag").getBoolean());
+		assertEquals(result.getArgumentValue("flag"), Boolean.FALSE);
+		assertEquals(result.getOption("-l").getArgument().getLong(), -5L);
+		assertEquals(result.getOptionValue("-l"), -5L);
+		assertEquals(result.getOption("-d").getArgument().getDouble(), 1.25);
+		assertEquals(result.getOptionValue("-d"), 1.25);
+	}
+
+
+	@Test
+	public void typedDefault()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		ParseResult result = _parser.compile().parse(new String[] { "+7" });
+		assertEquals(result.getArgument("count").getInt(), 7);
+		assertTrue(result.getArgument("flag").getBoolean());
+		assertEquals(result.getArgumentValue("flag"), Boolean.TRUE);
+	}
+
+
+	@Test(
+		expectedExceptions = { ClassCastException.class },
+		expectedExceptionsMessageRegExp = "'count' is not a boolean value."
+	)
+	public void wrongPrimitiveType()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.compile().parse(new String[] { "42" }).getArgument("count").getBoolean();
+	}
+
+
+	@Test(
+		expectedExceptions = { ConstraintException.class },
+		expectedExceptionsMessageRegExp =
+			"'101' is greater than the maximum value 100 allowed for 'count'."
+	)
+	public void intMaxValue()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.compile().parse(new String[] { "101" });
+	}
+
+
+	@Test(
+		expectedExceptions = { ConstraintException.class },
+		expectedExceptionsMessageRegExp = "'-6' is smaller than the minimum value -5 allowed for '-l'."
+	)
+	public void longMinValue()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.compile().parse(new String[] { "-l", "-6", "1" });
+	}
+
+
+	@Test(
+		expectedExceptions = { ConstraintException.class },
+		expectedExceptionsMessageRegExp = "'1.75' is greater than the maximum value 1.5 allowed for '-d'."
+	)
+	public void doubleMaxValue()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.compile().parse(new String[] { "-d", "1.75", "1" });
+	}
+
+
+	@Test(
+		expectedExceptions = { IllegalCommandLineArgumentException.class },
+		expectedExceptionsMessageRegExp =
+			"'2147483648' cannot be interpreted as java.lang.Integer for 'count'."
+	)
+	public void intOverflow()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.compile().parse(new String[] { "2147483648" });
+	}
+
+
+	@Test
+	public void longLimits()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				PrimitiveArgumentTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(Long.class, new Argument<Long>("first") {{
+			description("Description");
+		}});
+		p.add(Long.class, new Argument<Long>("second") {{
+			description("Description");
+		}});
+		ParseResult result =
+			p.compile().parse(new String[] { "--", "-9223372036854775808", "9223372036854775807" });
+		assertEquals(result.getArgument("first").getLong(), Long.MIN_VALUE);
+		assertEquals(result.getArgument("second").getLong(), Long.MAX_VALUE);
+		try {
+			p.compile().parse(new String[] { "1", "9223372036854775808" });
+			fail("Overflow was not detected.");
+		}
+		catch(IllegalCommandLineArgumentException e) {
+			assertEquals(
+				e.getMessage(),
+				"'9223372036854775808' cannot be interpreted as java.lang.Long for 'second'."
+			);
+		}
+	}
+
+
+	@Test(
+		expectedExceptions = { IllegalCommandLineArgumentException.class },
+		expectedExceptionsMessageRegExp =
+			"'yes' cannot be interpreted as java.lang.Boolean for 'flag'."
+	)
+	public void malformedBoolean()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.compile().parse(new String[] { "1", "yes" });
+	}
+
+
+	@Test
+	public void lazyPrimitiveConversion()
+		throws
+			ConstraintException,
+			CommandNotFoundException,
+			IllegalCommandLineArgumentException
+	{
+		_parser.useLazyConversion();
+		ParseResult result = _parser.compile().parse(new String[] { "55", "true" });
+		assertEquals(result.getArgument("count").getInt(), 55);
+		assertTrue(result.getArgument("flag").getBoolean());
+
+		result = _parser.compile().parse(new String[] { "0" });
+		try {
+			result.getArgument("count").getInt();
+			fail("Constraint violation was not detected.");
+		}
+		catch(LazyConversionException e) {
+			assertEquals(
+				e.getCause().getMessage(),
+				"'0' is smaller than the minimum value 1 allowed for 'count'."
+			);
+		}
+	}
+}
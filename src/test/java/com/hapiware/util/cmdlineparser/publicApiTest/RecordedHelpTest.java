@@ -0,0 +1,156 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.Command;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.constraint.Constraint;
+import com.hapiware.util.cmdlineparser.constraint.ConstraintException;
+import com.hapiware.util.cmdlineparser.writer.XmlWriter;
+
+
+public class RecordedHelpTest
+	extends
+		TestBase
+{
+	private static class CountingConstraint
+		implements
+			Constraint<String>
+	{
+		private int _descriptions;
+
+		public boolean typeCheck(Class<?> typeClass)
+		{
+			return typeClass == String.class;
+		}
+
+		public void evaluate(String argumentName, String value) throws ConstraintException
+		{
+			// Accepts everything.
+		}
+
+		public Description description()
+		{
+			_descriptions++;
+			return new Description().description("Any <b>value</b>.");
+		}
+	}
+
+
+	private static CommandLineParser createParser(
+		ByteArrayOutputStream os,
+		CountingConstraint constraint
+	)
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				RecordedHelpTest.class,
+				new XmlWriter(os),
+				new Description().description("Main <b>description</b>.")
+			);
+		p.add(new Option("v").alternatives("verbose").description("Verbose."));
+		p.add(
+			new Command("set", "Sets a value.")
+				.alternatives("s")
+				.description("Sets a value.")
+				.add(String.class, new Argument<String>("VALUE").description("Value.").constraint(constraint))
+		);
+		return p;
+	}
+
+
+	@Test
+	public void replayedHelp()
+	{
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		CountingConstraint constraint = new CountingConstraint();
+		CommandLineParser p = createParser(os, constraint);
+		p.printCompleteHelp();
+		String first = os.toString();
+		int descriptions = constraint._descriptions;
+		assertTrue(descriptions > 0);
+
+		os.reset();
+		p.printCompleteHelp();
+		assertEquals(os.toString(), first);
+		assertEquals(constraint._descriptions, descriptions);
+	}
+
+	@Test
+	public void changedDefinitions()
+	{
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		CountingConstraint constraint = new CountingConstraint();
+		CommandLineParser p = createParser(os, constraint);
+		p.printCompleteHelp();
+		assertFalse(os.toString().contains("Quiet."));
+
+		p.add(new Option("q").description("Quiet."));
+		p.addExampleArguments("-q set x");
+		os.reset();
+		p.printCompleteHelp();
+		assertTrue(os.toString().contains("Quiet."));
+		assertTrue(os.toString().contains("-q set x"));
+
+		// The same output as from a parser which had the option from the beginning.
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		CommandLineParser q = createParser(expected, new CountingConstraint());
+		q.add(new Option("q").description("Quiet."));
+		q.addExampleArguments("-q set x");
+		q.printCompleteHelp();
+		assertEquals(os.toString(), expected.toString());
+	}
+
+	@Test
+	public void commandAlternative()
+	{
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		CountingConstraint constraint = new CountingConstraint();
+		CommandLineParser p = createParser(os, constraint);
+		p.printCommandHelp("set");
+		String byName = os.toString();
+		int descriptions = constraint._descriptions;
+
+		os.reset();
+		p.printCommandHelp("s");
+		assertEquals(os.toString(), byName);
+		assertEquals(constraint._descriptions, descriptions);
+	}
+
+	@Test
+	public void helpTopics()
+	{
+		ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+		CommandLineParser p = createParser(recorded, new CountingConstraint());
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		for(int i = 0; i < 2; i++) {
+			recorded.reset();
+			p.printShortHelp();
+			p.printUsageHelp();
+			p.printCommandsHelp();
+			p.printGlobalOptionsHelp();
+			p.printExamplesHelp();
+			p.printCommandHelp("unknown");
+
+			// A new parser renders everything.
+			expected.reset();
+			CommandLineParser q = createParser(expected, new CountingConstraint());
+			q.printShortHelp();
+			q.printUsageHelp();
+			q.printCommandsHelp();
+			q.printGlobalOptionsHelp();
+			q.printExamplesHelp();
+			q.printCommandHelp("unknown");
+			assertEquals(recorded.toString(), expected.toString());
+		}
+	}
+}
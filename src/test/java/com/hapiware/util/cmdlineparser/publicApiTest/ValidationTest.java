@@ -0,0 +1,217 @@
+package com.hapiware.util.cmdlineparser.publicApiTest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.hapiware.util.cmdlineparser.Argument;
+import com.hapiware.util.cmdlineparser.Command;
+import com.hapiware.util.cmdlineparser.CommandLineParser;
+import com.hapiware.util.cmdlineparser.CompiledParser;
+import com.hapiware.util.cmdlineparser.Description;
+import com.hapiware.util.cmdlineparser.Diagnostic;
+import com.hapiware.util.cmdlineparser.Option;
+import com.hapiware.util.cmdlineparser.OptionArgument;
+import com.hapiware.util.cmdlineparser.ParseError;
+import com.hapiware.util.cmdlineparser.ParseOutcome;
+
+
+public class ValidationTest
+	extends
+		TestBase
+{
+	private CompiledParser _arguments;
+	private CompiledParser _commands;
+
+
+	@BeforeMethod
+	public void init()
+	{
+		CommandLineParser p =
+			new CommandLineParser(
+				ValidationTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(new Option("v") {{
+			description("Description");
+		}});
+		p.add(new Option("n") {{
+			alternatives("number");
+			description("Description");
+			set(Integer.class, new OptionArgument<Integer>() {{
+				minValue(1);
+			}});
+		}});
+		p.add(Integer.class, new Argument<Integer>("first") {{
+			description("Description");
+			maxValue(10);
+		}});
+		p.add(String.class, new Argument<String>("second") {{
+			optional("def");
+			description("Description");
+		}});
+		_arguments = p.compile();
+
+		p =
+			new CommandLineParser(
+				ValidationTest.class,
+				new Description().description("Main description.")
+			);
+		p.add(new Option("v") {{
+			description("Description");
+		}});
+		p.add(new Command("run", "Short description") {{
+			description("Description");
+			add(new Option("t") {{
+				description("Description");
+				set(Double.class, new OptionArgument<Double>());
+			}});
+			add(Long.class, new Argument<Long>("id") {{
+				description("Description");
+			}});
+		}});
+		_commands = p.compile();
+	}
+
+
+	@Test
+	public void validCommandLines()
+	{
+		assertEquals(_arguments.validate(new String[] { "-v", "-n2", "5" }).size(), 0);
+		assertEquals(_arguments.validate(new String[] { "5", "x", "--number", "3" }).size(), 0);
+		assertEquals(_commands.validate(new String[] { "-v", "run", "-t", "1.5", "7" }).size(), 0);
+	}
+
+
+	@Test
+	public void everyProblemIsReported()
+	{
+		List<Diagnostic> diagnostics =
+			_arguments.validate(new String[] { "-x", "-n", "abc", "-n0", "-v", "-v", "11" });
+		assertEquals(diagnostics.size(), 6, diagnostics.toString());
+
+		assertEquals(diagnostics.get(0).getIndex(), 0);
+		assertNull(diagnostics.get(0).getElement());
+		assertEquals(diagnostics.get(0).getType(), ParseError.Type.ILLEGAL_ARGUMENT);
+		assertEquals(diagnostics.get(0).getReason(), "'-x' is not a valid option.");
+
+		assertEquals(diagnostics.get(1).getIndex(), 2);
+		assertEquals(diagnostics.get(1).getElement(), "-n");
+		assertEquals(
+			diagnostics.get(1).getReason(),
+			"'abc' cannot be interpreted as java.lang.Integer for '-n'."
+		);
+
+		assertEquals(diagnostics.get(2).getIndex(), 3);
+		assertEquals(diagnostics.get(2).getReason(), "Option '-n' can occur only once.");
+		assertEquals(diagnostics.get(3).getIndex(), 3);
+		assertEquals(diagnostics.get(3).getType(), ParseError.Type.CONSTRAINT_VIOLATION);
+
+		assertEquals(diagnostics.get(4).getIndex(), 5);
+		assertEquals(diagnostics.get(4).getReason(), "Option '-v' can occur only once.");
+		assertEquals(diagnostics.get(5).getIndex(), 6);
+		assertEquals(diagnostics.get(5).getElement(), "first");
+		assertEquals(diagnostics.get(5).getType(), ParseError.Type.CONSTRAINT_VIOLATION);
+
+		diagnostics = _arguments.validate(new String[] { "11", "x", "y", "-q" });
+		assertEquals(diagnostics.size(), 3, diagnostics.toString());
+		assertEquals(
+			diagnostics.get(0).getReason(),
+			"Too many command line arguments. Expected max: 2 but was: 3."
+		);
+		assertEquals(diagnostics.get(1).getIndex(), 0);
+		assertEquals(diagnostics.get(1).getElement(), "first");
+		assertEquals(diagnostics.get(1).getType(), ParseError.Type.CONSTRAINT_VIOLATION);
+		assertEquals(diagnostics.get(2).getIndex(), 3);
+	}
+
+
+	@Test
+	public void commandProblems()
+	{
+		List<Diagnostic> diagnostics = _commands.validate(new String[] { "-v", "jump", "-q" });
+		assertEquals(diagnostics.size(), 1);
+		assertEquals(diagnostics.get(0).getIndex(), 1);
+		assertEquals(diagnostics.get(0).getType(), ParseError.Type.COMMAND_NOT_FOUND);
+
+		diagnostics = _commands.validate(new String[] { "-v" });
+		assertEquals(diagnostics.size(), 1);
+		assertEquals(diagnostics.get(0).getIndex(), -1);
+		assertEquals(diagnostics.get(0).getReason(), "No command found from the command line.");
+
+		diagnostics = _commands.validate(new String[] { "run", "-t", "fast", "x" });
+		assertEquals(diagnostics.size(), 2, diagnostics.toString());
+		assertEquals(diagnostics.get(0).getElement(), "-t");
+		assertEquals(diagnostics.get(1).getIndex(), 3);
+		assertEquals(diagnostics.get(1).getElement(), "id");
+	}
+
+
+	@Test
+	public void validationAgreesWithParsing()
+	{
+		String[][] arguments = {
+			{ "1" }, { "1", "a" }, { "1", "a", "b" }, {}, { "-v" }, { "-n", "1", "2" },
+			{ "-n" }, { "-n", "-1", "2" }, { "1", "-v", "a" }, { "-v", "-v", "1" }, { "x" },
+			{ "--", "-1" }, { "--number=3", "1" }, { "-n1.5", "1" }, { "11" }, { "1", "-z" }
+		};
+		for(String[] args : arguments)
+			assertAgreement(_arguments, args);
+
+		String[][] commands = {
+			{ "run", "1" }, { "run" }, { "-v", "run", "1" }, { "run", "1", "-v" }, { "go" },
+			{ "run", "-t", "x", "1" }, { "run", "1", "2" }, { "run", "-t", "1e3", "1" }, {},
+			{ "run", "1.5" }, { "run", "99999999999999999999" }, { "run", "-t", "NaN", "1" }
+		};
+		for(String[] args : commands)
+			assertAgreement(_commands, args);
+	}
+
+	private static void assertAgreement(CompiledParser parser, String[] args)
+	{
+		ParseOutcome outcome = parser.tryParse(args);
+		List<Diagnostic> diagnostics = parser.validate(args);
+		String line = Arrays.toString(args);
+		assertEquals(diagnostics.size() == 0, outcome.isSuccessful(), line + " " + diagnostics);
+		if(!outcome.isSuccessful())
+			assertEquals(
+				diagnostics.get(0).getType(),
+				outcome.getError().getType(),
+				line + " " + diagnostics
+			);
+	}
+
+
+	@Test
+	public void parallelValidation() throws InterruptedException
+	{
+		List<String[]> commandLines = new ArrayList<String[]>();
+		for(int i = 0; i < 2000; i++)
+			commandLines.add(
+				i % 3 == 0 ?
+					new String[] { "-n", Integer.toString(i + 1), Integer.toString(i % 10), "x" } :
+					new String[] { "-n", "0", Integer.toString(i % 20) }
+			);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<List<Diagnostic>> results = _arguments.validateAll(commandLines, executor);
+			assertEquals(results.size(), 2000);
+			for(int i = 0; i < 2000; i++) {
+				int expected = i % 3 == 0 ? 0 : (i % 20 > 10 ? 2 : 1);
+				assertEquals(results.get(i).size(), expected, i + ": " + results.get(i));
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}